@@ -26,6 +26,8 @@ object Dependencies {
   val FunIoScalaApi: ModuleID = "global.namespace.fun-io" %% "fun-io-scala-api" % Versions.FunIo
   val Httpclient: ModuleID = "org.apache.httpcomponents" % "httpclient" % "4.5.13" exclude("commons-logging", "commons-logging")
   val JclOverSlf4j: ModuleID = "org.slf4j" % "jcl-over-slf4j" % Versions.Slf4j
+  val JmhCore: ModuleID = "org.openjdk.jmh" % "jmh-core" % Versions.Jmh
+  val JmhGeneratorAnnprocess: ModuleID = "org.openjdk.jmh" % "jmh-generator-annprocess" % Versions.Jmh
   val Junit: ModuleID = "junit" % "junit" % "4.13.1"
   val JunitInterface: ModuleID = "com.novocode" % "junit-interface" % "0.11"
   val Lombok: ModuleID = "org.projectlombok" % "lombok" % "1.18.16"
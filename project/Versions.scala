@@ -1,6 +1,7 @@
 object Versions {
 
   val FunIo: String = "2.4.1"
+  val Jmh: String = "1.27"
   val TrueCommons: String = "2.5.0"
   val ServiceWight: String = "0.6.0"
   val Scala_2_13: String = sys.env.getOrElse("SCALA_VERSION_2_13", "2.13.4")
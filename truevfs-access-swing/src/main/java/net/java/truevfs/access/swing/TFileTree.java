@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.Objects;
+import java.util.ResourceBundle;
 
 /**
  * A custom {@link JTree} to browse files and directories.
@@ -40,6 +41,10 @@ public final class TFileTree extends JTree {
 
     private static final long serialVersionUID = 1064787562479927601L;
 
+    private static final String CLASS_NAME = TFileTree.class.getName();
+    private static final ResourceBundle
+            resources = ResourceBundle.getBundle(CLASS_NAME);
+
     /** The name of the property {@code displayingExtensions}. */
     private static final String PROPERTY_DISPLAYING_EXTENSIONS = "displayingExtensions"; // NOI18N
 
@@ -282,6 +287,8 @@ public final class TFileTree extends JTree {
             final int row,
             final boolean hasFocus) {
         final TFile node = (TFile) value;
+        if (getModel().isPlaceholder(node))
+            return resources.getString("loading");
         final TFile editedNode = getEditedNode();
         if (node != editedNode && !node.exists()) {
             // You will see this occur for files which have been deleted
@@ -367,7 +374,18 @@ public final class TFileTree extends JTree {
         if (expansions == null)
             return;
         while (expansions.hasMoreElements())
-            setExpandedState(expansions.nextElement(), true);
+            expand(expansions.nextElement());
+    }
+
+    /**
+     * Lists the nodes on the given path before expanding it, so that the
+     * expanded state does not get lost when listing them in the background.
+     */
+    private void expand(final TreePath path) {
+        final TFileTreeModel ftm = getModel();
+        for (final Object node : path.getPath())
+            ftm.loaded((TFile) node);
+        setExpandedState(path, true);
     }
 
     /**
@@ -512,9 +530,7 @@ public final class TFileTree extends JTree {
         ftm.mv(oldNode, node);
         if (null != expansions)
             while (expansions.hasMoreElements())
-                setExpandedState(
-                        substPath(expansions.nextElement(), oldPath, path),
-                        true);
+                expand(substPath(expansions.nextElement(), oldPath, path));
         setSelectionPath(path);
         scrollPathToVisible(path);
     }
@@ -606,11 +622,12 @@ public final class TFileTree extends JTree {
 
         @Override
         public void treeCollapsed(TreeExpansionEvent evt) {
-            getModel().forget((TFile) evt.getPath().getLastPathComponent());
+            getModel().collapsed((TFile) evt.getPath().getLastPathComponent());
         }
 
         @Override
         public void treeExpanded(TreeExpansionEvent evt) {
+            getModel().expanded((TFile) evt.getPath().getLastPathComponent());
         }
 
         @Override
@@ -110,7 +110,8 @@ final class TFileTreeCellRenderer extends DefaultTreeCellRenderer {
             boolean hasFocus) {
         super.getTreeCellRendererComponent( tree, value, selected, expanded,
                                             leaf, row, hasFocus);
-        setIcon(getFileSystemView().getSystemIcon((TFile) value));
+        if (!fileTree.getModel().isPlaceholder(value))
+            setIcon(getFileSystemView().getSystemIcon((TFile) value));
         return this;
     }
 }
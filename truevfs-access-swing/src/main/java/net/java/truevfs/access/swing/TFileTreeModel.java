@@ -10,9 +10,11 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.Executor;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.annotation.WillClose;
+import javax.swing.SwingUtilities;
 import javax.swing.event.EventListenerList;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
@@ -23,16 +25,76 @@ import javax.swing.tree.TreePath;
  * A {@link TreeModel} which traverses {@link TFile} instances.
  * The {@link TArchiveDetector} of the root of this tree model is used to
  * detect any archive files in the directory tree.
+ * <p>
+ * If an {@link Executor} is provided, then directories get listed
+ * asynchronously, so that the Event Dispatch Thread does not get blocked when
+ * listing a large directory or mounting an archive file.
+ * While a directory is loading, it contains a single placeholder node.
+ * When the directory has been listed and sorted, its children get published
+ * in chunks, each followed by the status whether they are directories or not.
+ * However, when a directory gets mutated by this model, e.g. by
+ * {@link #mkdir(TFile, boolean)}, then it gets listed again synchronously, so
+ * that the mutation gets published against its displayed children.
+ * In this case, only the contents of the most recently used directories get
+ * cached, except for the root and any expanded directories, which a
+ * {@link TFileTree} reports to this model.
+ * <p>
+ * Otherwise, the contents of all directories get cached until they get
+ * collapsed or refreshed.
  *
  * @author Christian Schlichtherle
  */
 public final class TFileTreeModel implements TreeModel {
 
+    /**
+     * The maximum number of directories with cached contents if an executor
+     * is provided.
+     */
+    private static final int MAX_DIRECTORIES = 1000;
+
+    /** The maximum number of children to publish per tree model event. */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * The only child of a directory which is getting loaded.
+     * Since it has no parent, it never equals any child of a directory.
+     */
+    private static final TFile PLACEHOLDER
+            = new TFile("...", TArchiveDetector.NULL); // NOI18N
+
     /**
      * Used to cache the contents of directories.
-     * Maps {@link TFile} -&gt; {@link TFile}[] instances.
+     * Maps {@link TFile} -&gt; {@link Directory} instances.
      */
-    private final Map<TFile, TFile[]> cache = new HashMap<>();
+    private final Map<TFile, Directory> cache
+            = new LinkedHashMap<TFile, Directory>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 0;
+
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<TFile, Directory> eldest) {
+            if (null == executor)
+                return false;
+            // Evict the least recently used directories which are not
+            // displayed with their children.
+            for (final Iterator<Directory> i = values().iterator();
+                    MAX_DIRECTORIES < size() && i.hasNext(); ) {
+                final Directory directory = i.next();
+                if (!directory.expanded) {
+                    directory.cancelled = true;
+                    i.remove();
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * The expanded directories.
+     * Their contents never get evicted from the {@link #cache}.
+     */
+    private final Set<TFile> expanded = new HashSet<>();
 
     private final @CheckForNull TFile root;
 
@@ -41,6 +103,8 @@ public final class TFileTreeModel implements TreeModel {
     /** A comparator for {@code TFile} or super classes. */
     private final Comparator<? super TFile> comparator;
 
+    private final @CheckForNull Executor executor;
+
     private final EventListenerList listeners = new EventListenerList();
 
     /**
@@ -67,15 +131,50 @@ public final class TFileTreeModel implements TreeModel {
      *         {@code Comparator} for {@code TFile} or super
      *         class instances.
      */
+    public TFileTreeModel(
+            @CheckForNull TFile root,
+            @CheckForNull FileFilter filter,
+            Comparator<? super TFile> comparator) {
+        this(root, filter, comparator, null);
+    }
+
+    /**
+     * Creates a new {@code TFileTreeModel} which browses the specified
+     * {@code root} file and lists its directories using the given
+     * {@code executor}.
+     *
+     * @param root The root of this {@code TFileTreeModel}.
+     *        If this is {@code null}, an empty tree is created.
+     * @param filter Used to filter the files and directories which are
+     *        present in this {@code TreeModel}.
+     *        If this is {@code null}, all files are accepted.
+     * @param comparator A comparator for {@code TFile} instances
+     *        or super classes.
+     *        This must not be {@code null}.
+     * @param executor The executor for listing directories in the background.
+     *        If this is {@code null}, directories get listed synchronously
+     *        when the contents of a directory is first requested.
+     * @throws NullPointerException If {@code comparator} is {@code null}.
+     * @throws IllegalArgumentException If {@code root} isn't
+     *         {@code null} and comparing it to itself didn't result in
+     *         {@code 0}.
+     * @throws ClassCastException If {@code root} isn't
+     *         {@code null} and {@code comparator} isn't a
+     *         {@code Comparator} for {@code TFile} or super
+     *         class instances.
+     * @since  TrueVFS 0.15
+     */
     public TFileTreeModel(
             final @CheckForNull TFile root,
             final @CheckForNull FileFilter filter,
-            final Comparator<? super TFile> comparator) {
+            final Comparator<? super TFile> comparator,
+            final @CheckForNull Executor executor) {
         if (null != root && 0 != comparator.compare(root, root))
             throw new IllegalArgumentException();
         this.root = root;
         this.filter = filter;
         this.comparator = Objects.requireNonNull(comparator);
+        this.executor = executor;
     }
 
     @Override
@@ -85,18 +184,37 @@ public final class TFileTreeModel implements TreeModel {
 
     @Override
     public TFile getChild(Object parent, int index) {
-        return getChildren((TFile) parent)[index];
+        return getDirectory((TFile) parent).get(index);
     }
 
     @Override
     public int getChildCount(Object parent) {
-        final TFile[] children = getChildren((TFile) parent);
-        return null == children ? 0 : children.length;
+        return getDirectory((TFile) parent).size();
     }
 
     @Override
-    public boolean isLeaf(Object node) {
-        return !((TFile) node).isDirectory();
+    public boolean isLeaf(final Object node) {
+        final TFile file = (TFile) node;
+        if (PLACEHOLDER == file)
+            return true;
+        final TFile parent = file.getParentFile();
+        if (null != parent) {
+            final Directory directory = cache.get(parent);
+            if (null != directory) {
+                final Set<TFile> directories = directory.directories;
+                if (null != directories)
+                    return !directories.contains(file);
+            }
+        }
+        return !file.isDirectory();
+    }
+
+    /**
+     * Returns whether or not the given node is the placeholder for the
+     * children of a directory which is getting loaded.
+     */
+    boolean isPlaceholder(Object node) {
+        return PLACEHOLDER == node;
     }
 
     @Override
@@ -107,35 +225,172 @@ public final class TFileTreeModel implements TreeModel {
     public int getIndexOfChild(Object parent, Object child) {
         if (parent == null || child == null)
             return -1;
-        final TFile[] children = getChildren((TFile) parent);
-        if (null == children)
-            return -1;
-        for (int i = 0, l = children.length; i < l; i++)
-            if (children[i].equals(child))
+        final Directory directory = getDirectory((TFile) parent);
+        for (int i = 0, l = directory.size(); i < l; i++)
+            if (directory.get(i).equals(child))
                 return i;
         return -1;
     }
 
-    private @Nullable TFile[] getChildren(final TFile parent) {
+    private Directory getDirectory(final TFile parent) {
         assert parent != null;
-        TFile[] children = cache.get(parent);
-        if (null == children) {
-            if (cache.containsKey(parent))
-                return null; // parent is file or inaccessible directory
-            children = parent.listFiles(filter);
-            // Order is important here: FILE_NAME_COMPARATOR causes a
-            // recursion if the children contain an RAES encrypted ZIP file
-            // for which a password needs to be prompted.
-            // This is caused by the painting manager which repaints the tree
-            // model in the background while the prompting dialog is showing
-            // in the foreground.
-            // In this case, we will simply return the unsorted result in the
-            // recursion, which is then used for repainting.
-            cache.put(parent, children);
-            if (null != children)
-                Arrays.sort(children, comparator);
+        Directory directory = cache.get(parent);
+        if (null == directory) {
+            if (null != executor) {
+                directory = newDirectory(parent);
+                directory.loading = true;
+                cache.put(parent, directory);
+                load(parent, directory);
+            } else {
+                directory = list(parent);
+            }
+        }
+        return directory;
+    }
+
+    private Directory newDirectory(final TFile parent) {
+        final Directory directory = new Directory();
+        directory.expanded = parent.equals(root) || expanded.contains(parent);
+        return directory;
+    }
+
+    /**
+     * Lists and sorts the children of the given {@code parent} directory
+     * synchronously and caches them.
+     */
+    private Directory list(final TFile parent) {
+        final Directory directory = newDirectory(parent);
+        final TFile[] children = parent.listFiles(filter);
+        // Order is important here: FILE_NAME_COMPARATOR causes a
+        // recursion if the children contain an RAES encrypted ZIP file
+        // for which a password needs to be prompted.
+        // This is caused by the painting manager which repaints the tree
+        // model in the background while the prompting dialog is showing
+        // in the foreground.
+        // In this case, we will simply return the unsorted result in the
+        // recursion, which is then used for repainting.
+        directory.children = children;
+        directory.count = null == children ? 0 : children.length;
+        cache.put(parent, directory);
+        if (null != children)
+            Arrays.sort(children, comparator);
+        return directory;
+    }
+
+    /**
+     * Lists the children of the given {@code parent} directory synchronously
+     * and replaces its cached contents, so that the tree model events for a
+     * mutation of the directory can get computed without waiting for the
+     * executor.
+     * If the directory was still getting loaded, then its placeholder has
+     * been displayed instead of its children, so the change of its tree
+     * structure gets published.
+     *
+     * @return Whether or not the change of the tree structure has been
+     *         published.
+     */
+    private boolean reload(final TFile parent) {
+        final Directory old = cache.get(parent);
+        forget(parent, false);
+        list(parent);
+        if (null == old || !old.loading)
+            return false;
+        final TreePath path = newTreePath(parent);
+        if (null != path)
+            fireTreeStructureChanged(
+                    new TreeModelEvent(this, path, null, null));
+        return true;
+    }
+
+    /**
+     * Lists the children of the given {@code node} synchronously unless they
+     * have been published already.
+     * A {@link TFileTree} calls this method for each node on a path before
+     * it restores the expanded state of the path, so that the path does not
+     * get collapsed again when the children get published later on.
+     */
+    void loaded(final TFile node) {
+        final Directory directory = cache.get(node);
+        if (null == directory || directory.loading)
+            reload(node);
+    }
+
+    /**
+     * Lists, sorts and stats the children of the given {@code parent}
+     * directory using the executor and publishes them in chunks on the Event
+     * Dispatch Thread.
+     */
+    private void load(final TFile parent, final Directory directory) {
+        assert null != executor;
+        executor.execute(() -> {
+            if (directory.cancelled)
+                return;
+            TFile[] children;
+            try {
+                children = parent.listFiles(filter);
+                if (null != children)
+                    Arrays.sort(children, comparator);
+            } catch (final RuntimeException ex) {
+                children = null;
+            }
+            final TFile[] sorted = children;
+            final int length = null == sorted ? 0 : sorted.length;
+            int from = 0;
+            do {
+                final int start = from, end = Math.min(length, from + CHUNK_SIZE);
+                final Set<TFile> directories = new HashSet<>();
+                for (int i = start; i < end && !directory.cancelled; i++)
+                    if (sorted[i].isDirectory())
+                        directories.add(sorted[i]);
+                if (directory.cancelled)
+                    return;
+                SwingUtilities.invokeLater(() ->
+                        publish(parent, directory, sorted, start, end, directories));
+                from = end;
+            } while (from < length);
+        });
+    }
+
+    /**
+     * Publishes the given chunk of the children of the given {@code parent}
+     * directory unless the directory has been forgotten meanwhile.
+     * The first chunk replaces the placeholder, so it gets published as a
+     * change of the tree structure of the parent directory.
+     * Any subsequent chunks get published as inserted nodes.
+     */
+    private void publish(
+            final TFile parent,
+            final Directory directory,
+            final @CheckForNull TFile[] children,
+            final int start,
+            final int end,
+            final Set<TFile> directories) {
+        if (directory.cancelled || cache.get(parent) != directory)
+            return;
+        final TreePath path = newTreePath(parent);
+        if (0 == start) {
+            directory.loading = false;
+            directory.children = children;
+            directory.count = end;
+            directory.directories = directories;
+            // A JTree collapses all descendants of the parent directory, too.
+            collapsed(parent, false);
+            if (null != path)
+                fireTreeStructureChanged(
+                        new TreeModelEvent(this, path, null, null));
+        } else {
+            assert null != children;
+            assert null != directory.directories;
+            directory.count = end;
+            directory.directories.addAll(directories);
+            if (null != path) {
+                final int[] indices = new int[end - start];
+                for (int i = 0; i < indices.length; i++)
+                    indices[i] = start + i;
+                fireTreeNodesInserted(new TreeModelEvent(this, path, indices,
+                        Arrays.copyOfRange(children, start, end)));
+            }
         }
-        return children;
     }
 
     /**
@@ -348,7 +603,8 @@ public final class TFileTreeModel implements TreeModel {
         if (cache.containsKey(node))
             return;
         final TFile parent = node.getParentFile();
-        forget(parent, false);
+        if (reload(parent))
+            return;
         final int index = getIndexOfChild(parent, node); // new index
         if (index == -1)
             return;
@@ -379,14 +635,16 @@ public final class TFileTreeModel implements TreeModel {
      */
     public void nodeRemoved(final TFile node) {
         final TFile parent = node.getParentFile();
-        final int index = getIndexOfChild(parent, node); // old index
-        if (index == -1)
-            return;
+        final Directory directory = cache.get(parent);
+        final int index = null == directory
+                ? -1
+                : getIndexOfChild(parent, node); // old index
         forget(node, true);
-        forget(parent, false);
+        collapsed(node, true);
         // Fill cache again so that subsequent removes don't suffer a cache miss.
         // Otherwise, the display wouldn't mirror the cache anymore.
-        getChildren(parent);
+        if (reload(parent) || index == -1)
+            return;
         fireTreeNodesRemoved(new TreeModelEvent(
                 this, newTreePath(parent),
                 new int[] { index }, new TFile[] { node }));
@@ -399,6 +657,8 @@ public final class TFileTreeModel implements TreeModel {
      */
     public void refresh() {
         cache.clear();
+        // A JTree collapses all descendants of the root, too.
+        expanded.clear();
         if (root != null)
             fireTreeStructureChanged(
                     new TreeModelEvent(this, newTreePath(root), null, null));
@@ -415,7 +675,13 @@ public final class TFileTreeModel implements TreeModel {
      * on all listeners of this {@code TreeModel}.
      */
     public void structureChanged(final TFile node) {
-        forget(Objects.requireNonNull(node), true);
+        final boolean cached = cache.containsKey(Objects.requireNonNull(node));
+        forget(node, true);
+        collapsed(node, false);
+        // Do not display the placeholder instead of the children, so that
+        // any expanded paths can get restored immediately.
+        if (cached && null != executor)
+            list(node);
         fireTreeStructureChanged(
                 new TreeModelEvent(this, newTreePath(node), null, null));
     }
@@ -428,6 +694,45 @@ public final class TFileTreeModel implements TreeModel {
         forget(node, true);
     }
 
+    /**
+     * Marks the given {@code node} as expanded, so that its contents do not
+     * get evicted from the internal cache.
+     */
+    void expanded(final TFile node) {
+        expanded.add(node);
+        final Directory directory = cache.get(node);
+        if (null != directory)
+            directory.expanded = true;
+    }
+
+    /**
+     * Marks the given {@code node} and all of its descendants as collapsed
+     * and clears the internal cache associated with them.
+     */
+    void collapsed(final TFile node) {
+        collapsed(node, true);
+        forget(node);
+    }
+
+    /**
+     * Marks the descendants of the given {@code node} as collapsed.
+     *
+     * @param nodeToo If and only if {@code true}, {@code node} is marked as
+     *        collapsed, too.
+     */
+    private void collapsed(final TFile node, final boolean nodeToo) {
+        for (final Iterator<TFile> i = expanded.iterator(); i.hasNext(); ) {
+            final TFile next = i.next();
+            TFile file = nodeToo ? next : next.getParentFile();
+            for (; null != file; file = file.getParentFile()) {
+                if (file.equals(node)) {
+                    i.remove();
+                    break;
+                }
+            }
+        }
+    }
+
     /**
      * Clears the internal cache associated with {@code node}.
      *
@@ -437,9 +742,13 @@ public final class TFileTreeModel implements TreeModel {
     private void forget(
             final @Nullable TFile node,
             final boolean childrenToo) {
-        final TFile[] children = cache.remove(node);
+        final Directory directory = cache.remove(node);
+        if (null == directory)
+            return;
+        directory.cancelled = true;
+        final TFile[] children = directory.children;
         if (null != children && childrenToo)
-            for (int i = 0, l = children.length; i < l; i++)
+            for (int i = 0, l = directory.count; i < l; i++)
                 forget(children[i], childrenToo);
     }
 
@@ -510,4 +819,54 @@ public final class TFileTreeModel implements TreeModel {
         for (int i = 0, ll = l.length; i < ll; i++)
             ((TreeModelListener) l[i]).treeStructureChanged(evt);
     }
+
+    /**
+     * The cached contents of a directory.
+     * Except for {@link #cancelled}, the properties are confined to the Event
+     * Dispatch Thread.
+     */
+    private static final class Directory {
+
+        /**
+         * The sorted children or {@code null} if the directory is a file or
+         * inaccessible.
+         */
+        @CheckForNull TFile[] children;
+
+        /** The number of children which have been published so far. */
+        int count;
+
+        /**
+         * The children which are directories or {@code null} if unknown.
+         */
+        @CheckForNull Set<TFile> directories;
+
+        /**
+         * Whether or not the directory is getting loaded, so that its only
+         * child is the {@link #PLACEHOLDER}.
+         */
+        boolean loading;
+
+        /** Whether or not this directory is the root or expanded. */
+        boolean expanded;
+
+        /** Whether or not this directory has been forgotten. */
+        volatile boolean cancelled;
+
+        int size() {
+            return loading ? 1 : count;
+        }
+
+        TFile get(final int index) {
+            // If the directory has been evicted while its children are still
+            // displayed, then the tree may ask for any of them until the
+            // reloaded children get published.
+            if (loading)
+                return PLACEHOLDER;
+            if (count <= index)
+                throw new ArrayIndexOutOfBoundsException(index);
+            assert null != children;
+            return children[index];
+        }
+    }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access.swing;
+
+import net.java.truevfs.access.TArchiveDetector;
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileComparator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests a {@link TFileTreeModel} on the Event Dispatch Thread in headless
+ * mode.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class TFileTreeModelTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private Path dir;
+    private TFile root;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tzp");
+        root = new TFile(dir.toFile(), TArchiveDetector.NULL);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        TFile.rm_r(dir.toFile());
+    }
+
+    private TFileTreeModel model(final Executor executor) {
+        final TFileTreeModel model = new TFileTreeModel(root, null, new TFileComparator(), executor);
+        model.addTreeModelListener(new TreeModelListener() {
+
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                events.add("changed");
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                final int[] indices = e.getChildIndices();
+                events.add("inserted " + indices[0] + "-" + indices[indices.length - 1]);
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                events.add("removed " + e.getChildIndices()[0]);
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+        return model;
+    }
+
+    private static void onEdt(final Runnable runnable) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(runnable);
+    }
+
+    @Test
+    public void testChunkedLoading() throws Exception {
+        Files.createDirectory(dir.resolve("d"));
+        for (int i = 1; i < 2500; i++)
+            Files.createFile(dir.resolve(String.format("f%04d", i)));
+        final TFileTreeModel model = model(DIRECT);
+        onEdt(() -> {
+            assertEquals(1, model.getChildCount(root));
+            final TFile placeholder = model.getChild(root, 0);
+            assertTrue(model.isPlaceholder(placeholder));
+            assertTrue(model.isLeaf(placeholder));
+            assertTrue(events.isEmpty());
+        });
+        onEdt(() -> {
+            assertEquals(Arrays.asList("structure", "inserted 1000-1999", "inserted 2000-2499"), events);
+            assertEquals(2500, model.getChildCount(root));
+            final TFile d = model.getChild(root, 0);
+            assertEquals("d", d.getName());
+            assertFalse(model.isPlaceholder(d));
+            assertFalse(model.isLeaf(d));
+            final TFile f = model.getChild(root, 2499);
+            assertEquals("f2499", f.getName());
+            assertTrue(model.isLeaf(f));
+            assertEquals(2499, model.getIndexOfChild(root, f));
+        });
+    }
+
+    @Test
+    public void testCancellation() throws Exception {
+        Files.createFile(dir.resolve("f"));
+        final TFileTreeModel model = model(DIRECT);
+        onEdt(() -> {
+            assertEquals(1, model.getChildCount(root));
+            model.forget(root);
+        });
+        onEdt(() -> {
+            assertTrue(events.isEmpty());
+            assertEquals(1, model.getChildCount(root));
+            assertTrue(model.isPlaceholder(model.getChild(root, 0)));
+        });
+        onEdt(() -> {
+            assertEquals(Arrays.asList("structure"), events);
+            assertEquals("f", model.getChild(root, 0).getName());
+        });
+    }
+
+    @Test
+    public void testExpandedDirectoriesDoNotGetEvicted() throws Exception {
+        final TFile[] dirs = directories(1100);
+        final TFileTreeModel model = model(DIRECT);
+        onEdt(() -> {
+            model.expanded(dirs[0]);
+            for (TFile d : dirs)
+                model.getChildCount(d);
+        });
+        onEdt(() -> {
+            assertEquals("f", model.getChild(dirs[0], 0).getName());
+            assertTrue(model.isPlaceholder(model.getChild(dirs[1], 0)));
+        });
+    }
+
+    @Test
+    public void testUnboundedWithoutExecutor() throws Exception {
+        final TFile[] dirs = directories(1100);
+        final TFileTreeModel model = model(null);
+        onEdt(() -> {
+            final TFile f = model.getChild(dirs[0], 0);
+            for (TFile d : dirs)
+                model.getChildCount(d);
+            assertSame(f, model.getChild(dirs[0], 0));
+            assertTrue(events.isEmpty());
+        });
+    }
+
+    @Test
+    public void testFileNamedLikePlaceholder() throws Exception {
+        Files.createFile(dir.resolve("..."));
+        final TFileTreeModel model = loaded(DIRECT);
+        onEdt(() -> {
+            final TFile f = model.getChild(root, 0);
+            assertEquals("...", f.getName());
+            assertFalse(model.isPlaceholder(f));
+            assertEquals(0, model.getIndexOfChild(root, new TFile(root, "...")));
+        });
+    }
+
+    @Test
+    public void testMkdirWithExecutor() throws Exception {
+        Files.createFile(dir.resolve("a"));
+        Files.createFile(dir.resolve("c"));
+        Files.createFile(Files.createDirectory(dir.resolve("d")).resolve("f"));
+        final TFile d = new TFile(root, "d");
+        final TFileTreeModel model = loaded(DIRECT);
+        onEdt(() -> {
+            model.expanded(d);
+            model.getChildCount(d);
+        });
+        onEdt(() -> {
+            events.clear();
+            try {
+                model.mkdir(new TFile(root, "b"), false);
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+            assertEquals(Arrays.asList("inserted 0-0"), events);
+            assertEquals(4, model.getChildCount(root));
+            assertEquals("b", model.getChild(root, 0).getName());
+            assertFalse(model.isLeaf(model.getChild(root, 0)));
+            assertEquals("f", model.getChild(d, 0).getName());
+        });
+        onEdt(() -> assertEquals(Arrays.asList("inserted 0-0"), events));
+    }
+
+    @Test
+    public void testCpWithExecutor() throws Exception {
+        Files.createFile(dir.resolve("a"));
+        Files.createFile(dir.resolve("c"));
+        final TFileTreeModel model = loaded(DIRECT);
+        onEdt(() -> {
+            try {
+                model.cp(new ByteArrayInputStream(new byte[1]), new TFile(root, "b"));
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+            assertEquals(Arrays.asList("inserted 1-1"), events);
+            assertEquals(3, model.getChildCount(root));
+            assertEquals("b", model.getChild(root, 1).getName());
+            assertTrue(model.isLeaf(model.getChild(root, 1)));
+        });
+        onEdt(() -> assertEquals(Arrays.asList("inserted 1-1"), events));
+    }
+
+    @Test
+    public void testRmWithExecutor() throws Exception {
+        Files.createFile(dir.resolve("a"));
+        Files.createFile(dir.resolve("b"));
+        Files.createFile(dir.resolve("c"));
+        final TFileTreeModel model = loaded(DIRECT);
+        onEdt(() -> {
+            try {
+                model.rm(new TFile(root, "b"));
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+            assertEquals(Arrays.asList("removed 1"), events);
+            assertEquals(2, model.getChildCount(root));
+            assertEquals("c", model.getChild(root, 1).getName());
+        });
+        onEdt(() -> assertEquals(Arrays.asList("removed 1"), events));
+    }
+
+    @Test
+    public void testMkdirWhileLoading() throws Exception {
+        Files.createFile(dir.resolve("a"));
+        final TFileTreeModel model = model(DIRECT);
+        onEdt(() -> {
+            assertTrue(model.isPlaceholder(model.getChild(root, 0)));
+            try {
+                model.mkdir(new TFile(root, "b"), false);
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+            assertEquals(Arrays.asList("structure"), events);
+            assertEquals(2, model.getChildCount(root));
+        });
+        onEdt(() -> assertEquals(Arrays.asList("structure"), events));
+    }
+
+    /**
+     * Returns a new model with the children of the root published and no
+     * events recorded.
+     */
+    private TFileTreeModel loaded(final Executor executor) throws Exception {
+        final TFileTreeModel model = model(executor);
+        onEdt(() -> model.getChildCount(root));
+        onEdt(events::clear);
+        return model;
+    }
+
+    private TFile[] directories(final int count) throws IOException {
+        final TFile[] dirs = new TFile[count];
+        for (int i = 0; i < count; i++) {
+            final Path d = Files.createDirectory(dir.resolve(String.format("d%04d", i)));
+            Files.createFile(d.resolve("f"));
+            dirs[i] = new TFile(root, d.getFileName().toString());
+        }
+        return dirs;
+    }
+}
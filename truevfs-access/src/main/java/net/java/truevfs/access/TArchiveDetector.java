@@ -124,6 +124,9 @@ public final class TArchiveDetector extends FsAbstractCompositeDriver {
 
     private final Map<FsScheme, FsDriver> drivers;
 
+    /** The extensions compiled into a trie for {@link #scheme(String)}. */
+    private final SuffixTrie suffixes;
+
     /**
      * Equivalent to
      * {@link #TArchiveDetector(Supplier, String)
@@ -166,6 +169,7 @@ public final class TArchiveDetector extends FsAbstractCompositeDriver {
         }
         this.extensions = accepted;
         this.drivers = provider.get();
+        this.suffixes = new SuffixTrie(accepted);
     }
 
     /**
@@ -270,6 +274,7 @@ public final class TArchiveDetector extends FsAbstractCompositeDriver {
         }
         this.extensions = extensions;
         this.drivers = Collections.unmodifiableMap(drivers);
+        this.suffixes = new SuffixTrie(extensions);
     }
 
     /**
@@ -326,20 +331,10 @@ public final class TArchiveDetector extends FsAbstractCompositeDriver {
         // remainder in the key set of the archive driver map.
         // Likewise, a file name may contain additional dots, so we can't just
         // look for the first dot in it and look up the remainder ...
-        path = path.replace('/', File.separatorChar);
-        int i = path.lastIndexOf(File.separatorChar) + 1;
-        path = path.substring(i);
-        final int l = path.length();
-        for (i = 0; 0 < (i = path.indexOf('.', i) + 1) && i < l; ) {
-            final String scheme = path.substring(i);
-            if (extensions.contains(scheme)) {
-                try {
-                    return new FsScheme(scheme); // TODO: http://java.net/jira/browse/TRUEZIP-132
-                } catch (URISyntaxException noSchemeNoArchiveBadLuck) {
-                }
-            }
-        }
-        return null;
+        // Instead, the file name gets matched against the reversed extensions
+        // in a single pass from its end, so that no substrings or lower case
+        // copies need to get created.
+        return suffixes.scheme(path);
     }
 
     @Override
@@ -367,4 +362,92 @@ public final class TArchiveDetector extends FsAbstractCompositeDriver {
                 extensions,
                 drivers);
     }
+
+    /**
+     * A trie of the reversed extensions which are valid file system schemes.
+     * Because file system schemes consist of US-ASCII characters only, the
+     * trie is case insensitive for US-ASCII letters and never matches any
+     * other character.
+     */
+    @Immutable
+    private static final class SuffixTrie {
+
+        private static final char[] NO_CHARS = new char[0];
+        private static final SuffixTrie[] NO_NODES = new SuffixTrie[0];
+
+        /** The lower case characters of the edges to the child nodes. */
+        private char[] chars = NO_CHARS;
+
+        private SuffixTrie[] nodes = NO_NODES;
+
+        /** The scheme for the extension which ends at this node, if any. */
+        private @CheckForNull FsScheme scheme;
+
+        SuffixTrie(final ExtensionSet extensions) {
+            for (final String extension : extensions) {
+                final FsScheme scheme;
+                try {
+                    scheme = new FsScheme(extension);
+                } catch (URISyntaxException noSchemeNoArchiveBadLuck) {
+                    continue;
+                }
+                SuffixTrie node = this;
+                for (int i = extension.length(); 0 <= --i; )
+                    node = node.add(lowerCase(extension.charAt(i)));
+                node.scheme = scheme;
+            }
+        }
+
+        private SuffixTrie() { }
+
+        private SuffixTrie add(final char c) {
+            SuffixTrie node = node(c);
+            if (null == node) {
+                final int l = chars.length;
+                chars = Arrays.copyOf(chars, l + 1);
+                nodes = Arrays.copyOf(nodes, l + 1);
+                chars[l] = c;
+                nodes[l] = node = new SuffixTrie();
+            }
+            return node;
+        }
+
+        private @CheckForNull SuffixTrie node(final char c) {
+            final char[] chars = this.chars;
+            for (int i = chars.length; 0 <= --i; )
+                if (c == chars[i]) return nodes[i];
+            return null;
+        }
+
+        private static char lowerCase(final char c) {
+            return 'A' <= c && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        /**
+         * Returns the scheme for the longest extension which follows a dot in
+         * the last segment of the given path or {@code null} if there is no
+         * such extension.
+         */
+        @CheckForNull FsScheme scheme(final String path) {
+            final int l = path.length();
+            SuffixTrie node = this;
+            FsScheme scheme = null;
+            int offset = l;
+            for (int i = l; 0 <= --i; ) {
+                final char c = path.charAt(i);
+                if ('/' == c || File.separatorChar == c) break;
+                if ('.' == c && null != node.scheme) {
+                    scheme = node.scheme;
+                    offset = i + 1;
+                }
+                if (null == (node = node.node(lowerCase(c)))) break;
+            }
+            if (null == scheme) return null;
+            final String s = scheme.toString();
+            // Preserve the case of the extension in the path name.
+            return path.regionMatches(offset, s, 0, s.length())
+                    ? scheme
+                    : FsScheme.create(path.substring(offset));
+        }
+    }
 }
@@ -10,7 +10,12 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystemException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.NotDirectoryException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import javax.annotation.CheckForNull;
 import javax.annotation.concurrent.Immutable;
 import net.java.truecommons.shed.BitField;
@@ -29,6 +34,14 @@ import net.java.truecommons.cio.OutputSocket;
  * Note that in contrast to the {@link TFile} class, the methods in this
  * class accept plain old {@link File} objects.
  * However, full advantage is taken if a parameter is a {@link TFile} object.
+ * <p>
+ * If the {@linkplain TConfig#getParallelism() parallelism} is greater than
+ * one, then the recursive methods process the members of each directory
+ * concurrently on a private {@link ForkJoinPool}.
+ * The archive drivers accept concurrent output entries by buffering them, so
+ * the order of the entries in a destination archive file is undefined then.
+ * Directories are still created before and updated or deleted after their
+ * members.
  *
  * @author Christian Schlichtherle
  */
@@ -57,7 +70,7 @@ final class TBIO {
         checkContains(src, dst);
         if (dst.exists())
             throw new FileAlreadyExistsException(src.getPath(), dst.getPath(), null);
-        mv0(src, dst, detector);
+        run(TConfig.current().getParallelism(), () -> mv0(src, dst, detector));
     }
 
     /** Unchecked parameters version. */
@@ -83,10 +96,10 @@ final class TBIO {
                 // This is courtesy only, so natural order is sufficient.
                 Arrays.sort(members);
             }
-            for (final String member : members)
+            forEach(members, member ->
                 mv0(    new TFile(src, member, detector),
                         new TFile(dst, member, detector),
-                        detector);
+                        detector));
             if (!srcIsGhost)
                 if (!dst.setLastModified(srcLastModified))
                     throw new FileSystemException(dst.getPath(), null, "Cannot set last modification time!");
@@ -131,9 +144,30 @@ final class TBIO {
             final File dst,
             final TArchiveDetector srcDetector,
             final TArchiveDetector dstDetector)
+    throws IOException {
+        cp_r(   preserve, src, dst, srcDetector, dstDetector,
+                TConfig.current().getParallelism());
+    }
+
+    /**
+     * Recursively copies the source directory tree or file to the destination
+     * directory tree or file using the given number of threads.
+     *
+     * @param  parallelism the maximum number of threads to use.
+     *         If this is one, then the calling thread copies the entire
+     *         directory tree.
+     * @see    #cp_r(boolean, File, File, TArchiveDetector, TArchiveDetector)
+     */
+    static void
+    cp_r(   final boolean preserve,
+            final File src,
+            final File dst,
+            final TArchiveDetector srcDetector,
+            final TArchiveDetector dstDetector,
+            final int parallelism)
     throws IOException {
         checkContains(src, dst);
-        cp_r0(preserve, src, dst, srcDetector, dstDetector);
+        run(parallelism, () -> cp_r0(preserve, src, dst, srcDetector, dstDetector));
     }
 
     /** Unchecked parameters version. */
@@ -163,11 +197,11 @@ final class TBIO {
                 // This is a courtesy only, so natural order is sufficient.
                 Arrays.sort(members);
             }
-            for (final String member : members)
+            forEach(members, member ->
                 cp_r0(  preserve,
                         new TFile(src, member, srcDetector),
                         new TFile(dst, member, dstDetector),
-                        srcDetector, dstDetector);
+                        srcDetector, dstDetector));
             if (preserve && !srcIsGhost)
                 if (!dst.setLastModified(srcLastModified))
                     throw new FileSystemException(dst.getPath(), null, "Cannot set last modification time!");
@@ -223,17 +257,131 @@ final class TBIO {
      * @throws IOException if an elementary operation fails for any reason.
      */
     static void rm_r(final File file, final TArchiveDetector detector)
+    throws IOException {
+        run(TConfig.current().getParallelism(), () -> rm_r0(file, detector));
+    }
+
+    /** Sequential or parallel version. */
+    private static void rm_r0(final File file, final TArchiveDetector detector)
     throws IOException {
         if (file.isDirectory()) {
             final String[] members = file.list();
             if (null == members)
                 throw new FileSystemException(file.getPath(), null, "Cannot list directory!");
-            for (final String member : members)
-                rm_r(new TFile(file, member, detector), detector);
+            forEach(members, member ->
+                rm_r0(new TFile(file, member, detector), detector));
         }
         TFile.rm(file);
     }
 
+    /**
+     * Runs the given action.
+     * If the parallelism is greater than one and the current thread is not
+     * already running a bulk I/O action, then the action gets run on a new
+     * {@link Pool} with the given parallelism.
+     * Otherwise, the current thread runs the action.
+     */
+    private static void run(final int parallelism, final Action action)
+    throws IOException {
+        if (1 >= parallelism || ForkJoinTask.getPool() instanceof Pool) {
+            action.run();
+        } else {
+            final Pool pool = new Pool(parallelism);
+            try {
+                final Task task = new Task(TConfig.current(), action);
+                pool.invoke(task);
+                task.check();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Applies the given action to each of the given directory members.
+     * If the current thread is running a bulk I/O action in a {@link Pool},
+     * then the members get processed concurrently.
+     * Otherwise, they get processed in order by the current thread.
+     * In either case, this method returns when all members have been
+     * processed.
+     * If processing any member fails, then the first exception gets thrown
+     * with any subsequent exceptions suppressed.
+     */
+    private static void forEach(final String[] members, final Member action)
+    throws IOException {
+        if (1 < members.length && ForkJoinTask.getPool() instanceof Pool) {
+            final TConfig config = TConfig.current();
+            final List<Task> tasks = new ArrayList<>(members.length);
+            for (final String member : members)
+                tasks.add(new Task(config, () -> action.apply(member)));
+            ForkJoinTask.invokeAll(tasks);
+            IOException ex = null;
+            for (final Task task : tasks) {
+                try {
+                    task.check();
+                } catch (final IOException ex2) {
+                    if (null == ex) ex = ex2;
+                    else ex.addSuppressed(ex2);
+                }
+            }
+            if (null != ex) throw ex;
+        } else {
+            for (final String member : members) action.apply(member);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Member {
+        void apply(String member) throws IOException;
+    }
+
+    /** Marks the threads which run bulk I/O actions. */
+    private static final class Pool extends ForkJoinPool {
+        Pool(int parallelism) { super(parallelism); }
+    }
+
+    /**
+     * Runs an action with the configuration of the thread which created this
+     * task, so that the access preferences and the file system manager apply
+     * to the worker threads, too.
+     */
+    @SuppressWarnings("serial")
+    private static final class Task extends RecursiveAction {
+        private final TConfig config;
+        private final Action action;
+        private IOException exception;
+
+        Task(final TConfig config, final Action action) {
+            this.config = config;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (config.equals(TConfig.current())) {
+                    action.run();
+                } else {
+                    try (TConfig c = TConfig.open(config)) {
+                        action.run();
+                    }
+                }
+            } catch (final IOException ex) {
+                exception = ex;
+            }
+        }
+
+        /** Throws the exception of the action, if any. */
+        void check() throws IOException {
+            if (null != exception) throw exception;
+        }
+    }
+
     /**
      * Throws an {@code IOException} if and only if the path represented by
      * {@code a} contains the path represented by {@code b}, where a path is
@@ -278,10 +426,10 @@ final class TBIO {
                         .input(options, tfile.getNodeName());
         }
         final FsNodePath path = new FsNodePath(file);
-        return  TConfig
-                .current()
-                .getManager()
-                .controller(detector(file), path.getMountPoint())
+        return  TNodeCache
+                .controller(TConfig.current().getManager(),
+                            detector(file),
+                            path.getMountPoint())
                 .input(options, path.getNodeName());
     }
 
@@ -309,10 +457,10 @@ final class TBIO {
                                     template);
         }
         final FsNodePath path = new FsNodePath(file);
-        return TConfig
-                .current()
-                .getManager()
-                .controller(detector(file), path.getMountPoint())
+        return TNodeCache
+                .controller(TConfig.current().getManager(),
+                            detector(file),
+                            path.getMountPoint())
                 .output(    options.clear(CREATE_PARENTS),
                             path.getNodeName(),
                             template);
@@ -231,6 +231,21 @@ public final class TConfig extends Resource<IllegalStateException> {
     @CreatesObligation
     public static TConfig open() { return configs.push(new TConfig(current())); }
 
+    /**
+     * Creates a new current configuration by copying the given configuration
+     * and pushing the copy onto the inheritable thread local configuration
+     * stack.
+     * This is used to apply a configuration to the worker threads of bulk I/O
+     * operations.
+     *
+     * @param  template the configuration to copy.
+     * @return The new current configuration.
+     */
+    @CreatesObligation
+    static TConfig open(TConfig template) {
+        return configs.push(new TConfig(template));
+    }
+
     // I don't think these fields should be volatile.
     // This would make a difference if and only if two threads were changing
     // the GLOBAL configuration concurrently, which is discouraged.
@@ -240,12 +255,15 @@ public final class TConfig extends Resource<IllegalStateException> {
     private FsManager manager;
     private TArchiveDetector detector;
     private BitField<FsAccessOption> preferences;
+    private int parallelism;
+    private long nodeCacheTimeToLive;
 
     /** Default constructor for the global configuration. */
     private TConfig() {
         this.manager = FsManagerLocator.SINGLETON.get();
         this.detector = TArchiveDetector.ALL;
         this.preferences = BitField.of(CREATE_PARENTS);
+        this.parallelism = 1;
     }
 
     /** Copy constructor for inheritable thread local configurations. */
@@ -253,6 +271,8 @@ public final class TConfig extends Resource<IllegalStateException> {
         this.manager = template.getManager();
         this.detector = template.getArchiveDetector();
         this.preferences = template.getAccessPreferences();
+        this.parallelism = template.getParallelism();
+        this.nodeCacheTimeToLive = template.getNodeCacheTimeToLive();
     }
 
     private void checkOpen() {
@@ -431,6 +451,92 @@ public final class TConfig extends Resource<IllegalStateException> {
         setAccessPreference(CREATE_PARENTS, lenient);
     }
 
+    /**
+     * Returns the maximum number of threads to use for the recursive bulk I/O
+     * methods of the class {@link TFile}, i.e. the {@code cp_r}, {@code cp_rp},
+     * {@code mv} and {@code rm_r} methods.
+     * The default value is one, so the calling thread traverses the directory
+     * tree on its own.
+     *
+     * @return The maximum number of threads to use for the recursive bulk I/O
+     *         methods.
+     * @since  TrueVFS 0.15
+     */
+    public int getParallelism() {
+        checkOpen();
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of threads to use for the recursive bulk I/O
+     * methods of the class {@link TFile}.
+     * If this is greater than one, then the members of each directory get
+     * processed concurrently, which may reduce the time for copying, moving
+     * or deleting large directory trees, e.g. when unpacking an archive file
+     * with many entries.
+     * However, the order of the entries in any destination archive file is
+     * undefined then.
+     * Changing this property will show effect upon the next call to a
+     * recursive bulk I/O method.
+     *
+     * @param  parallelism the maximum number of threads to use for the
+     *         recursive bulk I/O methods.
+     * @throws IllegalArgumentException if {@code parallelism} is less than
+     *         one.
+     * @since  TrueVFS 0.15
+     */
+    public void setParallelism(final int parallelism) {
+        checkOpen();
+        if (1 > parallelism)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the time to live of the cached file system nodes in
+     * milliseconds.
+     * The default value is zero, so the node cache is disabled.
+     *
+     * @return The time to live of the cached file system nodes in
+     *         milliseconds.
+     * @see    #setNodeCacheTimeToLive(long)
+     * @since  TrueVFS 0.15
+     */
+    public long getNodeCacheTimeToLive() {
+        checkOpen();
+        return nodeCacheTimeToLive;
+    }
+
+    /**
+     * Sets the time to live of the cached file system nodes in milliseconds.
+     * If this is positive, then the status methods of the classes
+     * {@link TFile} and {@link TPath}, e.g. {@link TFile#exists()},
+     * {@link TFile#isFile()} or {@link TFile#length()}, remember the file
+     * system node of a path within an archive file for the given time,
+     * including its absence, so that subsequent status calls for the same
+     * path do not need to walk the entire controller chain again.
+     * <p>
+     * The cache gets shared by all configurations with the same
+     * {@linkplain #getManager() file system manager}.
+     * Any write access to the virtual file system via this API, including a
+     * {@linkplain TVFS#sync(BitField) sync}, clears the cache.
+     * However, changes which are made by other means, e.g. by another
+     * process, may not show before the time to live has expired.
+     * Changing this property will show effect upon the next access to the
+     * virtual file system.
+     *
+     * @param  millis the time to live of the cached file system nodes in
+     *         milliseconds or zero in order to disable the node cache.
+     * @throws IllegalArgumentException if {@code millis} is negative.
+     * @since  TrueVFS 0.15
+     */
+    public void setNodeCacheTimeToLive(final long millis) {
+        checkOpen();
+        if (0 > millis)
+            throw new IllegalArgumentException("Time to live must not be negative: " + millis);
+        this.nodeCacheTimeToLive = millis;
+    }
+
     @Override
     @DischargesObligation
     public void close() throws IllegalStateException { super.close(); }
@@ -453,7 +559,9 @@ public final class TConfig extends Resource<IllegalStateException> {
         final TConfig that = (TConfig) other;
         return this.manager.equals(that.getManager())
                 && this.detector.equals(that.getArchiveDetector())
-                && this.preferences.equals(that.getAccessPreferences());
+                && this.preferences.equals(that.getAccessPreferences())
+                && this.parallelism == that.getParallelism()
+                && this.nodeCacheTimeToLive == that.getNodeCacheTimeToLive();
     }
 
     @Override
@@ -462,12 +570,14 @@ public final class TConfig extends Resource<IllegalStateException> {
         hash = 89 * hash + manager.hashCode();
         hash = 89 * hash + detector.hashCode();
         hash = 89 * hash + preferences.hashCode();
+        hash = 89 * hash + parallelism;
+        hash = 89 * hash + Long.hashCode(nodeCacheTimeToLive);
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("%s[manager=%s, detector=%s, preferences=%s]",
-                getClass().getName(), manager, detector, preferences);
+        return String.format("%s[manager=%s, detector=%s, preferences=%s, parallelism=%d, nodeCacheTimeToLive=%d]",
+                getClass().getName(), manager, detector, preferences, parallelism, nodeCacheTimeToLive);
     }
 }
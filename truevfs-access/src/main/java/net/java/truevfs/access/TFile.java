@@ -11,7 +11,6 @@ import net.java.truecommons.io.Streams;
 import net.java.truecommons.shed.BitField;
 import net.java.truecommons.shed.PathSplitter;
 import net.java.truecommons.shed.Paths;
-import net.java.truecommons.shed.UriBuilder;
 import net.java.truevfs.kernel.spec.*;
 
 import javax.annotation.CheckForNull;
@@ -84,6 +83,9 @@ import static net.java.truevfs.kernel.spec.FsUriModifier.CANONICALIZE;
  * represent a file or a directory - mixing file and directory parameters will
  * not work.
  * This constraint is meant to prevent ambiguous method semantics.
+ * <p>
+ * The recursive methods can process the members of each directory
+ * concurrently - see {@link TConfig#setParallelism(int)}.
  *
  * <h4><a name="directDataCopying"><a name="RDC">Raw Data Copying (RDC)</a></a></h4>
  * <p>
@@ -751,17 +753,9 @@ public final class TFile extends File implements TRex {
             } else {
                 this.detector = detector;
                 this.innerArchive = this.enclArchive = innerArchive;
-                try {
-                    this.nodeName = new FsNodeName(
-                            new UriBuilder()
-                                .path(
-                                    path.substring(iapl + 1) // cut off leading separatorChar
-                                        .replace(separatorChar, SEPARATOR_CHAR))
-                                .getUri(),
-                            CANONICALIZE);
-                } catch (URISyntaxException ex) {
-                    throw new AssertionError(ex);
-                }
+                this.nodeName = FsNodeName.forPath(
+                        path.substring(iapl + 1) // cut off leading separatorChar
+                            .replace(separatorChar, SEPARATOR_CHAR));
             }
         } else {
             this.detector = detector;
@@ -783,15 +777,9 @@ public final class TFile extends File implements TRex {
         assert null != detector;
         final StringBuilder nodeNameBuf = new StringBuilder(path.length());
         scan(detector, ancestor, 0, path, nodeNameBuf, new PathSplitter(separatorChar, false));
-        try {
-            nodeName = 0 >= nodeNameBuf.length()
-                    ? null
-                    : new FsNodeName(
-                        new UriBuilder().path(nodeNameBuf.toString()).getUri(),
-                        CANONICALIZE);
-        } catch (URISyntaxException ex) {
-            throw new AssertionError(ex);
-        }
+        nodeName = 0 >= nodeNameBuf.length()
+                ? null
+                : FsNodeName.forPath(nodeNameBuf.toString());
     }
 
     @SuppressWarnings("AccessingNonPublicFieldOfAnotherObject")
@@ -1305,28 +1293,24 @@ public final class TFile extends File implements TRex {
                     "Unknown file system scheme for path \""
                     + path
                     + "\"! Check run-time class path configuration.");
-        final FsMountPoint mountPoint;
-        try {
-            final TFile enclArchive = this.enclArchive;
-            final FsNodeName nodeName = this.nodeName;
-            assert (null != enclArchive) == (null != nodeName);
-            mountPoint = new FsMountPoint(scheme, null == enclArchive
+        final TFile enclArchive = this.enclArchive;
+        final FsNodeName nodeName = this.nodeName;
+        assert (null != enclArchive) == (null != nodeName);
+        final FsMountPoint mountPoint = FsMountPoint.create(scheme,
+                null == enclArchive
                     ? new FsNodePath(   file)
                     : new FsNodePath(   enclArchive .getController()
                                                 .getModel()
                                                 .getMountPoint(),
                                     nodeName));
-        } catch (URISyntaxException ex) {
-            throw new AssertionError(ex);
-        }
         return this.controller = getController(mountPoint);
     }
 
     private FsController getController(FsMountPoint mountPoint) {
-        return TConfig
-                .current()
-                .getManager()
-                .controller(getArchiveDetector(), mountPoint);
+        return TNodeCache.controller(
+                TConfig.current().getManager(),
+                getArchiveDetector(),
+                mountPoint);
     }
 
     /**
@@ -2797,6 +2781,42 @@ public final class TFile extends File implements TRex {
         TBIO.cp_r(false, src, dst, detector, detector);
     }
 
+    /**
+     * Equivalent to
+     * {@link #cp_r(File, File, TArchiveDetector, TArchiveDetector) cp_r(src, dst, detector, detector)},
+     * where {@code detector} is {@code TConfig.current().getArchiveDetector()},
+     * but uses up to the given number of threads rather than the
+     * {@linkplain TConfig#getParallelism() parallelism} of the current
+     * configuration.
+     * If {@code parallelism} is greater than one, then the members of each
+     * directory get copied concurrently and the order of the entries in any
+     * destination archive file is undefined.
+     *
+     * @param  src the source file or directory tree.
+     *         Note that although this just needs to be a plain {@code File},
+     *         archive files and entries are only supported for instances of
+     *         this class.
+     * @param  dst the destination file or directory tree.
+     *         Note that although this just needs to be a plain {@code File},
+     *         archive files and entries are only supported for instances of
+     *         this class.
+     * @param  parallelism the maximum number of threads to use.
+     * @throws IllegalArgumentException if {@code parallelism} is less than
+     *         one.
+     * @throws IOException if any I/O error occurs.
+     * @since  TrueVFS 0.15
+     * @see    <a href="#bulkIOMethods">Bulk I/O Methods</a>
+     * @see    <a href="#traversal">Traversing Directory Trees</a>
+     */
+    @FsAssertion(atomic=NO, consistent=YES, isolated=NO)
+    public static void cp_r(File src, File dst, int parallelism)
+    throws IOException {
+        if (1 > parallelism)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        final TArchiveDetector detector = TConfig.current().getArchiveDetector();
+        TBIO.cp_r(false, src, dst, detector, detector, parallelism);
+    }
+
     /**
      * Recursively copies the file or directory {@code src}
      * to the file or directory {@code dst}.
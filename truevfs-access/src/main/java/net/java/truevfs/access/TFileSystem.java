@@ -8,11 +8,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.attribute.*;
 import java.util.*;
+import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -30,6 +32,7 @@ import net.java.truecommons.shed.FilteringIterator;
 import net.java.truevfs.kernel.spec.FsAccessOption;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
 import static net.java.truevfs.kernel.spec.FsAccessOption.EXCLUSIVE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.UPDATE;
 import net.java.truevfs.kernel.spec.FsController;
 import net.java.truevfs.kernel.spec.FsMountPoint;
 import net.java.truevfs.kernel.spec.FsNode;
@@ -54,10 +57,10 @@ public final class TFileSystem extends FileSystem {
     @SuppressWarnings("deprecation")
     TFileSystem(final TPath path) {
         assert null != path;
-        this.controller = TConfig
-                .current()
-                .getManager()
-                .controller(path.getArchiveDetector(), path.getMountPoint());
+        this.controller = TNodeCache.controller(
+                TConfig.current().getManager(),
+                path.getArchiveDetector(),
+                path.getMountPoint());
         this.provider = TFileSystemProvider.get(path.getName());
 
         assert invariants();
@@ -132,6 +135,31 @@ public final class TFileSystem extends FileSystem {
         TVFS.sync(getMountPoint(), options);
     }
 
+    /**
+     * Returns a read-only snapshot of this (federated) file system.
+     * Any pending changes get committed first, so the snapshot reflects the
+     * directory tree and the entry data of this file system at the time of
+     * the call.
+     * Reading the snapshot neither blocks nor gets blocked by concurrent
+     * updates to this file system, which makes it a good fit for
+     * long-running scans of an archive file which gets updated meanwhile.
+     * The snapshot must get {@linkplain TSnapshot#close() closed} when done.
+     * <p>
+     * If this file system is not federated, i.e. if it's not an archive file
+     * system, then the snapshot is just a read-only view of this file system
+     * which is not isolated from subsequent changes - see
+     * {@link FsController#snapshot}.
+     *
+     * @return A read-only snapshot of this file system.
+     * @throws IOException on any I/O error, e.g. if the archive file does not
+     *         exist or is a false positive.
+     * @since  TrueVFS 0.15
+     */
+    public TSnapshot snapshot() throws IOException {
+        return new TSnapshot(getController().snapshot(
+                TConfig.current().getAccessPreferences()));
+    }
+
     /**
      * Returns {@code true}.
      *
@@ -232,8 +260,12 @@ public final class TFileSystem extends FileSystem {
                     .input(o, name)
                     .channel(null);
         } else {
+            // Like any seekable byte channel, keep the existing contents
+            // unless asked otherwise.
             final BitField<FsAccessOption>
-                    o = path.outputOptions(options).set(CACHE);
+                    o = path.outputOptions(options).set(CACHE).set(UPDATE,
+                        !options.contains(StandardOpenOption.TRUNCATE_EXISTING)
+                        && !options.contains(StandardOpenOption.APPEND));
             try {
                 return controller
                         .output(o, name, null)
@@ -262,18 +294,19 @@ public final class TFileSystem extends FileSystem {
                 .stream(null);
     }
 
+    /**
+     * Returns a directory stream for the given path.
+     * The members get looked up in a single pass.
+     */
     DirectoryStream<Path> newDirectoryStream(
             final TPath path,
             final Filter<? super Path> filter)
     throws IOException {
-        final FsNode entry = stat(path);
-        final Set<String> set;
-        if (null == entry || null == (set = entry.getMembers()))
-            throw new NotDirectoryException(path.toString());
+        final Map<String, FsNode> nodes = nodes(path);
 
         @NotThreadSafe
         class Adapter implements Iterator<Path> {
-            final Iterator<String> it = set.iterator();
+            final Iterator<String> it = nodes.keySet().iterator();
 
             @Override
             public boolean hasNext() {
@@ -308,6 +341,182 @@ public final class TFileSystem extends FileSystem {
         return  new Stream(new FilterIterator());
     }
 
+    /**
+     * Returns a lazily populated stream of the paths in the directory tree
+     * rooted at the given path, including the given path, in depth-first
+     * pre-order.
+     * This is like {@link Files#walk(Path, int, FileVisitOption...)}, but the
+     * members of each directory get looked up in a single pass.
+     * Use {@link #walkFileTree} in order to get the basic file attributes of
+     * each path without looking it up again.
+     * Archive files within the directory tree get entered if they are
+     * detected by the archive detector of the given path.
+     * <p>
+     * If an I/O error occurs while walking the directory tree, then it gets
+     * wrapped in an {@link UncheckedIOException} which gets thrown by the
+     * method which caused the access.
+     *
+     * @param  start the root of the directory tree.
+     * @param  maxDepth the maximum number of directory levels to visit.
+     *         Zero means that only the given path gets visited.
+     * @return A stream of the paths in the directory tree.
+     * @throws IllegalArgumentException if {@code maxDepth} is negative.
+     * @throws NoSuchFileException if the given path does not exist.
+     * @throws IOException on any other I/O error.
+     * @since  TrueVFS 0.15
+     */
+    public java.util.stream.Stream<TPath> walk(
+            final TPath start,
+            final int maxDepth)
+    throws IOException {
+        if (0 > maxDepth)
+            throw new IllegalArgumentException("maxDepth may not be negative: " + maxDepth);
+        if (null == start.stat())
+            throw new NoSuchFileException(start.toString());
+
+        @NotThreadSafe
+        class Walker implements Iterator<TPath> {
+            final Deque<TPath> parents = new ArrayDeque<>();
+            final Deque<Iterator<String>> levels = new ArrayDeque<>();
+            @CheckForNull TPath next = start;
+
+            @Override
+            public boolean hasNext() {
+                if (null != next) return true;
+                while (!levels.isEmpty()) {
+                    final Iterator<String> it = levels.peek();
+                    if (it.hasNext()) {
+                        next = parents.peek().resolve(it.next());
+                        return true;
+                    }
+                    levels.pop();
+                    parents.pop();
+                }
+                return false;
+            }
+
+            @Override
+            public TPath next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final TPath path = next;
+                next = null;
+                if (levels.size() < maxDepth) {
+                    try {
+                        final Map<String, FsNode> nodes = path
+                                .getFileSystem()
+                                .getController()
+                                .nodes(path.getAccessPreferences(), path.getNodeName());
+                        if (null != nodes && !nodes.isEmpty()) {
+                            parents.push(path);
+                            levels.push(nodes.keySet().iterator());
+                        }
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+                return path;
+            }
+        } // Walker
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new Walker(), Spliterator.DISTINCT | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Walks the directory tree rooted at the given path and calls the given
+     * visitor for each path.
+     * This is like {@link Files#walkFileTree(Path, Set, int, FileVisitor)}
+     * without following links, but the members of each directory and their
+     * nodes get looked up in a single pass and the visitor gets called with a
+     * snapshot of the basic file attributes of each path which has been taken
+     * when listing its parent directory.
+     * So unlike {@link Files#walkFileTree}, this method does not need to look
+     * up each member again.
+     * The snapshots are only passed to the visitor - subsequent calls to
+     * {@link Files#readAttributes(Path, Class, LinkOption...)} always look up
+     * the current attributes.
+     * Archive files within the directory tree get entered if they are
+     * detected by the archive detector of the given path.
+     *
+     * @param  start the root of the directory tree.
+     * @param  maxDepth the maximum number of directory levels to visit.
+     *         Zero means that only the given path gets visited.
+     * @param  visitor the file visitor.
+     * @throws IllegalArgumentException if {@code maxDepth} is negative.
+     * @throws IOException if the visitor throws an I/O exception.
+     * @since  TrueVFS 0.15
+     */
+    public void walkFileTree(
+            final TPath start,
+            final int maxDepth,
+            final FileVisitor<? super Path> visitor)
+    throws IOException {
+        if (0 > maxDepth)
+            throw new IllegalArgumentException("maxDepth may not be negative: " + maxDepth);
+        final BasicFileAttributes attrs;
+        try {
+            attrs = start.getFileSystem().attributes(start);
+        } catch (final IOException ex) {
+            visitor.visitFileFailed(start, ex);
+            return;
+        }
+        visit(start, attrs, maxDepth, visitor);
+    }
+
+    private static FileVisitResult visit(
+            final TPath path,
+            final BasicFileAttributes attrs,
+            final int depth,
+            final FileVisitor<? super Path> visitor)
+    throws IOException {
+        if (0 >= depth || !attrs.isDirectory())
+            return visitor.visitFile(path, attrs);
+        final TFileSystem fs = path.getFileSystem();
+        final Map<String, FsNode> nodes;
+        try {
+            nodes = fs.nodes(path);
+        } catch (final IOException ex) {
+            return visitor.visitFileFailed(path, ex);
+        }
+        final FileVisitResult pre = visitor.preVisitDirectory(path, attrs);
+        if (FileVisitResult.CONTINUE != pre)
+            return FileVisitResult.SKIP_SUBTREE == pre
+                    ? FileVisitResult.CONTINUE
+                    : pre;
+        for (final Map.Entry<String, FsNode> member : nodes.entrySet()) {
+            final TPath child = path.resolve(member.getKey());
+            FileVisitResult result;
+            if (child.getMountPoint().equals(path.getMountPoint())) {
+                result = visit(child, new FsNodeAttributes(member.getValue()),
+                        depth - 1, visitor);
+            } else {
+                // A prospective archive file.
+                try {
+                    result = visit(child,
+                            child.getFileSystem().attributes(child),
+                            depth - 1, visitor);
+                } catch (final IOException ex) {
+                    result = visitor.visitFileFailed(child, ex);
+                }
+            }
+            if (FileVisitResult.TERMINATE == result) return result;
+            if (FileVisitResult.SKIP_SIBLINGS == result) break;
+        }
+        final FileVisitResult post = visitor.postVisitDirectory(path, null);
+        return FileVisitResult.SKIP_SUBTREE == post
+                ? FileVisitResult.CONTINUE
+                : post;
+    }
+
+    private Map<String, FsNode> nodes(final TPath path) throws IOException {
+        final Map<String, FsNode> nodes = getController()
+                .nodes(path.getAccessPreferences(), path.getNodeName());
+        if (null == nodes)
+            throw new NotDirectoryException(path.toString());
+        return nodes;
+    }
+
     @NotThreadSafe
     private static final class Stream implements DirectoryStream<Path> {
         final Iterator<Path> it;
@@ -412,7 +621,7 @@ public final class TFileSystem extends FileSystem {
             LinkOption... options)
     throws IOException {
         if (type.isAssignableFrom(BasicFileAttributes.class))
-            return type.cast(new FsNodeAttributes(path));
+            return type.cast(attributes(path));
         throw new UnsupportedOperationException();
     }
 
@@ -430,7 +639,7 @@ public final class TFileSystem extends FileSystem {
 
         @Override
         public BasicFileAttributes readAttributes() throws IOException {
-            return new FsNodeAttributes(path);
+            return attributes(path);
         }
 
         @Override
@@ -452,13 +661,20 @@ public final class TFileSystem extends FileSystem {
         }
     } // FsNodeAttributeView
 
-    private final class FsNodeAttributes implements BasicFileAttributes {
+    private BasicFileAttributes attributes(final TPath path)
+    throws IOException {
+        final FsNode entry = getController()
+                .node(path.getAccessPreferences(), path.getNodeName());
+        if (null == entry)
+            throw new NoSuchFileException(path.toString());
+        return new FsNodeAttributes(entry);
+    }
+
+    static final class FsNodeAttributes implements BasicFileAttributes {
         private final FsNode entry;
 
-        FsNodeAttributes(final TPath path) throws IOException {
-            if (null == (entry = getController()
-                    .node(path.getAccessPreferences(), path.getNodeName())))
-                throw new NoSuchFileException(path.toString());
+        FsNodeAttributes(final FsNode entry) {
+            this.entry = entry;
         }
 
         @Override
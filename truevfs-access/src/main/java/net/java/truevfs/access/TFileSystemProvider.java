@@ -12,9 +12,11 @@ import net.java.truecommons.cio.OutputSocket;
 import net.java.truecommons.shed.BitField;
 import net.java.truecommons.shed.UriBuilder;
 import net.java.truevfs.kernel.spec.FsAccessOption;
+import net.java.truevfs.kernel.spec.FsAsyncController;
 import net.java.truevfs.kernel.spec.FsMountPoint;
 import net.java.truevfs.kernel.spec.FsNode;
 import net.java.truevfs.kernel.spec.FsNodePath;
+import net.java.truevfs.kernel.spec.cio.ExecutorAsynchronousFileChannel;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
@@ -26,6 +28,7 @@ import java.io.OutputStream;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.DirectoryStream.Filter;
@@ -36,6 +39,9 @@ import java.nio.file.spi.FileSystemProvider;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static net.java.truecommons.cio.Entry.Type.DIRECTORY;
 import static net.java.truecommons.cio.Entry.Type.FILE;
@@ -67,6 +73,7 @@ public final class TFileSystemProvider extends FileSystemProvider {
     private final FsNodePath root;
 
     private Map<FsMountPoint, WeakReference<TFileSystem>> fileSystems = new WeakHashMap<>();
+    private final Lock lock = new ReentrantLock();
 
     /**
      * Obtains a file system provider for the given {@link TPath} URI.
@@ -244,11 +251,17 @@ public final class TFileSystemProvider extends FileSystemProvider {
      */
     TFileSystem getFileSystem(final TPath path) {
         final FsMountPoint mp = path.getMountPoint();
-        synchronized (this) {
+        // Creating a file system may block on the locks of the file system
+        // manager, so use a lock instead of a monitor in order to not pin
+        // the carrier thread of a virtual thread.
+        lock.lock();
+        try {
             TFileSystem fs = deref(fileSystems.get(mp));
             if (null == fs)
                 fileSystems.put(mp, new WeakReference<>(fs = new TFileSystem(path)));
             return fs;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -283,6 +296,38 @@ public final class TFileSystemProvider extends FileSystemProvider {
         return promote(path).newByteChannel(options, attrs);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the given path addresses a plain file in the platform file system,
+     * then this method returns an asynchronous file channel of the platform
+     * file system.
+     * Otherwise, the returned channel decorates a
+     * {@linkplain #newByteChannel seekable byte channel} and executes its
+     * operations on the given executor or, if this is {@code null}, on the
+     * {@linkplain FsAsyncController#getDefaultExecutor() default executor}.
+     */
+    @Override
+    public AsynchronousFileChannel newAsynchronousFileChannel(
+            final Path path,
+            final Set<? extends OpenOption> options,
+            final @Nullable ExecutorService executor,
+            final FileAttribute<?>... attrs)
+    throws IOException {
+        final TPath p = promote(path);
+        final FsNodePath nodePath = p.getNodePath();
+        final FsMountPoint mountPoint = nodePath.getMountPoint();
+        if (null == mountPoint.getParent()
+                && "file".equals(mountPoint.getScheme().toString()))
+            return AsynchronousFileChannel.open(
+                    Paths.get(nodePath.getUri()), options, executor, attrs);
+        return new ExecutorAsynchronousFileChannel(
+                p.newByteChannel(options, attrs),
+                null != executor
+                        ? executor
+                        : FsAsyncController.getDefaultExecutor());
+    }
+
     @Override
     public InputStream newInputStream(Path path, OpenOption... options)
     throws IOException {
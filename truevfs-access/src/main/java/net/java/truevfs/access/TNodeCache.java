@@ -0,0 +1,463 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access;
+
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.Entry.Access;
+import net.java.truecommons.cio.Entry.Entity;
+import net.java.truecommons.cio.Entry.Size;
+import net.java.truecommons.cio.Entry.Type;
+import net.java.truecommons.cio.DecoratingOutputSocket;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.DecoratingOutputStream;
+import net.java.truecommons.io.DecoratingSeekableChannel;
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.kernel.spec.*;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches the file system nodes which get looked up via the controllers of a
+ * file system manager, including their absence, for the
+ * {@linkplain TConfig#getNodeCacheTimeToLive() time to live} of the current
+ * configuration.
+ * <p>
+ * There is at most one cache per file system manager.
+ * The controllers returned by {@link #controller} decorate the controllers of
+ * the manager so that any write access clears the cache.
+ * Racing lookups cannot repopulate the cache with stale nodes because each
+ * write access also increments a generation counter and a node gets cached
+ * only if the generation has not changed during its lookup.
+ * <p>
+ * If the time to live is not positive when a controller gets requested, then
+ * {@link #controller} returns the undecorated controller of the manager, so
+ * that the cache costs nothing while it's disabled.
+ * Note that write access via such a controller does not clear the cache, so
+ * objects which have been created while the cache was disabled may see stale
+ * nodes for the time to live after it has been enabled.
+ *
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class TNodeCache {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final Lock lock = new ReentrantLock();
+
+    @GuardedBy("lock")
+    private static final Map<FsManager, TNodeCache> caches = new WeakHashMap<>();
+
+    /** The most recently used cache for a lookup without locking. */
+    private static volatile @CheckForNull TNodeCache recent;
+
+    private final WeakReference<FsManager> manager;
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentMap<Key, Value> entries = new ConcurrentHashMap<>();
+
+    private TNodeCache(final FsManager manager) {
+        this.manager = new WeakReference<>(manager);
+    }
+
+    private static TNodeCache get(final FsManager manager) {
+        final TNodeCache recent = TNodeCache.recent;
+        if (null != recent && recent.manager.get() == manager) return recent;
+        lock.lock();
+        try {
+            return TNodeCache.recent
+                    = caches.computeIfAbsent(manager, TNodeCache::new);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a decorated controller for the given mount point from the given
+     * manager or the undecorated controller if the time to live of the
+     * current configuration is not positive.
+     */
+    static FsController controller(
+            final FsManager manager,
+            final TArchiveDetector detector,
+            final FsMountPoint mountPoint) {
+        final FsController controller = manager.controller(detector, mountPoint);
+        return 0 < ttl() ? get(manager).new Controller(controller) : controller;
+    }
+
+    /** Clears the cache for the given manager. */
+    static void clear(FsManager manager) { get(manager).clear(); }
+
+    private void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private @CheckForNull FsNode node(
+            final FsController controller,
+            final BitField<FsAccessOption> options,
+            final FsNodeName name,
+            final long ttl)
+    throws IOException {
+        final Key key = new Key(controller.getModel().getMountPoint(), name, options);
+        final long generation = this.generation.get();
+        final long now = System.nanoTime();
+        final Value value = entries.get(key);
+        if (null != value && value.generation == generation
+                && 0 < value.expires - now)
+            return value.node;
+        final FsNode node = controller.node(options, name);
+        final FsNode snapshot = null == node ? null : new Snapshot(node);
+        if (MAX_ENTRIES <= entries.size()) entries.clear();
+        if (this.generation.get() == generation)
+            entries.put(key, new Value(generation,
+                    now + TimeUnit.MILLISECONDS.toNanos(ttl), snapshot));
+        return snapshot;
+    }
+
+    /** Returns the time to live of the current configuration. */
+    private static long ttl() {
+        return TConfig.current().getNodeCacheTimeToLive();
+    }
+
+    /** The key of a cached node. */
+    @Immutable
+    private static final class Key {
+        final FsMountPoint mountPoint;
+        final FsNodeName name;
+        final BitField<FsAccessOption> options;
+
+        Key(    final FsMountPoint mountPoint,
+                final FsNodeName name,
+                final BitField<FsAccessOption> options) {
+            this.mountPoint = mountPoint;
+            this.name = name;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            final Key that = (Key) obj;
+            return this.mountPoint.equals(that.mountPoint)
+                    && this.name.equals(that.name)
+                    && this.options.equals(that.options);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 17;
+            hash = 31 * hash + mountPoint.hashCode();
+            hash = 31 * hash + name.hashCode();
+            hash = 31 * hash + options.hashCode();
+            return hash;
+        }
+    }
+
+    /** A cached node or its absence. */
+    @Immutable
+    private static final class Value {
+        final long generation, expires;
+        final @CheckForNull FsNode node;
+
+        Value(  final long generation,
+                final long expires,
+                final @CheckForNull FsNode node) {
+            this.generation = generation;
+            this.expires = expires;
+            this.node = node;
+        }
+    }
+
+    /**
+     * A snapshot of a file system node which queries each property of the
+     * decorated node at most once.
+     * This matters for nodes which query the backing store on each call,
+     * e.g. the nodes of the file system driver.
+     * The lock is a {@link ReentrantLock} rather than a monitor because the
+     * decorated node may block on I/O, which would pin a virtual thread.
+     */
+    @ThreadSafe
+    private static final class Snapshot extends FsAbstractNode {
+        private static final long UNSET = Long.MIN_VALUE;
+
+        final FsNode node;
+        final String name;
+        final Lock lock = new ReentrantLock();
+
+        @GuardedBy("lock") @CheckForNull BitField<Type> types;
+        @GuardedBy("lock") final long[] sizes = unset(Size.values().length);
+        @GuardedBy("lock") final long[] times = unset(Access.values().length);
+        @GuardedBy("lock") boolean listed;
+        @GuardedBy("lock") @CheckForNull Set<String> members;
+
+        Snapshot(final FsNode node) {
+            this.node = node;
+            this.name = node.getName();
+        }
+
+        private static long[] unset(final int length) {
+            final long[] array = new long[length];
+            Arrays.fill(array, UNSET);
+            return array;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public BitField<Type> getTypes() {
+            lock.lock();
+            try {
+                BitField<Type> types = this.types;
+                if (null == types) types = this.types = node.getTypes();
+                return types;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long getSize(final Size type) {
+            lock.lock();
+            try {
+                long size = sizes[type.ordinal()];
+                if (UNSET == size) size = sizes[type.ordinal()] = node.getSize(type);
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long getTime(final Access type) {
+            lock.lock();
+            try {
+                long time = times[type.ordinal()];
+                if (UNSET == time) time = times[type.ordinal()] = node.getTime(type);
+                return time;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public @Nullable Boolean isPermitted(Access type, Entity entity) {
+            return node.isPermitted(type, entity);
+        }
+
+        @Override
+        public @Nullable Set<String> getMembers() {
+            lock.lock();
+            try {
+                if (!listed) {
+                    members = node.getMembers();
+                    listed = true;
+                }
+                return members;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Looks up nodes via the cache if the time to live of the current
+     * configuration is positive and clears the cache on any write access.
+     */
+    @ThreadSafe
+    private final class Controller extends FsDecoratingController {
+
+        Controller(FsController controller) { super(controller); }
+
+        @Override
+        public @CheckForNull FsNode node(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name)
+        throws IOException {
+            final long ttl = ttl();
+            return 0 < ttl
+                    ? TNodeCache.this.node(controller, options, name, ttl)
+                    : controller.node(options, name);
+        }
+
+        @Override
+        public void checkAccess(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name,
+                final BitField<Access> types)
+        throws IOException {
+            final long ttl = ttl();
+            if (types.isEmpty() && 0 < ttl) {
+                if (null == TNodeCache.this.node(controller, options, name, ttl))
+                    throw new NoSuchFileException(
+                            new FsNodePath(getMountPoint(), name).toString());
+            } else {
+                controller.checkAccess(options, name, types);
+            }
+        }
+
+        @Override
+        public void setReadOnly(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name)
+        throws IOException {
+            try {
+                controller.setReadOnly(options, name);
+            } finally {
+                clear();
+            }
+        }
+
+        @Override
+        public boolean setTime(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name,
+                final Map<Access, Long> times)
+        throws IOException {
+            try {
+                return controller.setTime(options, name, times);
+            } finally {
+                clear();
+            }
+        }
+
+        @Override
+        public boolean setTime(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name,
+                final BitField<Access> types,
+                final long value)
+        throws IOException {
+            try {
+                return controller.setTime(options, name, types, value);
+            } finally {
+                clear();
+            }
+        }
+
+        @Override
+        public OutputSocket<? extends Entry> output(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name,
+                final @CheckForNull Entry template) {
+            final class Output extends DecoratingOutputSocket<Entry> {
+                Output() { super(controller.output(options, name, template)); }
+
+                @Override
+                public OutputStream stream(
+                        final @CheckForNull InputSocket<? extends Entry> peer)
+                throws IOException {
+                    try {
+                        return new ClearingOutputStream(socket().stream(peer));
+                    } finally {
+                        clear();
+                    }
+                }
+
+                @Override
+                public SeekableByteChannel channel(
+                        final @CheckForNull InputSocket<? extends Entry> peer)
+                throws IOException {
+                    try {
+                        return new ClearingSeekableChannel(socket().channel(peer));
+                    } finally {
+                        clear();
+                    }
+                }
+            }
+            return new Output();
+        }
+
+        @Override
+        public void make(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name,
+                final Type type,
+                final @CheckForNull Entry template)
+        throws IOException {
+            try {
+                controller.make(options, name, type, template);
+            } finally {
+                clear();
+            }
+        }
+
+        @Override
+        public void unlink(
+                final BitField<FsAccessOption> options,
+                final FsNodeName name)
+        throws IOException {
+            try {
+                controller.unlink(options, name);
+            } finally {
+                clear();
+            }
+        }
+
+        @Override
+        public void sync(final BitField<FsSyncOption> options)
+        throws FsSyncException {
+            try {
+                controller.sync(options);
+            } finally {
+                clear();
+            }
+        }
+    }
+
+    /** Clears the cache when the decorated stream gets closed. */
+    private final class ClearingOutputStream extends DecoratingOutputStream {
+
+        ClearingOutputStream(OutputStream out) { super(out); }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                clear();
+            }
+        }
+    }
+
+    /** Clears the cache when the decorated channel gets closed. */
+    private final class ClearingSeekableChannel
+    extends DecoratingSeekableChannel {
+
+        ClearingSeekableChannel(SeekableByteChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.ThreadSafe;
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.access.TFileSystem.FsNodeAttributes;
+import net.java.truevfs.kernel.spec.FsAccessOption;
+import net.java.truevfs.kernel.spec.FsController;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.FsNode;
+import net.java.truevfs.kernel.spec.FsNodeName;
+import net.java.truevfs.kernel.spec.FsNodePath;
+import net.java.truevfs.kernel.spec.FsSyncException;
+import static net.java.truevfs.kernel.spec.FsSyncOptions.UMOUNT;
+
+/**
+ * A read-only snapshot of an archive file system.
+ * A snapshot reflects the directory tree and the entry data of the archive
+ * file system at the time when it was taken by calling
+ * {@link TFileSystem#snapshot()}.
+ * Subsequent changes to the archive file system are not visible in the
+ * snapshot, and reading the snapshot never acquires the locks of the archive
+ * file system, so long-running scans or report jobs neither block nor get
+ * blocked by concurrent updates.
+ * <p>
+ * The entries of the snapshot get addressed by their names relative to the
+ * root of the archive file system, using "{@code /}" as the separator, e.g.
+ * {@code "META-INF/MANIFEST.MF"}.
+ * The empty string addresses the root directory.
+ * <p>
+ * A snapshot holds on to resources, e.g. an open target archive file or a
+ * temporary copy of it, so it must get {@linkplain #close() closed} when
+ * done.
+ *
+ * @since  TrueVFS 0.15
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+public final class TSnapshot implements Closeable {
+
+    private final FsController controller;
+    private final BitField<FsAccessOption> options;
+
+    TSnapshot(final @WillCloseWhenClosed FsController controller) {
+        this.controller = Objects.requireNonNull(controller);
+        this.options = TConfig.current().getAccessPreferences();
+    }
+
+    /**
+     * Returns the mount point of the archive file system.
+     *
+     * @return The mount point of the archive file system.
+     */
+    public FsMountPoint getMountPoint() {
+        return controller.getModel().getMountPoint();
+    }
+
+    /**
+     * Returns the basic file attributes of the given entry.
+     *
+     * @param  name the name of the entry.
+     * @return The basic file attributes of the given entry.
+     * @throws NoSuchFileException if the entry does not exist.
+     * @throws IOException on any other I/O error.
+     */
+    public BasicFileAttributes readAttributes(final String name)
+    throws IOException {
+        final FsNode node = controller.node(options, nodeName(name));
+        if (null == node)
+            throw new NoSuchFileException(path(name));
+        return new FsNodeAttributes(node);
+    }
+
+    /**
+     * Returns the basic file attributes of the members of the given
+     * directory entry, keyed by their member names.
+     *
+     * @param  name the name of the directory entry.
+     * @return An unmodifiable map of the basic file attributes of the members
+     *         of the given directory entry.
+     * @throws NotDirectoryException if the entry does not exist or is not a
+     *         directory.
+     * @throws IOException on any other I/O error.
+     */
+    public Map<String, BasicFileAttributes> list(final String name)
+    throws IOException {
+        final Map<String, FsNode> nodes = controller.nodes(options, nodeName(name));
+        if (null == nodes)
+            throw new NotDirectoryException(path(name));
+        final Map<String, BasicFileAttributes> attributes =
+                new LinkedHashMap<>(nodes.size() * 4 / 3 + 1);
+        for (final Map.Entry<String, FsNode> member : nodes.entrySet())
+            attributes.put(member.getKey(), new FsNodeAttributes(member.getValue()));
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Returns a new input stream for reading the given entry.
+     *
+     * @param  name the name of the entry.
+     * @return A new input stream for reading the given entry.
+     * @throws IOException on any I/O error.
+     */
+    public InputStream newInputStream(final String name) throws IOException {
+        return controller.input(options, nodeName(name)).stream(null);
+    }
+
+    /**
+     * Returns a new seekable byte channel for reading the given entry.
+     *
+     * @param  name the name of the entry.
+     * @return A new seekable byte channel for reading the given entry.
+     * @throws IOException on any I/O error.
+     */
+    public SeekableByteChannel newByteChannel(final String name)
+    throws IOException {
+        return controller.input(options, nodeName(name)).channel(null);
+    }
+
+    /**
+     * Releases the resources of this snapshot.
+     * Thereafter, this snapshot must not get used anymore.
+     * Subsequent calls to this method have no effect.
+     *
+     * @throws FsSyncException if releasing the resources fails.
+     */
+    @Override
+    public void close() throws FsSyncException {
+        controller.sync(UMOUNT);
+    }
+
+    private static FsNodeName nodeName(String name) {
+        return FsNodeName.forPath(name);
+    }
+
+    private String path(String name) {
+        return new FsNodePath(getMountPoint(), nodeName(name)).toString();
+    }
+
+    /**
+     * Returns a string representation of this object for debugging and logging
+     * purposes.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s[mountPoint=%s]",
+                getClass().getName(),
+                getMountPoint());
+    }
+}
@@ -9,10 +9,15 @@ import net.java.truecommons.shed.Filter;
 import net.java.truecommons.shed.Visitor;
 import net.java.truevfs.kernel.spec.*;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
 import static net.java.truevfs.access.ExpertFeature.Reason.THE_PRESENCE_OR_ABSENCE_OF_SOME_OPTIONS_MAY_YIELD_UNWANTED_SIDE_EFFECTS;
+import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.DEFER;
+import static net.java.truevfs.kernel.spec.FsSyncOption.ABORT_CHANGES;
+import static net.java.truevfs.kernel.spec.FsSyncOption.FORCE_CLOSE_IO;
 import static net.java.truevfs.kernel.spec.FsSyncOptions.UMOUNT;
 import static net.java.truevfs.kernel.spec.FsUriModifier.CANONICALIZE;
 
@@ -104,6 +109,77 @@ public final class TVFS {
         sync(tree, UMOUNT);
     }
 
+    /**
+     * Runs the given batch of operations on the given archive file as a
+     * transaction.
+     * While the batch is running, the entry data gets
+     * {@linkplain FsAccessOption#CACHE cached} and writing the archive file
+     * gets {@linkplain FsAccessOption#DEFER deferred}, so that overwriting an
+     * entry multiple times just replaces its cached data instead of requiring
+     * a sync of the archive file each time.
+     * <p>
+     * If the batch terminates normally, then all changes get committed by a
+     * single call to {@link #umount(TFile) umount(archive)}.
+     * Otherwise, all changes to the archive file and any archive files
+     * nested within it get aborted, any I/O resources which the batch has not
+     * closed get forcibly closed and the exception gets rethrown.
+     * In this case, the archive file is left untouched.
+     * <p>
+     * The options only apply to the current thread and any threads which get
+     * started by it while the batch is running.
+     * The archive file should not get modified or synced by any other thread
+     * while the batch is running.
+     * Otherwise, the changes of the batch may get committed in part or
+     * aborting them may fail to leave the archive file untouched.
+     *
+     * @param  archive the archive file.
+     * @param  batch the batch of operations.
+     * @throws IllegalArgumentException if {@code archive} is not a
+     *         (prospective) archive file.
+     * @throws FsSyncException if committing the changes fails.
+     * @throws IOException at the discretion of {@code batch}.
+     * @since  TrueVFS 0.15
+     */
+    public static void batch(final TFile archive, final Batch batch)
+    throws IOException {
+        if (!archive.isArchive())
+            throw new IllegalArgumentException(archive + " (not an archive file)");
+        try (TConfig config = TConfig.open()) {
+            config.setAccessPreferences(config.getAccessPreferences()
+                    .set(CACHE)
+                    .set(DEFER));
+            try {
+                batch.run(archive);
+            } catch (final Throwable ex) {
+                try {
+                    sync(archive, BitField.of(ABORT_CHANGES, FORCE_CLOSE_IO));
+                } catch (final Throwable ex2) {
+                    ex.addSuppressed(ex2);
+                }
+                throw ex;
+            }
+        }
+        umount(archive);
+    }
+
+    /**
+     * A batch of operations on an archive file.
+     *
+     * @see   #batch(TFile, Batch)
+     * @since TrueVFS 0.15
+     */
+    @FunctionalInterface
+    public interface Batch {
+
+        /**
+         * Runs the operations on the given archive file.
+         *
+         * @param  archive the archive file.
+         * @throws IOException on any I/O error.
+         */
+        void run(TFile archive) throws IOException;
+    }
+
     /**
      * Returns a mount point for the given (virtual) directory {@code tree}.
      * If {@code tree} refers to a (prospective) archive file, then its mount
@@ -171,10 +247,15 @@ public final class TVFS {
     @ExpertFeature(THE_PRESENCE_OR_ABSENCE_OF_SOME_OPTIONS_MAY_YIELD_UNWANTED_SIDE_EFFECTS)
     public static void sync(BitField<FsSyncOption> options)
     throws FsSyncWarningException, FsSyncException {
-        new FsSync()
-                .manager(TConfig.current().getManager())
-                .options(options)
-                .run();
+        final FsManager manager = TConfig.current().getManager();
+        try {
+            new FsSync()
+                    .manager(manager)
+                    .options(options)
+                    .run();
+        } finally {
+            TNodeCache.clear(manager);
+        }
     }
 
     /**
@@ -270,11 +351,16 @@ public final class TVFS {
     @ExpertFeature(THE_PRESENCE_OR_ABSENCE_OF_SOME_OPTIONS_MAY_YIELD_UNWANTED_SIDE_EFFECTS)
     public static void sync(FsMountPoint tree, BitField<FsSyncOption> options)
     throws FsSyncWarningException, FsSyncException {
-        new FsSync()
-                .manager(TConfig.current().getManager())
-                .filter(FsControllerFilter.forPrefix(tree))
-                .options(options)
-                .run();
+        final FsManager manager = TConfig.current().getManager();
+        try {
+            new FsSync()
+                    .manager(manager)
+                    .filter(FsControllerFilter.forPrefix(tree))
+                    .options(options)
+                    .run();
+        } finally {
+            TNodeCache.clear(manager);
+        }
     }
 
 }
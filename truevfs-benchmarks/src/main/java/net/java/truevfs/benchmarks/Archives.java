@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileOutputStream;
+import net.java.truevfs.access.TVFS;
+import net.java.truevfs.comp.zip.ZipEntry;
+import net.java.truevfs.comp.zip.ZipOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Generates the synthetic archive files for the benchmarks.
+ *
+ * @author Christian Schlichtherle
+ */
+final class Archives {
+
+    private static final String PREFIX = "truevfs-benchmarks";
+
+    private Archives() { }
+
+    /** Returns the name of the entry with the given index. */
+    static String name(int i) { return String.format("dir%03d/entry%07d", i % 1000, i); }
+
+    /**
+     * Returns {@code size} bytes of pseudo random data which compresses at
+     * about the same ratio as text.
+     */
+    static byte[] data(final int size) {
+        final byte[] data = new byte[size];
+        final Random rnd = new Random(0);
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) ('a' + (int) Math.abs(rnd.nextGaussian() * 4) % 26);
+        return data;
+    }
+
+    /**
+     * Writes a ZIP file with the given number of STORED entries of the given
+     * size to a temporary file.
+     */
+    static Path zip(final int entries, final int size) throws IOException {
+        final Path file = Files.createTempFile(PREFIX, ".zip");
+        final byte[] data = data(size);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        try (ZipOutputStream zos = new ZipOutputStream(out(file))) {
+            for (int i = 0; i < entries; i++) {
+                final ZipEntry entry = new ZipEntry(name(i));
+                entry.setMethod(ZipEntry.STORED);
+                entry.setCrc(crc.getValue());
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                zos.putNextEntry(entry);
+                zos.write(data);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Writes a TAR file with the given number of entries of the given size to
+     * a temporary file.
+     */
+    static Path tar(final int entries, final int size) throws IOException {
+        final Path file = Files.createTempFile(PREFIX, ".tar");
+        final byte[] data = data(size);
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(out(file))) {
+            tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            for (int i = 0; i < entries; i++) {
+                final TarArchiveEntry entry = new TarArchiveEntry(name(i));
+                entry.setSize(size);
+                tos.putArchiveEntry(entry);
+                tos.write(data);
+                tos.closeArchiveEntry();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates the archive file {@code archive.zip} with the given number of
+     * entries of the given size in a new temporary directory by using the
+     * access layer.
+     */
+    static TFile archive(final int entries, final int size) throws IOException {
+        final TFile archive = new TFile(
+                Files.createTempDirectory(PREFIX).toFile(), "archive.zip");
+        final byte[] data = data(size);
+        for (int i = 0; i < entries; i++)
+            try (OutputStream out = new TFileOutputStream(new TFile(archive, name(i)))) {
+                out.write(data);
+            }
+        TVFS.umount(archive);
+        return archive;
+    }
+
+    /** Deletes the temporary directory of the given archive file. */
+    static void delete(final TFile archive) throws IOException {
+        TVFS.umount(archive);
+        archive.toNonArchiveFile().rm();
+        archive.getParentFile().rm();
+    }
+
+    private static OutputStream out(Path file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+    }
+}
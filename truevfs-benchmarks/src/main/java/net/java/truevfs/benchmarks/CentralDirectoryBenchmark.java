@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.comp.zip.ZipFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of opening a ZIP file, which is dominated by parsing
+ * its central directory.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CentralDirectoryBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int entries;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException { file = Archives.zip(entries, 0); }
+
+    @TearDown
+    public void tearDown() throws IOException { Files.delete(file); }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (ZipFile zip = new ZipFile(file)) {
+            return zip.size();
+        }
+    }
+}
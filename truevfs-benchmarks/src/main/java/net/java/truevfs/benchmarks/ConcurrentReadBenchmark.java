@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileInputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of reading random entries of a mounted ZIP file
+ * from multiple threads, which is subject to lock contention.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentReadBenchmark {
+
+    @Param({ "1000" })
+    public int entries;
+
+    @Param({ "4096", "65536" })
+    public int size;
+
+    private TFile archive;
+
+    @Setup
+    public void setUp() throws IOException {
+        archive = Archives.archive(entries, size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException { Archives.delete(archive); }
+
+    @Benchmark
+    public long read(final Buffer buffer) throws IOException {
+        final TFile entry = new TFile(archive,
+                Archives.name(ThreadLocalRandom.current().nextInt(entries)));
+        long total = 0;
+        try (InputStream in = new TFileInputStream(entry)) {
+            for (int read; 0 <= (read = in.read(buffer.bytes)); )
+                total += read;
+        }
+        return total;
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        final byte[] bytes = new byte[8 * 1024];
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs the JMH benchmarks.
+ * Unless specified otherwise on the command line, the results get written to
+ * {@code target/jmh-result.json}.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class Main {
+
+    private Main() { }
+
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions cli = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue()) {
+            final Path result = Paths.get("target", "jmh-result.json");
+            Files.createDirectories(result.getParent());
+            options.result(result.toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
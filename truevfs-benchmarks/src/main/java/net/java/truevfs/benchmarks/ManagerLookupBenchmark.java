@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.access.TConfig;
+import net.java.truevfs.kernel.spec.FsCompositeDriver;
+import net.java.truevfs.kernel.spec.FsController;
+import net.java.truevfs.kernel.spec.FsManager;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.sl.FsManagerLocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of looking up the file system controller for a mount
+ * point from the file system manager when many archive files are in use.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ManagerLookupBenchmark {
+
+    @Param({ "100", "10000" })
+    public int mountPoints;
+
+    private final FsManager manager = FsManagerLocator.SINGLETON.get();
+    private final FsCompositeDriver driver = TConfig.current().getArchiveDetector();
+    private FsMountPoint[] points;
+    private FsController[] controllers;
+
+    @Setup
+    public void setUp() throws URISyntaxException {
+        final URI dir = Paths.get(System.getProperty("java.io.tmpdir")).toUri();
+        points = new FsMountPoint[mountPoints];
+        controllers = new FsController[mountPoints];
+        for (int i = 0; i < mountPoints; i++) {
+            points[i] = new FsMountPoint(new URI("zip:" + dir.resolve("archive" + i + ".zip") + "!/"));
+            // Keep strong references so that the manager doesn't forget them.
+            controllers[i] = manager.controller(driver, points[i]);
+        }
+    }
+
+    @Benchmark
+    public FsController lookup() {
+        return manager.controller(driver,
+                points[ThreadLocalRandom.current().nextInt(mountPoints)]);
+    }
+}
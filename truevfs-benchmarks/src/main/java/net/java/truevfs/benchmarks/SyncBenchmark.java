@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.access.TConfig;
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileOutputStream;
+import net.java.truevfs.access.TVFS;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+
+/**
+ * Measures the cost of syncing a small change to a large ZIP file, i.e.
+ * writing a single entry and unmounting the archive file.
+ * Unless {@link #grow} is {@code true}, this requires rewriting the entire
+ * archive file.
+ * Otherwise, each sync appends to the archive file, so each iteration starts
+ * with a fresh copy of it in order to keep it from growing without bound.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SyncBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int entries;
+
+    @Param({ "false", "true" })
+    public boolean grow;
+
+    private final byte[] data = Archives.data(1024);
+    private TFile original, archive;
+
+    @Setup
+    public void setUp() throws IOException {
+        original = Archives.archive(entries, 4096);
+        archive = new TFile(original.getParentFile(), "copy.zip");
+    }
+
+    @Setup(Level.Iteration)
+    public void copy() throws IOException {
+        TVFS.umount(archive);
+        Files.copy(Paths.get(original.getPath()), Paths.get(archive.getPath()), REPLACE_EXISTING);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        TVFS.umount(archive);
+        archive.toNonArchiveFile().rm();
+        Archives.delete(original);
+    }
+
+    @Benchmark
+    public void sync() throws IOException {
+        try (TConfig config = TConfig.open()) {
+            config.setAccessPreference(GROW, grow);
+            try (OutputStream out = new TFileOutputStream(new TFile(archive, "changed"))) {
+                out.write(data);
+            }
+            TVFS.umount(archive);
+        }
+    }
+}
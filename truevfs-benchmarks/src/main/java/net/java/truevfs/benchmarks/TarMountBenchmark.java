@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truecommons.io.AbstractSource;
+import net.java.truevfs.comp.tardriver.TarDriver;
+import net.java.truevfs.comp.tardriver.TarInputService;
+import net.java.truevfs.kernel.spec.FsAbstractModel;
+import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of mounting a TAR file, which requires reading the
+ * entire archive file and buffering the contents of its entries.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TarMountBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int entries;
+
+    @Param({ "0", "4096" })
+    public int size;
+
+    private final TarDriver driver = new TarDriver();
+    private Path file;
+    private FsModel model;
+
+    @Setup
+    public void setUp() throws IOException, URISyntaxException {
+        file = Archives.tar(entries, size);
+        model = new Model(new FsMountPoint(file.getParent().toUri()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException { Files.delete(file); }
+
+    @Benchmark
+    public int mount() throws IOException {
+        try (TarInputService service = new TarInputService(model, new AbstractSource() {
+            @Override
+            public InputStream stream() throws IOException {
+                return Files.newInputStream(file);
+            }
+        }, driver)) {
+            return service.size();
+        }
+    }
+
+    private static final class Model extends FsAbstractModel {
+        boolean mounted;
+
+        Model(FsMountPoint mountPoint) { super(mountPoint, null); }
+
+        @Override
+        public boolean isMounted() { return mounted; }
+
+        @Override
+        public void setMounted(boolean mounted) { this.mounted = mounted; }
+    }
+}
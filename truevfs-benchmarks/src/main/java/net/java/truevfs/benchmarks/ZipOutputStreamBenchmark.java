@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.benchmarks;
+
+import net.java.truevfs.comp.zip.ZipEntry;
+import net.java.truevfs.comp.zip.ZipOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Measures the throughput of writing an entry of {@value #SIZE} bytes with a
+ * {@link ZipOutputStream} per compression method.
+ * The output gets discarded, so the result is the number of MiB per second
+ * which the compression method can process.
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZipOutputStreamBenchmark {
+
+    static final int SIZE = 1024 * 1024;
+
+    @Param({ "STORED", "DEFLATED", "BZIP2" })
+    public String method;
+
+    private final byte[] data = Archives.data(SIZE);
+    private long crc;
+
+    @Setup
+    public void setUp() {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        this.crc = crc.getValue();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        final Sink sink = new Sink();
+        try (ZipOutputStream zos = new ZipOutputStream(sink)) {
+            final ZipEntry entry = new ZipEntry("entry");
+            switch (method) {
+                case "STORED":
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setCrc(crc);
+                    entry.setSize(SIZE);
+                    entry.setCompressedSize(SIZE);
+                    break;
+                case "DEFLATED":
+                    entry.setMethod(ZipEntry.DEFLATED);
+                    break;
+                case "BZIP2":
+                    entry.setMethod(ZipEntry.BZIP2);
+                    break;
+                default:
+                    throw new IllegalArgumentException(method);
+            }
+            zos.putNextEntry(entry);
+            zos.write(data);
+        }
+        return sink.count;
+    }
+
+    /** Counts and discards all bytes written. */
+    private static final class Sink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) { count++; }
+
+        @Override
+        public void write(byte[] b, int off, int len) { count += len; }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+/**
+ * Provides JMH benchmarks for the kernel, the ZIP and TAR components and the
+ * access layer.
+ * <p>
+ * All benchmarks generate their synthetic archive files in a temporary
+ * directory, so no test data needs to get checked in.
+ * Run them with {@code sbt "benchmarks/runMain net.java.truevfs.benchmarks.Main"}
+ * in order to write the results to {@code target/jmh-result.json} for
+ * regression tracking.
+ * Any JMH command line option gets forwarded, e.g. {@code -prof gc} in order
+ * to measure the allocation rate or a regular expression in order to select
+ * some benchmarks.
+ *
+ * @author Christian Schlichtherle
+ */
+@javax.annotation.Nonnull @javax.annotation.ParametersAreNonnullByDefault
+package net.java.truevfs.benchmarks;
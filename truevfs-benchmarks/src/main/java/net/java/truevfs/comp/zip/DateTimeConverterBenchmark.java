@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.java.truevfs.comp.zip.DateTimeConverter.MAX_DOS_TIME;
+import static net.java.truevfs.comp.zip.DateTimeConverter.MIN_DOS_TIME;
+
+/**
+ * Compares the table driven {@link DateTimeConverter} with the original,
+ * calendar based implementation.
+ * This benchmark resides in the package of the {@code DateTimeConverter}
+ * because it needs package private access.
+ * Run it with:
+ * <pre>{@code
+ * sbt "benchmarks/runMain net.java.truevfs.benchmarks.Main DateTimeConverterBenchmark -prof gc"
+ * }</pre>
+ *
+ * @author Christian Schlichtherle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeConverterBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"JAR", "ZIP"})
+    public DateTimeConverter converter;
+
+    private CalendarDateTimeConverter reference;
+
+    private final long[] javaTimes = new long[SIZE];
+    private final long[] dosTimes = new long[SIZE];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        reference = CalendarDateTimeConverter.of(converter);
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < SIZE; i++) {
+            javaTimes[i] = now - i * 86_399_999L;
+            dosTimes[i] = converter.toDosTime(javaTimes[i]);
+            assert MIN_DOS_TIME <= dosTimes[i] && dosTimes[i] <= MAX_DOS_TIME;
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public long toDosTimeTable() {
+        return converter.toDosTime(javaTimes[next()]);
+    }
+
+    @Benchmark
+    public long toDosTimeCalendar() {
+        return reference.toDosTime(javaTimes[next()]);
+    }
+
+    @Benchmark
+    public long toJavaTimeTable() {
+        return converter.toJavaTime(dosTimes[next()]);
+    }
+
+    @Benchmark
+    public long toJavaTimeCalendar() {
+        return reference.toJavaTime(dosTimes[next()]);
+    }
+}
@@ -24,6 +24,8 @@ import net.java.truecommons.shed.BitField;
 import net.java.truevfs.kernel.spec.FsAccessOption;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
 import static net.java.truevfs.kernel.spec.FsAccessOption.COMPRESS;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static net.java.truevfs.kernel.spec.FsAccessOption.UPDATE;
 import net.java.truevfs.kernel.spec.FsArchiveDriver;
 import net.java.truevfs.kernel.spec.FsController;
 import net.java.truevfs.kernel.spec.FsInputSocketSource;
@@ -134,6 +136,18 @@ public class TarDriver extends FsArchiveDriver<TarDriverEntry> {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return The implementation in the class {@link TarDriver} returns
+     *         {@code true} if and only if the given exception is a
+     *         {@link TarException}.
+     */
+    @Override
+    public boolean isPersistentFalsePositive(IOException ex) {
+        return ex instanceof TarException;
+    }
+
     @Override
     protected InputService<TarDriverEntry> newInput(
             final FsModel model,
@@ -148,7 +162,8 @@ public class TarDriver extends FsArchiveDriver<TarDriverEntry> {
             FsOutputSocketSink sink,
             @CheckForNull @WillNotClose InputService<TarDriverEntry> input)
     throws IOException {
-        return new MultiplexingOutputService<>(getPool(), new TarOutputService(model, sink, this));
+        return new MultiplexingOutputService<>(getPool(),
+                new TarOutputService(model, sink, (TarInputService) input, this));
     }
 
     /**
@@ -168,8 +183,15 @@ public class TarDriver extends FsArchiveDriver<TarDriverEntry> {
     }
 
     /**
-     * Sets {@link FsAccessOption#COMPRESS} in {@code options} before
-     * forwarding the call to {@code controller}.
+     * This implementation transforms {@code options} in the following way
+     * before it forwards the call to {@code controller}:
+     * <ol>
+     * <li>{@link FsAccessOption#COMPRESS} is set.
+     * <li>If {@link FsAccessOption#GROW} is set, then
+     *     {@link FsAccessOption#UPDATE} gets set, too, and
+     *     {@link FsAccessOption#CACHE} gets cleared, so that the
+     *     {@link TarOutputService} can append to the TAR file in place.
+     * </ol>
      */
     @Override
     protected FsOutputSocketSink sink(
@@ -179,6 +201,9 @@ public class TarDriver extends FsArchiveDriver<TarDriverEntry> {
         // Leave FsAccessOption.STORE untouched - the driver shall be given
         // opportunity to get its own preferences to sort out such a conflict.
         options = options.set(COMPRESS);
+        if (options.get(GROW)) {
+            options = options.set(UPDATE).clear(CACHE);
+        }
         return new FsOutputSocketSink(options,
                 controller.output(options, name, null));
     }
@@ -7,6 +7,7 @@ package net.java.truevfs.comp.tardriver;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import net.java.truecommons.cio.Entry;
 import net.java.truecommons.cio.IoBuffer;
+import net.java.truecommons.io.Source;
 import net.java.truecommons.shed.Releasable;
 import net.java.truevfs.kernel.spec.FsArchiveEntries;
 import net.java.truevfs.kernel.spec.FsArchiveEntry;
@@ -49,6 +50,7 @@ implements FsArchiveEntry, Releasable<IOException> {
 
     private byte init; // bit flags for init state
     private @CheckForNull IoBuffer buffer;
+    private @CheckForNull Records records;
 
     public TarDriverEntry(final String name) {
         super(name, true);
@@ -84,6 +86,20 @@ implements FsArchiveEntry, Releasable<IOException> {
 
     void setBuffer(final @CheckForNull IoBuffer buffer) { this.buffer = buffer; }
 
+    /**
+     * Returns the records of this entry in the TAR file it has been read
+     * from or {@code null} if they are unknown or if this entry has been
+     * changed since.
+     */
+    @CheckForNull Records getRecords() {
+        final Records records = this.records;
+        return null != records && records.matches(this) ? records : null;
+    }
+
+    void setRecords(Source source, long offset, long length) {
+        this.records = new Records(source, offset, length, this);
+    }
+
     @Override
     public void release() throws IOException {
         if (null == buffer) return;
@@ -248,4 +264,36 @@ implements FsArchiveEntry, Releasable<IOException> {
      */
     @Override
     public String toString() { return FsArchiveEntries.toString(this); }
+
+    /**
+     * The header, data and padding records of an entry in the TAR file it has
+     * been read from.
+     * This includes any extended header records which precede the entry.
+     * The records are only valid as long as the mode, modification time and
+     * size of the entry are unchanged.
+     */
+    static final class Records {
+        final Source source;
+        final long offset, length;
+        private final int mode;
+        private final long time, size;
+
+        Records(final Source source,
+                final long offset,
+                final long length,
+                final TarDriverEntry entry) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.mode = entry.getMode();
+            this.time = entry.getModTime().getTime();
+            this.size = entry.getSize();
+        }
+
+        boolean matches(final TarDriverEntry entry) {
+            return mode == entry.getMode()
+                    && time == entry.getModTime().getTime()
+                    && size == entry.getSize();
+        }
+    }
 }
@@ -12,6 +12,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.NoSuchFileException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -20,6 +21,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import javax.annotation.CheckForNull;
+import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.NotThreadSafe;
 import net.java.truecommons.cio.AbstractInputSocket;
@@ -32,6 +34,7 @@ import net.java.truecommons.cio.InputSocket;
 import net.java.truecommons.cio.IoBuffer;
 import net.java.truecommons.cio.IoBufferPool;
 import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.DecoratingInputStream;
 import net.java.truecommons.io.Source;
 import net.java.truecommons.io.Streams;
 import net.java.truecommons.shed.ExceptionBuilder;
@@ -39,7 +42,10 @@ import static net.java.truecommons.shed.HashMaps.OVERHEAD_SIZE;
 import static net.java.truecommons.shed.HashMaps.initialCapacity;
 import net.java.truecommons.shed.SuppressedExceptionBuilder;
 import net.java.truevfs.kernel.spec.FsArchiveDriver;
+import net.java.truevfs.kernel.spec.FsInputSocketSource;
 import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import static org.apache.commons.compress.archivers.tar.TarConstants.DEFAULT_BLKSIZE;
@@ -80,6 +86,12 @@ implements InputService<TarDriverEntry> {
 
     private final TarDriver driver;
 
+    /**
+     * The offset of the record following the last entry in the TAR file,
+     * which is where its end-of-archive marker starts.
+     */
+    private long endOfEntries;
+
     @CreatesObligation
     public TarInputService(
             final FsModel model,
@@ -90,7 +102,8 @@ implements InputService<TarDriverEntry> {
         this.driver = Objects.requireNonNull(driver);
         try (final InputStream in = source.stream()) {
             try {
-                unpack(newValidatedTarArchiveInputStream(in));
+                unpack(newValidatedTarArchiveInputStream(in),
+                        source instanceof FsInputSocketSource ? source : null);
             } catch (final Throwable ex) {
                 try {
                     close0();
@@ -102,7 +115,15 @@ implements InputService<TarDriverEntry> {
         }
     }
 
-    private void unpack(final @WillNotClose TarArchiveInputStream tain)
+    /**
+     * Unpacks the entries of the TAR file.
+     * If the given source of the TAR file is not {@code null}, then the
+     * records of each file entry get recorded for raw copying them when the
+     * TAR file gets rewritten.
+     */
+    private void unpack(
+            final @WillNotClose TarArchiveInputStream tain,
+            final @CheckForNull Source raw)
     throws IOException {
         final TarDriver driver = this.driver;
         final IoBufferPool pool = driver.getPool();
@@ -130,9 +151,25 @@ implements InputService<TarDriverEntry> {
                 }
             }
             entries.put(name, entry);
+            final long offset = endOfEntries;
+            final long read = tain.getBytesRead();
+            endOfEntries = (read + DEFAULT_RCDSIZE - 1)
+                    / DEFAULT_RCDSIZE * DEFAULT_RCDSIZE;
+            if (null != raw && !tinEntry.isDirectory())
+                entry.setRecords(raw, offset, endOfEntries - offset);
         }
     }
 
+    /**
+     * Returns the offset of the record following the last entry in the TAR
+     * file, which is where its end-of-archive marker starts.
+     * New entries can get appended to the TAR file by overwriting it from
+     * this offset.
+     */
+    long getEndOfEntries() {
+        return endOfEntries;
+    }
+
     private static String name(final TarArchiveEntry entry) {
         final String name = entry.getName();
         final Type type = entry.isDirectory() ? DIRECTORY : FILE;
@@ -240,7 +277,7 @@ implements InputService<TarDriverEntry> {
             @Override
             public InputStream stream(OutputSocket<? extends Entry> peer)
             throws IOException {
-                return socket().stream(peer);
+                return new EntryInputStream(socket().stream(peer));
             }
 
             @Override
@@ -262,6 +299,27 @@ implements InputService<TarDriverEntry> {
         close0();
     }
 
+    /**
+     * This entry input stream can transfer its data to a writable byte
+     * channel.
+     * This enables the {@link TarOutputService} to copy the records of an
+     * unchanged entry from the TAR file instead of this data when the TAR
+     * file gets rewritten.
+     */
+    private static final class EntryInputStream
+    extends DecoratingInputStream implements ChannelInput {
+
+        @CreatesObligation
+        EntryInputStream(@WillCloseWhenClosed InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel target) throws IOException {
+            return ChannelTransfers.transfer(in, target);
+        }
+    } // EntryInputStream
+
     private void close0() throws IOException {
         final ExceptionBuilder<IOException, IOException>
                     builder = new SuppressedExceptionBuilder<>();
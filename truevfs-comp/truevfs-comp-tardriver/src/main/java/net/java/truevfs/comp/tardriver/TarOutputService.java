@@ -13,21 +13,45 @@ import net.java.truecommons.io.DecoratingOutputStream;
 import net.java.truecommons.io.DisconnectingOutputStream;
 import net.java.truecommons.io.Sink;
 import net.java.truecommons.io.Streams;
+import net.java.truevfs.kernel.spec.FsAccessOption;
 import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsOutputSocketSink;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelOutput;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarUtils;
 
 import javax.annotation.CheckForNull;
+import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.NotThreadSafe;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 
 import static net.java.truecommons.cio.Entry.Size.DATA;
 import static net.java.truecommons.cio.Entry.UNKNOWN;
 import static net.java.truecommons.shed.HashMaps.OVERHEAD_SIZE;
 import static net.java.truecommons.shed.HashMaps.initialCapacity;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static org.apache.commons.compress.archivers.tar.TarArchiveOutputStream.BIGNUMBER_STAR;
+import static org.apache.commons.compress.archivers.tar.TarConstants.CHKSUMLEN;
 import static org.apache.commons.compress.archivers.tar.TarConstants.DEFAULT_BLKSIZE;
+import static org.apache.commons.compress.archivers.tar.TarConstants.DEFAULT_RCDSIZE;
+import static org.apache.commons.compress.archivers.tar.TarConstants.GIDLEN;
+import static org.apache.commons.compress.archivers.tar.TarConstants.LF_PAX_GLOBAL_EXTENDED_HEADER;
+import static org.apache.commons.compress.archivers.tar.TarConstants.MAXSIZE;
+import static org.apache.commons.compress.archivers.tar.TarConstants.MODELEN;
+import static org.apache.commons.compress.archivers.tar.TarConstants.MODTIMELEN;
+import static org.apache.commons.compress.archivers.tar.TarConstants.NAMELEN;
+import static org.apache.commons.compress.archivers.tar.TarConstants.SIZELEN;
+import static org.apache.commons.compress.archivers.tar.TarConstants.UIDLEN;
 
 /**
  * An output service for writing TAR files.
@@ -42,6 +66,46 @@ import static org.apache.commons.compress.archivers.tar.TarConstants.DEFAULT_BLK
  * <p>
  * If the size of an entry is known in advance it's directly written to the
  * underlying {@code TarArchiveOutputStream} instead.
+ * The same applies if the sink provides a seekable byte channel:
+ * In this case, the entry header gets written with a placeholder size, the
+ * entry data gets streamed directly to the TAR file and finally the size and
+ * checksum fields of the entry header get patched.
+ * If the {@linkplain TarDriver#getBigNumberMode() big number mode} is
+ * {@link TarArchiveOutputStream#BIGNUMBER_STAR}, then a size of more than
+ * {@link org.apache.commons.compress.archivers.tar.TarConstants#MAXSIZE}
+ * bytes gets patched in the binary encoding of the star and GNU tar formats.
+ * In any other big number mode, the entry data gets moved from the TAR file
+ * to a temp file as soon as it exceeds this size and the entry gets written
+ * as usual when the stream is closed:
+ * {@link TarArchiveOutputStream#BIGNUMBER_POSIX} requires to write a PAX
+ * header in front of the entry header and
+ * {@link TarArchiveOutputStream#BIGNUMBER_ERROR} fails.
+ * <p>
+ * When an unchanged entry of a {@link TarInputService} gets copied to this
+ * output service, e.g. when the TAR file gets rewritten, then its header, data
+ * and padding records get copied from the TAR file instead of encoding the
+ * entry again.
+ * If both the TAR file and the sink are files, then the records get
+ * transferred between their file channels.
+ * <p>
+ * If {@link FsAccessOption#GROW} is set and an input service for the TAR file
+ * is provided, then the TAR file gets updated in place:
+ * Its end-of-archive marker gets overwritten with the new entries and the
+ * entries of the input service get retained as they are, so that they do not
+ * need to get copied.
+ * This requires the sink to provide a seekable byte channel - if it doesn't,
+ * then the TAR file gets rewritten as usual.
+ * <p>
+ * Note that updating a TAR file in place is not atomic:
+ * The new records get written first and any remainder of the old
+ * end-of-archive marker gets truncated only after the new end-of-archive
+ * marker has been written, so the TAR file remains intact if writing fails
+ * before any new record has been flushed.
+ * However, if writing fails after that, then the TAR file may end with
+ * partially written entries.
+ * Unless the sink writes to a copy of the TAR file, e.g. a copy-on-write
+ * clone like the file system driver for the platform file system does, the
+ * TAR file is then corrupted.
  *
  * @author Christian Schlichtherle
  * @see TarInputService
@@ -49,23 +113,64 @@ import static org.apache.commons.compress.archivers.tar.TarConstants.DEFAULT_BLK
 @NotThreadSafe
 public final class TarOutputService implements OutputService<TarDriverEntry> {
 
+    private static final int SIZE_OFFSET = NAMELEN + MODELEN + UIDLEN + GIDLEN;
+    private static final int CHKSUM_OFFSET = SIZE_OFFSET + SIZELEN + MODTIMELEN;
+    private static final int TYPEFLAG_OFFSET = CHKSUM_OFFSET + CHKSUMLEN;
+
     /**
      * Maps entry names to tar entries [String -> TarDriverEntry].
      */
     private final Map<String, TarDriverEntry> entries = new LinkedHashMap<>(initialCapacity(OVERHEAD_SIZE));
 
     private final OutputStream out;
+    private final BlockOutputStream blocks;
     private final TarArchiveOutputStream taos;
     private final TarDriver driver;
     private boolean busy;
 
+    /**
+     * The maximum size of an entry which gets patched in place unless the
+     * big number mode is {@link TarArchiveOutputStream#BIGNUMBER_STAR}.
+     * Visible for testing.
+     */
+    long maxSize = MAXSIZE;
+
     @CreatesObligation
     public TarOutputService(final FsModel model, final Sink sink, final TarDriver driver) throws IOException {
-        Objects.requireNonNull(model);
-        this.driver = Objects.requireNonNull(driver);
-        out = sink.stream();
+        this(model, sink.stream(), driver);
+    }
+
+    /**
+     * Constructs a new TAR output service which appends to the TAR file read
+     * by the given input service if {@link FsAccessOption#GROW} is set.
+     *
+     * @since TrueVFS 0.15
+     */
+    @CreatesObligation
+    public TarOutputService(
+            final FsModel model,
+            final FsOutputSocketSink sink,
+            final @CheckForNull @WillNotClose TarInputService source,
+            final TarDriver driver)
+    throws IOException {
+        this(model, stream(sink, source), driver);
+        if (null != source && out instanceof ChannelOutputStream && ((ChannelOutputStream) out).appending) {
+            for (final TarDriverEntry entry : source) {
+                entries.put(entry.getName(), entry);
+            }
+        }
+    }
+
+    @CreatesObligation
+    private TarOutputService(final FsModel model, final OutputStream out, final TarDriver driver) throws IOException {
+        this.out = out;
         try {
-            final TarArchiveOutputStream taos = new TarArchiveOutputStream(out, DEFAULT_BLKSIZE, driver.getEncoding());
+            Objects.requireNonNull(model);
+            this.driver = Objects.requireNonNull(driver);
+            // Write each record through to the block output stream so that
+            // the records of unchanged entries can get copied in between.
+            final BlockOutputStream blocks = this.blocks = new BlockOutputStream(out);
+            final TarArchiveOutputStream taos = new TarArchiveOutputStream(blocks, DEFAULT_RCDSIZE, driver.getEncoding());
             taos.setAddPaxHeadersForNonAsciiNames(driver.getAddPaxHeaderForNonAsciiNames());
             taos.setLongFileMode(driver.getLongFileMode());
             taos.setBigNumberMode(driver.getBigNumberMode());
@@ -80,6 +185,34 @@ public final class TarOutputService implements OutputService<TarDriverEntry> {
         }
     }
 
+    private static OutputStream stream(
+            final FsOutputSocketSink sink,
+            final @CheckForNull TarInputService source)
+    throws IOException {
+        final SeekableByteChannel channel;
+        try {
+            channel = sink.channel();
+        } catch (final UnsupportedOperationException ex) {
+            return sink.stream();
+        }
+        try {
+            final boolean appending = null != source && sink.getOptions().get(GROW);
+            if (appending) {
+                // Truncating gets deferred until the new records have been
+                // written, see ChannelOutputStream.finish().
+                channel.position(source.getEndOfEntries());
+            }
+            return new ChannelOutputStream(channel, appending);
+        } catch (final Throwable ex) {
+            try {
+                channel.close();
+            } catch (final Throwable ex2) {
+                ex.addSuppressed(ex2);
+            }
+            throw ex;
+        }
+    }
+
     private IoBufferPool getPool() {
         return driver.getPool();
     }
@@ -119,10 +252,20 @@ public final class TarOutputService implements OutputService<TarDriverEntry> {
                     updateProperties(local, DirectoryTemplate.INSTANCE);
                     return new EntryOutputStream(local);
                 }
-                updateProperties(local, target(peer));
-                return UNKNOWN == local.getSize()
-                        ? new BufferedEntryOutputStream(local)
-                        : new EntryOutputStream(local);
+                final Entry target = target(peer);
+                if (target == local) {
+                    final TarDriverEntry.Records records = local.getRecords();
+                    if (null != records) {
+                        return new RawEntryOutputStream(local, records);
+                    }
+                }
+                updateProperties(local, target);
+                if (UNKNOWN != local.getSize()) {
+                    return new EntryOutputStream(local);
+                }
+                return blocks.isSeekable()
+                        ? new PatchingEntryOutputStream(local)
+                        : new BufferedEntryOutputStream(local);
             }
         }
         return new Output();
@@ -217,6 +360,213 @@ public final class TarOutputService implements OutputService<TarDriverEntry> {
         }
     }
 
+    /**
+     * This entry output stream copies the records of an unchanged entry from
+     * the TAR file it has been read from when the entry data gets transferred
+     * to it.
+     * If the entry data gets written instead, then the entry gets encoded
+     * just like by an {@link EntryOutputStream}.
+     */
+    @CleanupObligation
+    private final class RawEntryOutputStream extends DisconnectingOutputStream
+    implements ChannelOutput {
+
+        final TarDriverEntry local;
+        final TarDriverEntry.Records records;
+        boolean started, copied, closed;
+
+        @CreatesObligation
+        RawEntryOutputStream(final TarDriverEntry local, final TarDriverEntry.Records records) {
+            super(taos);
+            this.local = local;
+            this.records = records;
+            entries.put(local.getName(), local);
+            busy = true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public long transferFrom(final ChannelInput input) throws IOException {
+            checkOpen();
+            if (started || copied || !blocks.transfer(records)) {
+                return -1;
+            }
+            copied = true;
+            return local.getSize();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            start();
+            super.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            start();
+            super.write(b, off, len);
+        }
+
+        void start() throws IOException {
+            checkOpen();
+            if (started || copied) {
+                return;
+            }
+            taos.putArchiveEntry(local);
+            started = true;
+        }
+
+        @Override
+        @DischargesObligation
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (!copied) {
+                start();
+            }
+            closed = true;
+            busy = false;
+            if (started) {
+                taos.closeArchiveEntry();
+            }
+        }
+    }
+
+    /**
+     * This entry output stream writes the entry header with a placeholder
+     * size, then writes the entry data directly to the TAR file and finally
+     * patches the size and checksum fields of the entry header when closed.
+     * It can only be used if the TAR file gets written to a seekable byte
+     * channel.
+     * Unless the big number mode is
+     * {@link TarArchiveOutputStream#BIGNUMBER_STAR}, the records of the entry
+     * get moved to an I/O buffer as soon as the entry data exceeds the
+     * {@link #maxSize}, so that the entry can get written as usual when the
+     * stream is closed.
+     */
+    @CleanupObligation
+    private final class PatchingEntryOutputStream extends DisconnectingOutputStream {
+
+        final TarDriverEntry local;
+        final long start;
+        final long position;
+        final byte[] header;
+        final boolean patchable = BIGNUMBER_STAR == driver.getBigNumberMode();
+        @CheckForNull IoBuffer buffer;
+        long size;
+        boolean closed;
+
+        @CreatesObligation
+        PatchingEntryOutputStream(final TarDriverEntry local) throws IOException {
+            super(blocks);
+            this.local = local;
+            local.setSize(0);
+            start = blocks.written;
+            taos.putArchiveEntry(local);
+            taos.closeArchiveEntry();
+            // The entry header is the last record written because the size is
+            // zero.
+            position = blocks.written - DEFAULT_RCDSIZE;
+            header = blocks.record(position);
+            entries.put(local.getName(), local);
+            busy = true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            checkSize(1);
+            super.write(b);
+            size++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            checkSize(len);
+            super.write(b, off, len);
+            size += len;
+        }
+
+        private void checkSize(final int len) throws IOException {
+            if (!patchable && null == buffer && maxSize - size < len) {
+                checkOpen();
+                spill();
+            }
+        }
+
+        /**
+         * Moves the entry data from the TAR file to an I/O buffer and drops
+         * the records of the entry from the TAR file.
+         */
+        private void spill() throws IOException {
+            final IoBuffer buffer = getPool().allocate();
+            try {
+                final OutputStream out = buffer.output().stream(null);
+                try {
+                    blocks.rewind(start, position + DEFAULT_RCDSIZE, out);
+                } catch (final Throwable ex) {
+                    try {
+                        out.close();
+                    } catch (final Throwable ex2) {
+                        ex.addSuppressed(ex2);
+                    }
+                    throw ex;
+                }
+                this.out = out;
+            } catch (final Throwable ex) {
+                try {
+                    buffer.release();
+                } catch (final Throwable ex2) {
+                    ex.addSuppressed(ex2);
+                }
+                throw ex;
+            }
+            this.buffer = buffer;
+        }
+
+        @Override
+        @DischargesObligation
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            busy = false;
+            final IoBuffer buffer = this.buffer;
+            if (null != buffer) {
+                try {
+                    out.close();
+                } catch (final Throwable ex) {
+                    try {
+                        buffer.release();
+                    } catch (final Throwable ex2) {
+                        ex.addSuppressed(ex2);
+                    }
+                    throw ex;
+                }
+                local.setSize(size);
+                store(local, buffer);
+                return;
+            }
+            final int padding = (int) (DEFAULT_RCDSIZE - size % DEFAULT_RCDSIZE) % DEFAULT_RCDSIZE;
+            blocks.write(new byte[padding], 0, padding);
+            local.setSize(size);
+            TarUtils.formatLongOctalOrBinaryBytes(size, header, SIZE_OFFSET, SIZELEN);
+            Arrays.fill(header, CHKSUM_OFFSET, CHKSUM_OFFSET + CHKSUMLEN, (byte) ' ');
+            TarUtils.formatCheckSumOctalBytes(TarUtils.computeCheckSum(header), header, CHKSUM_OFFSET, CHKSUMLEN);
+            blocks.patch(position, header);
+        }
+    }
+
     /**
      * This entry output stream writes the entry to an I/O buffer.
      * When the stream is closed, the temporary file is then copied to this
@@ -258,31 +608,303 @@ public final class TarOutputService implements OutputService<TarDriverEntry> {
             busy = false;
             out.close();
             updateProperties(local, buffer);
-            storeBuffer();
+            store(local, buffer);
         }
+    }
 
-        @SuppressWarnings("ThrowFromFinallyBlock")
-        void storeBuffer() throws IOException {
-            final IoBuffer buffer = this.buffer;
-            Throwable t1 = null;
-            try (final InputStream in = buffer.input().stream(null)) {
-                final TarArchiveOutputStream taos = TarOutputService.this.taos;
-                taos.putArchiveEntry(local);
-                Streams.cat(in, taos);
-                taos.closeArchiveEntry();
+    /**
+     * Writes the given entry with the data from the given I/O buffer and
+     * finally releases the buffer.
+     */
+    @SuppressWarnings("ThrowFromFinallyBlock")
+    private void store(final TarDriverEntry local, final IoBuffer buffer) throws IOException {
+        Throwable t1 = null;
+        try (final InputStream in = buffer.input().stream(null)) {
+            final TarArchiveOutputStream taos = this.taos;
+            taos.putArchiveEntry(local);
+            Streams.cat(in, taos);
+            taos.closeArchiveEntry();
+        } catch (final Throwable t2) {
+            t1 = t2;
+            throw t2;
+        } finally {
+            try {
+                buffer.release();
             } catch (final Throwable t2) {
-                t1 = t2;
-                throw t2;
+                if (null == t1) {
+                    throw t2;
+                }
+                t1.addSuppressed(t2);
+            }
+        }
+    }
+
+    /**
+     * Writes to a seekable byte channel so that the data which has been
+     * written before can get patched.
+     * If the TAR file gets updated in place, then the channel has been
+     * positioned at the end-of-archive marker of the TAR file and gets
+     * truncated when {@linkplain #finish() finished}.
+     */
+    private static final class ChannelOutputStream extends DecoratingOutputStream implements ChannelOutput {
+
+        final SeekableByteChannel channel;
+        final long origin;
+        final boolean appending;
+
+        @CreatesObligation
+        ChannelOutputStream(final SeekableByteChannel channel, final boolean appending) throws IOException {
+            super(Channels.newOutputStream(channel));
+            this.channel = channel;
+            this.origin = channel.position();
+            this.appending = appending;
+        }
+
+        /**
+         * Overwrites the data at the given position relative to the initial
+         * position of the channel.
+         */
+        void write(final long position, final byte[] b) throws IOException {
+            final long current = channel.position();
+            channel.position(origin + position);
+            final ByteBuffer buffer = ByteBuffer.wrap(b);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.position(current);
+        }
+
+        /**
+         * Copies the data from the given position relative to the initial
+         * position of the channel up to the current position of the channel
+         * to the given output stream.
+         */
+        void copy(final long position, final OutputStream to) throws IOException {
+            final long end = channel.position();
+            channel.position(origin + position);
+            final ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BLKSIZE);
+            for (long remaining = end - channel.position(); 0 < remaining; ) {
+                buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                final int n = channel.read(buffer);
+                if (0 > n) {
+                    throw new EOFException();
+                }
+                to.write(buffer.array(), 0, n);
+                remaining -= n;
+                buffer.clear();
+            }
+        }
+
+        /**
+         * Positions the channel at the given position relative to its
+         * initial position.
+         */
+        void position(long position) throws IOException {
+            channel.position(origin + position);
+        }
+
+        @Override
+        public long transferFrom(ChannelInput input) throws IOException {
+            return input.transferTo(channel);
+        }
+
+        /**
+         * Truncates any remainder of the old TAR file after all records
+         * have been written successfully.
+         */
+        void finish() throws IOException {
+            if (appending) {
+                channel.truncate(channel.position());
+            }
+        }
+    }
+
+    /**
+     * Buffers the records written by the {@link TarArchiveOutputStream} and
+     * pads the TAR file to a multiple of the default block size when closed,
+     * just like the {@code TarArchiveOutputStream} would do with this block
+     * size.
+     * In between the entries, the records of unchanged entries can get
+     * copied from the TAR file they have been read from.
+     */
+    private static final class BlockOutputStream extends DecoratingOutputStream {
+
+        final byte[] buffer = new byte[DEFAULT_BLKSIZE];
+        int count;
+        long written;
+        boolean closed;
+
+        @CreatesObligation
+        BlockOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+            written++;
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) throws IOException {
+            written += len;
+            while (0 < len) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                final int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        boolean isSeekable() {
+            return out instanceof ChannelOutputStream;
+        }
+
+        /**
+         * Returns a copy of the record at the given position, which must not
+         * have been flushed yet.
+         */
+        byte[] record(final long position) {
+            final int off = (int) (position - (written - count));
+            return Arrays.copyOfRange(buffer, off, off + DEFAULT_RCDSIZE);
+        }
+
+        /**
+         * Overwrites the record at the given position.
+         * If the record has been flushed already, then this requires this
+         * stream to be {@linkplain #isSeekable() seekable}.
+         */
+        void patch(final long position, final byte[] record) throws IOException {
+            final long start = written - count;
+            if (start <= position) {
+                System.arraycopy(record, 0, buffer, (int) (position - start), record.length);
+            } else {
+                ((ChannelOutputStream) out).write(position, record);
+            }
+        }
+
+        /**
+         * Copies the data which has been written since the given
+         * {@code data} position to the given output stream and then drops
+         * everything which has been written since the given {@code position}
+         * so that it gets overwritten by any subsequent writes.
+         * This requires this stream to be {@linkplain #isSeekable() seekable}.
+         */
+        void rewind(final long position, final long data, final OutputStream to) throws IOException {
+            assert position <= data && data <= written;
+            flushBuffer();
+            final ChannelOutputStream out = (ChannelOutputStream) this.out;
+            out.copy(data, to);
+            out.position(position);
+            written = position;
+        }
+
+        void flushBuffer() throws IOException {
+            if (0 < count) {
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        /**
+         * Copies the given records from the TAR file they have been read
+         * from.
+         * Returns {@code false} without writing any data if the records
+         * cannot get copied, e.g. because they start with a global extended
+         * header which would then apply to all subsequent entries.
+         */
+        boolean transfer(final TarDriverEntry.Records records) throws IOException {
+            final SeekableByteChannel channel;
+            try {
+                channel = records.source.channel();
+            } catch (final UnsupportedOperationException ex) {
+                return false;
+            }
+            try {
+                final ByteBuffer header = ByteBuffer.allocate(DEFAULT_RCDSIZE);
+                channel.position(records.offset);
+                do {
+                    if (0 > channel.read(header)) {
+                        throw new EOFException();
+                    }
+                } while (header.hasRemaining());
+                if (LF_PAX_GLOBAL_EXTENDED_HEADER == header.get(TYPEFLAG_OFFSET)) {
+                    return false;
+                }
+                flushBuffer();
+                final ChannelInput input = target -> transfer(channel, records.offset, records.length, target);
+                long n = out instanceof ChannelOutput ? ((ChannelOutput) out).transferFrom(input) : -1;
+                if (0 > n) {
+                    n = input.transferTo(Channels.newChannel(out));
+                }
+                written += n;
+                return true;
             } finally {
-                try {
-                    buffer.release();
-                } catch (final Throwable t2) {
-                    if (null == t1) {
-                        throw t2;
+                channel.close();
+            }
+        }
+
+        private static long transfer(
+                final SeekableByteChannel channel,
+                final long offset,
+                final long length,
+                final WritableByteChannel target)
+        throws IOException {
+            long total = 0;
+            if (channel instanceof FileChannel) {
+                final FileChannel file = (FileChannel) channel;
+                while (total < length) {
+                    final long n = file.transferTo(offset + total, length - total, target);
+                    if (0 >= n) {
+                        throw new EOFException();
                     }
-                    t1.addSuppressed(t2);
+                    total += n;
                 }
+            } else {
+                final ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BLKSIZE);
+                channel.position(offset);
+                while (total < length) {
+                    buffer.limit((int) Math.min(buffer.capacity(), length - total));
+                    if (0 > channel.read(buffer)) {
+                        throw new EOFException();
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        total += target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                out.close(); // enable recovery
+                return;
             }
+            closed = true;
+            final int padding = (int) (DEFAULT_BLKSIZE - written % DEFAULT_BLKSIZE) % DEFAULT_BLKSIZE;
+            write(new byte[padding], 0, padding);
+            flushBuffer();
+            if (isSeekable()) {
+                ((ChannelOutputStream) out).finish();
+            }
+            out.close();
         }
     }
 }
@@ -20,7 +20,9 @@ import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.*;
 import java.util.zip.CRC32;
@@ -84,6 +86,15 @@ implements Closeable, Iterable<E> {
     /** The nullable seekable byte channel. */
     private @CheckForNull SeekableByteChannel channel;
 
+    /** The nullable readahead channel for reading the entries. */
+    private @CheckForNull ReadaheadReadOnlyChannel readahead;
+
+    /**
+     * The position of the Local File Header which follows the data of the
+     * last entry read or {@code -1} if unknown.
+     */
+    private long next = -1;
+
     /** The total number of bytes in the ZIP channel. */
     private long length;
 
@@ -134,19 +145,25 @@ implements Closeable, Iterable<E> {
             charset = param.getCharset();
             final @WillNotClose SeekableByteChannel
                     bchannel = new SafeBufferedReadOnlyChannel(channel, length);
-            if (!param.getPreambled()) checkZipFileSignature(bchannel);
-            final int numEntries = findCentralDirectory(bchannel, param.getPostambled());
+            final int size = Math.max(EOCDR_MIN_LEN, param.getTailWindowSize());
+            // Read small ZIP files entirely, but check the signature of large
+            // ZIP files first in order to fail fast on false positives.
+            Window tail = length <= size ? new Window(channel, 0, length) : null;
+            if (!param.getPreambled()) checkZipFileSignature(bchannel, tail);
+            if (null == tail) tail = new Window(channel, length - size, length);
+            final int numEntries = findCentralDirectory(bchannel, tail, param.getPostambled());
             mountCentralDirectory(bchannel, numEntries);
             if (preamble + postamble >= length) {
                 assert 0 == numEntries;
                 if (param.getPreambled()) // otherwise already checked
-                    checkZipFileSignature(bchannel);
+                    checkZipFileSignature(bchannel, tail);
             }
             assert null != channel;
             assert null != charset;
             assert null != entries;
             assert null != mapper;
             // Do NOT close bchannel - would close channel as well!
+            readahead = new ReadaheadReadOnlyChannel(channel, length);
         } catch (final Throwable e1) {
             try {
                 channel.close();
@@ -157,12 +174,16 @@ implements Closeable, Iterable<E> {
         }
     }
 
-    private void checkZipFileSignature(final SeekableByteChannel channel)
+    private void checkZipFileSignature(
+            final SeekableByteChannel channel,
+            final @CheckForNull Window tail)
     throws IOException {
-        final long sig = MutableBuffer
-                .allocate(4)
-                .littleEndian()
-                .load(channel.position(preamble))
+        final long sig = (null != tail
+                    ? tail.load(preamble, 4)
+                    : MutableBuffer
+                        .allocate(4)
+                        .littleEndian()
+                        .load(channel.position(preamble)))
                 .getUInt();
         // Constraint: A ZIP file must start with a Local File Header
         // or a (ZIP64) End Of Central Directory Record iff it's emtpy.
@@ -177,6 +198,12 @@ implements Closeable, Iterable<E> {
      * Positions the file pointer at the first Central File Header.
      * Performs some means to check that this is really a ZIP file.
      * <p>
+     * The End Of Central Directory Record (EOCDR) gets searched in the given
+     * window at the end of the ZIP file first and then in the preceding
+     * windows of the same size.
+     * The records get decoded from the window wherever possible, so that this
+     * takes a single read operation in the common case.
+     * <p>
      * As a side effect, the following fields will get initialized:
      * <ul>
      * <li>{@link #preamble}
@@ -195,21 +222,24 @@ implements Closeable, Iterable<E> {
      */
     private int findCentralDirectory(
             final SeekableByteChannel channel,
+            Window window,
             final boolean postambled)
     throws IOException {
         // Search for End Of Central Directory Record.
-        final MutableBuffer eocdr = MutableBuffer
-                .allocate(EOCDR_MIN_LEN)
-                .littleEndian();
         final long max = length - EOCDR_MIN_LEN;
         final long min = !postambled && max >= 0xffff ? max - 0xffff : 0;
-        for (long eocdrPos = max; eocdrPos >= min; eocdrPos--) {
-            eocdr.rewind().limit(4).load(channel.position(eocdrPos));
-            // end of central dir signature    4 bytes  (0x06054b50)
-            if (EOCDR_SIG != eocdr.getUInt()) continue;
+        for (final int size = window.size(); ; ) {
+            final long eocdrPos = window.lastEocdrSig(min, max);
+            if (0 > eocdrPos) {
+                if (window.start <= min) break;
+                window = window.previous(size);
+                continue;
+            }
             try {
                 // Process End Of Central Directory Record.
-                eocdr.limit(EOCDR_MIN_LEN).load(channel);
+                final MutableBuffer eocdr = window.load(eocdrPos, EOCDR_MIN_LEN);
+                // end of central dir signature    4 bytes  (0x06054b50)
+                eocdr.skip(4);
                 // number of this disk             2 bytes
                 long diskNo = eocdr.getUShort();
                 // number of the disk with the
@@ -233,24 +263,24 @@ implements Closeable, Iterable<E> {
                 // .ZIP file comment length        2 bytes
                 int commentLen = eocdr.getUShort();
                 // .ZIP file comment       (variable size)
-                if (0 < commentLen)
-                    comment = MutableBuffer
-                            .allocate(commentLen)
-                            .load(channel)
-                            .array();
+                final long commentPos = eocdrPos + EOCDR_MIN_LEN;
+                if (0 < commentLen) {
+                    final byte[] comment = new byte[commentLen];
+                    window.load(commentPos, commentLen).get(comment);
+                    this.comment = comment;
+                }
                 preamble = eocdrPos;
-                postamble = length - channel.position();
+                postamble = length - commentPos - commentLen;
 
                 // Check for ZIP64 End Of Central Directory Locator.
                 final long eocdlPos = eocdrPos - ZIP64_EOCDL_LEN;
-                final MutableBuffer zip64eocdl = MutableBuffer
-                    .allocate(ZIP64_EOCDL_LEN)
-                    .littleEndian();
+                final MutableBuffer zip64eocdl = 0 > eocdlPos
+                        ? null
+                        : window.load(eocdlPos, ZIP64_EOCDL_LEN);
                 // zip64 end of central dir locator
                 // signature                       4 bytes  (0x07064b50)
-                if (0 > eocdlPos || ZIP64_EOCDL_SIG != zip64eocdl
-                        .load(channel.position(eocdlPos))
-                        .getUInt()) {
+                if (null == zip64eocdl
+                        || ZIP64_EOCDL_SIG != zip64eocdl.getUInt()) {
                     // Seek and check first CFH, probably requiring an offset mapper.
                     long offset = eocdrPos - cdSize;
                     channel.position(offset);
@@ -273,10 +303,8 @@ implements Closeable, Iterable<E> {
                             "ZIP file spanning/splitting is not supported!");
 
                 // Read Zip64 End Of Central Directory Record.
-                final MutableBuffer zip64eocdr = MutableBuffer
-                        .allocate(ZIP64_EOCDR_MIN_LEN)
-                        .littleEndian()
-                        .load(channel.position(zip64eocdrPos));
+                final MutableBuffer zip64eocdr = window
+                        .load(zip64eocdrPos, ZIP64_EOCDR_MIN_LEN);
                 // zip64 end of central dir
                 // signature                       4 bytes  (0x06064b50)
                 if (ZIP64_EOCDR_SIG != zip64eocdr.getUInt())
@@ -856,6 +884,55 @@ implements Closeable, Iterable<E> {
         return getInputStream(name, true, true);
     }
 
+    /**
+     * Returns a read-only seekable byte channel for reading the contents of
+     * the given unencrypted {@link ZipEntry#STORED} entry.
+     * Unlike the streams returned by {@link #getInputStream(String)}, this
+     * channel supports random access, but it does <em>not</em> check the
+     * CRC-32 value of the entry.
+     * <p>
+     * If the {@link #close} method is called on this instance, all channels
+     * returned by this method are closed, too.
+     *
+     * @param  name The name of the entry to get the channel for.
+     * @return A channel to read the entry data from or {@code null} if the
+     *         entry does not exist.
+     * @throws ZipException If the entry is compressed or encrypted or if this
+     *         file is not compatible to the ZIP File Format Specification.
+     * @throws IOException If the entry cannot get read from this ZipFile.
+     * @since  TrueVFS 0.15
+     */
+    @CreatesObligation
+    public final @Nullable SeekableByteChannel getReadOnlyChannel(
+            final String name)
+    throws ZipException, IOException {
+        final ReadaheadReadOnlyChannel channel = readahead();
+        Objects.requireNonNull(name);
+        final ZipEntry entry = entries.get(name);
+        if (null == entry) return null;
+        if (STORED != entry.getMethod() || entry.isEncrypted())
+            throw new ZipException(name
+                    + " (random access requires an unencrypted STORED entry)");
+        long pos = mapper.map(entry.getOffset());
+        final MutableBuffer lfh = MutableBuffer
+                .allocate(LFH_MIN_LEN)
+                .littleEndian()
+                .load(channel.position(pos));
+        if (LFH_SIG != lfh.getUInt())
+            throw new ZipException(name + " (expected local file header)");
+        lfh.position(LFH_FILE_NAME_LENGTH_POS);
+        pos += LFH_MIN_LEN
+                + lfh.getUShort() // file name length
+                + lfh.getUShort(); // extra field length
+        try {
+            return new EntryReadOnlyChannel(pos, entry.getCompressedSize());
+        } catch (RuntimeException e) {
+            throw (ZipException) new ZipException(
+                    name + " (invalid Local File Header, Data Descriptor or Central File Header)")
+                    .initCause(e);
+        }
+    }
+
     /**
      * Returns an {@code InputStream} for reading the contents of the given
      * entry.
@@ -905,13 +982,21 @@ implements Closeable, Iterable<E> {
             @CheckForNull Boolean check,
             final boolean process)
     throws ZipException, IOException {
-        final SeekableByteChannel channel = channel();
+        final ReadaheadReadOnlyChannel channel = readahead();
         Objects.requireNonNull(name);
         final ZipEntry entry = entries.get(name);
         if (null == entry) return null;
         long pos = entry.getOffset();
         assert UNKNOWN != pos;
         pos = mapper.map(pos);
+        // Read ahead if the entries get read in the order of their position
+        // in the file, e.g. when iterating the central directory to extract
+        // all entries.
+        // Small gaps are tolerated, e.g. for Data Descriptors or for entries
+        // which get skipped because they are directories.
+        channel.sequential(0 <= next
+                && next <= pos
+                && pos - next <= ReadaheadReadOnlyChannel.MIN_WINDOW);
         final MutableBuffer lfh = MutableBuffer
                 .allocate(LFH_MIN_LEN)
                 .littleEndian()
@@ -922,6 +1007,7 @@ implements Closeable, Iterable<E> {
         pos += LFH_MIN_LEN
                 + lfh.getUShort() // file name length
                 + lfh.getUShort(); // extra field length
+        next = pos + entry.getCompressedSize();
         SeekableByteChannel echannel;
         try {
             echannel = new EntryReadOnlyChannel(
@@ -934,7 +1020,7 @@ implements Closeable, Iterable<E> {
         try {
             if (!process) {
                 assert UNKNOWN != entry.getCrc();
-                return new ChannelInputStream(echannel);
+                return new RawInputStream(echannel, pos);
             }
             if (null == check) check = entry.isEncrypted();
             int method = entry.getMethod();
@@ -987,7 +1073,9 @@ implements Closeable, Iterable<E> {
             InputStream in;
             switch (method) {
                 case STORED:
-                    in = new ChannelInputStream(echannel);
+                    in = entry.isEncrypted()
+                            ? new ChannelInputStream(echannel)
+                            : new RawInputStream(echannel, pos);
                     break;
                 case DEFLATED:
                     in = new ZipInflaterInputStream(
@@ -1016,6 +1104,43 @@ implements Closeable, Iterable<E> {
         }
     }
 
+    /**
+     * Transfers the remaining data of the given input stream to the given
+     * channel without copying it through the Java heap.
+     * This works if and only if the given input stream has been returned by
+     * {@link #getInputStream(String, Boolean, boolean)} of this ZIP file for
+     * reading the raw entry data, i.e. with the parameter {@code process} set
+     * to {@code false}, or for reading the data of an unencrypted
+     * {@link ZipEntry#STORED} entry without checking it, and this ZIP file
+     * reads from a {@link FileChannel}.
+     * In this case, the data gets transferred by
+     * {@link FileChannel#transferTo}, so that the operating system can copy
+     * it directly, e.g. by using {@code sendfile} or
+     * {@code copy_file_range}.
+     * Otherwise, this method returns {@code -1} without consuming any data.
+     *
+     * @param  in the input stream to read the data from.
+     * @param  target the channel to write the data to.
+     * @return The number of bytes transferred or {@code -1} if the data
+     *         cannot get transferred without copying it through the Java
+     *         heap.
+     * @throws ZipException If this ZIP file has been closed.
+     * @throws IOException on any I/O error.
+     */
+    protected final long transferTo(
+            final @WillNotClose InputStream in,
+            final @WillNotClose WritableByteChannel target)
+    throws IOException {
+        final SeekableByteChannel channel = channel();
+        if (!(channel instanceof FileChannel)
+                || !(in instanceof AbstractZipFile<?>.RawInputStream))
+            return -1;
+        final AbstractZipFile<?>.RawInputStream rin
+                = (AbstractZipFile<?>.RawInputStream) in;
+        if (rin.zip() != this) return -1;
+        return rin.transferTo((FileChannel) channel, target);
+    }
+
     private static int getBufferSize(final ZipEntry entry) {
         long size = entry.getSize();
         if (MAX_FLATER_BUF_LENGTH < size)
@@ -1032,6 +1157,16 @@ implements Closeable, Iterable<E> {
         return channel;
     }
 
+    /**
+     * Checks that this ZIP file is still open for reading its entries and
+     * returns the readahead channel.
+     */
+    private ReadaheadReadOnlyChannel readahead() throws ZipException {
+        final ReadaheadReadOnlyChannel readahead = this.readahead;
+        if (null == readahead) throw new ZipException("File closed!");
+        return readahead;
+    }
+
     /**
      * Closes the file.
      * This closes any allocated input streams reading from this ZIP file.
@@ -1043,8 +1178,13 @@ implements Closeable, Iterable<E> {
     public void close() throws IOException {
         final SeekableByteChannel c = channel;
         if (null != c) {
-            c.close();
+            final ReadaheadReadOnlyChannel r = readahead;
             channel = null;
+            readahead = null;
+            // Closing the readahead channel returns its window to the pool
+            // and closes the decorated channel.
+            if (null != r) r.close();
+            else c.close();
         }
     }
 
@@ -1060,7 +1200,7 @@ implements Closeable, Iterable<E> {
         @CreatesObligation
         EntryReadOnlyChannel(final long start, final long size)
         throws IOException {
-            super(new IntervalReadOnlyChannel(channel(), start, size));
+            super(new IntervalReadOnlyChannel(readahead(), start, size));
             AbstractZipFile.this.open++;
         }
 
@@ -1074,6 +1214,122 @@ implements Closeable, Iterable<E> {
         }
     } // EntryReadOnlyChannel
 
+    /**
+     * A channel input stream for the unprocessed data of an entry.
+     *
+     * @see #transferTo(InputStream, WritableByteChannel)
+     */
+    private final class RawInputStream extends ChannelInputStream {
+        /** The position of the entry data in the ZIP file. */
+        final long start;
+
+        @CreatesObligation
+        RawInputStream(
+                final @WillCloseWhenClosed SeekableByteChannel echannel,
+                final long start) {
+            super(echannel);
+            this.start = start;
+        }
+
+        AbstractZipFile<?> zip() { return AbstractZipFile.this; }
+
+        long transferTo(
+                final FileChannel file,
+                final WritableByteChannel target)
+        throws IOException {
+            final SeekableByteChannel echannel = this.channel;
+            final long position = echannel.position();
+            final long remaining = echannel.size() - position;
+            long total = 0;
+            while (total < remaining) {
+                final long n = file.transferTo(
+                        start + position + total, remaining - total, target);
+                if (0 >= n) throw new EOFException();
+                total += n;
+            }
+            echannel.position(position + total);
+            return total;
+        }
+    } // RawInputStream
+
+    /**
+     * A window of a ZIP file which has been read in a single operation, so
+     * that the End Of Central Directory Record and the ZIP64 records can get
+     * located and decoded in memory.
+     * The search starts with the window at the end of the ZIP file and
+     * continues with the {@linkplain #previous preceding} windows.
+     * Any data which is not contained in a window gets read from its channel
+     * instead.
+     */
+    private static final class Window {
+        final SeekableByteChannel channel;
+        final long start;
+        final byte[] data;
+
+        Window(
+                final SeekableByteChannel channel,
+                final long start,
+                final long end)
+        throws IOException {
+            this.channel = channel;
+            this.start = start;
+            this.data = MutableBuffer
+                    .allocate((int) (end - start))
+                    .load(channel.position(start))
+                    .array();
+        }
+
+        int size() { return data.length; }
+
+        /**
+         * Returns the window of the given size which precedes this window.
+         * The windows overlap by three bytes so that a signature which spans
+         * both windows can get found in the preceding window.
+         */
+        Window previous(final int size) throws IOException {
+            final long end = start + 3;
+            return new Window(channel, Math.max(0, end - size), end);
+        }
+
+        /**
+         * Returns the greatest position of an End Of Central Directory Record
+         * signature within this window and the given bounds or {@code -1} if
+         * there is none.
+         */
+        long lastEocdrSig(final long min, final long max) {
+            final byte[] data = this.data;
+            final long start = this.start;
+            final int lo = (int) (Math.max(min, start) - start);
+            // Test the least frequent byte first.
+            for (int i = (int) (Math.min(max, start + data.length - 4) - start);
+                    i >= lo;
+                    i--) {
+                if ((byte) (EOCDR_SIG >>> 24) == data[i + 3]
+                        && (byte) (EOCDR_SIG >>> 16) == data[i + 2]
+                        && (byte) (EOCDR_SIG >>> 8) == data[i + 1]
+                        && (byte) EOCDR_SIG == data[i])
+                    return start + i;
+            }
+            return -1;
+        }
+
+        /**
+         * Returns a little endian buffer with the given number of bytes at the
+         * given position in the ZIP file.
+         * If the bytes are not entirely contained in this window, then they
+         * get read from the channel.
+         */
+        MutableBuffer load(final long pos, final int len) throws IOException {
+            final long off = pos - start;
+            return 0 <= off && off + len <= data.length
+                    ? MutableBuffer.wrap(data, (int) off, len).littleEndian()
+                    : MutableBuffer
+                        .allocate(len)
+                        .littleEndian()
+                        .load(channel.position(pos));
+        }
+    } // Window
+
     /**
      * A buffered load only file which is safe for use with a concurrently
      * growing file, e.g. when another thread is appending to it.
@@ -53,7 +53,7 @@ public abstract class AbstractZipOutputStream<E extends ZipEntry>
         extends DecoratingOutputStream
         implements Iterable<E> {
 
-    private final LittleEndianOutputStream leos;
+    private final TransferringLittleEndianOutputStream leos;
 
     /**
      * The charset to use for entry names and comments.
@@ -120,7 +120,7 @@ public abstract class AbstractZipOutputStream<E extends ZipEntry>
         try {
             this.out = this.leos = null != appendee
                     ? new AppendingLittleEndianOutputStream(out, appendee)
-                    : new LittleEndianOutputStream(out);
+                    : new TransferringLittleEndianOutputStream(out);
             if (null != appendee) {
                 this.charset = appendee.getRawCharset();
                 this.comment = appendee.getRawComment();
@@ -316,6 +316,29 @@ public abstract class AbstractZipOutputStream<E extends ZipEntry>
         return leos.size();
     }
 
+    /**
+     * Writes the raw data of the current entry by calling the given function
+     * rather than by writing it to this stream.
+     * This is useful if the raw data can get written by other means, e.g. by
+     * transferring it from another ZIP file with
+     * {@link java.nio.channels.FileChannel#transferTo}.
+     * This works if and only if the current entry has been started by
+     * {@link #putNextEntry(ZipEntry, boolean)} with the parameter
+     * {@code process} set to {@code false}.
+     * Otherwise, or if the function returns {@code -1}, this method returns
+     * {@code -1} without writing any data.
+     *
+     * @param  transfer the function for writing the raw entry data.
+     * @return The number of bytes written or {@code -1} if the raw entry data
+     *         cannot get written by the given function.
+     * @throws IOException On any I/O error.
+     */
+    protected final long transfer(final Transfer transfer) throws IOException {
+        return this.processor instanceof AbstractZipOutputStream<?>.RawOutputMethod
+                ? this.leos.transfer(transfer)
+                : -1;
+    }
+
     /**
      * Returns {@code true} if and only if this
      * {@code AbstractZipOutputStream} is currently writing a ZIP entry.
@@ -705,11 +728,50 @@ public abstract class AbstractZipOutputStream<E extends ZipEntry>
         out.close();
     }
 
+    /**
+     * A function for writing the raw data of an entry to the output stream
+     * which has been provided by the sink.
+     *
+     * @see #transfer(Transfer)
+     */
+    @FunctionalInterface
+    protected interface Transfer {
+
+        /**
+         * Writes the raw data of the current entry to the given stream.
+         *
+         * @param  out the output stream which has been provided by the sink.
+         * @return The number of bytes written or {@code -1} if the raw entry
+         *         data cannot get written by this function.
+         * @throws IOException On any I/O error.
+         */
+        long to(@WillNotClose OutputStream out) throws IOException;
+    }
+
+    /**
+     * A little endian output stream which can account for raw entry data
+     * which has been written to the decorated stream by other means.
+     */
+    private static class TransferringLittleEndianOutputStream
+            extends LittleEndianOutputStream {
+        TransferringLittleEndianOutputStream(
+                final @WillCloseWhenClosed OutputStream out) {
+            super(out);
+        }
+
+        long transfer(final Transfer transfer) throws IOException {
+            flush();
+            final long n = transfer.to(out);
+            if (0 < n) written += n;
+            return n;
+        }
+    } // TransferringLittleEndianOutputStream
+
     /**
      * Adjusts the number of written bytes in the offset for appending mode.
      */
     private static final class AppendingLittleEndianOutputStream
-            extends LittleEndianOutputStream {
+            extends TransferringLittleEndianOutputStream {
         AppendingLittleEndianOutputStream(
                 final @WillCloseWhenClosed OutputStream out,
                 final @WillNotClose AbstractZipFile<?> appendee) {
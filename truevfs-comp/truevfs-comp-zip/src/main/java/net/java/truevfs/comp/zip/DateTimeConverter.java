@@ -4,11 +4,12 @@
  */
 package net.java.truevfs.comp.zip;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-import java.util.SimpleTimeZone;
-import java.util.TimeZone;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 
 /**
  * Converts Java time values to DOS date/time values and vice versa.
@@ -17,6 +18,14 @@ import javax.annotation.concurrent.ThreadSafe;
  * converting date/time from the serialized DOS format in a ZIP file to
  * the local system time, which is represented by a UNIX-like encoding
  * by the Java API.
+ * <p>
+ * The conversion is table driven:
+ * The UTC offset transitions of the applicable time zone get computed once
+ * and cached in a {@link DateTimeTable}, so that each conversion is just a
+ * binary search plus some integer arithmetic and does not allocate any
+ * objects.
+ * Changes to the default time zone get picked up within
+ * {@link #ZONE_REFRESH_MILLIS} milliseconds.
  *
  * @author Christian Schlichtherle
  */
@@ -37,13 +46,8 @@ public enum DateTimeConverter {
      */
     JAR {
         @Override
-        GregorianCalendar getThreadLocalCalendar() {
-            GregorianCalendar cal = calendar.get();
-            if (null == cal) {
-                cal = new GregorianCalendar();
-                calendar.set(cal);
-            }
-            return cal;
+        Resolution resolve(long now) {
+            return new Resolution(DateTimeTable.of(ZoneId.systemDefault()), now + ZONE_REFRESH_MILLIS);
         }
 
         @Override
@@ -67,23 +71,15 @@ public enum DateTimeConverter {
      */
     ZIP {
         @Override
-        GregorianCalendar getThreadLocalCalendar() {
-            TimeZone tz = TimeZone.getDefault();
-            tz = new SimpleTimeZone(
-                    // See http://java.net/jira/browse/TRUEZIP-191 .
-                    tz.getOffset(System.currentTimeMillis()),
-                    tz.getID());
-            assert !tz.useDaylightTime();
-            GregorianCalendar cal = calendar.get();
-            if (null == cal) {
-                cal = new GregorianCalendar(tz);
-                calendar.set(cal);
-            } else {
-                // See http://java.net/jira/browse/TRUEZIP-281 .
-                cal.setTimeZone(tz);
-            }
-            assert cal.isLenient();
-            return cal;
+        Resolution resolve(final long now) {
+            // See http://java.net/jira/browse/TRUEZIP-191 and
+            // http://java.net/jira/browse/TRUEZIP-281 .
+            final ZoneRules rules = ZoneId.systemDefault().getRules();
+            final Instant instant = Instant.ofEpochMilli(now);
+            final ZoneOffsetTransition next = rules.nextTransition(instant);
+            long expires = now + ZONE_REFRESH_MILLIS;
+            if (null != next) expires = Math.min(expires, next.toEpochSecond() * 1000);
+            return new Resolution(DateTimeTable.of(rules.getOffset(instant)), expires);
         }
 
         @Override
@@ -92,7 +88,13 @@ public enum DateTimeConverter {
         }
     };
 
-    final ThreadLocal<GregorianCalendar> calendar = new ThreadLocal<>();
+    /**
+     * The maximum number of milliseconds before a change to the default time
+     * zone gets picked up.
+     */
+    static final long ZONE_REFRESH_MILLIS = 1000;
+
+    private volatile Resolution resolution;
 
     /**
      * Smallest supported DOS date/time value in a ZIP file,
@@ -123,13 +125,26 @@ public enum DateTimeConverter {
     abstract boolean roundUp(long jTime);
 
     /**
-     * Returns a thread local lenient gregorian calendar for date/time
-     * conversion which has its timezone set according to the conventions of
-     * the represented archive format.
+     * Resolves the date/time table for the default time zone according to
+     * the conventions of the represented archive format.
+     *
+     * @param  now the current time in milliseconds since the epoch.
+     * @return The resolved date/time table and its expiry time.
+     */
+    abstract Resolution resolve(long now);
+
+    /**
+     * Returns the date/time table for the default time zone according to the
+     * conventions of the represented archive format.
      *
-     * @return A thread local lenient gregorian calendar.
+     * @return The date/time table for the default time zone.
      */
-    abstract GregorianCalendar getThreadLocalCalendar();
+    final DateTimeTable table() {
+        final long now = System.currentTimeMillis();
+        Resolution r = resolution;
+        if (null == r || r.expires <= now) resolution = r = resolve(now);
+        return r.table;
+    }
 
     /**
      * Converts a Java time value to a DOS date/time value.
@@ -153,19 +168,9 @@ public enum DateTimeConverter {
     final long toDosTime(final long jtime) {
         if (0 > jtime)
             throw new IllegalArgumentException("Negative Java time: " + jtime);
-        final GregorianCalendar cal = getThreadLocalCalendar();
-        cal.setTimeInMillis(roundUp(jtime) ? jtime + 1999 : jtime);
-        long dtime = cal.get(Calendar.YEAR) - 1980;
-        if (0 > dtime) return MIN_DOS_TIME;
-        dtime = (dtime << 25)
-                | ((cal.get(Calendar.MONTH) + 1) << 21)
-                | (cal.get(Calendar.DAY_OF_MONTH) << 16)
-                | (cal.get(Calendar.HOUR_OF_DAY) << 11)
-                | (cal.get(Calendar.MINUTE) << 5)
-                | (cal.get(Calendar.SECOND) >> 1);
-        if (MAX_DOS_TIME < dtime) return MAX_DOS_TIME;
-        assert MIN_DOS_TIME <= dtime && dtime <= MAX_DOS_TIME;
-        return dtime;
+        long time = roundUp(jtime) ? jtime + 1999 : jtime;
+        if (0 > time) time = Long.MAX_VALUE; // overflow
+        return table().toDosTime(time);
     }
 
     /**
@@ -199,19 +204,18 @@ public enum DateTimeConverter {
     final long toJavaTime(long dtime) {
         if (MIN_DOS_TIME > dtime) dtime = MIN_DOS_TIME;
         else if (MAX_DOS_TIME < dtime) dtime = MAX_DOS_TIME;
-        final int time = (int) dtime;
-        final GregorianCalendar cal = getThreadLocalCalendar();
-        cal.set(Calendar.ERA, GregorianCalendar.AD);
-        cal.set(Calendar.YEAR, 1980 + ((time >> 25) & 0x7f));
-        cal.set(Calendar.MONTH, ((time >> 21) & 0x0f) - 1);
-        cal.set(Calendar.DAY_OF_MONTH, (time >> 16) & 0x1f);
-        cal.set(Calendar.HOUR_OF_DAY, (time >> 11) & 0x1f);
-        cal.set(Calendar.MINUTE, (time >> 5) & 0x3f);
-        cal.set(Calendar.SECOND, (time << 1) & 0x3e);
-        // DOS date/time has only two seconds granularity.
-        // Make calendar return only total seconds in order to make this
-        // work correctly.
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
+        return table().toJavaTime(dtime);
+    }
+
+    /** A date/time table with its expiry time. */
+    @Immutable
+    static final class Resolution {
+        final DateTimeTable table;
+        final long expires;
+
+        Resolution(final DateTimeTable table, final long expires) {
+            this.table = table;
+            this.expires = expires;
+        }
     }
 }
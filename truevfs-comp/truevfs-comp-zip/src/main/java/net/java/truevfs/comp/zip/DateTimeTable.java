@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import javax.annotation.concurrent.Immutable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static net.java.truevfs.comp.zip.DateTimeConverter.MAX_DOS_TIME;
+import static net.java.truevfs.comp.zip.DateTimeConverter.MIN_DOS_TIME;
+
+/**
+ * A table of the UTC offset transitions of a time zone for the range of
+ * DOS date/time values.
+ * Once a table has been computed, it converts between Java time and DOS
+ * date/time values using binary search and integer arithmetic only, so that
+ * no objects get allocated.
+ * Tables get cached per time zone and are immutable, so they can get shared
+ * by any number of threads.
+ *
+ * @author Christian Schlichtherle
+ */
+@Immutable
+final class DateTimeTable {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /** The days from 0000-03-01 to 1970-01-01 in the proleptic gregorian calendar. */
+    private static final long DAYS_0000_TO_1970 = 719468;
+
+    /**
+     * The Java time where the table starts.
+     * Any Java time before this value is less than
+     * {@link DateTimeConverter#MIN_DOS_TIME} in any time zone.
+     */
+    private static final long LOWER_BOUND = LocalDate.of(1979, 12, 30).toEpochDay() * MILLIS_PER_DAY;
+
+    /**
+     * The Java time where the table ends.
+     * Any Java time after this value is greater than
+     * {@link DateTimeConverter#MAX_DOS_TIME} in any time zone.
+     */
+    private static final long UPPER_BOUND = LocalDate.of(2108, 1, 2).toEpochDay() * MILLIS_PER_DAY;
+
+    private static final ConcurrentMap<ZoneId, DateTimeTable> tables = new ConcurrentHashMap<>();
+
+    /** The Java times of the offset transitions in ascending order. */
+    private final long[] instants;
+
+    /**
+     * The local times of the offset transitions in ascending order.
+     * Each local time is computed using the offset <em>after</em> the
+     * transition, so that a local time in a gap resolves to the offset before
+     * the gap and a local time in an overlap resolves to the offset after the
+     * overlap, just like a lenient {@link java.util.GregorianCalendar} does.
+     */
+    private final long[] walls;
+
+    /**
+     * The offsets in milliseconds.
+     * The offset at index {@code i + 1} applies after the transition at index
+     * {@code i}.
+     */
+    private final int[] offsets;
+
+    private DateTimeTable(final ZoneRules rules) {
+        final List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        Instant instant = Instant.ofEpochMilli(LOWER_BOUND);
+        final int initial = rules.getOffset(instant).getTotalSeconds() * 1000;
+        for (ZoneOffsetTransition t; null != (t = rules.nextTransition(instant)); ) {
+            instant = t.getInstant();
+            if (UPPER_BOUND <= instant.toEpochMilli()) break;
+            transitions.add(t);
+        }
+        final int length = transitions.size();
+        this.instants = new long[length];
+        this.walls = new long[length];
+        this.offsets = new int[length + 1];
+        this.offsets[0] = initial;
+        for (int i = 0; i < length; i++) {
+            final ZoneOffsetTransition t = transitions.get(i);
+            final int after = t.getOffsetAfter().getTotalSeconds() * 1000;
+            this.instants[i] = t.getInstant().toEpochMilli();
+            this.walls[i] = this.instants[i] + after;
+            this.offsets[i + 1] = after;
+        }
+    }
+
+    /**
+     * Returns the table for the given time zone.
+     *
+     * @param  zone the time zone.
+     * @return The table for the given time zone.
+     */
+    static DateTimeTable of(final ZoneId zone) {
+        final DateTimeTable table = tables.get(zone);
+        return null != table ? table : tables.computeIfAbsent(zone, z -> new DateTimeTable(z.getRules()));
+    }
+
+    /**
+     * Converts a Java time value to a DOS date/time value.
+     *
+     * @param  jtime the number of milliseconds since the epoch.
+     * @return A DOS date/time value in between
+     *         {@link DateTimeConverter#MIN_DOS_TIME} and
+     *         {@link DateTimeConverter#MAX_DOS_TIME}.
+     */
+    long toDosTime(final long jtime) {
+        if (LOWER_BOUND > jtime) return MIN_DOS_TIME;
+        if (UPPER_BOUND <= jtime) return MAX_DOS_TIME;
+        final long local = jtime + offsets[index(instants, jtime)];
+        final long days = Math.floorDiv(local, MILLIS_PER_DAY);
+        final int seconds = (int) ((local - days * MILLIS_PER_DAY) / 1000);
+
+        // Convert the epoch day to a civil date, see
+        // http://howardhinnant.github.io/date_algorithms.html#civil_from_days .
+        final long z = days + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(z, 146097);
+        final int doe = (int) (z - era * 146097);
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        final int day = doy - (153 * mp + 2) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        long dtime = year - 1980;
+        if (0 > dtime) return MIN_DOS_TIME;
+        dtime = (dtime << 25)
+                | (month << 21)
+                | (day << 16)
+                | ((seconds / 3600) << 11)
+                | ((seconds / 60 % 60) << 5)
+                | ((seconds % 60) >> 1);
+        return MAX_DOS_TIME < dtime ? MAX_DOS_TIME : dtime;
+    }
+
+    /**
+     * Converts a DOS date/time value to a Java time value.
+     * Invalid field values overflow into the next higher field as if using a
+     * lenient {@link java.util.GregorianCalendar}.
+     *
+     * @param  dtime the DOS date/time value, which must be in between
+     *         {@link DateTimeConverter#MIN_DOS_TIME} and
+     *         {@link DateTimeConverter#MAX_DOS_TIME}.
+     * @return The number of milliseconds since the epoch.
+     */
+    long toJavaTime(final long dtime) {
+        assert MIN_DOS_TIME <= dtime && dtime <= MAX_DOS_TIME;
+        final int time = (int) dtime;
+        final int month0 = ((time >> 21) & 0x0f) - 1;
+        final long year = 1980 + ((time >> 25) & 0x7f) + Math.floorDiv(month0, 12);
+        final int month = Math.floorMod(month0, 12) + 1;
+
+        // Convert the civil date to an epoch day, see
+        // http://howardhinnant.github.io/date_algorithms.html#days_from_civil .
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final int yoe = (int) (y - era * 400);
+        final int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        final long days = era * 146097 + doe - DAYS_0000_TO_1970
+                + ((time >> 16) & 0x1f) - 1;
+
+        final long local = days * MILLIS_PER_DAY
+                + (((time >> 11) & 0x1f) * 3600
+                + ((time >> 5) & 0x3f) * 60
+                + ((time << 1) & 0x3e)) * 1000L;
+        return local - offsets[index(walls, local)];
+    }
+
+    private static int index(final long[] array, final long key) {
+        final int i = Arrays.binarySearch(array, key);
+        return 0 <= i ? i + 1 : -i - 1;
+    }
+}
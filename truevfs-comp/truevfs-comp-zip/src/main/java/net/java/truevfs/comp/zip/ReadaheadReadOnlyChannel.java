@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import edu.umd.cs.findbugs.annotations.CreatesObligation;
+import net.java.truecommons.io.ReadOnlyChannel;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A read-only channel which reads ahead of the consumer in large, aligned
+ * blocks while its access pattern is sequential.
+ * <p>
+ * While the access pattern is not sequential, reads get forwarded to the
+ * decorated channel unless they can get served from the current readahead
+ * window.
+ * While it is, any read which misses the readahead window refills it with a
+ * single read from the decorated channel, starting at the requested position
+ * aligned down to {@value #ALIGNMENT} bytes.
+ * The size of the readahead window starts at {@value #MIN_WINDOW} bytes and
+ * doubles with each refill up to {@value #MAX_WINDOW} bytes, so that short
+ * sequential runs don't read too much data in vain.
+ * <p>
+ * This channel never reads beyond the size which has been provided to its
+ * constructor, so it is safe to use with a concurrently growing file.
+ * If the decorated channel ends before this size, then reading returns
+ * {@code -1} at its end as usual.
+ * <p>
+ * The buffer for the readahead window always has {@value #MAX_WINDOW} bytes
+ * and gets borrowed from a small pool on the first refill and returned to it
+ * when this channel gets closed, so that opening and closing many ZIP files
+ * doesn't allocate a new buffer each time.
+ *
+ * @author Christian Schlichtherle
+ */
+@NotThreadSafe
+final class ReadaheadReadOnlyChannel extends ReadOnlyChannel {
+
+    static final int ALIGNMENT = 4 * 1024;
+    static final int MIN_WINDOW = 64 * 1024;
+    static final int MAX_WINDOW = 512 * 1024;
+    private static final int MAX_POOLED = 8;
+
+    /** The pool of buffers for the readahead window - visible for testing. */
+    static final BlockingQueue<ByteBuffer>
+            pool = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private final long size;
+    private @CheckForNull ByteBuffer window;
+    private long start;
+    private int windowSize = MIN_WINDOW;
+    private boolean sequential;
+    private long pos;
+
+    @CreatesObligation
+    ReadaheadReadOnlyChannel(
+            final @WillCloseWhenClosed SeekableByteChannel channel,
+            final long size) {
+        super(channel);
+        this.size = size;
+    }
+
+    /**
+     * Tells this channel whether the access pattern is sequential or not.
+     * Telling that it's not sequential resets the size of the readahead
+     * window.
+     */
+    void sequential(final boolean sequential) {
+        if (!sequential) windowSize = MIN_WINDOW;
+        this.sequential = sequential;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (!dst.hasRemaining()) return 0;
+        if (pos >= size) return direct(dst);
+        int total = copy(dst);
+        if (!dst.hasRemaining()) return total;
+        if (!sequential || windowSize <= dst.remaining()) {
+            final int read = direct(dst);
+            return 0 < total ? 0 < read ? total + read : total : read;
+        }
+        fill();
+        final int read = copy(dst);
+        return 0 < total ? total + read : 0 < read ? read : -1;
+    }
+
+    private int direct(final ByteBuffer dst) throws IOException {
+        final int read = channel.position(pos).read(dst);
+        if (0 < read) pos += read;
+        return read;
+    }
+
+    /** Copies the data at the current position from the window, if any. */
+    private int copy(final ByteBuffer dst) {
+        final ByteBuffer window = this.window;
+        if (null == window) return 0;
+        final long offset = pos - start;
+        if (0 > offset || window.limit() <= offset) return 0;
+        final ByteBuffer src = window.duplicate();
+        src.position((int) offset);
+        final int n = Math.min(src.remaining(), dst.remaining());
+        src.limit(src.position() + n);
+        dst.put(src);
+        pos += n;
+        return n;
+    }
+
+    /** Refills the window with the data at the current position. */
+    private void fill() throws IOException {
+        final long aligned = pos - pos % ALIGNMENT;
+        final int length = (int) Math.min(windowSize, size - aligned);
+        ByteBuffer window = this.window;
+        if (null == window) {
+            window = pool.poll();
+            if (null == window) window = ByteBuffer.allocate(MAX_WINDOW);
+            this.window = window;
+        }
+        window.clear().limit(length);
+        channel.position(aligned);
+        while (window.hasRemaining() && 0 <= channel.read(window)) {
+        }
+        window.flip();
+        start = aligned;
+        windowSize = Math.min(windowSize * 2, MAX_WINDOW);
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return pos;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition)
+    throws IOException {
+        checkOpen();
+        if (0 > newPosition) throw new IllegalArgumentException();
+        pos = newPosition;
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final ByteBuffer window = this.window;
+        if (null != window) {
+            this.window = null;
+            pool.offer(window);
+        }
+        channel.close();
+    }
+}
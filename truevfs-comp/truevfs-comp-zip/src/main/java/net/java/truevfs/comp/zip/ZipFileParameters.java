@@ -16,6 +16,18 @@ package net.java.truevfs.comp.zip;
 public interface ZipFileParameters<E extends ZipEntry>
 extends ZipCharsetParameters, ZipEntryFactory<E> {
 
+    /**
+     * The default size of the window at the end of a ZIP file which gets read
+     * in a single operation in order to locate its central directory, which
+     * is {@value}.
+     * This is large enough for an End Of Central Directory Record (EOCDR)
+     * with a ZIP file comment of maximum length plus the ZIP64 End Of Central
+     * Directory Locator and Record.
+     *
+     * @since TrueVFS 0.15
+     */
+    int DEFAULT_TAIL_WINDOW_SIZE = 66 * 1024;
+
     /**
      * Returns the flag for supporting preambles.
      * If this method returns {@code true}, then a ZIP file is allowed to
@@ -53,4 +65,25 @@ extends ZipCharsetParameters, ZipEntryFactory<E> {
      * @return The flag for supporting postambles of arbitrary length.
      */
     boolean getPostambled();
+
+    /**
+     * Returns the size of the window at the end of a ZIP file which gets read
+     * in a single operation in order to locate its central directory.
+     * If the End Of Central Directory Record (EOCDR) is not found within this
+     * window, then the search continues in the preceding window of the same
+     * size, and so on.
+     * So with the default value, locating the central directory of a ZIP file
+     * without a postamble takes a single read operation, which matters for
+     * backing stores with a high latency, e.g. network storage.
+     * <p>
+     * The implementation in this interface returns
+     * {@link #DEFAULT_TAIL_WINDOW_SIZE}.
+     *
+     * @return The size of the window at the end of a ZIP file which gets read
+     *         in a single operation in order to locate its central directory.
+     * @since  TrueVFS 0.15
+     */
+    default int getTailWindowSize() {
+        return DEFAULT_TAIL_WINDOW_SIZE;
+    }
 }
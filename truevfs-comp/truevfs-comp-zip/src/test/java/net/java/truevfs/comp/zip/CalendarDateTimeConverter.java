@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import static net.java.truevfs.comp.zip.DateTimeConverter.MAX_DOS_TIME;
+import static net.java.truevfs.comp.zip.DateTimeConverter.MIN_DOS_TIME;
+
+/**
+ * The original, calendar based implementation of the {@link DateTimeConverter}
+ * for use as a reference in tests and benchmarks.
+ *
+ * @author Christian Schlichtherle
+ */
+final class CalendarDateTimeConverter {
+
+    private final ThreadLocal<GregorianCalendar> calendar;
+    private final boolean roundUp;
+
+    private CalendarDateTimeConverter(final TimeZone tz, final boolean roundUp) {
+        this.calendar = ThreadLocal.withInitial(() -> new GregorianCalendar(tz));
+        this.roundUp = roundUp;
+    }
+
+    /**
+     * Returns a reference converter which uses the same conventions as the
+     * given converter.
+     */
+    static CalendarDateTimeConverter of(final DateTimeConverter converter) {
+        return of(converter, TimeZone.getDefault());
+    }
+
+    /**
+     * Returns a reference converter which uses the same conventions as the
+     * given converter, but for the given time zone.
+     */
+    static CalendarDateTimeConverter of(final DateTimeConverter converter, TimeZone tz) {
+        switch (converter) {
+            case JAR:
+                return new CalendarDateTimeConverter(tz, false);
+            case ZIP:
+                tz = new SimpleTimeZone(tz.getOffset(System.currentTimeMillis()), tz.getID());
+                return new CalendarDateTimeConverter(tz, true);
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    GregorianCalendar getThreadLocalCalendar() {
+        return calendar.get();
+    }
+
+    long toDosTime(final long jtime) {
+        if (0 > jtime)
+            throw new IllegalArgumentException("Negative Java time: " + jtime);
+        final GregorianCalendar cal = getThreadLocalCalendar();
+        cal.setTimeInMillis(roundUp ? jtime + 1999 : jtime);
+        long dtime = cal.get(Calendar.YEAR) - 1980;
+        if (0 > dtime) return MIN_DOS_TIME;
+        dtime = (dtime << 25)
+                | ((cal.get(Calendar.MONTH) + 1) << 21)
+                | (cal.get(Calendar.DAY_OF_MONTH) << 16)
+                | (cal.get(Calendar.HOUR_OF_DAY) << 11)
+                | (cal.get(Calendar.MINUTE) << 5)
+                | (cal.get(Calendar.SECOND) >> 1);
+        if (MAX_DOS_TIME < dtime) return MAX_DOS_TIME;
+        return dtime;
+    }
+
+    long toJavaTime(long dtime) {
+        if (MIN_DOS_TIME > dtime) dtime = MIN_DOS_TIME;
+        else if (MAX_DOS_TIME < dtime) dtime = MAX_DOS_TIME;
+        final int time = (int) dtime;
+        final GregorianCalendar cal = getThreadLocalCalendar();
+        cal.set(Calendar.ERA, GregorianCalendar.AD);
+        cal.set(Calendar.YEAR, 1980 + ((time >> 25) & 0x7f));
+        cal.set(Calendar.MONTH, ((time >> 21) & 0x0f) - 1);
+        cal.set(Calendar.DAY_OF_MONTH, (time >> 16) & 0x1f);
+        cal.set(Calendar.HOUR_OF_DAY, (time >> 11) & 0x1f);
+        cal.set(Calendar.MINUTE, (time >> 5) & 0x3f);
+        cal.set(Calendar.SECOND, (time << 1) & 0x3e);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+}
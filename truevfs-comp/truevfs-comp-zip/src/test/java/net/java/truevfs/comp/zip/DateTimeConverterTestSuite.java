@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Random;
 import java.util.concurrent.Callable;
 
 import static net.java.truecommons.shed.ConcurrencyUtils.NUM_CPU_THREADS;
@@ -26,12 +27,14 @@ import static org.junit.Assert.fail;
 public abstract class DateTimeConverterTestSuite {
 
     private DateTimeConverter instance;
+    private CalendarDateTimeConverter reference;
     private long minJavaTime, maxJavaTime;
 
     @Before
     public void setUp() {
         instance = getInstance();
-        GregorianCalendar calendar = instance.getThreadLocalCalendar();
+        reference = CalendarDateTimeConverter.of(instance);
+        GregorianCalendar calendar = reference.getThreadLocalCalendar();
         calendar.set(Calendar.ERA, GregorianCalendar.AD);
         calendar.set(Calendar.MILLISECOND, 0);
         calendar.set(1980, Calendar.JANUARY, 1, 0, 0, 0);
@@ -43,22 +46,25 @@ public abstract class DateTimeConverterTestSuite {
     abstract DateTimeConverter getInstance();
 
     @Test
-    public final void testGetThreadLocalCalendar() throws Exception {
-        final GregorianCalendar ref = instance.getThreadLocalCalendar();
+    public final void testAgainstCalendar() throws Exception {
         ConcurrencyUtils.start(NUM_CPU_THREADS, new TaskFactory() {
             @Override
-            public Callable<?> newTask(int threadNum) {
+            public Callable<?> newTask(final int threadNum) {
                 return new Callable<Void>() {
                     @Override
                     public Void call() {
-                        assertThat(instance.getThreadLocalCalendar(),
-                                is(not(sameInstance(ref))));
+                        final Random rnd = new Random(threadNum);
+                        for (int i = 0; i < 100000; i++) {
+                            final long jTime = minJavaTime + (long) (rnd.nextDouble() * (maxJavaTime - minJavaTime));
+                            assertThat(instance.toDosTime(jTime), is(reference.toDosTime(jTime)));
+                            final long dTime = MIN_DOS_TIME + (rnd.nextLong() & Long.MAX_VALUE) % (MAX_DOS_TIME - MIN_DOS_TIME);
+                            assertThat(instance.toJavaTime(dTime), is(reference.toJavaTime(dTime)));
+                        }
                         return null;
                     }
                 };
             }
         }).join();
-        assertThat(instance.getThreadLocalCalendar(), is(sameInstance(ref)));
     }
 
     @Test
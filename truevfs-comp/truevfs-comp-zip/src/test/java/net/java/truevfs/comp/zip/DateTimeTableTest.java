@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static net.java.truevfs.comp.zip.DateTimeConverter.JAR;
+import static net.java.truevfs.comp.zip.DateTimeConverter.MAX_DOS_TIME;
+import static net.java.truevfs.comp.zip.DateTimeConverter.MIN_DOS_TIME;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class DateTimeTableTest {
+
+    private static final String[] ZONES = {
+            "UTC",
+            "Europe/Berlin",
+            "America/Los_Angeles",
+            "America/Sao_Paulo",
+            "Australia/Lord_Howe",
+            "Asia/Kolkata",
+            "Pacific/Apia",
+    };
+
+    @Test
+    public void testCaching() {
+        final ZoneId zone = ZoneId.of("Europe/Berlin");
+        assertThat(DateTimeTable.of(zone), is(sameInstance(DateTimeTable.of(zone))));
+    }
+
+    @Test
+    public void testAgainstCalendar() {
+        for (final String id : ZONES) {
+            final DateTimeTable table = DateTimeTable.of(ZoneId.of(id));
+            final CalendarDateTimeConverter reference =
+                    CalendarDateTimeConverter.of(JAR, TimeZone.getTimeZone(id));
+            final long minJavaTime = reference.toJavaTime(MIN_DOS_TIME);
+            final long maxJavaTime = reference.toJavaTime(MAX_DOS_TIME);
+            final Random rnd = new Random(id.hashCode());
+            for (int i = 0; i < 100000; i++) {
+                final long jTime = minJavaTime + (long) (rnd.nextDouble() * (maxJavaTime - minJavaTime));
+                assertThat(id, table.toDosTime(jTime), is(reference.toDosTime(jTime)));
+                final long dTime = MIN_DOS_TIME + (rnd.nextLong() & Long.MAX_VALUE) % (MAX_DOS_TIME - MIN_DOS_TIME);
+                assertThat(id, table.toJavaTime(dTime), is(reference.toJavaTime(dTime)));
+            }
+        }
+    }
+
+    @Test
+    public void testTransitions() {
+        final DateTimeTable table = DateTimeTable.of(ZoneId.of("America/Los_Angeles"));
+        final CalendarDateTimeConverter reference =
+                CalendarDateTimeConverter.of(JAR, TimeZone.getTimeZone("America/Los_Angeles"));
+        // Every two seconds of the days with the DST transitions in 2021,
+        // i.e. March 14th and November 7th.
+        for (final long date : new long[] {
+                (41L << 25) | (3 << 21) | (14 << 16),
+                (41L << 25) | (11 << 21) | (7 << 16),
+        }) {
+            for (int seconds = 0; seconds < 24 * 60 * 60; seconds += 2) {
+                final long dTime = date
+                        | ((seconds / 3600) << 11)
+                        | ((seconds / 60 % 60) << 5)
+                        | ((seconds % 60) >> 1);
+                final long jTime = table.toJavaTime(dTime);
+                assertThat(jTime, is(reference.toJavaTime(dTime)));
+                assertThat(table.toDosTime(jTime), is(reference.toDosTime(jTime)));
+            }
+        }
+    }
+}
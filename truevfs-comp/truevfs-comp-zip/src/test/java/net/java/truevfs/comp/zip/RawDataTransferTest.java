@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import net.java.truecommons.io.OneTimeSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.java.truevfs.comp.zip.Constants.DEFAULT_CHARSET;
+import static net.java.truevfs.comp.zip.ZipEntry.DEFLATED;
+import static net.java.truevfs.comp.zip.ZipEntry.STORED;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the transfer of raw entry data between ZIP files.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class RawDataTransferTest {
+
+    private static final String[] NAMES = { "stored", "deflated" };
+
+    private final byte[] data = new byte[256 * 1024];
+
+    private Path input, output;
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(42).nextBytes(data);
+        // Make the data compressible.
+        for (int i = 0; i < data.length; i += 2) data[i] = 0;
+        input = Files.createTempFile("input", ".zip");
+        output = Files.createTempFile("output", ".zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(input))) {
+            for (final String name : NAMES) {
+                final ZipEntry entry = new ZipEntry(name);
+                entry.setMethod(name.equals("stored") ? STORED : DEFLATED);
+                if (STORED == entry.getMethod()) {
+                    final java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+                    crc.update(data);
+                    entry.setCrc(crc.getValue());
+                    entry.setSize(data.length);
+                    entry.setCompressedSize(data.length);
+                }
+                zos.putNextEntry(entry);
+                zos.write(data);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(input);
+    }
+
+    @Test
+    public void testTransfer() throws IOException {
+        try (RawZipFile zin = new RawZipFile(input);
+             FileChannel channel = FileChannel.open(output, CREATE, WRITE);
+             ZipOutputStream zos = new ZipOutputStream(
+                     Channels.newOutputStream(channel))) {
+            for (final String name : NAMES) {
+                final ZipEntry entry = zin.entry(name);
+                zos.putNextEntry(entry.clone(), false);
+                try (InputStream in = zin.getInputStream(name, false, false)) {
+                    assertEquals(entry.getCompressedSize(),
+                            zos.transfer(out -> zin.transferTo(in, channel)));
+                    assertEquals(-1, in.read());
+                }
+                zos.closeEntry();
+            }
+        }
+        try (ZipFile zin = new ZipFile(output)) {
+            for (final String name : NAMES)
+                assertArrayEquals(data, read(zin.getCheckedInputStream(name)));
+        }
+    }
+
+    @Test
+    public void testNoTransfer() throws IOException {
+        try (RawZipFile zin = new RawZipFile(input);
+             FileChannel channel = FileChannel.open(output, CREATE, WRITE);
+             ZipOutputStream zos = new ZipOutputStream(
+                     Channels.newOutputStream(channel))) {
+            zos.putNextEntry(zin.entry("deflated").clone(), true);
+            assertEquals(-1, zos.transfer(out -> {
+                fail();
+                return 0;
+            }));
+            try (InputStream in = zin.getInputStream("deflated", false, true)) {
+                assertEquals(-1, zin.transferTo(in, channel));
+            }
+        }
+    }
+
+    private static byte[] read(final InputStream in) throws IOException {
+        try (InputStream i = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8 * 1024];
+            for (int read; 0 <= (read = i.read(buffer)); )
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Unlike {@link ZipFile}, this class does not decorate the entry input
+     * streams, so that they can get transferred.
+     */
+    private static final class RawZipFile extends AbstractZipFile<ZipEntry> {
+
+        RawZipFile(Path file) throws IOException {
+            super(  new OneTimeSource(FileChannel.open(file, READ)),
+                    new DefaultZipFileParameters(DEFAULT_CHARSET, true, false));
+        }
+
+        @Override
+        protected ZipCryptoParameters getCryptoParameters() { return null; }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import net.java.truecommons.io.ByteBufferChannel;
+import net.java.truecommons.io.ReadOnlyChannel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class ReadaheadReadOnlyChannelTest {
+
+    private final byte[] data = new byte[1024 * 1024 + 123];
+    private int reads;
+    private ReadaheadReadOnlyChannel channel;
+
+    @Before
+    public void setUp() {
+        new Random(0).nextBytes(data);
+        channel = new ReadaheadReadOnlyChannel(new ReadOnlyChannel(
+                new ByteBufferChannel(ByteBuffer.wrap(data).asReadOnlyBuffer())) {
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                reads++;
+                return super.read(dst);
+            }
+        }, data.length);
+    }
+
+    private void assertReadAll(final int chunk) throws IOException {
+        channel.position(0);
+        final ByteBuffer dst = ByteBuffer.allocate(chunk);
+        for (int off = 0; off < data.length; ) {
+            dst.clear();
+            final int read = channel.read(dst);
+            assertTrue(0 < read);
+            assertArrayEquals(Arrays.copyOfRange(data, off, off + read),
+                    Arrays.copyOf(dst.array(), read));
+            off += read;
+        }
+        dst.clear();
+        assertEquals(-1, channel.read(dst));
+    }
+
+    @Test
+    public void testWindowReuseAfterClose() throws IOException {
+        ReadaheadReadOnlyChannel.pool.clear();
+        channel.sequential(true);
+        assertEquals(1, channel.read(ByteBuffer.allocate(1)));
+        assertTrue(ReadaheadReadOnlyChannel.pool.isEmpty());
+        channel.close();
+        assertEquals(1, ReadaheadReadOnlyChannel.pool.size());
+        final ByteBuffer window = ReadaheadReadOnlyChannel.pool.peek();
+        setUp();
+        channel.sequential(true);
+        channel.position(ReadaheadReadOnlyChannel.MAX_WINDOW);
+        final ByteBuffer dst = ByteBuffer.allocate(1);
+        assertEquals(1, channel.read(dst));
+        assertEquals(data[ReadaheadReadOnlyChannel.MAX_WINDOW], dst.get(0));
+        assertTrue(ReadaheadReadOnlyChannel.pool.isEmpty());
+        channel.close();
+        assertSame(window, ReadaheadReadOnlyChannel.pool.peek());
+    }
+
+    @Test
+    public void testZipFileReturnsWindowOnClose() throws IOException {
+        final Path path = Files.createTempFile("tzp", ".zip");
+        try {
+            try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(path))) {
+                for (int i = 0; i < 2; i++) {
+                    zos.putNextEntry(new ZipEntry("entry" + i));
+                    zos.write(data);
+                }
+            }
+            ReadaheadReadOnlyChannel.pool.clear();
+            try (ZipFile zip = new ZipFile(path)) {
+                for (int i = 0; i < 2; i++) {
+                    try (InputStream in = zip.getInputStream("entry" + i)) {
+                        while (0 <= in.read(new byte[8192])) {
+                        }
+                    }
+                }
+                assertTrue(ReadaheadReadOnlyChannel.pool.isEmpty());
+            }
+            assertEquals(1, ReadaheadReadOnlyChannel.pool.size());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testRandom() throws IOException {
+        assertReadAll(100);
+        assertTrue(data.length / 100 < reads);
+    }
+
+    @Test
+    public void testSequential() throws IOException {
+        channel.sequential(true);
+        assertReadAll(100);
+        assertTrue(reads <= data.length / ReadaheadReadOnlyChannel.MAX_WINDOW + 5);
+    }
+
+    @Test
+    public void testAlignment() throws IOException {
+        channel.sequential(true);
+        channel.position(ReadaheadReadOnlyChannel.ALIGNMENT + 1);
+        assertEquals(1, channel.read(ByteBuffer.allocate(1)));
+        assertEquals(1, reads);
+        channel.position(ReadaheadReadOnlyChannel.ALIGNMENT);
+        final ByteBuffer dst = ByteBuffer.allocate(1);
+        assertEquals(1, channel.read(dst));
+        assertEquals(data[ReadaheadReadOnlyChannel.ALIGNMENT], dst.get(0));
+        assertEquals(1, reads);
+    }
+
+    @Test
+    public void testLargeReadsBypassWindow() throws IOException {
+        channel.sequential(true);
+        final ByteBuffer dst = ByteBuffer.allocate(ReadaheadReadOnlyChannel.MIN_WINDOW);
+        assertEquals(dst.capacity(), channel.read(dst));
+        assertArrayEquals(Arrays.copyOf(data, dst.capacity()), dst.array());
+        assertEquals(1, reads);
+        assertEquals(dst.capacity(), channel.position());
+    }
+
+    @Test
+    public void testEarlyEof() throws IOException {
+        channel = new ReadaheadReadOnlyChannel(new ByteBufferChannel(
+                ByteBuffer.wrap(data).asReadOnlyBuffer()), data.length + 1000);
+        channel.sequential(true);
+        channel.position(data.length - 10);
+        final ByteBuffer dst = ByteBuffer.allocate(100);
+        assertEquals(10, channel.read(dst));
+        assertEquals(-1, channel.read(dst));
+        channel.position(data.length + 1);
+        assertEquals(-1, channel.read(dst));
+        channel.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zip;
+
+import net.java.truecommons.io.ByteBufferChannel;
+import net.java.truecommons.io.OneTimeSource;
+import net.java.truecommons.io.ReadOnlyChannel;
+import org.junit.Test;
+
+import javax.annotation.CheckForNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests locating the central directory of a ZIP file via the tail window.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class TailWindowTest {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final byte[] DATA = "Hello World!".getBytes(CHARSET);
+
+    private int reads, mountReads;
+
+    private static byte[] zip(final int commentLen) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos, CHARSET)) {
+            zos.setComment(String.join("", Collections.nCopies(commentLen, "x")));
+            for (int i = 0; i < 10; i++) {
+                zos.putNextEntry(new ZipEntry("entry" + i));
+                zos.write(DATA);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] concat(final byte[]... arrays) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (final byte[] array : arrays) bos.write(array, 0, array.length);
+        return bos.toByteArray();
+    }
+
+    private void assertZip(
+            final byte[] zip,
+            final int preamble,
+            final int postamble,
+            final int commentLen,
+            final int window)
+    throws IOException {
+        reads = 0;
+        try (TestZipFile file = new TestZipFile(zip, window)) {
+            mountReads = reads;
+            assertEquals(preamble, file.getPreambleLength());
+            assertEquals(postamble, file.getPostambleLength());
+            assertEquals(commentLen, null == file.getComment() ? 0 : file.getComment().length());
+            assertEquals(10, file.size());
+            for (int i = 0; i < 10; i++) {
+                final byte[] buf = new byte[DATA.length];
+                try (InputStream in = file.getInputStream("entry" + i)) {
+                    int off = 0;
+                    for (int read; off < buf.length && 0 <= (read = in.read(buf, off, buf.length - off)); )
+                        off += read;
+                }
+                assertArrayEquals(DATA, buf);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleRead() throws IOException {
+        final byte[] preamble = new byte[100 * 1024];
+        Arrays.fill(preamble, (byte) 'P');
+        assertZip(concat(preamble, zip(60000)), preamble.length, 0, 60000,
+                ZipFileParameters.DEFAULT_TAIL_WINDOW_SIZE);
+        // One read for the tail window and at most two reads for the buffered
+        // central directory, but none for searching backwards.
+        assertTrue(3 >= mountReads);
+    }
+
+    @Test
+    public void testWindowSizes() throws IOException {
+        final byte[] preamble = new byte[1000];
+        final byte[] postamble = new byte[5000];
+        Arrays.fill(preamble, (byte) 'P');
+        Arrays.fill(postamble, (byte) 'P');
+        for (final int commentLen : new int[] { 0, 100, 0xffff - 5000 - 1 }) {
+            final byte[] zip = zip(commentLen);
+            for (final int window : new int[] { 0, 22, 23, 25, 64, 1000, 65536, Integer.MAX_VALUE }) {
+                assertZip(zip, 0, 0, commentLen, window);
+                assertZip(concat(preamble, zip, postamble), preamble.length, postamble.length, commentLen, window);
+            }
+        }
+    }
+
+    private final class TestZipFile extends AbstractZipFile<ZipEntry> {
+
+        TestZipFile(final byte[] zip, final int window) throws IOException {
+            super(new OneTimeSource(new ReadOnlyChannel(
+                    new ByteBufferChannel(ByteBuffer.wrap(zip).asReadOnlyBuffer())) {
+
+                        @Override
+                        public int read(ByteBuffer dst) throws IOException {
+                            reads++;
+                            return super.read(dst);
+                        }
+                    }), new ZipFileParameters<ZipEntry>() {
+
+                @Override
+                public boolean getPreambled() { return true; }
+
+                @Override
+                public boolean getPostambled() { return false; }
+
+                @Override
+                public int getTailWindowSize() { return window; }
+
+                @Override
+                public Charset getCharset() { return CHARSET; }
+
+                @Override
+                public ZipEntry newEntry(String name) { return new ZipEntry(name); }
+            });
+        }
+
+        @Override
+        protected @CheckForNull ZipCryptoParameters getCryptoParameters() {
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ package net.java.truevfs.comp.zipdriver;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.CheckForNull;
 import javax.annotation.concurrent.Immutable;
@@ -93,6 +94,22 @@ public abstract class AbstractKeyController extends FsDecoratingController {
         }
     }
 
+    @Override
+    public final @CheckForNull Map<String, FsNode> nodes(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name)
+    throws IOException {
+        try {
+            return controller.nodes(options, name);
+        } catch (final ControlFlowException ex) {
+            if (!name.isRoot() || null == findKeyException(ex))
+                throw ex;
+            // The archive file is masked as a special file, which has no
+            // members - see node(BitField, FsNodeName).
+            return null;
+        }
+    }
+
     @Override
     public void checkAccess(
             final BitField<FsAccessOption> options, final FsNodeName name, final BitField<Access> types)
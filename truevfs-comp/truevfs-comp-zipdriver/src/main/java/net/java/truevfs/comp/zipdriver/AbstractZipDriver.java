@@ -10,6 +10,7 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.Objects;
 import java.util.zip.Deflater;
+import java.util.zip.ZipException;
 import javax.annotation.CheckForNull;
 import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.Immutable;
@@ -24,11 +25,13 @@ import net.java.truecommons.key.spec.sl.KeyManagerMapLocator;
 import net.java.truecommons.logging.LocalizedLogger;
 import net.java.truecommons.shed.BitField;
 import net.java.truecommons.shed.HashMaps;
+import net.java.truevfs.comp.zip.ZipCryptoException;
 import net.java.truevfs.comp.zip.ZipCryptoParameters;
 import net.java.truevfs.comp.zip.ZipEntry;
 import static net.java.truevfs.comp.zip.ZipEntry.*;
 import net.java.truevfs.comp.zip.ZipFileParameters;
 import net.java.truevfs.comp.zip.ZipOutputStreamParameters;
+import net.java.truevfs.comp.zip.ZipParametersException;
 import net.java.truevfs.kernel.spec.*;
 import static net.java.truevfs.kernel.spec.FsAccessOption.*;
 import net.java.truevfs.kernel.spec.cio.MultiplexingOutputService;
@@ -166,6 +169,22 @@ implements ZipOutputStreamParameters, ZipFileParameters<E> {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return The implementation in the class {@link AbstractZipDriver}
+     *         returns {@code true} if and only if the given exception is a
+     *         {@link ZipException}, but neither a {@link ZipCryptoException}
+     *         nor a {@link ZipParametersException}, which may get thrown if
+     *         the key for an encrypted ZIP file is not available.
+     */
+    @Override
+    public boolean isPersistentFalsePositive(IOException ex) {
+        return ex instanceof ZipException
+                && !(ex instanceof ZipCryptoException)
+                && !(ex instanceof ZipParametersException);
+    }
+
     /**
      * Whether or not the content of the given entry shall get
      * checked/authenticated when reading it.
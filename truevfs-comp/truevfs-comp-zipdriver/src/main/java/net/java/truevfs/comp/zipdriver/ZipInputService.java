@@ -7,13 +7,20 @@ package net.java.truevfs.comp.zipdriver;
 import edu.umd.cs.findbugs.annotations.CreatesObligation;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.NoSuchFileException;
 import java.util.Objects;
+import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.concurrent.NotThreadSafe;
+import net.java.truecommons.io.DecoratingInputStream;
 import net.java.truevfs.comp.zip.AbstractZipFile;
 import net.java.truevfs.comp.zip.ZipCryptoParameters;
+import net.java.truevfs.comp.zip.ZipEntry;
 import net.java.truevfs.kernel.spec.FsInputSocketSource;
 import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
 import net.java.truecommons.cio.*;
 
 /**
@@ -90,14 +97,59 @@ extends AbstractZipFile<E> implements InputService<E> {
                         ? (AbstractZipDriverEntry) peer
                         : null;
                 final AbstractZipDriver<E> driver = ZipInputService.this.driver;
-                return getInputStream(
+                return new EntryInputStream(getInputStream(
                         local.getName(),
                         driver.check(local, ZipInputService.this),
                         null == zpeer
                         || 0 == zpeer.getSize()
-                        || !driver.rdc(ZipInputService.this, local, zpeer));
+                        || !driver.rdc(ZipInputService.this, local, zpeer)));
+            }
+
+            /**
+             * Returns a channel for random access to the data of an
+             * unencrypted {@code STORED} entry unless its CRC-32 value needs
+             * to get checked.
+             *
+             * @throws UnsupportedOperationException if the entry is
+             *         compressed, encrypted or needs to get checked.
+             */
+            @Override
+            public SeekableByteChannel channel(OutputSocket<? extends Entry> output)
+            throws IOException {
+                final E local = target();
+                if (ZipEntry.STORED != local.getMethod()
+                        || local.isEncrypted()
+                        || driver.check(local, ZipInputService.this))
+                    return super.channel(output);
+                final SeekableByteChannel channel
+                        = getReadOnlyChannel(local.getName());
+                assert null != channel;
+                return channel;
             }
         } // Input
         return new Input();
     }
+
+    /**
+     * This entry input stream can transfer its data to a writable byte
+     * channel.
+     * If the entry data gets read without processing it, e.g. for Raw Data
+     * Copying (RDC), then this transfer happens without copying the data
+     * through the Java heap.
+     */
+    private final class EntryInputStream
+    extends DecoratingInputStream implements ChannelInput {
+
+        @CreatesObligation
+        EntryInputStream(@WillCloseWhenClosed InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public long transferTo(final WritableByteChannel target)
+        throws IOException {
+            final long n = ZipInputService.this.transferTo(in, target);
+            return 0 <= n ? n : ChannelTransfers.transfer(in, target);
+        }
+    } // EntryInputStream
 }
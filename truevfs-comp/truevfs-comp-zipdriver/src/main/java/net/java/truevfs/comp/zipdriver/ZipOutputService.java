@@ -18,6 +18,8 @@ import net.java.truevfs.comp.zip.AbstractZipOutputStream;
 import net.java.truevfs.comp.zip.ZipCryptoParameters;
 import net.java.truevfs.kernel.spec.FsModel;
 import net.java.truevfs.kernel.spec.FsOutputSocketSink;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelOutput;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.WillNotClose;
@@ -279,9 +281,12 @@ extends AbstractZipOutputStream<E> implements OutputService<E> {
      * the entry header.
      * These preconditions are checked by
      * {@link #output(AbstractZipDriverEntry)}.
+     * When using Raw Data Copying (RDC), the entry data can get transferred
+     * to the sink without copying it through the Java heap.
      */
     @CleanupObligation
-    private final class EntryOutputStream extends DisconnectingOutputStream {
+    private final class EntryOutputStream extends DisconnectingOutputStream
+    implements ChannelOutput {
         boolean closed;
 
         @CreatesObligation
@@ -291,6 +296,15 @@ extends AbstractZipOutputStream<E> implements OutputService<E> {
             putNextEntry(local, !rdc);
         }
 
+        @Override
+        public long transferFrom(final ChannelInput input)
+        throws IOException {
+            checkOpen();
+            return transfer(sink -> sink instanceof ChannelOutput
+                    ? ((ChannelOutput) sink).transferFrom(input)
+                    : -1);
+        }
+
         @Override
         public boolean isOpen() {
             return !closed;
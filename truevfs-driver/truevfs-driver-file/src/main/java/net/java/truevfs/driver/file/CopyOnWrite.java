@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Detects file stores which support copy-on-write clones of files, a.k.a.
+ * reflinks, and clones files on them.
+ * On such file stores, cloning a file only copies its metadata, so the
+ * costs of updating a clone of a large file are proportional to the size of
+ * the change rather than the size of the file.
+ * <p>
+ * There is no portable API for detecting reflink support or for cloning a
+ * file, so this class clones files by running {@code cp --reflink=always} on
+ * Linux or {@code cp -c} on macOS.
+ * Whether a file store supports this gets detected only once by cloning a
+ * small temporary file on it and then gets cached, no matter if the result
+ * is positive or negative.
+ * If cloning a file fails later on, then the file store gets reported as not
+ * supported from then on, so that callers fall back to their non-cloning code
+ * path rather than paying for a full copy.
+ * <p>
+ * Because every clone requires to run an external process, this feature is
+ * opt-in:
+ * It's only {@linkplain #isEnabled() enabled} if the system property
+ * {@code net.java.truevfs.driver.file.CopyOnWrite.enable} is set to
+ * {@code true}.
+ *
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class CopyOnWrite {
+
+    private static final boolean ENABLED = Boolean.getBoolean(
+            CopyOnWrite.class.getName() + ".enable");
+
+    /** The command line options for cloning a file, if any. */
+    private static final @CheckForNull String[] COMMAND = command();
+
+    private static final ConcurrentMap<FileStore, Boolean>
+            stores = new ConcurrentHashMap<>();
+
+    private CopyOnWrite() { }
+
+    private static @CheckForNull String[] command() {
+        final String os = System.getProperty("os.name", "")
+                .toLowerCase(Locale.ROOT);
+        if (os.startsWith("linux"))
+            return new String[] { "cp", "--reflink=always", "--" };
+        if (os.startsWith("mac"))
+            return new String[] { "cp", "-c", "--" };
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if and only if cloning files has been enabled by
+     * setting the system property
+     * {@code net.java.truevfs.driver.file.CopyOnWrite.enable} to
+     * {@code true}.
+     */
+    static boolean isEnabled() { return ENABLED; }
+
+    /**
+     * Returns {@code true} if and only if the file store of the given file
+     * supports copy-on-write clones of files and no previous attempt to clone
+     * a file on it has failed.
+     * When called for the first time for a file store, then this method
+     * clones a small temporary file in the directory of the given file in
+     * order to detect the support.
+     *
+     * @param  file the file to test.
+     * @return Whether or not the file store of the given file supports
+     *         copy-on-write clones of files.
+     */
+    static boolean isSupported(final Path file) {
+        if (null == COMMAND) return false;
+        final FileStore store;
+        try {
+            store = Files.getFileStore(file);
+        } catch (final IOException ex) {
+            return false;
+        }
+        return stores.computeIfAbsent(store, s -> probe(file));
+    }
+
+    private static boolean probe(final Path file) {
+        final Path dir = file.toAbsolutePath().getParent();
+        if (null == dir) return false;
+        try {
+            final Path source = Files.createTempFile(dir, ".tvfs", null);
+            try {
+                Files.write(source, new byte[] { 0 });
+                final Path target = source.resolveSibling(
+                        source.getFileName() + ".clone");
+                try {
+                    return 0 == cp(source, target);
+                } finally {
+                    Files.deleteIfExists(target);
+                }
+            } finally {
+                Files.delete(source);
+            }
+        } catch (final IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Clones the {@code source} file to the {@code target} file, replacing
+     * any existing {@code target} file.
+     * Unlike {@link Files#copy(Path, Path, java.nio.file.CopyOption...)},
+     * this method never falls back to copying the data:
+     * If the file store does not support cloning the file, then
+     * {@code false} gets returned and the file store gets reported as not
+     * supported by any subsequent call to {@link #isSupported}.
+     *
+     * @param  source the file to clone.
+     * @param  target the file to replace.
+     * @return {@code true} if and only if the {@code target} file is now a
+     *         clone of the {@code source} file.
+     *         If {@code false}, then the {@code target} file may have been
+     *         deleted.
+     * @throws IOException on any I/O error.
+     */
+    static boolean clone(final Path source, final Path target)
+    throws IOException {
+        if (!isSupported(source)) return false;
+        // cp -c fails on macOS if the target exists.
+        Files.deleteIfExists(target);
+        if (0 == cp(source, target)) return true;
+        Files.deleteIfExists(target);
+        stores.put(Files.getFileStore(source), Boolean.FALSE);
+        return false;
+    }
+
+    /**
+     * Runs the command for cloning the {@code source} file to the
+     * {@code target} file and returns its exit status.
+     */
+    private static int cp(final Path source, final Path target)
+    throws IOException {
+        assert null != COMMAND;
+        final String[] command = Arrays.copyOf(COMMAND, COMMAND.length + 2);
+        command[COMMAND.length] = source.toAbsolutePath().toString();
+        command[COMMAND.length + 1] = target.toAbsolutePath().toString();
+        final Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        try (InputStream in = process.getInputStream()) {
+            final byte[] buf = new byte[512];
+            while (0 <= in.read(buf)) {
+            }
+            return process.waitFor();
+        } catch (final InterruptedException ex) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            Files.deleteIfExists(target);
+            throw (IOException) new InterruptedIOException().initCause(ex);
+        }
+    }
+}
@@ -8,10 +8,10 @@ import edu.umd.cs.findbugs.annotations.CreatesObligation;
 import java.io.IOException;
 import java.io.OutputStream;
 import static java.lang.Boolean.TRUE;
+import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.Files;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createFile;
 import static java.nio.file.Files.exists;
@@ -46,6 +46,10 @@ import static net.java.truevfs.kernel.spec.FsAccessOption.APPEND;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CREATE_PARENTS;
 import static net.java.truevfs.kernel.spec.FsAccessOption.EXCLUSIVE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static net.java.truevfs.kernel.spec.FsAccessOption.UPDATE;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelOutput;
 
 /**
  * An output socket for a file entry.
@@ -102,6 +106,31 @@ final class FileOutputSocket extends AbstractOutputSocket<FileNode> {
                 createFile(entryFile);
             }
             buffer = node.createIoBuffer();
+        } else if (options.get(GROW)
+                && (options.get(APPEND) || options.get(UPDATE))
+                && CopyOnWrite.isEnabled()
+                && CopyOnWrite.isSupported(entryFile)) {
+            // Grow a copy-on-write clone of the existing file and replace
+            // the file when done, so that growing it is atomic and costs no
+            // more than writing the appended or updated data.
+            // If the file cannot get cloned, then grow it in place.
+            entryFile   .getFileSystem()
+                        .provider()
+                        .checkAccess(entryFile, AccessMode.WRITE);
+            exists = TRUE;
+            final FileNode clone = node.createIoBuffer();
+            final boolean cloned;
+            try {
+                cloned = CopyOnWrite.clone(entryFile, clone.getPath());
+            } catch (final IOException ex) {
+                throw release(ex, clone);
+            }
+            if (cloned) {
+                buffer = clone;
+            } else {
+                clone.release();
+                buffer = node;
+            }
         } else {
             buffer = node;
         }
@@ -125,7 +154,10 @@ final class FileOutputSocket extends AbstractOutputSocket<FileNode> {
     }
 
     void append(final FileNode buffer) throws IOException {
-        if (buffer != node && options.get(APPEND) && exists(node.getPath()))
+        // Without CACHE, the buffer is already a clone of the node.
+        if (buffer != node && options.get(CACHE)
+                && (options.get(APPEND) || options.get(UPDATE))
+                && exists(node.getPath()))
             IoSockets.copy(node.input(), buffer.output());
     }
 
@@ -135,17 +167,14 @@ final class FileOutputSocket extends AbstractOutputSocket<FileNode> {
         if (options.get(APPEND)) {
             set.add(StandardOpenOption.APPEND);
             set.remove(StandardOpenOption.TRUNCATE_EXISTING);
+        } else if (options.get(UPDATE)) {
+            set.remove(StandardOpenOption.TRUNCATE_EXISTING);
         }
         if (options.get(EXCLUSIVE))
             set.add(StandardOpenOption.CREATE_NEW);
         return set;
     }
 
-    OpenOption[] optionArray() {
-        final Set<OpenOption> set = optionSet();
-        return set.toArray(new OpenOption[set.size()]);
-    }
-
     void close(final FileNode buffer, final boolean commit)
     throws IOException {
         final Path entryFile = node.getPath();
@@ -232,12 +261,30 @@ final class FileOutputSocket extends AbstractOutputSocket<FileNode> {
     throws IOException {
         final FileNode buffer = begin();
 
-        final class Stream extends IOExceptionOutputStream {
+        final class Stream extends IOExceptionOutputStream
+        implements ChannelOutput {
+            final SeekableByteChannel channel;
             boolean closed;
 
             @CreatesObligation
             Stream() throws IOException {
-                super(Files.newOutputStream(buffer.getPath(), optionArray()));
+                this(newByteChannel(buffer.getPath(), optionSet()));
+            }
+
+            @CreatesObligation
+            Stream(final SeekableByteChannel channel) {
+                super(Channels.newOutputStream(channel));
+                this.channel = channel;
+            }
+
+            @Override
+            public long transferFrom(final ChannelInput input)
+            throws IOException {
+                try {
+                    return input.transferTo(channel);
+                } catch (IOException ex) {
+                    throw exception = ex;
+                }
             }
 
             @Override
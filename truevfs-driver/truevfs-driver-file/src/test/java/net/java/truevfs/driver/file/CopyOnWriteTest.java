@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.file;
+
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.kernel.spec.FsAccessOption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static net.java.truevfs.kernel.spec.FsAccessOption.APPEND;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static org.junit.Assert.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class CopyOnWriteTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tvfs", null);
+        Files.write(file, "Hello ".getBytes(US_ASCII));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testClone() throws IOException {
+        final Path clone = Files.createTempFile("tvfs", null);
+        try {
+            if (CopyOnWrite.clone(file, clone)) {
+                assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(clone));
+                Files.write(clone, "world!".getBytes(US_ASCII), StandardOpenOption.APPEND);
+                assertEquals("Hello world!", new String(Files.readAllBytes(clone), US_ASCII));
+                assertEquals("Hello ", new String(Files.readAllBytes(file), US_ASCII));
+            } else {
+                assertFalse(CopyOnWrite.isSupported(file));
+                assertEquals("Hello ", new String(Files.readAllBytes(file), US_ASCII));
+            }
+        } finally {
+            Files.deleteIfExists(clone);
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertEquals(Boolean.getBoolean(CopyOnWrite.class.getName() + ".enable"), CopyOnWrite.isEnabled());
+    }
+
+    @Test
+    public void testSupportGetsDetectedOnce() throws IOException {
+        final boolean supported = CopyOnWrite.isSupported(file);
+        try (java.util.stream.Stream<Path> files = Files.list(file.getParent())) {
+            assertFalse(files.anyMatch(p -> p.getFileName().toString().startsWith(".tvfs")));
+        }
+        final Path other = Files.createTempFile("tvfs", null);
+        try {
+            assertEquals(supported, CopyOnWrite.isSupported(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void testGrow() throws IOException {
+        final FileNode node = new FileNode(file);
+        try (OutputStream out = new FileOutputSocket(
+                BitField.of(GROW, APPEND), node, null).stream(null)) {
+            out.write("world!".getBytes(US_ASCII));
+        }
+        assertEquals("Hello world!", new String(Files.readAllBytes(file), US_ASCII));
+        try (java.util.stream.Stream<Path> files = Files.list(file.getParent())) {
+            assertFalse(files.anyMatch(p -> p.getFileName().toString()
+                    .startsWith(file.getFileName() + ".")));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.http;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import net.java.truevfs.kernel.spec.FsBlockCacheController;
+import net.java.truevfs.kernel.spec.FsNode;
+
+/**
+ * A block cache controller which validates the cached blocks of an HTTP(S)
+ * resource by its strong entity tag.
+ *
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class HttpBlockCacheController extends FsBlockCacheController {
+
+    HttpBlockCacheController(HttpController controller) { super(controller); }
+
+    @Override
+    protected @CheckForNull Object getValidator(final FsNode node) {
+        return node instanceof HttpNode ? ((HttpNode) node).getEntityTag() : null;
+    }
+}
@@ -5,8 +5,11 @@
 package net.java.truevfs.driver.http;
 
 import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.CheckForNull;
-import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
 import net.java.truecommons.shed.BitField;
 import net.java.truevfs.kernel.spec.*;
 import net.java.truecommons.cio.Entry;
@@ -18,18 +21,28 @@ import net.java.truecommons.cio.InputSocket;
 import net.java.truecommons.cio.IoBufferPool;
 import net.java.truecommons.cio.OutputSocket;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
 
 /**
  * A file system controller for the HTTP(S) schemes.
+ * <p>
+ * The meta data obtained by successful HEAD requests gets cached for
+ * {@link HttpDriver#getMetaDataTimeToLiveMillis()} milliseconds or until the
+ * next call to {@link #sync}.
+ * Any other response, e.g. a {@code 404 Not Found}, is not cached, so that a
+ * resource which appears on the server gets noticed on the next request.
  *
  * @author Christian Schlichtherle
  */
-@Immutable
+@ThreadSafe
 public class HttpController extends FsAbstractController {
 
     private static final BitField<Access> READ_ONLY = BitField.of(READ);
 
     private final HttpDriver driver;
+    private final ConcurrentMap<URI, HttpMetaData>
+            metaData = new ConcurrentHashMap<>();
 
     HttpController(final HttpDriver driver, final FsModel model) {
         super(model);
@@ -51,6 +64,30 @@ public class HttpController extends FsAbstractController {
         return driver.executeGet(entry);
     }
 
+    final HttpResponse executeGet(
+            HttpNode entry, long offset, int length, @CheckForNull String validator)
+    throws IOException {
+        return driver.executeGet(entry, offset, length, validator);
+    }
+
+    final HttpMetaData metaData(final HttpNode entry) throws IOException {
+        HttpMetaData md = metaData.get(entry.uri);
+        if (null == md || !md.isFresh()) {
+            final HttpResponse response = executeHead(entry);
+            try {
+                md = new HttpMetaData(response,
+                        driver.getMetaDataTimeToLiveMillis());
+            } finally {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+            if (HttpStatus.SC_OK == md.getStatus())
+                metaData.put(entry.uri, md);
+            else
+                metaData.remove(entry.uri);
+        }
+        return md;
+    }
+
     protected HttpNode newEntry(FsNodeName name) {
         return new HttpNode(this, name);
     }
@@ -78,7 +115,7 @@ public class HttpController extends FsAbstractController {
     throws IOException {
         if (!types.isEmpty() && !READ_ONLY.equals(types))
             throw new FsReadOnlyFileSystemException(getMountPoint());
-        executeHead(newEntry(name));
+        newEntry(name).metaData();
     }
 
     @Override
@@ -122,5 +159,7 @@ public class HttpController extends FsAbstractController {
     }
 
     @Override
-    public void sync(BitField<FsSyncOption> options) { }
+    public void sync(BitField<FsSyncOption> options) {
+        metaData.clear();
+    }
 }
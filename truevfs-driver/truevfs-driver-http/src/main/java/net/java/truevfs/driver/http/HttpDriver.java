@@ -6,6 +6,7 @@ package net.java.truevfs.driver.http;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import net.java.truecommons.cio.IoBufferPool;
+import net.java.truevfs.kernel.spec.FsBlockCacheController;
 import net.java.truevfs.kernel.spec.FsController;
 import net.java.truevfs.kernel.spec.FsDriver;
 import net.java.truevfs.kernel.spec.FsManager;
@@ -14,10 +15,12 @@ import net.java.truevfs.kernel.spec.sl.IoBufferPoolLocator;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.concurrent.Immutable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A file system driver for the HTTP(S) schemes.
@@ -50,15 +53,57 @@ public class HttpDriver extends FsDriver {
     /**
      * Returns a new http client.
      * <p>
-     * The implementation in the class {@link HttpDriver} simply returns
-     * {@code HttpClientBuilder.create().useSystemProperties().build()}.
+     * The implementation in the class {@link HttpDriver} returns a client
+     * which respects the system properties and uses a
+     * {@link PoolingHttpClientConnectionManager} which keeps up to
+     * {@value #MAX_CONNECTIONS_PER_ROUTE} persistent connections per route
+     * and up to {@value #MAX_CONNECTIONS} persistent connections in total,
+     * so that concurrent range requests for the entries of a remote archive
+     * file don't need to wait for each other or establish a new connection.
      * If you need special configuration, e.g. for authentication or caching,
      * then you should override this method.
      *
      * @return A new http client.
      */
     protected HttpClient newClient() {
-        return HttpClientBuilder.create().useSystemProperties().build();
+        final PoolingHttpClientConnectionManager manager
+                = new PoolingHttpClientConnectionManager(
+                        CONNECTION_TIME_TO_LIVE_MILLIS, TimeUnit.MILLISECONDS);
+        manager.setMaxTotal(MAX_CONNECTIONS);
+        manager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+        return HttpClientBuilder
+                .create()
+                .useSystemProperties()
+                .setConnectionManager(manager)
+                .build();
+    }
+
+    /** The maximum number of persistent connections per route. */
+    protected static final int MAX_CONNECTIONS_PER_ROUTE = 16;
+
+    /** The maximum number of persistent connections in total. */
+    protected static final int MAX_CONNECTIONS = 64;
+
+    private static final long CONNECTION_TIME_TO_LIVE_MILLIS = 60 * 1000;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2 * 1000;
+
+    /**
+     * Returns the number of milliseconds for caching the meta data of an
+     * HTTP(S) resource which has been obtained by a HEAD request.
+     * Within this time, querying the size, last modification time or
+     * existence of the resource does not issue another HEAD request.
+     * The meta data cache of a controller also gets cleared when it gets
+     * synced.
+     * <p>
+     * The implementation in the class {@link HttpDriver} returns 5000.
+     *
+     * @return The number of milliseconds for caching the meta data of an
+     *         HTTP(S) resource.
+     * @since  TrueVFS 0.15
+     */
+    protected long getMetaDataTimeToLiveMillis() {
+        return 5 * 1000;
     }
 
     /**
@@ -83,6 +128,34 @@ public class HttpDriver extends FsDriver {
         return getClient().execute(entry.newGet());
     }
 
+    /**
+     * Executes the GET request method for the given byte range of the given
+     * URI.
+     * Equivalent to
+     * {@code getClient().execute(entry.newGet(offset, length, validator))}.
+     *
+     * @since TrueVFS 0.15
+     */
+    protected HttpResponse executeGet(
+            HttpNode entry,
+            long offset,
+            int length,
+            @CheckForNull String validator)
+    throws IOException {
+        return getClient().execute(entry.newGet(offset, length, validator));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation in the class {@link HttpDriver} decorates the new
+     * {@link HttpController} with an {@link FsBlockCacheController} which
+     * uses the {@linkplain FsBlockCacheController.Pool#SHARED shared pool},
+     * so that re-mounting a remote archive file and reading its entries in
+     * random order doesn't fetch them from the server again as long as the
+     * size, last modification time and entity tag of the remote archive file
+     * haven't changed.
+     */
     @Override
     public FsController newController(
             final FsManager manager,
@@ -90,6 +163,6 @@ public class HttpDriver extends FsDriver {
             final @CheckForNull FsController parent) {
         assert null == parent;
         assert null == model.getParent();
-        return new HttpController(this, model);
+        return new HttpBlockCacheController(new HttpController(this, model));
     }
 }
@@ -13,6 +13,7 @@ import net.java.truecommons.cio.*;
 import net.java.truecommons.io.ReadOnlyChannel;
 import net.java.truecommons.shed.BitField;
 import net.java.truevfs.kernel.spec.FsAccessOption;
+import org.apache.http.HttpStatus;
 
 /**
  * An input socket for HTTP(S) entries.
@@ -44,9 +45,22 @@ public class HttpInputSocket extends AbstractInputSocket<HttpNode> {
         return entry.newInputStream();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the server supports byte range requests for the entry, then the
+     * returned channel fetches only the data which gets actually read.
+     * Otherwise, the entire entry gets downloaded to a temporary buffer
+     * first.
+     */
     @Override
     public SeekableByteChannel channel(final OutputSocket<? extends Entry> peer)
     throws IOException {
+        final HttpMetaData metaData = entry.metaData();
+        if (HttpStatus.SC_OK == metaData.getStatus()
+                && metaData.isRangeSupported()
+                && 0 <= metaData.getContentLength())
+            return new HttpRangeChannel(entry, metaData);
         final IoBuffer buffer = entry.getPool().allocate();
         try {
             IoSockets.copy(entry.input(), buffer.output());
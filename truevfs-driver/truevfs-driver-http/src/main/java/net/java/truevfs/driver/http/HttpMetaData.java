@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.http;
+
+import java.util.Locale;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.Immutable;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+
+/**
+ * The meta data of an HTTP(S) resource as obtained by a HEAD request.
+ * If the HEAD request was successful, then instances of this class get
+ * cached by the {@link HttpController} so that querying the size, last
+ * modification time and existence of a resource doesn't issue a new HEAD
+ * request for each property.
+ *
+ * @author Christian Schlichtherle
+ */
+@Immutable
+final class HttpMetaData {
+
+    private final Header[] headers;
+    private final int status;
+    private final long expires;
+
+    HttpMetaData(final HttpResponse response, final long timeToLiveMillis) {
+        this.headers = response.getAllHeaders();
+        this.status = response.getStatusLine().getStatusCode();
+        this.expires = System.nanoTime() + timeToLiveMillis * 1000 * 1000;
+    }
+
+    /** Returns {@code true} if and only if this meta data has not expired. */
+    boolean isFresh() {
+        return 0 < expires - System.nanoTime();
+    }
+
+    /** Returns the status code of the HEAD response. */
+    int getStatus() { return status; }
+
+    /** Returns the value of the last header with the given name. */
+    @CheckForNull String getHeaderField(final String name) {
+        for (int i = headers.length; 0 <= --i; ) {
+            final Header header = headers[i];
+            if (name.equalsIgnoreCase(header.getName()))
+                return header.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the content length of the resource or {@code -1} if unknown.
+     */
+    long getContentLength() {
+        final String field = getHeaderField("content-length");
+        if (null != field) {
+            try {
+                return Long.parseLong(field.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns {@code true} if and only if the server announced to support
+     * byte range requests for the resource.
+     */
+    boolean isRangeSupported() {
+        final String field = getHeaderField("accept-ranges");
+        return null != field
+                && field.toLowerCase(Locale.ROOT).contains("bytes");
+    }
+
+    /**
+     * Returns a validator for the {@code If-Range} header of range requests
+     * or {@code null} if the server didn't provide any.
+     * This is the strong entity tag if present or the last modification date
+     * otherwise.
+     */
+    @CheckForNull String getValidator() {
+        final String etag = getEntityTag();
+        return null != etag ? etag : getHeaderField("last-modified");
+    }
+
+    /**
+     * Returns the strong entity tag of the resource or {@code null} if the
+     * server didn't provide any.
+     */
+    @CheckForNull String getEntityTag() {
+        final String etag = getHeaderField("etag");
+        return null != etag && !etag.startsWith("W/") ? etag : null;
+    }
+}
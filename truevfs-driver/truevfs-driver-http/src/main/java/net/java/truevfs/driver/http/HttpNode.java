@@ -26,7 +26,6 @@ import net.java.truevfs.kernel.spec.FsAccessOption;
 import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
 import net.java.truevfs.kernel.spec.FsNodeName;
 import net.java.truevfs.kernel.spec.FsReadOnlyFileSystemException;
-import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -55,21 +54,59 @@ public class HttpNode extends FsAbstractNode implements IoEntry<HttpNode> {
 
     final IoBufferPool getPool() { return controller.getPool(); }
 
-    private HttpResponse executeHead() throws IOException {
-        return controller.executeHead(this);
+    final HttpMetaData metaData() throws IOException {
+        return controller.metaData(this);
     }
 
     private HttpResponse executeGet() throws IOException {
         return controller.executeGet(this);
     }
 
+    final HttpResponse executeGet(long offset, int length, @CheckForNull String validator)
+    throws IOException {
+        return controller.executeGet(this, offset, length, validator);
+    }
+
     protected HttpUriRequest newHead() { return new HttpHead(uri); }
 
     protected HttpUriRequest newGet() { return new HttpGet(uri); }
 
+    /**
+     * Returns a new GET request for the given byte range of this entry.
+     *
+     * @param  offset the offset of the first byte.
+     * @param  length the number of bytes.
+     * @param  validator the entity tag or last modification date for the
+     *         {@code If-Range} header, if any.
+     * @return A new GET request for the given byte range of this entry.
+     * @since  TrueVFS 0.15
+     */
+    protected HttpUriRequest newGet(
+            final long offset,
+            final int length,
+            final @CheckForNull String validator) {
+        final HttpUriRequest request = newGet();
+        request.setHeader("Range",
+                "bytes=" + offset + "-" + (offset + length - 1));
+        if (null != validator)
+            request.setHeader("If-Range", validator);
+        return request;
+    }
+
+    /**
+     * Returns the strong entity tag of this entry or {@code null} if the
+     * server didn't provide any or the HEAD request failed.
+     */
+    final @CheckForNull String getEntityTag() {
+        try {
+            return metaData().getEntityTag();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
     private @CheckForNull String getHeaderField(String name) throws IOException {
-        final Header header = executeHead().getLastHeader(name);
-        return null == header ? null : header.getValue();
+        return metaData().getHeaderField(name);
     }
 
     protected InputStream newInputStream() throws IOException {
@@ -90,7 +127,7 @@ public class HttpNode extends FsAbstractNode implements IoEntry<HttpNode> {
     @Override
     public BitField<Type> getTypes() {
         try {
-            executeHead();
+            metaData();
             return FILE_TYPE;
         } catch (IOException ex) {
             return NO_TYPES;
@@ -134,7 +171,7 @@ public class HttpNode extends FsAbstractNode implements IoEntry<HttpNode> {
     public Boolean isPermitted(final Access type, final Entity entity) {
         if (READ != type) return null;
         try {
-            executeHead();
+            metaData();
             return true;
         } catch (IOException ex) {
             return false;
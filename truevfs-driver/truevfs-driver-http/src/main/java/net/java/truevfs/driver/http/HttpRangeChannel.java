@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.NotThreadSafe;
+import net.java.truecommons.io.AbstractSeekableChannel;
+import net.java.truevfs.kernel.spec.FsBlockCacheController;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * A read-only seekable byte channel which reads an HTTP(S) resource by
+ * issuing byte range requests on demand.
+ * The data gets fetched in blocks of {@value #BLOCK_SIZE} bytes, so reading
+ * e.g. the central directory of a ZIP file only fetches the tail of the
+ * resource.
+ * Only the last fetched block gets kept: Caching blocks across channels is
+ * the job of the {@link HttpBlockCacheController}, which reads blocks of the
+ * same size.
+ * <p>
+ * Each range request gets validated against the meta data obtained when
+ * this channel has been created: If the resource has been changed in the
+ * meantime, then reading it fails with an {@link IOException}.
+ *
+ * @see    HttpInputSocket
+ * @author Christian Schlichtherle
+ */
+@NotThreadSafe
+final class HttpRangeChannel extends AbstractSeekableChannel {
+
+    static final int BLOCK_SIZE = FsBlockCacheController.DEFAULT_BLOCK_SIZE;
+
+    private final HttpNode entry;
+    private final long size;
+    private final @CheckForNull String validator;
+    private long index = -1;
+    private @CheckForNull byte[] block;
+    private long pos;
+    private boolean closed;
+
+    HttpRangeChannel(final HttpNode entry, final HttpMetaData metaData) {
+        assert metaData.isRangeSupported();
+        this.entry = entry;
+        this.size = metaData.getContentLength();
+        assert 0 <= size;
+        this.validator = metaData.getValidator();
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        int remaining = dst.remaining();
+        if (0 >= remaining) return 0;
+        if (pos >= size) return -1;
+        int total = 0;
+        while (0 < remaining && pos < size) {
+            final long index = pos / BLOCK_SIZE;
+            final byte[] block = block(index);
+            final int off = (int) (pos - index * BLOCK_SIZE);
+            final int len = Math.min(remaining, block.length - off);
+            dst.put(block, off, len);
+            pos += len;
+            total += len;
+            remaining -= len;
+        }
+        return total;
+    }
+
+    private byte[] block(final long index) throws IOException {
+        byte[] block = this.block;
+        if (null == block || this.index != index) {
+            final long offset = index * BLOCK_SIZE;
+            this.block = null;
+            block = fetch(offset, (int) Math.min(BLOCK_SIZE, size - offset));
+            this.block = block;
+            this.index = index;
+        }
+        return block;
+    }
+
+    private byte[] fetch(final long offset, final int length)
+    throws IOException {
+        final HttpResponse response
+                = entry.executeGet(offset, length, validator);
+        final HttpEntity entity = response.getEntity();
+        try {
+            if (HttpStatus.SC_PARTIAL_CONTENT
+                    != response.getStatusLine().getStatusCode()
+                    || null == entity)
+                throw new IOException(entry.uri
+                        + " (resource has been changed or does not support range requests: "
+                        + response.getStatusLine() + ")");
+            checkContentRange(response.getLastHeader("content-range"), offset);
+            final byte[] block = new byte[length];
+            try (InputStream in = entity.getContent()) {
+                for (int off = 0; off < length; ) {
+                    final int read = in.read(block, off, length - off);
+                    if (0 > read)
+                        throw new EOFException(entry.uri.toString());
+                    off += read;
+                }
+            }
+            return block;
+        } finally {
+            EntityUtils.consumeQuietly(entity);
+        }
+    }
+
+    private void checkContentRange(
+            final @CheckForNull Header header,
+            final long offset)
+    throws IOException {
+        // Content-Range: bytes <first>-<last>/<complete-length>
+        if (null == header) return;
+        final String value = header.getValue().trim();
+        final int dash = value.indexOf('-');
+        final int slash = value.indexOf('/');
+        try {
+            if (0 <= dash && dash < slash
+                    && offset == Long.parseLong(value.substring(value.indexOf(' ') + 1, dash).trim())) {
+                final String complete = value.substring(slash + 1).trim();
+                if ("*".equals(complete) || size == Long.parseLong(complete))
+                    return;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IOException(entry.uri
+                + " (resource has been changed or returned an unexpected range: "
+                + value + ")");
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return pos;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition)
+    throws IOException {
+        checkOpen();
+        if (0 > newPosition) throw new IllegalArgumentException();
+        pos = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            block = null;
+        }
+    }
+}
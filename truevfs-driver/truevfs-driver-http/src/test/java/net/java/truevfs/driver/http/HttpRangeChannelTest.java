@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.java.truevfs.kernel.spec.FsAbstractModel;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.FsNodeName;
+import net.java.truevfs.kernel.spec.FsSyncOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the range requests of an {@link HttpInputSocket} against a local
+ * HTTP server.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class HttpRangeChannelTest {
+
+    private static final int SIZE = 3 * HttpRangeChannel.BLOCK_SIZE / 2 + 123;
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger heads = new AtomicInteger();
+    private volatile byte[] content = newContent(1);
+    private volatile String etag = "\"1\"";
+    private volatile boolean found = true;
+    private volatile boolean wrongRange;
+    private HttpServer server;
+    private HttpController controller;
+
+    private static byte[] newContent(final long seed) {
+        final byte[] content = new byte[SIZE];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        final FsMountPoint mountPoint = FsMountPoint.create(URI.create(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/"));
+        controller = new HttpController(new HttpDriver(), new FsAbstractModel(mountPoint, null) {
+            volatile boolean mounted;
+
+            @Override
+            public boolean isMounted() { return mounted; }
+
+            @Override
+            public void setMounted(boolean mounted) { this.mounted = mounted; }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final byte[] content = this.content;
+            if (!found) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().set("ETag", etag);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                heads.incrementAndGet();
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(content.length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            if (null == range || null != ifRange && !ifRange.equals(etag)) {
+                send(exchange, 200, content, 0, content.length);
+                return;
+            }
+            ranges.add(range);
+            final int dash = range.indexOf('-');
+            final int first = Integer.parseInt(range.substring("bytes=".length(), dash));
+            final int last = Math.min(Integer.parseInt(range.substring(dash + 1)), content.length - 1);
+            final int shift = wrongRange ? 1 : 0;
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + (first + shift) + "-" + (last + shift) + "/" + content.length);
+            send(exchange, 206, content, first, last - first + 1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(
+            final HttpExchange exchange,
+            final int status,
+            final byte[] content,
+            final int off,
+            final int len)
+    throws IOException {
+        exchange.sendResponseHeaders(status, len);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content, off, len);
+        }
+    }
+
+    private HttpNode node() {
+        return controller.newEntry(FsNodeName.create(URI.create("data")));
+    }
+
+    private SeekableByteChannel channel() throws IOException {
+        final SeekableByteChannel channel = node().input().channel(null);
+        assertTrue(channel instanceof HttpRangeChannel);
+        return channel;
+    }
+
+    @Test
+    public void testPartialContent() throws IOException {
+        final int position = HttpRangeChannel.BLOCK_SIZE + 7;
+        try (SeekableByteChannel channel = channel()) {
+            assertEquals(SIZE, channel.size());
+            final ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+            channel.position(position);
+            while (0 <= channel.read(buffer)) {
+            }
+            buffer.flip();
+            assertEquals(SIZE - position, buffer.remaining());
+            for (int i = position; i < SIZE; i++)
+                assertEquals(content[i], buffer.get());
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+        assertEquals(1, ranges.size());
+        assertEquals("bytes=" + HttpRangeChannel.BLOCK_SIZE + "-"
+                + (SIZE - 1), ranges.get(0));
+    }
+
+    @Test
+    public void testIfRangeMismatch() throws IOException {
+        try (SeekableByteChannel channel = channel()) {
+            content = newContent(2);
+            etag = "\"2\"";
+            try {
+                channel.read(ByteBuffer.allocate(1));
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+        assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    public void testWrongContentRange() throws IOException {
+        wrongRange = true;
+        try (SeekableByteChannel channel = channel()) {
+            try {
+                channel.read(ByteBuffer.allocate(1));
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+        assertEquals(1, ranges.size());
+    }
+
+    @Test
+    public void testMetaDataCache() throws IOException {
+        found = false;
+        assertEquals(404, node().metaData().getStatus());
+        found = true;
+        assertEquals(200, node().metaData().getStatus());
+        assertEquals(200, node().metaData().getStatus());
+        assertEquals(1, heads.get());
+        controller.sync(FsSyncOptions.SYNC);
+        assertEquals(200, node().metaData().getStatus());
+        assertEquals(2, heads.get());
+    }
+}
@@ -5,6 +5,10 @@
 package net.java.truevfs.driver.odf;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import javax.annotation.CheckForNull;
 import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.Immutable;
@@ -14,6 +18,7 @@ import net.java.truevfs.comp.zipdriver.ZipInputService;
 import net.java.truevfs.comp.zipdriver.ZipOutputService;
 import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
 import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsNodePath;
 import net.java.truevfs.kernel.spec.FsOutputSocketSink;
 import net.java.truecommons.cio.InputService;
 import net.java.truecommons.cio.IoBufferPool;
@@ -34,6 +39,10 @@ import net.java.truecommons.cio.OutputService;
  * When using this driver to create or modify an ODF file, then in order to
  * achieve best performance, the {@code mimetype} entry should always get
  * written first in order to avoid temp file buffering of all other entries.
+ * Alternatively, a subclass may override {@link #getMimeType(FsModel)} in
+ * order to write the {@code mimetype} entry as soon as any other entry gets
+ * written first, e.g. by returning the result of
+ * {@link #getExtensionMimeType(FsModel)}.
  * <p>
  * Subclasses must be thread-safe and should be immutable!
  *
@@ -46,6 +55,35 @@ import net.java.truecommons.cio.OutputService;
 @Immutable
 public class OdfDriver extends JarDriver {
 
+    /**
+     * Maps file name extensions to MIME types.
+     *
+     * @see <a href="http://docs.oasis-open.org/office/v1.2/OpenDocument-v1.2-part1.pdf">Open Document Format for Office Applications (OpenDocument) Version 1.2; Part 1: OpenDocument Schema; Appendix C: MIME Types and File Name Extensions (Non Normative)</a>
+     */
+    private static final Map<String, String> MIME_TYPES;
+    static {
+        final String prefix = "application/vnd.oasis.opendocument.";
+        final Map<String, String> map = new HashMap<>();
+        map.put("odt", prefix + "text");
+        map.put("ott", prefix + "text-template");
+        map.put("odg", prefix + "graphics");
+        map.put("otg", prefix + "graphics-template");
+        map.put("odp", prefix + "presentation");
+        map.put("otp", prefix + "presentation-template");
+        map.put("ods", prefix + "spreadsheet");
+        map.put("ots", prefix + "spreadsheet-template");
+        map.put("odc", prefix + "chart");
+        map.put("otc", prefix + "chart-template");
+        map.put("odi", prefix + "image");
+        map.put("oti", prefix + "image-template");
+        map.put("odf", prefix + "formula");
+        map.put("otf", prefix + "formula-template");
+        map.put("odm", prefix + "text-master");
+        map.put("oth", prefix + "text-web");
+        map.put("odb", prefix + "base");
+        MIME_TYPES = Collections.unmodifiableMap(map);
+    }
+
     @Override
     protected OutputService<JarDriverEntry> newOutput(
             final FsModel model,
@@ -57,6 +95,72 @@ public class OdfDriver extends JarDriver {
         final IoBufferPool pool = getPool();
         return null != zis && sink.getOptions().get(GROW)
                 ? new MultiplexingOutputService<>(pool, zos)
-                : new OdfOutputService(pool, zos);
+                : new OdfOutputService(pool, zos, getMimeType(model));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The implementation in the class {@link OdfDriver} returns {@code false}
+     * for the {@code mimetype} entry because it must be the first entry in
+     * the ODF file.
+     */
+    @Override
+    public boolean getSupersedeSupport(String name) {
+        return !OdfOutputService.MIMETYPE.equals(name)
+                && super.getSupersedeSupport(name);
+    }
+
+    /**
+     * Returns the MIME type to write to the {@code mimetype} entry of the ODF
+     * file with the given model if any other entry gets written first, e.g.
+     * {@code application/vnd.oasis.opendocument.text}, or {@code null} if
+     * unknown.
+     * If this is {@code null}, then all other entries get buffered until the
+     * {@code mimetype} entry gets written.
+     * <p>
+     * Note that the {@code mimetype} entry gets written directly to the ODF
+     * file, bypassing the file system of the TrueVFS Kernel.
+     * Hence, it does not {@linkplain java.io.File#exists() exist} in the
+     * file system until the ODF file has been synchronized and mounted
+     * again.
+     * If the {@code mimetype} entry gets written later on, then its content
+     * must be equal to this MIME type or otherwise an {@link IOException}
+     * gets thrown when closing its output stream, which usually happens when
+     * synchronizing the ODF file.
+     * <p>
+     * The implementation in the class {@link OdfDriver} returns {@code null}.
+     *
+     * @param  model the file system model of the ODF file.
+     * @return The MIME type to write to the {@code mimetype} entry or
+     *         {@code null} if unknown.
+     * @see    #getExtensionMimeType(FsModel)
+     * @since  TrueVFS 0.15
+     */
+    protected @CheckForNull String getMimeType(FsModel model) {
+        return null;
+    }
+
+    /**
+     * Returns the MIME type for the extension of the file name of the ODF
+     * file with the given model, e.g.
+     * {@code application/vnd.oasis.opendocument.text} for {@code odt}, or
+     * {@code null} if the extension is unknown.
+     * Subclasses may call this method from {@link #getMimeType(FsModel)}.
+     *
+     * @param  model the file system model of the ODF file.
+     * @return The MIME type for the file name extension or {@code null} if
+     *         unknown.
+     * @since  TrueVFS 0.15
+     */
+    protected final @CheckForNull String getExtensionMimeType(final FsModel model) {
+        final FsNodePath path = model.getMountPoint().getPath();
+        if (null == path)
+            return null;
+        final String name = path.getNodeName().getPath();
+        final int dot = name.lastIndexOf('.');
+        return 0 > dot
+                ? null
+                : MIME_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
     }
 }
@@ -5,11 +5,16 @@
 package net.java.truevfs.driver.odf;
 
 import edu.umd.cs.findbugs.annotations.DischargesObligation;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.zip.CRC32;
+import javax.annotation.CheckForNull;
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.concurrent.NotThreadSafe;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static net.java.truevfs.comp.zip.ZipEntry.STORED;
 import net.java.truevfs.comp.zipdriver.JarDriverEntry;
 import net.java.truevfs.comp.zipdriver.ZipOutputService;
@@ -20,6 +25,17 @@ import net.java.truevfs.kernel.spec.cio.MultiplexingOutputService;
 /**
  * Created by {@link OdfDriver} to meet the special requirements of
  * OpenDocument Format (ODF) files.
+ * <p>
+ * Unless the {@code mimetype} entry gets written first, all other entries
+ * get buffered until it gets written or this output service gets closed.
+ * If a MIME type is provided however, then the {@code mimetype} entry gets
+ * written with this content as soon as any other entry gets written first,
+ * so that no entries need to get buffered.
+ * This bypasses the file system of the TrueVFS Kernel, so the {@code mimetype}
+ * entry does not exist in there until the ODF file gets mounted again.
+ * If the {@code mimetype} entry gets written later on, then its content must
+ * be equal to the provided MIME type or otherwise an {@link IOException} gets
+ * thrown when closing its output stream.
  *
  * @author Christian Schlichtherle
  */
@@ -27,11 +43,20 @@ import net.java.truevfs.kernel.spec.cio.MultiplexingOutputService;
 public class OdfOutputService extends MultiplexingOutputService<JarDriverEntry> {
 
     /** The name of the entry to receive tender, loving care. */
-    private static final String MIMETYPE = "mimetype";
+    static final String MIMETYPE = "mimetype";
 
     /** Whether we have started to write the <i>mimetype</i> entry or not. */
     private boolean mimetype;
 
+    /** The MIME type to write to the <i>mimetype</i> entry, if any. */
+    private final @CheckForNull String mimeType;
+
+    /**
+     * The content of the <i>mimetype</i> entry if it has been written on
+     * behalf of another entry.
+     */
+    private @CheckForNull byte[] written;
+
     /**
      * Constructs a new ODF output service.
      *
@@ -41,7 +66,24 @@ public class OdfOutputService extends MultiplexingOutputService<JarDriverEntry>
     public OdfOutputService(
             IoBufferPool pool,
             @WillCloseWhenClosed ZipOutputService<JarDriverEntry> output) {
+        this(pool, output, null);
+    }
+
+    /**
+     * Constructs a new ODF output service.
+     *
+     * @param output the decorated output service.
+     * @param pool the pool for buffering entry data.
+     * @param mimeType the MIME type to write to the <i>mimetype</i> entry if
+     *        any other entry gets written first, or {@code null} if unknown.
+     * @since TrueVFS 0.15
+     */
+    public OdfOutputService(
+            IoBufferPool pool,
+            @WillCloseWhenClosed ZipOutputService<JarDriverEntry> output,
+            @CheckForNull String mimeType) {
         super(pool, output);
+        this.mimeType = mimeType;
     }
 
     @Override
@@ -60,9 +102,14 @@ public class OdfOutputService extends MultiplexingOutputService<JarDriverEntry>
             public OutputStream stream(InputSocket<? extends Entry> peer)
             throws IOException {
                 if (MIMETYPE.equals(entry.getName())) {
+                    final byte[] written = OdfOutputService.this.written;
+                    if (null != written)
+                        return new MimeTypeOutputStream(written);
                     mimetype = true;
                     if (UNKNOWN == entry.getMethod())
                         entry.setMethod(STORED);
+                } else if (!mimetype && null != mimeType) {
+                    writeMimeType(mimeType);
                 }
                 return socket().stream(peer);
             }
@@ -71,6 +118,22 @@ public class OdfOutputService extends MultiplexingOutputService<JarDriverEntry>
         return new Output();
     }
 
+    private void writeMimeType(final String mimeType) throws IOException {
+        final byte[] data = mimeType.getBytes(US_ASCII);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final JarDriverEntry entry = new JarDriverEntry(MIMETYPE);
+        entry.setMethod(STORED);
+        entry.setCrc(crc.getValue());
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        mimetype = true;
+        try (OutputStream out = super.output(entry).stream(null)) {
+            out.write(data);
+        }
+        written = data;
+    }
+
     @Override
     public boolean isBusy() {
         return !mimetype || super.isBusy();
@@ -82,4 +145,27 @@ public class OdfOutputService extends MultiplexingOutputService<JarDriverEntry>
         mimetype = true; // trigger writing temps
         super.close();
     }
+
+    /**
+     * Checks that the content of the <i>mimetype</i> entry is equal to the
+     * content which has already been written on behalf of another entry.
+     */
+    private static final class MimeTypeOutputStream
+    extends ByteArrayOutputStream {
+        final byte[] written;
+        boolean closed;
+
+        MimeTypeOutputStream(final byte[] written) {
+            this.written = written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+            if (!Arrays.equals(written, toByteArray()))
+                throw new IOException("The mimetype entry has already been written with different content!");
+        }
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.driver.odf;
+
+import net.java.truecommons.cio.AbstractOutputSocket;
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.IoBuffer;
+import net.java.truecommons.cio.IoBufferPool;
+import net.java.truecommons.cio.MemoryBuffer;
+import net.java.truecommons.cio.OutputService;
+import net.java.truevfs.comp.zip.ZipEntry;
+import net.java.truevfs.comp.zip.ZipFile;
+import net.java.truevfs.comp.zipdriver.JarDriverEntry;
+import net.java.truevfs.comp.zipdriver.ZipOutputService;
+import net.java.truevfs.kernel.spec.FsAbstractModel;
+import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.FsOutputSocketSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.CheckForNull;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static net.java.truevfs.comp.zip.ZipEntry.STORED;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static org.junit.Assert.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class OdfOutputServiceTest {
+
+    private static final String MIME_TYPE = "application/vnd.oasis.opendocument.text";
+
+    private final IoBufferPool pool = new IoBufferPool() {
+
+        @Override
+        public IoBuffer allocate() {
+            throw new AssertionError();
+        }
+    };
+    private final OdfDriver driver = new OdfDriver() {
+
+        @Override
+        public IoBufferPool getPool() {
+            return new IoBufferPool() {
+
+                @Override
+                public IoBuffer allocate() {
+                    return new MemoryBuffer("buffer", 1024);
+                }
+            };
+        }
+
+        @Override
+        protected String getMimeType(FsModel model) {
+            return getExtensionMimeType(model);
+        }
+    };
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tzp", ".odt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Test
+    public void testMimeTypeGetsWrittenFirstWithoutBuffering() throws IOException {
+        try (OdfOutputService out = newOutput()) {
+            write(out, "content.xml", "<content/>");
+            write(out, "styles.xml", "<styles/>");
+            write(out, "mimetype", MIME_TYPE);
+        }
+        final byte[] bytes = Files.readAllBytes(file);
+        assertEquals("mimetype", new String(Arrays.copyOfRange(bytes, 30, 38), US_ASCII));
+        try (ZipFile zip = new ZipFile(file)) {
+            assertEquals(3, zip.size());
+            final Iterator<ZipEntry> i = zip.iterator();
+            final ZipEntry entry = i.next();
+            assertEquals("mimetype", entry.getName());
+            assertEquals(STORED, entry.getMethod());
+            assertEquals(MIME_TYPE, read(zip, "mimetype"));
+            assertEquals("content.xml", i.next().getName());
+            assertEquals("<content/>", read(zip, "content.xml"));
+        }
+    }
+
+    @Test
+    public void testMimeTypeMismatch() throws IOException {
+        try (OdfOutputService out = newOutput()) {
+            write(out, "content.xml", "<content/>");
+            try {
+                write(out, "mimetype", "application/zip");
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+        try (ZipFile zip = new ZipFile(file)) {
+            assertEquals(2, zip.size());
+            assertEquals(MIME_TYPE, read(zip, "mimetype"));
+        }
+    }
+
+    @Test
+    public void testNoMimeTypeByDefault() {
+        assertNull(new OdfDriver().getMimeType(model("file:/dir/", "document.odt")));
+    }
+
+    @Test
+    public void testMimeTypeForExtension() {
+        assertEquals(MIME_TYPE, driver.getMimeType(model("file:/dir/", "document.odt")));
+        assertEquals("application/vnd.oasis.opendocument.spreadsheet",
+                driver.getMimeType(model("file:/dir/", "table.ODS")));
+        assertEquals("application/vnd.oasis.opendocument.presentation",
+                driver.getMimeType(model("zip:file:/archive.zip!/", "dir/slides.odp")));
+        assertEquals("application/vnd.oasis.opendocument.graphics",
+                driver.getMimeType(model("file:/dir/", "drawing.odg")));
+        assertNull(driver.getMimeType(model("file:/dir/", "archive.zip")));
+        assertNull(driver.getMimeType(model("file:/dir/", "archive")));
+    }
+
+    @Test
+    public void testDriverMimeTypeMismatch() throws IOException {
+        final OutputService<JarDriverEntry> out = driver.newOutput(model("file:/dir/", "document.odt"), sink(), null);
+        try {
+            write(out, "content.xml", "<content/>");
+            try {
+                write(out, "mimetype", "application/vnd.oasis.opendocument.spreadsheet");
+                fail();
+            } catch (IOException expected) {
+            }
+            write(out, "mimetype", MIME_TYPE);
+        } finally {
+            out.close();
+        }
+        try (ZipFile zip = new ZipFile(file)) {
+            assertEquals(2, zip.size());
+            assertEquals("mimetype", zip.iterator().next().getName());
+            assertEquals(MIME_TYPE, read(zip, "mimetype"));
+        }
+    }
+
+    private OdfOutputService newOutput() throws IOException {
+        return new OdfOutputService(pool, new ZipOutputService<>(model("file:/dir/", "archive"), sink(), null, driver),
+                MIME_TYPE);
+    }
+
+    private static FsModel model(final String parent, final String name) {
+        return model(FsMountPoint.create(URI.create("odf:" + parent + name + "!/")));
+    }
+
+    private static @CheckForNull FsModel model(final @CheckForNull FsMountPoint mountPoint) {
+        return null == mountPoint ? null : new TestModel(mountPoint, model(mountPoint.getParent()));
+    }
+
+    private static void write(final OutputService<JarDriverEntry> out, final String name, final String data)
+    throws IOException {
+        try (OutputStream os = out.output(new JarDriverEntry(name)).stream(null)) {
+            os.write(data.getBytes(US_ASCII));
+        }
+    }
+
+    private static String read(final ZipFile zip, final String name) throws IOException {
+        try (InputStream is = zip.getInputStream(name)) {
+            final byte[] bytes = new byte[(int) zip.entry(name).getSize()];
+            new DataInputStream(is).readFully(bytes);
+            assertEquals(-1, is.read());
+            return new String(bytes, US_ASCII);
+        }
+    }
+
+    private FsOutputSocketSink sink() {
+        return new FsOutputSocketSink(NONE, new AbstractOutputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public OutputStream stream(@CheckForNull InputSocket<? extends Entry> peer) throws IOException {
+                return Files.newOutputStream(file);
+            }
+        });
+    }
+
+    private static final class TestModel extends FsAbstractModel {
+
+        TestModel(FsMountPoint mountPoint, @CheckForNull FsModel parent) {
+            super(mountPoint, parent);
+        }
+
+        @Override
+        public boolean isMounted() {
+            return false;
+        }
+
+        @Override
+        public void setMounted(boolean mounted) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -47,6 +47,12 @@ abstract class AspectController extends FsDecoratingController {
         return apply(() -> controller.node(options, name));
     }
 
+    @CheckForNull
+    @Override
+    public final Map<String, FsNode> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return apply(() -> controller.nodes(options, name));
+    }
+
     @Override
     public final void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         apply(() -> {
@@ -146,4 +152,9 @@ abstract class AspectController extends FsDecoratingController {
             return null;
         });
     }
+
+    @Override
+    public final FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return apply(() -> controller.snapshot(options));
+    }
 }
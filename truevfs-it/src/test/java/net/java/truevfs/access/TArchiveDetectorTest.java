@@ -334,6 +334,17 @@ public final class TArchiveDetectorTest {
         }, ALL);
     }
 
+    @Test
+    public void testLongestExtensionWins() {
+        final TArchiveDetector detector = new TArchiveDetector("gz|tar.gz|zip", driver);
+        assertThat(detector.scheme("test.tar.gz"), equalTo(FsScheme.create("tar.gz")));
+        assertThat(detector.scheme("test.foo.gz"), equalTo(FsScheme.create("gz")));
+        assertThat(detector.scheme("test..zip"), equalTo(FsScheme.create("zip")));
+        assertThat(detector.scheme("test.zip" + File.separator + "foo"), equalTo(null));
+        assertThat(detector.scheme("test.Tar.GZ").toString(), equalTo("Tar.GZ"));
+        assertThat(detector.scheme("test.zip").toString(), equalTo("zip"));
+    }
+
     @SuppressWarnings("AssignmentToForLoopParameter")
     private void assertScheme(
             final String[][] tests,
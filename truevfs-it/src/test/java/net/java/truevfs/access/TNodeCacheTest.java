@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access;
+
+import net.java.truevfs.kernel.spec.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static net.java.truecommons.cio.Entry.FILE_TYPE;
+import static net.java.truecommons.cio.Entry.NO_ACCESS;
+import static net.java.truecommons.cio.Entry.Type.FILE;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static net.java.truevfs.kernel.spec.FsSyncOptions.SYNC;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class TNodeCacheTest {
+
+    private static final FsMountPoint MOUNT_POINT
+            = FsMountPoint.create(URI.create("mok:file:/archive.mok!/"));
+    private static final FsNodeName NAME = FsNodeName.create(URI.create("entry"));
+
+    private final FsNode node = mock(FsNode.class);
+    private final FsController delegate = mock(FsController.class);
+    private final FsManager manager = mock(FsManager.class);
+    private FsController controller;
+    private TConfig config;
+
+    @Before
+    public void setUp() throws IOException {
+        final FsModel model = mock(FsModel.class);
+        when(model.getMountPoint()).thenReturn(MOUNT_POINT);
+        when(delegate.getModel()).thenReturn(model);
+        when(node.getName()).thenReturn(NAME.toString());
+        when(node.getTypes()).thenReturn(FILE_TYPE);
+        doReturn(node).when(delegate).node(any(), eq(NAME));
+        doReturn(delegate).when(manager).controller(any(), eq(MOUNT_POINT));
+        config = TConfig.open();
+        config.setManager(manager);
+        controller = controller();
+    }
+
+    private FsController controller() {
+        return TNodeCache.controller(manager, TArchiveDetector.NULL, MOUNT_POINT);
+    }
+
+    private void enable(final long ttl) {
+        config.setNodeCacheTimeToLive(ttl);
+        controller = controller();
+    }
+
+    @After
+    public void tearDown() {
+        config.close();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws IOException {
+        assertEquals(0, config.getNodeCacheTimeToLive());
+        assertSame(delegate, controller);
+        controller.node(NONE, NAME);
+        controller.node(NONE, NAME);
+        verify(delegate, times(2)).node(NONE, NAME);
+    }
+
+    @Test
+    public void testHits() throws IOException {
+        enable(60 * 1000);
+        assertTrue(controller.node(NONE, NAME).isType(FILE));
+        assertTrue(controller.node(NONE, NAME).isType(FILE));
+        controller.checkAccess(NONE, NAME, NO_ACCESS);
+        verify(delegate, times(1)).node(NONE, NAME);
+        verify(node, times(1)).getTypes();
+    }
+
+    @Test
+    public void testMisses() throws IOException {
+        enable(60 * 1000);
+        doReturn(null).when(delegate).node(any(), eq(NAME));
+        assertNull(controller.node(NONE, NAME));
+        assertNull(controller.node(NONE, NAME));
+        verify(delegate, times(1)).node(NONE, NAME);
+    }
+
+    @Test
+    public void testWritesClearCache() throws IOException {
+        enable(60 * 1000);
+        controller.node(NONE, NAME);
+        controller.unlink(NONE, NAME);
+        controller.node(NONE, NAME);
+        controller.sync(SYNC);
+        controller.node(NONE, NAME);
+        TNodeCache.clear(manager);
+        controller.node(NONE, NAME);
+        verify(delegate, times(4)).node(NONE, NAME);
+    }
+
+    @Test
+    public void testExpiry() throws IOException, InterruptedException {
+        enable(1);
+        controller.node(NONE, NAME);
+        Thread.sleep(10);
+        controller.node(NONE, NAME);
+        verify(delegate, times(2)).node(NONE, NAME);
+    }
+
+    @Test
+    public void testDisabledLater() throws IOException {
+        enable(60 * 1000);
+        config.setNodeCacheTimeToLive(0);
+        controller.node(NONE, NAME);
+        controller.node(NONE, NAME);
+        verify(delegate, times(2)).node(NONE, NAME);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeToLive() {
+        config.setNodeCacheTimeToLive(-1);
+    }
+}
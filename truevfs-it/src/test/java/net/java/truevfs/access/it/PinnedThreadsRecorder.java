@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access.it;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records the virtual threads which get pinned to their carrier thread by
+ * using the JFR event {@code jdk.VirtualThreadPinned}.
+ * On JDKs without virtual threads, the event is unknown, so no events get
+ * recorded.
+ *
+ * @author Christian Schlichtherle
+ */
+final class PinnedThreadsRecorder implements AutoCloseable {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final Recording recording = new Recording();
+
+    PinnedThreadsRecorder() {
+        recording.enable(EVENT).withThreshold(Duration.ZERO).withStackTrace();
+        recording.start();
+    }
+
+    /** Stops recording and returns the recorded pinning events. */
+    List<RecordedEvent> stop() throws IOException {
+        recording.stop();
+        final Path file = Files.createTempFile("tvfs-pinned", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> EVENT.equals(e.getEventType().getName()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Override
+    public void close() { recording.close(); }
+}
@@ -21,6 +21,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -30,7 +31,10 @@ import java.util.concurrent.Callable;
 import static java.io.File.separatorChar;
 import static net.java.truecommons.shed.ConcurrencyUtils.NUM_IO_THREADS;
 import static net.java.truecommons.shed.ConcurrencyUtils.start;
+import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
 import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static net.java.truevfs.kernel.spec.FsAccessOption.STORE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.SUPERSEDE;
 import static net.java.truevfs.kernel.spec.FsSyncOption.CLEAR_CACHE;
 import static net.java.truevfs.kernel.spec.FsSyncOption.WAIT_CLOSE_IO;
 import static net.java.truevfs.kernel.spec.FsSyncOptions.SYNC;
@@ -207,6 +211,35 @@ extends ConfiguredClientTestBase<D> {
         archive.rm();
     }
 
+    @Test
+    public void testFalsePositiveRetryAfterSync() throws IOException {
+        final TFile entry = new TFile(archive, "entry");
+        createTestFile(entry);
+        umount();
+        final File file = new File(archive.getPath());
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        final long time = file.lastModified();
+
+        // Corrupt the archive file without changing its size and last
+        // modification time.
+        final byte[] corrupt = new byte[bytes.length];
+        Arrays.fill(corrupt, (byte) 'X');
+        Files.write(file.toPath(), corrupt);
+        assertTrue(file.setLastModified(time));
+        assertFalse(archive.isDirectory());
+        assertTrue(archive.isFile());
+
+        // Repair the archive file, again without changing its size and last
+        // modification time, so that only a sync makes it visible.
+        Files.write(file.toPath(), bytes);
+        assertTrue(file.setLastModified(time));
+        umount();
+        assertTrue(archive.isDirectory());
+        verifyTestFile(entry);
+
+        archive.rm_r();
+    }
+
     private void assertFalsePositive(final TFile file) throws IOException {
         assert file.isArchive();
 
@@ -1098,6 +1131,40 @@ extends ConfiguredClientTestBase<D> {
         archive.rm();
     }
 
+    @Test
+    public void testParallelCopyMoveDelete() throws IOException {
+        final TFile temp = new TFile(createTempFile());
+        temp.rm();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 10; j++) {
+                createTestFile(new TFile(archive, "dir" + i + "/file" + j));
+            }
+        }
+        umount();
+
+        TFile.cp_r(archive, temp, 4);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 10; j++) {
+                verifyTestFile(new TFile(temp, "dir" + i + "/file" + j));
+            }
+        }
+
+        try (TConfig config = TConfig.open()) {
+            config.setParallelism(4);
+            archive.rm_r();
+            assertFalse(archive.exists());
+            temp.mv(archive);
+            assertFalse(temp.exists());
+        }
+        umount();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 10; j++) {
+                verifyTestFile(new TFile(archive, "dir" + i + "/file" + j));
+            }
+        }
+        archive.rm_r();
+    }
+
     private void assertRenameTo(TFile src, TFile dst) throws IOException {
         assertTrue(src.exists());
         assertFalse(dst.exists());
@@ -1399,6 +1466,57 @@ extends ConfiguredClientTestBase<D> {
         // src alias archive gets deleted by the test fixture.
     }
 
+    @Test
+    public void testSuperseding() throws IOException {
+        final TFile entry = new TFile(archive, "entry");
+
+        try (final TConfig config = TConfig.open()) {
+            config.setAccessPreference(CACHE, false);
+            config.setAccessPreference(SUPERSEDE, true);
+
+            for (int i = 0; i < 3; i++) {
+                try (final OutputStream out = new TFileOutputStream(entry)) {
+                    out.write(i);
+                }
+            }
+            createTestFile(entry);
+        }
+
+        umount();
+        assertThat(archive.list().length, is(1));
+        verifyTestFile(entry);
+
+        archive.rm_r();
+        umount();
+        assertNull(archive.list());
+    }
+
+    @Test
+    public void testNoSupersedingByDefault() throws IOException {
+        final TFile entry = new TFile(archive, "entry");
+        final byte[] secret = "This must not leak!".getBytes("US-ASCII");
+
+        try (final TConfig config = TConfig.open()) {
+            config.setAccessPreference(CACHE, false);
+            config.setAccessPreference(STORE, true);
+
+            try (final OutputStream out = new TFileOutputStream(entry)) {
+                out.write(secret);
+            }
+            createTestFile(entry);
+        }
+
+        umount();
+        verifyTestFile(entry);
+        final byte[] bytes = Files.readAllBytes(archive.toNonArchiveFile().toPath());
+        for (int i = 0; i <= bytes.length - secret.length; i++)
+            assertFalse(Arrays.equals(secret, Arrays.copyOfRange(bytes, i, i + secret.length)));
+
+        archive.rm_r();
+        umount();
+        assertNull(archive.list());
+    }
+
     @Test
     public void testGrowing() throws IOException {
         final TFile file = archive.toNonArchiveFile();
@@ -1441,4 +1559,39 @@ extends ConfiguredClientTestBase<D> {
 
         assertNull(archive.list());
     }
+
+    @Test
+    public void testBatch() throws IOException {
+        final TFile file = archive.toNonArchiveFile();
+        final TFile entry1 = new TFile(archive, "entry1");
+        final TFile entry2 = new TFile(archive, "entry2");
+
+        TVFS.batch(archive, a -> {
+            for (int i = 0; i < 3; i++) {
+                createTestFile(entry1);
+            }
+        });
+        assertTrue(file.isFile());
+        final long length = file.length();
+        verifyTestFile(entry1);
+        umount();
+
+        try {
+            TVFS.batch(archive, a -> {
+                entry1.rm();
+                createTestFile(entry2);
+                throw new IOException("Rollback!");
+            });
+            fail();
+        } catch (IOException expected) {
+            assertThat(expected.getMessage(), is("Rollback!"));
+        }
+        assertThat(file.length(), is(length));
+        verifyTestFile(entry1);
+        assertFalse(entry2.exists());
+
+        archive.rm_r();
+        umount();
+        assertFalse(file.exists());
+    }
 }
@@ -22,7 +22,9 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -1251,6 +1253,121 @@ extends ConfiguredClientTestBase<D> {
         }
     }
 
+    @Test
+    public void testWalk() throws IOException {
+        final TPath inner = archive.resolve("inner" + getExtension());
+        createDirectory(archive);
+        createDirectory(archive.resolve("dir"));
+        createTestFile(archive.resolve("dir/file"));
+        createTestFile(inner.resolve("file"));
+
+        final Set<String> expected = new HashSet<>(Arrays.asList(
+                archive.toString(),
+                archive.resolve("dir").toString(),
+                archive.resolve("dir/file").toString(),
+                inner.toString(),
+                inner.resolve("file").toString()));
+        final Set<String> got = new HashSet<>();
+        try (java.util.stream.Stream<TPath> paths =
+                     archive.getFileSystem().walk(archive, Integer.MAX_VALUE)) {
+            paths.forEach(path -> {
+                assertTrue(got.add(path.toString()));
+                assertTrue(exists(path));
+            });
+        }
+        assertEquals(expected, got);
+        try (java.util.stream.Stream<TPath> paths =
+                     archive.getFileSystem().walk(archive, 1)) {
+            assertEquals(2, paths.count());
+        }
+
+        final Map<String, Long> sizes = new HashMap<>();
+        archive.getFileSystem().walkFileTree(archive, Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        assertTrue(attrs.isRegularFile());
+                        sizes.put(file.toString(), attrs.size());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        final Map<String, Long> expectedSizes = new HashMap<>();
+        expectedSizes.put(archive.resolve("dir/file").toString(), (long) getDataLength());
+        expectedSizes.put(inner.resolve("file").toString(), (long) getDataLength());
+        assertEquals(expectedSizes, sizes);
+
+        // The attributes must not get served from a stale listing.
+        try (final DirectoryStream<Path> stream = newDirectoryStream(archive.resolve("dir"))) {
+            for (final Path path : stream) {
+                assertTrue(isRegularFile(path));
+                write(path, new byte[1]);
+                assertEquals(1, size(path));
+                assertEquals(1, readAttributes(path, BasicFileAttributes.class).size());
+            }
+        }
+
+        archive.toFile().rm_r();
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        createDirectory(archive);
+        createTestFile(archive.resolve("file"));
+        try (final TSnapshot snapshot = archive.getFileSystem().snapshot()) {
+            // Changes after taking the snapshot must not be visible in it.
+            delete(archive.resolve("file"));
+            createTestFile(archive.resolve("other"));
+            umount();
+
+            assertEquals(Collections.singleton("file"), snapshot.list("").keySet());
+            assertTrue(snapshot.readAttributes("").isDirectory());
+            assertEquals(getDataLength(), snapshot.readAttributes("file").size());
+            final byte[] array = new byte[getDataLength()];
+            try (final InputStream in = snapshot.newInputStream("file")) {
+                new DataInputStream(in).readFully(array);
+            }
+            assertArrayEquals(getData(), array);
+            try {
+                snapshot.readAttributes("other");
+                fail();
+            } catch (final NoSuchFileException expected) {
+            }
+        }
+        assertFalse(exists(archive.resolve("file")));
+        verifyTestFile(archive.resolve("other"));
+
+        archive.toFile().rm_r();
+    }
+
+    @Test
+    public void testSnapshotWhileGrowing() throws IOException {
+        final TPath entry1 = archive.resolve("entry1");
+        final TPath entry2 = archive.resolve("entry2");
+
+        try (final TConfig config = TConfig.open()) {
+            config.setAccessPreference(GROW, true);
+
+            createTestFile(entry1);
+            umount();
+            try (final TSnapshot snapshot = archive.getFileSystem().snapshot()) {
+                // The archive file must not grow in place while the snapshot reads it.
+                createTestFile(entry2);
+                umount();
+
+                assertEquals(Collections.singleton("entry1"), snapshot.list("").keySet());
+                final byte[] array = new byte[getDataLength()];
+                try (final InputStream in = snapshot.newInputStream("entry1")) {
+                    new DataInputStream(in).readFully(array);
+                }
+                assertArrayEquals(getData(), array);
+            }
+            verifyTestFile(entry1);
+            verifyTestFile(entry2);
+        }
+
+        archive.toFile().rm_r();
+    }
+
     @Test
     public void testMultithreadedSingleArchiveMultipleEntriesReading()
     throws Exception {
@@ -1488,6 +1605,56 @@ extends ConfiguredClientTestBase<D> {
         // src alias archive gets deleted by the test fixture.
     }
 
+    @Test
+    public void testUpdate() throws IOException {
+        final TPath entry = archive.resolve("entry");
+        createTestFile(entry);
+        umount();
+
+        final byte[] expected = getData();
+        final byte[] update = { 1, 2, 3 };
+        final int pos = expected.length / 2;
+        System.arraycopy(update, 0, expected, pos, update.length);
+        try (final SeekableByteChannel channel = newByteChannel(entry, StandardOpenOption.WRITE)) {
+            assertEquals(getDataLength(), channel.size());
+            channel.position(pos).write(ByteBuffer.wrap(update));
+        }
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expected.length, size(entry));
+            assertArrayEquals(expected, readAllBytes(entry));
+            umount();
+        }
+    }
+
+    @Test
+    public void testUpdateStored() throws IOException {
+        final TPath entry = archive.resolve("entry");
+        try (final TConfig config = TConfig.open()) {
+            // Ask the driver to write a STORED entry, which supports random
+            // read access and thus updating its pages in place.
+            config.setAccessPreference(FsAccessOption.STORE, true);
+            createTestFile(entry);
+            umount();
+
+            final byte[] data = getData();
+            final byte[] update = { 1, 2, 3 };
+            final int pos = data.length / 2;
+            final byte[] expected = data.clone();
+            System.arraycopy(update, 0, expected, pos, update.length);
+            try (final SeekableByteChannel channel = newByteChannel(entry, StandardOpenOption.WRITE)) {
+                channel.position(pos).write(ByteBuffer.wrap(update));
+            }
+            for (int i = 0; i < 2; i++) {
+                final byte[] actual = readAllBytes(entry);
+                assertArrayEquals(expected, actual);
+                assertArrayEquals(Arrays.copyOf(data, pos), Arrays.copyOf(actual, pos));
+                assertArrayEquals(Arrays.copyOfRange(data, pos + update.length, data.length),
+                        Arrays.copyOfRange(actual, pos + update.length, actual.length));
+                umount();
+            }
+        }
+    }
+
     @Test
     public void testGrowing() throws IOException {
         final TPath path = archive.toNonArchivePath();
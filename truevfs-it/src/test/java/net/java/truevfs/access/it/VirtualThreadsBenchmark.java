@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access.it;
+
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileInputStream;
+import net.java.truevfs.access.TFileOutputStream;
+import net.java.truevfs.access.TVFS;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the entries of a ZIP file concurrently from a large number of virtual
+ * threads.
+ * Requires JDK 21 or later for virtual threads - on earlier versions, the
+ * benchmark falls back to a fixed pool of platform threads.
+ * Run it with:
+ * <pre>{@code
+ * sbt "it/Test/runMain net.java.truevfs.access.it.VirtualThreadsBenchmark"
+ * }</pre>
+ * Each round gets recorded with JFR.
+ * If any virtual thread gets pinned to its carrier thread, then the benchmark
+ * prints the stack traces of the {@code jdk.VirtualThreadPinned} events and
+ * exits with status 1.
+ * {@link VirtualThreadsPinningIT} runs the same check as part of the tests.
+ * <p>
+ * The optional program arguments are the number of threads (default 10000)
+ * and the number of entries in the ZIP file (default 100).
+ *
+ * @author Christian Schlichtherle
+ */
+public final class VirtualThreadsBenchmark {
+
+    private static final int ENTRY_SIZE = 16 * 1024;
+
+    public static void main(final String[] args) throws Exception {
+        final int threads = 0 < args.length ? Integer.parseInt(args[0]) : 10_000;
+        final int entries = 1 < args.length ? Integer.parseInt(args[1]) : 100;
+        final File temp = File.createTempFile("tvfs-vt", ".zip");
+        temp.delete();
+        final TFile archive = new TFile(temp);
+        int pinned = 0;
+        try {
+            create(archive, entries);
+            for (int round = 1; round <= 3; round++) {
+                final List<RecordedEvent> events;
+                final long start = System.nanoTime();
+                try (PinnedThreadsRecorder recorder = new PinnedThreadsRecorder()) {
+                    final long bytes = run(archive, threads, entries);
+                    final long millis = (System.nanoTime() - start) / 1_000_000;
+                    events = recorder.stop();
+                    System.out.printf("Round %d: %d threads read %d bytes in %d ms, %d pinned.%n",
+                            round, threads, bytes, millis, events.size());
+                }
+                for (final RecordedEvent event : events) System.out.println(event);
+                pinned += events.size();
+                TVFS.umount(archive);
+            }
+        } finally {
+            archive.rm_r();
+        }
+        if (0 < pinned) System.exit(1);
+    }
+
+    static void create(final TFile archive, final int entries) throws Exception {
+        final byte[] data = new byte[ENTRY_SIZE];
+        for (int i = 0; i < entries; i++) {
+            try (OutputStream out = new TFileOutputStream(new TFile(archive, "entry" + i))) {
+                out.write(data);
+            }
+        }
+        TVFS.umount(archive);
+    }
+
+    static long run(final TFile archive, final int threads, final int entries)
+    throws Exception {
+        final ExecutorService executor = newExecutor();
+        try {
+            final List<Future<Long>> results = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final TFile entry = new TFile(archive, "entry" + i % entries);
+                results.add(executor.submit(() -> read(entry)));
+            }
+            long total = 0;
+            for (final Future<Long> result : results) total += result.get();
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long read(final TFile entry) throws Exception {
+        final byte[] buffer = new byte[8 * 1024];
+        long total = 0;
+        try (InputStream in = new TFileInputStream(entry)) {
+            for (int read; 0 <= (read = in.read(buffer)); ) total += read;
+        }
+        return total;
+    }
+
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (final ReflectiveOperationException ex) {
+            System.out.println("Virtual threads are not available - using platform threads.");
+            return Executors.newFixedThreadPool(
+                    2 * Runtime.getRuntime().availableProcessors());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.access.it;
+
+import jdk.jfr.consumer.RecordedEvent;
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TVFS;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that reading the entries of a ZIP file from many virtual threads
+ * does not pin any of them to their carrier thread.
+ * Requires JDK 21 or later, otherwise the test gets skipped.
+ *
+ * @see    VirtualThreadsBenchmark
+ * @author Christian Schlichtherle
+ */
+public final class VirtualThreadsPinningIT {
+
+    private static final int THREADS = 200;
+    private static final int ENTRIES = 10;
+
+    private TFile archive;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(hasVirtualThreads());
+        final File temp = File.createTempFile("tvfs-vt", ".zip");
+        temp.delete();
+        archive = new TFile(temp);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (null != archive) archive.rm_r();
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (final NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testNoPinnedThreads() throws Exception {
+        VirtualThreadsBenchmark.create(archive, ENTRIES);
+        final List<RecordedEvent> events;
+        try (PinnedThreadsRecorder recorder = new PinnedThreadsRecorder()) {
+            VirtualThreadsBenchmark.run(archive, THREADS, ENTRIES);
+            events = recorder.stop();
+        }
+        TVFS.umount(archive);
+        assertEquals(events.toString(), 0, events.size());
+    }
+}
@@ -7,6 +7,12 @@ package net.java.truevfs.comp.tardriver;
 import net.java.truecommons.cio.IoBufferPool;
 import net.java.truevfs.kernel.spec.FsArchiveDriverTestSuite;
 import net.java.truevfs.kernel.spec.FsTestConfig;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Christian Schlichtherle
@@ -27,4 +33,11 @@ public final class TarDriverTest extends FsArchiveDriverTestSuite<TarDriverEntry
     protected String getUnencodableName() {
         return null;
     }
+
+    @Test
+    public void testPersistentFalsePositive() {
+        final TarDriver driver = getArchiveDriver();
+        assertTrue(driver.isPersistentFalsePositive(new TarException("Invalid initial record in TAR file!")));
+        assertFalse(driver.isPersistentFalsePositive(new IOException()));
+    }
 }
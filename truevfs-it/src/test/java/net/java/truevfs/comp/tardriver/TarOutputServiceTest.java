@@ -0,0 +1,399 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.tardriver;
+
+import net.java.truecommons.cio.AbstractInputSocket;
+import net.java.truecommons.cio.AbstractOutputSocket;
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.IoBufferPool;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.DecoratingSeekableChannel;
+import net.java.truecommons.io.Source;
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.kernel.spec.FsAccessOption;
+import net.java.truevfs.kernel.spec.FsInputSocketSource;
+import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsOutputSocketSink;
+import net.java.truevfs.kernel.spec.FsTestConfig;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.CheckForNull;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static org.apache.commons.compress.archivers.tar.TarArchiveOutputStream.BIGNUMBER_POSIX;
+import static org.apache.commons.compress.archivers.tar.TarArchiveOutputStream.BIGNUMBER_STAR;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class TarOutputServiceTest {
+
+    private final FsModel model = mock(FsModel.class);
+    private final TarDriver driver = new TarDriver() {
+        @Override
+        public IoBufferPool getPool() {
+            return FsTestConfig.get().getPool();
+        }
+    };
+    private Path file, copy;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tzp", ".tar");
+        copy = Files.createTempFile("tzp", ".tar");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(copy);
+    }
+
+    @Test
+    public void testGrowAppendsInPlace() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+            write(out, "b", "two");
+        }
+        final byte[] before = Files.readAllBytes(file);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            final long end = in.getEndOfEntries();
+            assertEquals(0, end % 512);
+            assertTrue(end < before.length);
+            try (TarOutputService out = new TarOutputService(model, sink(file, NONE.set(GROW), true), in, driver)) {
+                assertEquals(2, out.size());
+                assertSame(in.entry("b"), out.entry("b"));
+                write(out, "c", "three");
+                write(out, "a", "four");
+            }
+            final byte[] after = Files.readAllBytes(file);
+            assertArrayEquals(Arrays.copyOf(before, (int) end), Arrays.copyOf(after, (int) end));
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(3, in.size());
+            assertEquals("four", read(in, "a"));
+            assertEquals("two", read(in, "b"));
+            assertEquals("three", read(in, "c"));
+        }
+    }
+
+    @Test
+    public void testGrowFailureRetainsTarFile() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+        }
+        final byte[] before = Files.readAllBytes(file);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            final TarOutputService out = new TarOutputService(model, failingSink(file), in, driver);
+            write(out, "b", "two");
+            try {
+                out.close();
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+        assertArrayEquals(before, Files.readAllBytes(file));
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(1, in.size());
+            assertEquals("one", read(in, "a"));
+        }
+    }
+
+    @Test
+    public void testGrowRewritesWithoutChannel() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            try (TarOutputService out = new TarOutputService(model, sink(file, NONE.set(GROW), false), in, driver)) {
+                assertEquals(0, out.size());
+                write(out, "b", "two");
+            }
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(1, in.size());
+            assertEquals("two", read(in, "b"));
+        }
+    }
+
+    @Test
+    public void testRawCopy() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+            write(out, "b", "two");
+            write(out, "c", repeat('x', 200));
+            final TarDriverEntry entry = driver.newEntry("d/");
+            try (OutputStream os = out.output(entry).stream(null)) {
+                assertNotNull(os);
+            }
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver);
+             TarOutputService out = new TarOutputService(model, sink(copy, NONE, true), null, driver)) {
+            for (final TarDriverEntry entry : in) {
+                if (entry.isDirectory()) {
+                    out.output(entry).stream(null).close();
+                } else {
+                    assertNotNull(entry.getRecords());
+                    ChannelTransfers.copy(in.input(entry.getName()), out.output(entry));
+                }
+            }
+        }
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+    }
+
+    @Test
+    public void testNoRawCopyOfChangedEntries() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver);
+             TarOutputService out = new TarOutputService(model, sink(copy, NONE, true), null, driver)) {
+            final TarDriverEntry entry = in.entry("a");
+            assertNotNull(entry.getRecords());
+            entry.setModTime(1000);
+            assertNull(entry.getRecords());
+            ChannelTransfers.copy(in.input("a"), out.output(entry));
+        }
+        try (TarInputService in = new TarInputService(model, source(copy), driver)) {
+            assertEquals(1000, in.entry("a").getModTime().getTime());
+            assertEquals("one", read(in, "a"));
+        }
+    }
+
+    @Test
+    public void testUnknownSizeWithoutBuffering() throws IOException {
+        final TarDriver unbuffered = new TarDriver() {
+            @Override
+            public IoBufferPool getPool() {
+                throw new AssertionError();
+            }
+
+            @Override
+            public int getBigNumberMode() {
+                return BIGNUMBER_STAR;
+            }
+        };
+        final String big = repeat('x', 30000);
+        final String longName = repeat('n', 200);
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, unbuffered)) {
+            writeUnknownSize(out, "a", "one");
+            writeUnknownSize(out, "b", big);
+            writeUnknownSize(out, longName, "three");
+            writeUnknownSize(out, "c", "");
+            assertEquals(big.length(), out.entry("b").getSize());
+        }
+        assertEquals(0, Files.size(file) % 10240);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(4, in.size());
+            assertEquals("one", read(in, "a"));
+            assertEquals(big, read(in, "b"));
+            assertEquals("three", read(in, longName));
+            assertEquals("", read(in, "c"));
+        }
+    }
+
+    @Test
+    public void testUnknownSizeWithPosixBigNumbers() throws IOException {
+        final int[] allocations = new int[1];
+        final TarDriver posix = new TarDriver() {
+            @Override
+            public IoBufferPool getPool() {
+                allocations[0]++;
+                return FsTestConfig.get().getPool();
+            }
+        };
+        assertEquals(BIGNUMBER_POSIX, posix.getBigNumberMode());
+        final String big = repeat('x', 30000);
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, posix)) {
+            writeUnknownSize(out, "a", "one");
+            writeUnknownSize(out, "b", big);
+        }
+        assertEquals(0, allocations[0]);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(2, in.size());
+            assertEquals("one", read(in, "a"));
+            assertEquals(big, read(in, "b"));
+        }
+    }
+
+    @Test
+    public void testUnknownSizeOverMaxSizeWithPosixBigNumbers() throws IOException {
+        final int[] allocations = new int[1];
+        final TarDriver posix = new TarDriver() {
+            @Override
+            public IoBufferPool getPool() {
+                allocations[0]++;
+                return FsTestConfig.get().getPool();
+            }
+        };
+        final String big = repeat('x', 30000);
+        final String longName = repeat('n', 200);
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, posix)) {
+            out.maxSize = 1000;
+            writeUnknownSize(out, "a", "one");
+            writeUnknownSize(out, longName, big);
+            writeUnknownSize(out, "c", "three");
+            assertEquals(big.length(), out.entry(longName).getSize());
+        }
+        assertEquals(1, allocations[0]);
+        assertEquals(0, Files.size(file) % 10240);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(3, in.size());
+            assertEquals("one", read(in, "a"));
+            assertEquals(big, read(in, longName));
+            assertEquals("three", read(in, "c"));
+        }
+    }
+
+    @Test
+    public void testOverwriteWithChannel() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), null, driver)) {
+            write(out, "a", "one");
+            write(out, "b", repeat('x', 30000));
+        }
+        final long size = Files.size(file);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            try (TarOutputService out = new TarOutputService(model, sink(file, NONE, true), in, driver)) {
+                assertEquals(0, out.size());
+                write(out, "c", "three");
+            }
+        }
+        assertTrue(Files.size(file) < size);
+        assertEquals(0, Files.size(file) % 10240);
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals(1, in.size());
+            assertEquals("three", read(in, "c"));
+        }
+    }
+
+    @Test
+    public void testUnknownSizeWithBuffering() throws IOException {
+        try (TarOutputService out = new TarOutputService(model, sink(file, NONE, false), null, driver)) {
+            writeUnknownSize(out, "a", "one");
+        }
+        try (TarInputService in = new TarInputService(model, source(file), driver)) {
+            assertEquals("one", read(in, "a"));
+        }
+    }
+
+    private void writeUnknownSize(final TarOutputService out, final String name, final String data)
+    throws IOException {
+        try (OutputStream os = out.output(driver.newEntry(name)).stream(null)) {
+            os.write(data.getBytes(US_ASCII));
+        }
+    }
+
+    private static String repeat(final char c, final int n) {
+        return new String(new char[n]).replace('\0', c);
+    }
+
+    private void write(final TarOutputService out, final String name, final String data) throws IOException {
+        final byte[] bytes = data.getBytes(US_ASCII);
+        final TarDriverEntry entry = driver.newEntry(name);
+        entry.setSize(bytes.length);
+        try (OutputStream os = out.output(entry).stream(null)) {
+            os.write(bytes);
+        }
+    }
+
+    private static String read(final TarInputService in, final String name) throws IOException {
+        try (InputStream is = in.input(name).stream(null)) {
+            final byte[] bytes = new byte[(int) in.entry(name).getSize()];
+            new DataInputStream(is).readFully(bytes);
+            assertEquals(-1, is.read());
+            return new String(bytes, US_ASCII);
+        }
+    }
+
+    private static Source source(final Path file) {
+        return new FsInputSocketSource(NONE, new AbstractInputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public InputStream stream(@CheckForNull OutputSocket<? extends Entry> peer) throws IOException {
+                return Files.newInputStream(file);
+            }
+
+            @Override
+            public SeekableByteChannel channel(@CheckForNull OutputSocket<? extends Entry> peer) throws IOException {
+                return FileChannel.open(file, READ);
+            }
+        });
+    }
+
+    private static FsOutputSocketSink failingSink(final Path file) {
+        return new FsOutputSocketSink(NONE.set(GROW), new AbstractOutputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public SeekableByteChannel channel(@CheckForNull InputSocket<? extends Entry> peer) throws IOException {
+                return new DecoratingSeekableChannel(FileChannel.open(file, WRITE)) {
+
+                    @Override
+                    public int write(ByteBuffer src) throws IOException {
+                        throw new IOException("No space left on device");
+                    }
+                };
+            }
+        });
+    }
+
+    private static FsOutputSocketSink sink(
+            final Path file,
+            final BitField<FsAccessOption> options,
+            final boolean seekable) {
+        return new FsOutputSocketSink(options, new AbstractOutputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public OutputStream stream(@CheckForNull InputSocket<? extends Entry> peer) throws IOException {
+                return Files.newOutputStream(file);
+            }
+
+            @Override
+            public SeekableByteChannel channel(@CheckForNull InputSocket<? extends Entry> peer) throws IOException {
+                if (!seekable) {
+                    throw new UnsupportedOperationException();
+                }
+                return options.get(GROW)
+                        ? FileChannel.open(file, WRITE)
+                        : FileChannel.open(file, WRITE, TRUNCATE_EXISTING);
+            }
+        });
+    }
+}
@@ -20,6 +20,8 @@ import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
 
 import static java.nio.file.Files.*;
 import static java.nio.file.StandardOpenOption.APPEND;
@@ -281,6 +283,43 @@ public abstract class ZipITSuite implements ZipEntryFactory<ZipEntry> {
         }
     }
 
+    @Test
+    public final void testGetReadOnlyChannel() throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        try (ZipOutputStream zos = newZipOutputStream(newOutputStream(file))) {
+            final ZipEntry stored = new ZipEntry("stored");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setCrc(crc.getValue());
+            stored.setSize(data.length);
+            stored.setCompressedSize(data.length);
+            zos.putNextEntry(stored);
+            zos.write(data);
+            final ZipEntry deflated = new ZipEntry("deflated");
+            deflated.setMethod(ZipEntry.DEFLATED);
+            zos.putNextEntry(deflated);
+            zos.write(data);
+        }
+
+        try (ZipFile zf = newZipFile(file)) {
+            assertNull(zf.getReadOnlyChannel("bar"));
+            try {
+                zf.getReadOnlyChannel("deflated").close();
+                fail();
+            } catch (ZipException expected) {
+            }
+            try (SeekableByteChannel channel = zf.getReadOnlyChannel("stored")) {
+                assertEquals(data.length, channel.size());
+                final int pos = data.length / 2;
+                final ByteBuffer buf = ByteBuffer.allocate(data.length - pos);
+                channel.position(pos);
+                while (buf.hasRemaining() && 0 <= channel.read(buf)) {
+                }
+                assertArrayEquals(Arrays.copyOfRange(data, pos, data.length), buf.array());
+            }
+        }
+    }
+
     @Test
     public final void testWriteAndReadSingleBytes() throws IOException {
         try (ZipOutputStream zos = newZipOutputStream(newOutputStream(file))) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.comp.zipdriver;
+
+import net.java.truecommons.cio.AbstractInputSocket;
+import net.java.truecommons.cio.AbstractOutputSocket;
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.IoBufferPool;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.DecoratingOutputStream;
+import net.java.truevfs.comp.zip.ZipEntry;
+import net.java.truevfs.comp.zip.ZipFile;
+import net.java.truevfs.comp.zip.ZipOutputStream;
+import net.java.truevfs.kernel.spec.FsInputSocketSource;
+import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsOutputSocketSink;
+import net.java.truevfs.kernel.spec.FsTestConfig;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelOutput;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.CheckForNull;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.java.truevfs.comp.zip.ZipEntry.DEFLATED;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests that the data of an unchanged entry gets transferred raw, that is
+ * without inflating and deflating it, when copying it from a
+ * {@link ZipInputService} to a {@link ZipOutputService}.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class RawDataTransferTest {
+
+    private final FsModel model = mock(FsModel.class);
+    private final ZipDriver driver = new ZipDriver() {
+        @Override
+        public IoBufferPool getPool() {
+            return FsTestConfig.get().getPool();
+        }
+    };
+    private final byte[] data = new byte[256 * 1024];
+    private Path input, output;
+    private int transfers;
+    private long transferred;
+
+    @Before
+    public void setUp() throws IOException {
+        for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 251 * (i % 3));
+        input = Files.createTempFile("input", ".zip");
+        output = Files.createTempFile("output", ".zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(input))) {
+            // Use a non-default level so that deflating the entry again would
+            // result in a different compressed size.
+            zos.setLevel(Deflater.BEST_SPEED);
+            final ZipEntry entry = new ZipEntry("entry");
+            entry.setMethod(DEFLATED);
+            zos.putNextEntry(entry);
+            zos.write(data);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(input);
+    }
+
+    @Test
+    public void testRawTransfer() throws IOException {
+        final long compressedSize;
+        try (ZipInputService<ZipDriverEntry> in = new ZipInputService<>(model, source(), driver);
+             ZipOutputService<ZipDriverEntry> out = new ZipOutputService<>(model, sink(), null, driver)) {
+            final ZipDriverEntry entry = in.entry("entry");
+            compressedSize = entry.getCompressedSize();
+            ChannelTransfers.copy(in.input("entry"), out.output(entry));
+        }
+        assertEquals(1, transfers);
+        assertEquals(compressedSize, transferred);
+        try (ZipFile zip = new ZipFile(output)) {
+            final ZipEntry entry = zip.entry("entry");
+            assertEquals(DEFLATED, entry.getMethod());
+            assertEquals(compressedSize, entry.getCompressedSize());
+            final byte[] copy = new byte[data.length];
+            try (InputStream is = zip.getCheckedInputStream("entry")) {
+                new DataInputStream(is).readFully(copy);
+                assertEquals(-1, is.read());
+            }
+            assertArrayEquals(data, copy);
+        }
+    }
+
+    private FsInputSocketSource source() {
+        return new FsInputSocketSource(NONE, new AbstractInputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public InputStream stream(@CheckForNull OutputSocket<? extends Entry> peer) throws IOException {
+                return Files.newInputStream(input);
+            }
+
+            @Override
+            public SeekableByteChannel channel(@CheckForNull OutputSocket<? extends Entry> peer) throws IOException {
+                return FileChannel.open(input, READ);
+            }
+        });
+    }
+
+    private FsOutputSocketSink sink() {
+        return new FsOutputSocketSink(NONE, new AbstractOutputSocket<Entry>() {
+
+            @Override
+            public Entry target() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public OutputStream stream(@CheckForNull InputSocket<? extends Entry> peer) throws IOException {
+                return new TransferringOutputStream(FileChannel.open(output, WRITE, TRUNCATE_EXISTING));
+            }
+        });
+    }
+
+    private final class TransferringOutputStream extends DecoratingOutputStream implements ChannelOutput {
+
+        final FileChannel channel;
+
+        TransferringOutputStream(final FileChannel channel) {
+            super(Channels.newOutputStream(channel));
+            this.channel = channel;
+        }
+
+        @Override
+        public long transferFrom(final ChannelInput input) throws IOException {
+            final long n = input.transferTo(channel);
+            transfers++;
+            transferred += n;
+            return n;
+        }
+    }
+}
@@ -6,7 +6,15 @@ package net.java.truevfs.comp.zipdriver;
 
 import net.java.truecommons.cio.IoBufferPool;
 import net.java.truevfs.kernel.spec.FsArchiveDriverTestSuite;
+import net.java.truevfs.comp.zip.ZipAuthenticationException;
 import net.java.truevfs.kernel.spec.FsTestConfig;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Christian Schlichtherle
@@ -27,4 +35,12 @@ public final class ZipDriverTest extends FsArchiveDriverTestSuite<ZipDriverEntry
     protected String getUnencodableName() {
         return "\u2297";
     }
+
+    @Test
+    public void testPersistentFalsePositive() {
+        final ZipDriver driver = getArchiveDriver();
+        assertTrue(driver.isPersistentFalsePositive(new ZipException()));
+        assertFalse(driver.isPersistentFalsePositive(new ZipAuthenticationException("Wrong password!")));
+        assertFalse(driver.isPersistentFalsePositive(new IOException()));
+    }
 }
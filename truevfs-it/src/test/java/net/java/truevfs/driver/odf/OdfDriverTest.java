@@ -8,6 +8,10 @@ import net.java.truecommons.cio.IoBufferPool;
 import net.java.truevfs.comp.zipdriver.JarDriverEntry;
 import net.java.truevfs.kernel.spec.FsArchiveDriverTestSuite;
 import net.java.truevfs.kernel.spec.FsTestConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Christian Schlichtherle
@@ -28,4 +32,11 @@ public final class OdfDriverTest extends FsArchiveDriverTestSuite<JarDriverEntry
     protected String getUnencodableName() {
         return null;
     }
+
+    @Test
+    public void testSupersedeSupport() {
+        final OdfDriver driver = getArchiveDriver();
+        assertFalse(driver.getSupersedeSupport("mimetype"));
+        assertTrue(driver.getSupersedeSupport("content.xml"));
+    }
 }
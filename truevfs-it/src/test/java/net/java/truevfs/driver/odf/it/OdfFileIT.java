@@ -4,10 +4,28 @@
  */
 package net.java.truevfs.driver.odf.it;
 
+import net.java.truevfs.access.TConfig;
+import net.java.truevfs.access.TFile;
+import net.java.truevfs.access.TFileInputStream;
+import net.java.truevfs.access.TFileOutputStream;
 import net.java.truevfs.access.it.TFileITSuite;
 import net.java.truevfs.driver.odf.OdfDriver;
 import net.java.truevfs.kernel.spec.FsTestConfig;
 import net.java.truecommons.cio.IoBufferPool;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.SUPERSEDE;
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Christian Schlichtherle
@@ -19,6 +37,41 @@ public final class OdfFileIT extends TFileITSuite<OdfDriver> {
         return "odf";
     }
 
+    @Test
+    public void testRewritingMimeType() throws IOException {
+        final TFile archive = getArchive();
+        final TFile mimetype = new TFile(archive, "mimetype");
+        final TFile content = new TFile(archive, "content.xml");
+
+        try (final TConfig config = TConfig.open()) {
+            config.setAccessPreference(CACHE, false);
+            config.setAccessPreference(SUPERSEDE, true);
+
+            write(mimetype, "application/vnd.oasis.opendocument.text");
+            write(content, "<content/>");
+            // The mimetype entry must not get superseded by appending it.
+            write(mimetype, "application/vnd.oasis.opendocument.text");
+        }
+        umount();
+
+        final List<String> names = new ArrayList<>();
+        try (final ZipInputStream in = new ZipInputStream(
+                new TFileInputStream(archive.toNonArchiveFile()))) {
+            for (ZipEntry entry; null != (entry = in.getNextEntry()); )
+                names.add(entry.getName());
+        }
+        assertEquals(Arrays.asList("mimetype", "content.xml"), names);
+
+        archive.rm_r();
+    }
+
+    private static void write(final TFile file, final String text)
+    throws IOException {
+        try (final OutputStream out = new TFileOutputStream(file)) {
+            out.write(text.getBytes(US_ASCII));
+        }
+    }
+
     @Override
     protected OdfDriver newArchiveDriver() {
         return new OdfDriver() {
@@ -147,7 +147,8 @@ class TConfigSpec extends WordSpec {
           BitField.of(GROW),
           BitField.of(STORE),
           BitField.of(COMPRESS),
-          BitField.of(ENCRYPT)
+          BitField.of(ENCRYPT),
+          BitField.of(DEFER)
         )
         forAll(legal) { preferences =>
           config setAccessPreferences preferences
@@ -43,6 +43,13 @@ interface ArchiveController<E extends FsArchiveEntry> extends ArchiveModelAspect
 
     Optional<? extends FsNode> node(BitField<FsAccessOption> options, FsNodeName name) throws IOException;
 
+    /**
+     * Returns the nodes for the members of the directory with the given name.
+     *
+     * @see FsController#nodes(BitField, FsNodeName)
+     */
+    Optional<Map<String, FsNode>> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException;
+
     void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Access> types) throws IOException;
 
     void setReadOnly(BitField<FsAccessOption> options, FsNodeName name) throws IOException;
@@ -60,4 +67,11 @@ interface ArchiveController<E extends FsArchiveEntry> extends ArchiveModelAspect
     void unlink(BitField<FsAccessOption> options, FsNodeName name) throws IOException;
 
     void sync(BitField<FsSyncOption> options) throws FsSyncException;
+
+    /**
+     * Returns a read-only snapshot of the archive file system.
+     *
+     * @see FsController#snapshot(BitField)
+     */
+    FsController snapshot(BitField<FsAccessOption> options) throws IOException;
 }
@@ -41,6 +41,11 @@ interface ArchiveControllerAdapter extends FsController {
         return getController().node(options, name).orElse(null);
     }
 
+    @Override
+    default Map<String, FsNode> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return getController().nodes(options, name).orElse(null);
+    }
+
     @Override
     default void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         getController().checkAccess(options, name, types);
@@ -85,4 +90,9 @@ interface ArchiveControllerAdapter extends FsController {
     default void sync(BitField<FsSyncOption> options) throws FsSyncException {
         getController().sync(options);
     }
+
+    @Override
+    default FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return getController().snapshot(options);
+    }
 }
@@ -14,6 +14,7 @@ import net.java.truecommons.shed.PathSplitter;
 import net.java.truevfs.kernel.spec.FsAccessOption;
 import net.java.truevfs.kernel.spec.FsArchiveEntry;
 import net.java.truevfs.kernel.spec.FsCovariantNode;
+import net.java.truevfs.kernel.spec.FsNode;
 import net.java.truevfs.kernel.spec.FsNodeName;
 
 import javax.annotation.Nonnull;
@@ -216,6 +217,29 @@ class ArchiveFileSystem<E extends FsArchiveEntry>
         return master.get(name.getPath()).map(e -> e.clone(getDriver()));
     }
 
+    /**
+     * Possibly returns the covariant file system nodes for the members of the directory with the given name.
+     * The nodes get looked up by their paths in a single pass over the members of the directory.
+     *
+     * @param name the name of the directory to look up.
+     * @return The covariant file system nodes for the members of the directory, keyed by their member names, or
+     * {@link Optional#empty()} if no directory exists for the given name.
+     * @see net.java.truevfs.kernel.spec.FsController#nodes
+     */
+    Optional<Map<String, FsNode>> nodes(final BitField<FsAccessOption> options, final FsNodeName name) {
+        val dir = master.get(name.getPath());
+        final Set<String> members;
+        if (!dir.isPresent() || null == (members = dir.get().getMembers())) {
+            return Optional.empty();
+        }
+        val prefix = name.isRoot() ? "" : name.getPath() + SEPARATOR;
+        val nodes = new LinkedHashMap<String, FsNode>(initialCapacity(members.size()));
+        for (val member : members) {
+            master.get(prefix + member).ifPresent(e -> nodes.put(member, e.clone(getDriver())));
+        }
+        return Optional.of(nodes);
+    }
+
     void checkAccess(
             final BitField<FsAccessOption> options,
             final FsNodeName name,
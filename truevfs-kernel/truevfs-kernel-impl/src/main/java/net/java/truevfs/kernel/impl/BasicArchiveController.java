@@ -30,6 +30,7 @@ import static net.java.truecommons.cio.Entry.Type.DIRECTORY;
 import static net.java.truecommons.cio.Entry.Type.FILE;
 import static net.java.truevfs.kernel.spec.FsAccessOption.APPEND;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CREATE_PARENTS;
+import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
 import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
 
 /**
@@ -62,6 +63,11 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
         return autoMount(options, false).node(options, name);
     }
 
+    @Override
+    public Optional<Map<String, FsNode>> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return autoMount(options, false).nodes(options, name);
+    }
+
     @Override
     public void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         autoMount(options, false).checkAccess(options, name, types);
@@ -73,13 +79,15 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
     }
 
     @Override
-    public boolean setTime(final BitField<FsAccessOption> options, final FsNodeName name, final Map<Entry.Access, Long> times) throws IOException {
+    public boolean setTime(BitField<FsAccessOption> options, final FsNodeName name, final Map<Entry.Access, Long> times) throws IOException {
+        options = updateOptions(options);
         checkSync(options, name, CREATE); // alias for UPDATE
         return autoMount(options, false).setTime(options, name, times);
     }
 
     @Override
-    public boolean setTime(final BitField<FsAccessOption> options, final FsNodeName name, final BitField<Entry.Access> types, final long time) throws IOException {
+    public boolean setTime(BitField<FsAccessOption> options, final FsNodeName name, final BitField<Entry.Access> types, final long time) throws IOException {
+        options = updateOptions(options);
         checkSync(options, name, CREATE); // alias for UPDATE
         return autoMount(options, false).setTime(options, name, types, time);
     }
@@ -218,7 +226,7 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
     abstract OutputSocket<E> output(BitField<FsAccessOption> options, E entry);
 
     @Override
-    public void make(final BitField<FsAccessOption> options, final FsNodeName name, final Entry.Type type, final Optional<Entry> template) throws IOException {
+    public void make(BitField<FsAccessOption> options, final FsNodeName name, final Entry.Type type, final Optional<Entry> template) throws IOException {
         if (name.isRoot()) { // TODO: Is this case differentiation still required?
             try {
                 autoMount(options, false); // detect false positives!
@@ -231,6 +239,7 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
             }
             throw new FileAlreadyExistsException(fullPath(name), null, "Cannot replace a directory entry!");
         } else {
+            options = updateOptions(options);
             checkSync(options, name, CREATE);
             autoMount(options, options.get(CREATE_PARENTS))
                     .make(options, name, type, template)
@@ -239,7 +248,8 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
     }
 
     @Override
-    public void unlink(final BitField<FsAccessOption> options, final FsNodeName name) throws IOException {
+    public void unlink(BitField<FsAccessOption> options, final FsNodeName name) throws IOException {
+        options = updateOptions(options);
         checkSync(options, name, DELETE);
         val fs = autoMount(options, false);
         fs.unlink(options, name);
@@ -252,6 +262,15 @@ abstract class BasicArchiveController<E extends FsArchiveEntry> implements Archi
         }
     }
 
+    /**
+     * Returns the given options for updating the meta data of the archive file system.
+     * Unless the driver supports redundant meta data, {@link FsAccessOption#GROW} gets cleared because a growing output
+     * archive would retain the previous state of any archive entry which gets updated or deleted.
+     */
+    private BitField<FsAccessOption> updateOptions(BitField<FsAccessOption> options) {
+        return getDriver().getRedundantMetaDataSupport() ? options : options.clear(GROW);
+    }
+
     /**
      * Checks if the intended access to the named archive entry in the virtual file system is possible without
      * performing a {@link FsController#sync(BitField)} operation in advance.
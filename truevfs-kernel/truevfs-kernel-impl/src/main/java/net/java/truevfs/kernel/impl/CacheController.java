@@ -41,6 +41,9 @@ import static net.java.truevfs.kernel.spec.FsSyncOptions.SYNC;
  * gets {@code sync}ed again.
  * - Entry data written to the cache is not written to the backing store until the file system gets `sync`ed - this is
  * a "write back" strategy.
+ * - When updating the entry data in place with the access option
+ * {@link net.java.truevfs.kernel.spec.FsAccessOption#UPDATE}, only the written pages get cached until the file system
+ * gets {@code sync}ed, provided that the backing store supports random access to the entry data.
  * - As a side effect, caching decouples the underlying storage from its clients, allowing it to create, read, update or
  * delete the entry data while some clients are still busy on reading or writing the copied entry data.
  *
@@ -185,6 +188,19 @@ abstract class CacheController<E extends FsArchiveEntry> implements DelegatingAr
             caches.put(name, this);
         }
 
+        /**
+         * Returns a pool which allocates buffers for updating the entry data in place.
+         * Unless this cache is registered, the original entry data gets read from the decorated controller, so that
+         * only the written pages need to get buffered.
+         * Otherwise, the cached entry data needs to get copied because the new buffer replaces it when done.
+         */
+        IoBufferPool update(final BitField<FsAccessOption> options) {
+            val original = getController().input(options, name);
+            return this == caches.get(name)
+                    ? CopyOnWriteBuffer.pool(name.toString(), cache.configure(original).input(), getPool(), false)
+                    : CopyOnWriteBuffer.pool(name.toString(), original, getPool(), true);
+        }
+
         InputSocket<? extends Entry> input(final BitField<FsAccessOption> options) {
 
             final class Input extends DelegatingInputSocket<Entry> {
@@ -230,11 +246,11 @@ abstract class CacheController<E extends FsArchiveEntry> implements DelegatingAr
             // This class requires lazy initialization of its channel, but no automatic decoupling on exceptions!
             final class Output extends DelegatingOutputSocket<Entry> {
 
-                final BitField<FsAccessOption> _options = options.clear(CACHE); // consume
+                final BitField<FsAccessOption> _options = options.clear(CACHE).clear(UPDATE); // consume
 
                 final OutputSocket<? extends Entry> socket = cache
                         .configure(getController().output(_options.clear(EXCLUSIVE), name, template))
-                        .output();
+                        .output(options.get(UPDATE) ? update(_options) : getPool());
 
                 @Override
                 protected OutputSocket<? extends Entry> socket() throws IOException {
@@ -52,12 +52,14 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
     private Optional<InputSocket<? extends Entry>> input = Optional.empty();
     private Optional<OutputSocket<? extends Entry>> output = Optional.empty();
 
+    private IoBufferPool outputPool;
+
     /**
      * @param strategy the caching strategy.
      * @param pool     the pool for allocating and releasing temporary I/O entries.
      */
     private CacheEntry(final Function<CacheEntry, OutputBufferPool> strategy, final IoBufferPool pool) {
-        this.pool = pool;
+        this.pool = outputPool = pool;
         outputBufferPool = strategy.apply(this);
     }
 
@@ -166,6 +168,16 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
      * Returns an output socket for writing the cached entry data.
      */
     OutputSocket<? extends Entry> output() {
+        return output(pool);
+    }
+
+    /**
+     * Returns an output socket for writing the cached entry data to a buffer which gets allocated from the given
+     * pool.
+     *
+     * @param pool the pool for allocating the buffer for the written entry data.
+     */
+    OutputSocket<? extends Entry> output(final IoBufferPool pool) {
         class Bar extends DelegatingOutputSocket<Entry> implements BufferAllocator {
 
             Buffer allocated;
@@ -182,6 +194,7 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
 
             @Override
             public OutputSocket<? extends Entry> socket() throws IOException {
+                outputPool = pool;
                 return buffer(outputBufferPool).output();
             }
 
@@ -286,7 +299,7 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
             if (buffer().isPresent()) {
                 b = buffer().get();
             } else {
-                b = new Buffer();
+                b = new Buffer(pool);
                 try {
                     b.load(input.get());
                 } catch (Throwable t1) {
@@ -342,7 +355,7 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
 
         @Override
         public Buffer allocate() throws IOException {
-            final Buffer b = new Buffer();
+            final Buffer b = new Buffer(outputPool);
             assert 0 == b.readers;
             b.writers = 1;
             return b;
@@ -364,11 +377,12 @@ final class CacheEntry implements Entry, Releasable<IOException>, Flushable, Clo
      */
     private final class Buffer implements IoBuffer {
 
-        private final IoBuffer data = pool.allocate();
+        private final IoBuffer data;
 
         private int readers, writers;
 
-        private Buffer() throws IOException {
+        private Buffer(final IoBufferPool pool) throws IOException {
+            data = pool.allocate();
         }
 
         @Override
@@ -0,0 +1,654 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.impl;
+
+import net.java.truecommons.cio.*;
+import net.java.truecommons.io.AbstractSeekableChannel;
+import net.java.truecommons.io.ChannelInputStream;
+import net.java.truecommons.io.ChannelOutputStream;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static net.java.truecommons.cio.Entry.Access.WRITE;
+
+/**
+ * An I/O buffer which updates the original data of an entry in place by recording only the pages which get written
+ * to it and merging them with the original data upon reading.
+ * So updating a small part of a large entry costs temporary I/O which is proportional to the size of the update
+ * rather than the size of the entry.
+ * <p>
+ * The original data is read by using a seekable byte channel: While a writable channel is open, it keeps the original
+ * data open for reading any partially written pages.
+ * Each input stream or channel opens the original data again for reading the clean pages.
+ * If the original data does not support random access anymore at this time, then its input stream gets read
+ * instead.
+ * If the original data does not support random access, i.e. its input socket throws an
+ * {@link UnsupportedOperationException} upon a call to {@code channel}, or if more than {@value #MAX_PAGES} pages
+ * get written, then the entry data gets copied to a buffer which is allocated from the given pool and all subsequent
+ * writes go to this buffer.
+ * <p>
+ * Note that the original data must not get changed while this buffer is in use and that this buffer supports only a
+ * single writable channel or output stream.
+ *
+ * @author Christian Schlichtherle
+ */
+@NotThreadSafe
+final class CopyOnWriteBuffer implements IoBuffer {
+
+    static final int PAGE_SIZE = 4 * 1024;
+    static final int MAX_PAGES = 4 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String name;
+    private final InputSocket<? extends Entry> original;
+    private final IoBufferPool pool;
+    private final boolean sparse;
+    private final NavigableMap<Long, byte[]> pages = new TreeMap<>();
+
+    /** The size of the entry data. */
+    private long size;
+
+    /** The size of the original data which is still visible. */
+    private long limit;
+
+    private long time = UNKNOWN;
+
+    private Optional<IoBuffer> data = Optional.empty();
+
+    /**
+     * @param name     the name of this buffer.
+     * @param original the input socket for reading the original data.
+     * @param pool     the pool for allocating a buffer if the entry data needs to get copied.
+     * @param sparse   whether or not the original data may be read for merging it with the written pages.
+     *                 If this is {@code false}, then the original data gets copied upon the first write.
+     */
+    CopyOnWriteBuffer(
+            final String name,
+            final InputSocket<? extends Entry> original,
+            final IoBufferPool pool,
+            final boolean sparse) {
+        this.name = name;
+        this.original = original;
+        this.pool = pool;
+        this.sparse = sparse;
+    }
+
+    /**
+     * Returns a pool which allocates copy-on-write buffers for the given original data.
+     */
+    static IoBufferPool pool(
+            final String name,
+            final InputSocket<? extends Entry> original,
+            final IoBufferPool pool,
+            final boolean sparse) {
+        return new IoBufferPool() {
+
+            @Override
+            public IoBuffer allocate() {
+                return new CopyOnWriteBuffer(name, original, pool, sparse);
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getSize(final Size type) {
+        return data.map(d -> d.getSize(type)).orElse(size);
+    }
+
+    @Override
+    public long getTime(final Access type) {
+        return data.map(d -> d.getTime(type)).orElse(WRITE == type ? time : UNKNOWN);
+    }
+
+    @Nullable
+    @Override
+    public Boolean isPermitted(Access type, Entity entity) {
+        return null;
+    }
+
+    @Override
+    public InputSocket<IoBuffer> input() {
+        return new AbstractInputSocket<IoBuffer>() {
+
+            @Override
+            public IoBuffer target() {
+                return CopyOnWriteBuffer.this;
+            }
+
+            @Override
+            public InputStream stream(OutputSocket<? extends Entry> peer) throws IOException {
+                return data.isPresent()
+                        ? data.get().input().stream(peer)
+                        : new ChannelInputStream(channel(peer));
+            }
+
+            @Override
+            public SeekableByteChannel channel(OutputSocket<? extends Entry> peer) throws IOException {
+                return data.isPresent()
+                        ? data.get().input().channel(peer)
+                        : new MergeChannel(0 < limit ? originalChannel() : null);
+            }
+        };
+    }
+
+    @Override
+    public OutputSocket<IoBuffer> output() {
+        return new AbstractOutputSocket<IoBuffer>() {
+
+            @Override
+            public IoBuffer target() {
+                return CopyOnWriteBuffer.this;
+            }
+
+            @Override
+            public OutputStream stream(InputSocket<? extends Entry> peer) throws IOException {
+                return new ChannelOutputStream(channel(peer));
+            }
+
+            @Override
+            public SeekableByteChannel channel(InputSocket<? extends Entry> peer) throws IOException {
+                return new UpdateChannel();
+            }
+        };
+    }
+
+    @Override
+    public void release() throws IOException {
+        pages.clear();
+        if (data.isPresent()) {
+            data.get().release();
+            data = Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a channel for reading the original data.
+     * If the original data does not support random access, then the returned channel reads its input stream.
+     */
+    private SeekableByteChannel originalChannel() throws IOException {
+        try {
+            return original.channel(null);
+        } catch (final UnsupportedOperationException e) {
+            return new StreamChannel();
+        }
+    }
+
+    /**
+     * Reads the entry data at the given position into the given buffer by merging the written pages with the
+     * original data.
+     */
+    private int read(final @CheckForNull SeekableByteChannel in, long pos, final ByteBuffer dst) throws IOException {
+        if (pos >= size) {
+            return -1;
+        }
+        final int start = dst.position();
+        while (dst.hasRemaining() && pos < size) {
+            final long index = pos / PAGE_SIZE;
+            final byte[] page = pages.get(index);
+            final long end;
+            if (null != page) {
+                end = Math.min(Math.min((index + 1) * PAGE_SIZE, size), pos + dst.remaining());
+                dst.put(page, (int) (pos % PAGE_SIZE), (int) (end - pos));
+            } else {
+                final Long next = pages.higherKey(index);
+                long e = Math.min(size, pos + dst.remaining());
+                if (null != next) {
+                    e = Math.min(e, next * PAGE_SIZE);
+                }
+                if (pos < limit) {
+                    assert null != in;
+                    end = Math.min(e, limit);
+                    readFully(in, pos, dst, (int) (end - pos));
+                } else {
+                    end = e;
+                    for (long i = pos; i < end; i++) {
+                        dst.put((byte) 0);
+                    }
+                }
+            }
+            pos = end;
+        }
+        return dst.position() - start;
+    }
+
+    private static void readFully(
+            final SeekableByteChannel in,
+            final long pos,
+            final ByteBuffer dst,
+            final int length)
+            throws IOException {
+        final int limit = dst.limit();
+        dst.limit(dst.position() + length);
+        try {
+            in.position(pos);
+            while (dst.hasRemaining()) {
+                if (0 > in.read(dst)) {
+                    throw new EOFException();
+                }
+            }
+        } finally {
+            dst.limit(limit);
+        }
+    }
+
+    /**
+     * A read-only channel for the original data which reads its input stream.
+     * Positioning backwards reopens the input stream.
+     */
+    private final class StreamChannel extends AbstractSeekableChannel {
+
+        @CheckForNull InputStream in;
+        long streamPos, pos;
+        boolean closed;
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            checkOpen();
+            if (!dst.hasRemaining()) {
+                return 0;
+            }
+            InputStream in = this.in;
+            if (null == in || pos < streamPos) {
+                if (null != in) {
+                    in.close();
+                }
+                this.in = null;
+                in = this.in = original.stream(null);
+                streamPos = 0;
+            }
+            for (; streamPos < pos; ) {
+                final long skipped = in.skip(pos - streamPos);
+                if (0 < skipped) {
+                    streamPos += skipped;
+                } else if (0 > in.read()) {
+                    return -1;
+                } else {
+                    streamPos++;
+                }
+            }
+            final int read;
+            if (dst.hasArray()) {
+                read = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+                if (0 < read) {
+                    dst.position(dst.position() + read);
+                }
+            } else {
+                final byte[] buf = new byte[Math.min(dst.remaining(), BUFFER_SIZE)];
+                read = in.read(buf);
+                if (0 < read) {
+                    dst.put(buf, 0, read);
+                }
+            }
+            if (0 < read) {
+                streamPos += read;
+                pos += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            checkOpen();
+            return pos;
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            checkOpen();
+            if (0 > newPosition) {
+                throw new IllegalArgumentException();
+            }
+            pos = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            checkOpen();
+            return limit;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                final InputStream in = this.in;
+                if (null != in) {
+                    in.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * A read-only channel for the entry data.
+     */
+    private final class MergeChannel extends AbstractSeekableChannel {
+
+        final @CheckForNull SeekableByteChannel in;
+        long pos;
+        boolean closed;
+
+        MergeChannel(final @CheckForNull SeekableByteChannel in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            checkOpen();
+            if (!dst.hasRemaining()) {
+                return 0;
+            }
+            final int read = CopyOnWriteBuffer.this.read(in, pos, dst);
+            if (0 < read) {
+                pos += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            checkOpen();
+            return pos;
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            checkOpen();
+            if (0 > newPosition) {
+                throw new IllegalArgumentException();
+            }
+            pos = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            checkOpen();
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                if (null != in) {
+                    in.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * A write-only channel which records the written pages or writes to the copied entry data.
+     */
+    private final class UpdateChannel extends AbstractSeekableChannel {
+
+        @CheckForNull SeekableByteChannel in, out;
+        long pos;
+        boolean closed;
+
+        UpdateChannel() throws IOException {
+            assert !data.isPresent();
+            boolean copy = !sparse;
+            if (sparse) {
+                try {
+                    in = original.channel(null);
+                } catch (final UnsupportedOperationException e) {
+                    copy = true;
+                } catch (final IOException ignored) {
+                    // There is no need for the original data to be readable or even exist, so this can get safely
+                    // ignored.
+                }
+            }
+            try {
+                if (copy) {
+                    copy();
+                } else if (null != in) {
+                    size = limit = in.size();
+                }
+            } catch (final Throwable t1) {
+                try {
+                    close();
+                    release();
+                } catch (final Throwable t2) {
+                    t1.addSuppressed(t2);
+                }
+                throw t1;
+            }
+        }
+
+        /**
+         * Copies the original data to a buffer allocated from the pool.
+         */
+        void copy() throws IOException {
+            InputStream stream = null;
+            try {
+                stream = original.stream(null);
+            } catch (final IOException ignored) {
+                // There is no need for the original data to be readable or even exist, so this can get safely
+                // ignored.
+            }
+            final byte[] buf = new byte[BUFFER_SIZE];
+            try (InputStream s = stream) {
+                open();
+                if (null != s) {
+                    for (int read; 0 <= (read = s.read(buf)); ) {
+                        final ByteBuffer src = ByteBuffer.wrap(buf, 0, read);
+                        while (src.hasRemaining()) {
+                            out.write(src);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Copies the merged entry data to a buffer allocated from the pool.
+         */
+        void merge() throws IOException {
+            open();
+            final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            for (long p = 0; p < size; ) {
+                buf.clear();
+                p += CopyOnWriteBuffer.this.read(in, p, buf);
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+            }
+            pages.clear();
+            final SeekableByteChannel in = this.in;
+            if (null != in) {
+                this.in = null;
+                in.close();
+            }
+        }
+
+        void open() throws IOException {
+            final IoBuffer buffer = pool.allocate();
+            try {
+                out = buffer.output().channel(null);
+            } catch (final Throwable t1) {
+                try {
+                    buffer.release();
+                } catch (final Throwable t2) {
+                    t1.addSuppressed(t2);
+                }
+                throw t1;
+            }
+            data = Optional.of(buffer);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            throw new NonReadableChannelException();
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            checkOpen();
+            if (null != out) {
+                final int written = out.position(pos).write(src);
+                pos += written;
+                return written;
+            }
+            final int written = src.remaining();
+            while (src.hasRemaining()) {
+                final long index = pos / PAGE_SIZE;
+                final int off = (int) (pos % PAGE_SIZE);
+                final int len = Math.min(src.remaining(), PAGE_SIZE - off);
+                src.get(page(index, 0 == off && PAGE_SIZE == len), off, len);
+                pos += len;
+            }
+            if (size < pos) {
+                size = pos;
+            }
+            if (MAX_PAGES < pages.size()) {
+                merge();
+            }
+            return written;
+        }
+
+        /**
+         * Returns the page with the given index.
+         * Unless it gets written entirely, a clean page gets initialized with the original data.
+         */
+        byte[] page(final long index, final boolean entire) throws IOException {
+            byte[] page = pages.get(index);
+            if (null == page) {
+                page = new byte[PAGE_SIZE];
+                final long pos = index * PAGE_SIZE;
+                if (!entire && pos < limit) {
+                    assert null != in;
+                    readFully(in, pos, ByteBuffer.wrap(page), (int) Math.min(PAGE_SIZE, limit - pos));
+                }
+                pages.put(index, page);
+            }
+            return page;
+        }
+
+        @Override
+        public long position() throws IOException {
+            checkOpen();
+            return pos;
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            checkOpen();
+            if (0 > newPosition) {
+                throw new IllegalArgumentException();
+            }
+            pos = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            checkOpen();
+            return null != out ? out.size() : size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long newSize) throws IOException {
+            checkOpen();
+            if (0 > newSize) {
+                throw new IllegalArgumentException();
+            }
+            if (null != out) {
+                out.truncate(newSize);
+            } else if (newSize < size) {
+                size = newSize;
+                if (newSize < limit) {
+                    limit = newSize;
+                }
+                pages.tailMap((newSize + PAGE_SIZE - 1) / PAGE_SIZE, true).clear();
+                final byte[] page = pages.get(newSize / PAGE_SIZE);
+                if (null != page) {
+                    Arrays.fill(page, (int) (newSize % PAGE_SIZE), PAGE_SIZE, (byte) 0);
+                }
+            }
+            if (pos > newSize) {
+                pos = newSize;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                time = System.currentTimeMillis();
+                final SeekableByteChannel in = this.in, out = this.out;
+                try {
+                    if (null != in) {
+                        in.close();
+                    }
+                } finally {
+                    if (null != out) {
+                        size = out.size();
+                        out.close();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -34,6 +34,11 @@ final class DefaultManager extends FsAbstractManager implements ReentrantReadWri
      */
     private final Map<FsMountPoint, Link<FsController>> controllers = new WeakHashMap<>();
 
+    /**
+     * The cache of the false positive archive files which have been detected by the controllers of this manager.
+     */
+    private final FalsePositiveCache falsePositives = new FalsePositiveCache();
+
     private final ShutdownFuse syncOnShutdown = new ShutdownFuse(() -> {
         try {
             new FsSync().manager(this).options(FsSyncOptions.UMOUNT).run();
@@ -145,7 +150,7 @@ final class DefaultManager extends FsAbstractManager implements ReentrantReadWri
      * A model which schedules its controller for synchronization by observing its property {@code mounted} - see method
      * {@code sync(BitField)}.
      */
-    private final class ManagedModel extends FsDecoratingModel {
+    private final class ManagedModel extends FsDecoratingModel implements FalsePositiveCache.Provider {
 
         FsController _controller;
 
@@ -160,6 +165,11 @@ final class DefaultManager extends FsAbstractManager implements ReentrantReadWri
             schedule(false);
         }
 
+        @Override
+        public FalsePositiveCache getFalsePositiveCache() {
+            return falsePositives;
+        }
+
         /**
          * Schedules the file system controller for synchronization according to the given mount status.
          */
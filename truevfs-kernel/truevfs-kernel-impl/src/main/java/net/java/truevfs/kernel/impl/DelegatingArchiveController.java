@@ -40,6 +40,11 @@ interface DelegatingArchiveController<E extends FsArchiveEntry> extends ArchiveC
         return getController().node(options, name);
     }
 
+    @Override
+    default Optional<Map<String, FsNode>> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return getController().nodes(options, name);
+    }
+
     @Override
     default void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         getController().checkAccess(options, name, types);
@@ -84,4 +89,9 @@ interface DelegatingArchiveController<E extends FsArchiveEntry> extends ArchiveC
     default void sync(BitField<FsSyncOption> options) throws FsSyncException {
         getController().sync(options);
     }
+
+    @Override
+    default FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return getController().snapshot(options);
+    }
 }
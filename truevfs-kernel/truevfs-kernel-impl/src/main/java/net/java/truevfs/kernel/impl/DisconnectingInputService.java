@@ -10,12 +10,15 @@ import net.java.truecommons.io.ClosedInputException;
 import net.java.truecommons.io.ClosedStreamException;
 import net.java.truecommons.io.DisconnectingInputStream;
 import net.java.truecommons.io.DisconnectingSeekableChannel;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
 
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 
 /**
@@ -127,12 +130,20 @@ final class DisconnectingInputService<E extends Entry> extends DecoratingInputSe
         };
     }
 
-    private final class DisconnectingInputStreamImpl extends DisconnectingInputStream {
+    private final class DisconnectingInputStreamImpl extends DisconnectingInputStream implements ChannelInput {
 
         DisconnectingInputStreamImpl(@WillCloseWhenClosed InputStream in) {
             super(in);
         }
 
+        @Override
+        public long transferTo(WritableByteChannel target) throws IOException {
+            checkOpen();
+            return in instanceof ChannelInput
+                    ? ((ChannelInput) in).transferTo(target)
+                    : ChannelTransfers.transfer(in, target);
+        }
+
         @Override
         public boolean isOpen() {
             return cc.isOpen();
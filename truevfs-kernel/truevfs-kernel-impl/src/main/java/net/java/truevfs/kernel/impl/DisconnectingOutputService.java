@@ -10,6 +10,8 @@ import net.java.truecommons.io.ClosedOutputException;
 import net.java.truecommons.io.ClosedStreamException;
 import net.java.truecommons.io.DisconnectingOutputStream;
 import net.java.truecommons.io.DisconnectingSeekableChannel;
+import net.java.truevfs.kernel.spec.cio.ChannelInput;
+import net.java.truevfs.kernel.spec.cio.ChannelOutput;
 
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -127,12 +129,18 @@ final class DisconnectingOutputService<E extends Entry> extends DecoratingOutput
         };
     }
 
-    private final class DisconnectingOutputStreamImpl extends DisconnectingOutputStream {
+    private final class DisconnectingOutputStreamImpl extends DisconnectingOutputStream implements ChannelOutput {
 
         DisconnectingOutputStreamImpl(@WillCloseWhenClosed OutputStream out) {
             super(out);
         }
 
+        @Override
+        public long transferFrom(ChannelInput input) throws IOException {
+            checkOpen();
+            return out instanceof ChannelOutput ? ((ChannelOutput) out).transferFrom(input) : -1;
+        }
+
         @Override
         public boolean isOpen() {
             return cc.isOpen();
@@ -84,6 +84,12 @@ abstract class FalsePositiveArchiveController implements FsDelegatingController
         return apply(name, (c, n) -> c.node(options, n));
     }
 
+    @CheckForNull
+    @Override
+    public Map<String, FsNode> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return apply(name, (c, n) -> c.nodes(options, n));
+    }
+
     @Override
     public void checkAccess(
             BitField<FsAccessOption> options,
@@ -241,6 +247,16 @@ abstract class FalsePositiveArchiveController implements FsDelegatingController
         state = tryChild;
     }
 
+    @Override
+    public FsController snapshot(final BitField<FsAccessOption> options) throws IOException {
+        try {
+            return getController().snapshot(options);
+        } catch (final FalsePositiveArchiveException e) {
+            // There is no archive file system to take a snapshot of.
+            throw e.getCause();
+        }
+    }
+
     private <T> T apply(final FsNodeName name, final Op<T> op) throws IOException {
         State state = this.state;
         try {
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.impl;
+
+import net.java.truevfs.kernel.spec.FsModel;
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.FsNode;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.java.truecommons.cio.Entry.Access.WRITE;
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truecommons.cio.Entry.UNKNOWN;
+
+/**
+ * A bounded cache of the false positive archive files which have been detected by the controllers of a file system
+ * manager.
+ * Unlike the state of a {@link FalsePositiveArchiveController}, this cache survives the controller, so that a plain
+ * file with an archive file extension does not need to get mounted again after its controller has been garbage
+ * collected or evicted.
+ * <p>
+ * The entries are keyed by the mount point of the false positive archive file and get validated by the size and last
+ * modification time of its node in the parent file system.
+ * If any of these properties is unknown, then the false positive archive file does not get cached.
+ * <p>
+ * Only persistent failures should get cached, see {@link net.java.truevfs.kernel.spec.FsArchiveDriver#isPersistentFalsePositive}.
+ * Still, an entry gets removed when the controller for its mount point gets synced, so that mounting the archive file
+ * gets retried then.
+ *
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class FalsePositiveCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private final Lock lock = new ReentrantLock();
+
+    @GuardedBy("lock")
+    private final Map<FsMountPoint, CachedResult> entries = new LinkedHashMap<FsMountPoint, CachedResult>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 0;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FsMountPoint, CachedResult> eldest) {
+            return MAX_ENTRIES < size();
+        }
+    };
+
+    /**
+     * Returns the false positive cache of the file system manager which has created the given model, if any.
+     */
+    static Optional<FalsePositiveCache> of(FsModel model) {
+        return model instanceof Provider
+                ? Optional.of(((Provider) model).getFalsePositiveCache())
+                : Optional.empty();
+    }
+
+    /**
+     * Returns a copy of the exception which has been thrown when mounting the archive file with the given mount point,
+     * provided that its given node in the parent file system has not changed since.
+     */
+    Optional<IOException> get(final FsMountPoint mountPoint, final FsNode node) {
+        final CachedResult result;
+        lock.lock();
+        try {
+            result = entries.get(mountPoint);
+        } finally {
+            lock.unlock();
+        }
+        if (null == result) {
+            return Optional.empty();
+        }
+        if (result.size == node.getSize(DATA) && result.time == node.getTime(WRITE)) {
+            return Optional.of(copy(result.cause));
+        }
+        lock.lock();
+        try {
+            entries.remove(mountPoint, result);
+        } finally {
+            lock.unlock();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Remembers that mounting the archive file with the given mount point and the given node in the parent file system
+     * has failed with the given exception.
+     */
+    void put(final FsMountPoint mountPoint, final FsNode node, final IOException cause) {
+        final long size = node.getSize(DATA);
+        final long time = node.getTime(WRITE);
+        if (UNKNOWN == size || UNKNOWN == time) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.put(mountPoint, new CachedResult(size, time, cause));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the result of mounting the archive file with the given mount point, if any.
+     */
+    void remove(final FsMountPoint mountPoint) {
+        lock.lock();
+        try {
+            entries.remove(mountPoint);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a new exception of the same type and with the same message as the given exception and with the given
+     * exception as its cause, so that the cached exception does not get thrown (and modified) more than once.
+     * If the type of the given exception has no public constructor with a single string parameter, then the given
+     * exception gets returned.
+     */
+    private static IOException copy(final IOException ex) {
+        try {
+            final IOException copy = ex.getClass().getConstructor(String.class).newInstance(ex.getMessage());
+            copy.initCause(ex);
+            return copy;
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            return ex;
+        }
+    }
+
+    /**
+     * A mixin for file system models which provides the false positive cache of their file system manager.
+     */
+    interface Provider {
+
+        FalsePositiveCache getFalsePositiveCache();
+    }
+
+    /**
+     * The result of mounting a false positive archive file with the properties of its node for validation.
+     */
+    private static final class CachedResult {
+
+        final long size, time;
+        final IOException cause;
+
+        CachedResult(final long size, final long time, final IOException cause) {
+            this.size = size;
+            this.time = time;
+            this.cause = cause;
+        }
+    }
+}
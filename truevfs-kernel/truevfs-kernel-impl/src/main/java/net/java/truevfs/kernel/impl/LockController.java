@@ -53,6 +53,17 @@ abstract class LockController<E extends FsArchiveEntry> implements DelegatingArc
         });
     }
 
+    @Override
+    public Optional<Map<String, FsNode>> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return timedReadOrWriteLocked(new Op<Optional<Map<String, FsNode>>, IOException>() {
+
+            @Override
+            public Optional<Map<String, FsNode>> call() throws IOException {
+                return getController().nodes(options, name);
+            }
+        });
+    }
+
     @Override
     public void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         timedReadOrWriteLocked(new Op<Void, IOException>() {
@@ -215,6 +226,17 @@ abstract class LockController<E extends FsArchiveEntry> implements DelegatingArc
         });
     }
 
+    @Override
+    public FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return timedReadOrWriteLocked(new Op<FsController, IOException>() {
+
+            @Override
+            public FsController call() throws IOException {
+                return getController().snapshot(options);
+            }
+        });
+    }
+
     private <T> T timedReadOrWriteLocked(final Op<T, IOException> op) throws IOException {
         try {
             return timedLocked.using(readLock()).call(op);
@@ -7,7 +7,6 @@ package net.java.truevfs.kernel.impl;
 import lombok.val;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -65,22 +64,22 @@ enum LockingStrategy {
 
     private static final int arbitrateMaxMillis = 100;
     static final int acquireTimeoutMillis = arbitrateMaxMillis;
-    private static final ThreadLocal<Account> accounts =
-            ThreadLocal.withInitial(() -> new Account(ThreadLocalRandom.current()));
 
-    private static class Account {
+    /**
+     * The account of the current thread.
+     * Like a scoped value, the account is only present while the current thread executes the outermost call to
+     * {@link Using#call(Op)}, so that threads which are not holding any locks, e.g. a large number of virtual threads,
+     * do not retain any state.
+     */
+    private static final ThreadLocal<Account> accounts = new ThreadLocal<>();
 
-        private final Random rnd;
+    private static class Account {
 
         private int lockCount;
 
-        Account(final Random rnd) {
-            this.rnd = rnd;
-        }
-
         void arbitrate() {
             try {
-                Thread.sleep(1 + rnd.nextInt(arbitrateMaxMillis));
+                Thread.sleep(1 + ThreadLocalRandom.current().nextInt(arbitrateMaxMillis));
             } catch (InterruptedException ignored) {
                 Thread.currentThread().interrupt(); // restore
             }
@@ -88,7 +87,8 @@ enum LockingStrategy {
     }
 
     static int lockCount() {
-        return accounts.get().lockCount;
+        val account = accounts.get();
+        return null != account ? account.lockCount : 0;
     }
 
     abstract void acquire(Lock lock);
@@ -123,7 +123,7 @@ enum LockingStrategy {
             @Override
             public <T, X extends Exception> T call(final Op<T, X> op) throws X {
                 val account = accounts.get();
-                if (0 < account.lockCount) {
+                if (null != account && 0 < account.lockCount) {
                     acquire(lock);
                     account.lockCount += 1;
                     try {
@@ -133,19 +133,21 @@ enum LockingStrategy {
                         lock.unlock();
                     }
                 } else {
+                    val newAccount = new Account();
+                    accounts.set(newAccount);
                     try {
                         while (true) {
                             try {
                                 lock.lock();
-                                account.lockCount += 1;
+                                newAccount.lockCount += 1;
                                 try {
                                     return op.call();
                                 } finally {
-                                    account.lockCount -= 1;
+                                    newAccount.lockCount -= 1;
                                     lock.unlock();
                                 }
                             } catch (NeedsLockRetryException e) {
-                                account.arbitrate();
+                                newAccount.arbitrate();
                             }
                         }
                     } finally {
@@ -7,7 +7,6 @@
  import lombok.Value;
  import lombok.val;
  import net.java.truecommons.shed.ExceptionHandler;
- import net.java.truecommons.shed.HashMaps;
 
  import javax.annotation.WillCloseWhenClosed;
  import javax.annotation.WillNotClose;
@@ -16,6 +15,7 @@
  import java.io.IOException;
  import java.util.Map;
  import java.util.concurrent.ConcurrentHashMap;
+ import java.util.concurrent.ConcurrentMap;
  import java.util.concurrent.TimeUnit;
  import java.util.concurrent.locks.Condition;
  import java.util.concurrent.locks.Lock;
@@ -45,24 +45,11 @@
      }
 
      /**
-      * The map of all accounted closeable resources.
-      * The initial capacity for the hash map accounts for the number of available processors, a 90% blocking factor for
-      * typical I/O and a 2/3 map resize threshold.
+      * The map of the closeable resources accounted for by this accountant to their owner threads.
+      * Each accountant has its own map, so that computing its {@link #resources()} does not need to scan the
+      * resources of all other accountants, which matters when many (virtual) threads access many archive files.
       */
-     private static final Map<Closeable, Account> accounts;
-
-     static {
-         val threads = Runtime.getRuntime().availableProcessors() * 10;
-         val initialCapacity = HashMaps.initialCapacity(threads);
-         accounts = new ConcurrentHashMap<>(initialCapacity, 0.75f, threads);
-     }
-
-     @Value
-     private static class Account {
-
-         Thread owner = Thread.currentThread();
-         ResourceAccountant accountant;
-     }
+     private final ConcurrentMap<Closeable, Thread> accounts = new ConcurrentHashMap<>();
 
      @Value
      static class Resources {
@@ -88,7 +75,7 @@
       * @param resource the closeable resource to start accounting for.
       */
      void startAccountingFor(@WillCloseWhenClosed Closeable resource) {
-         accounts.put(resource, new Account(this));
+         accounts.put(resource, Thread.currentThread());
      }
 
      /**
@@ -172,13 +159,11 @@
          val currentThread = Thread.currentThread();
          int local = 0;
          int total = 0;
-         for (final Account account : accounts.values()) {
-             if (this.equals(account.getAccountant())) {
-                 if (currentThread.equals(account.getOwner())) {
-                     local += 1;
-                 }
-                 total += 1;
+         for (final Thread owner : accounts.values()) {
+             if (currentThread.equals(owner)) {
+                 local += 1;
              }
+             total += 1;
          }
          return new Resources(local, total);
      }
@@ -192,20 +177,17 @@
          assert null != handler;
          lock.lock();
          try {
-             for (final Map.Entry<Closeable, Account> entry : accounts.entrySet()) {
-                 val account = entry.getValue();
-                 if (this.equals(account.getAccountant())) {
-                     val closeable = entry.getKey();
-                     accounts.remove(closeable);
-                     try {
-                         // This should trigger an attempt to remove the closeable from the
-                         // map, but it can cause no ConcurrentModificationException because
-                         // the entry is already removed and a ConcurrentHashMap doesn't do
-                         // that anyway.
-                         closeable.close();
-                     } catch (IOException e) {
-                         handler.warn(e); // may throw an exception!
-                     }
+             for (final Map.Entry<Closeable, Thread> entry : accounts.entrySet()) {
+                 val closeable = entry.getKey();
+                 accounts.remove(closeable);
+                 try {
+                     // This should trigger an attempt to remove the closeable from the
+                     // map, but it can cause no ConcurrentModificationException because
+                     // the entry is already removed and a ConcurrentHashMap doesn't do
+                     // that anyway.
+                     closeable.close();
+                 } catch (IOException e) {
+                     handler.warn(e); // may throw an exception!
                  }
              }
          } finally {
@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.impl;
+
+import lombok.val;
+import net.java.truecommons.cio.*;
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.kernel.spec.*;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+import static net.java.truecommons.cio.Entry.Type.FILE;
+
+/**
+ * A read-only snapshot of an archive file system.
+ * <p>
+ * The snapshot owns a separate input service for the target archive file and a separate archive file system which has
+ * been populated from it, so it doesn't share any state with the controller chain of the archive file system it has
+ * been taken from.
+ * In particular, it never acquires the lock of the archive file system.
+ * Input services do not need to be thread-safe however, so reading entry data is still serialized by a lock which is
+ * private to this snapshot.
+ *
+ * @param <E> the type of the archive entries.
+ * @author Christian Schlichtherle
+ * @see FsController#snapshot(BitField)
+ */
+@ThreadSafe
+final class SnapshotController<E extends FsArchiveEntry> extends FsAbstractController {
+
+    private final FsController parent;
+    private final ArchiveFileSystem<E> fs;
+    private final LockInputService<E> input;
+    private final Optional<IoBuffer> buffer;
+    private final Consumer<? super SnapshotController<E>> release;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    /**
+     * Constructs a new snapshot.
+     *
+     * @param driver       the archive driver.
+     * @param model        the file system model of the archive file system.
+     * @param parent       the controller for the parent file system.
+     * @param input        the input service for the target archive file.
+     * @param rootTemplate the template for the root entry, i.e. the node of the target archive file in the parent file
+     *                     system.
+     * @param buffer       the optional buffer with a copy of the target archive file which gets read by the input
+     *                     service.
+     * @param release      the callback to call with this snapshot when it gets released.
+     */
+    SnapshotController(
+            final FsArchiveDriver<E> driver,
+            final FsModel model,
+            final FsController parent,
+            final @WillCloseWhenClosed InputService<E> input,
+            final Entry rootTemplate,
+            final Optional<IoBuffer> buffer,
+            final Consumer<? super SnapshotController<E>> release
+    ) {
+        super(model);
+        this.parent = requireNonNull(parent);
+        this.input = new LockInputService<>(new DisconnectingInputService<>(input));
+        this.buffer = requireNonNull(buffer);
+        this.release = requireNonNull(release);
+        this.fs = ArchiveFileSystem.apply(new ArchiveModel<E>(driver, model) {
+
+            @Override
+            void touch(BitField<FsAccessOption> options) throws IOException {
+                throw new FsReadOnlyFileSystemException(getMountPoint());
+            }
+        }, input, rootTemplate, Optional.of(() -> null));
+    }
+
+    @Override
+    public FsController getParent() {
+        return parent;
+    }
+
+    private String fullPath(FsNodeName name) {
+        return new FsNodePath(getMountPoint(), name).toString();
+    }
+
+    @CheckForNull
+    @Override
+    public FsNode node(BitField<FsAccessOption> options, FsNodeName name) {
+        return fs.node(options, name).orElse(null);
+    }
+
+    @CheckForNull
+    @Override
+    public Map<String, FsNode> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return fs.nodes(options, name).orElse(null);
+    }
+
+    @Override
+    public void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
+        fs.checkAccess(options, name, types);
+    }
+
+    @Override
+    public void setReadOnly(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        fs.setReadOnly(options, name);
+    }
+
+    @Override
+    public boolean setTime(BitField<FsAccessOption> options, FsNodeName name, Map<Entry.Access, Long> times) throws IOException {
+        return fs.setTime(options, name, times);
+    }
+
+    @Override
+    public boolean setTime(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types, long value) throws IOException {
+        return fs.setTime(options, name, types, value);
+    }
+
+    @Override
+    public InputSocket<? extends Entry> input(final BitField<FsAccessOption> options, final FsNodeName name) {
+        requireNonNull(options);
+        requireNonNull(name);
+
+        return new AbstractInputSocket<E>() {
+
+            @Override
+            public E target() throws IOException {
+                val optNode = fs.node(options, name);
+                if (optNode.isPresent()) {
+                    val node = optNode.get();
+                    val ae = node.get(FILE);
+                    if (null == ae) {
+                        throw new FileSystemException(fullPath(name), null,
+                                "Expected a FILE entry, but is a " + node.getTypes() + " entry!");
+                    }
+                    return ae;
+                }
+                throw new NoSuchFileException(fullPath(name));
+            }
+
+            @Override
+            public InputStream stream(OutputSocket<? extends Entry> peer) throws IOException {
+                return input.input(target().getName()).stream(peer);
+            }
+
+            @Override
+            public SeekableByteChannel channel(OutputSocket<? extends Entry> peer) throws IOException {
+                return input.input(target().getName()).channel(peer);
+            }
+        };
+    }
+
+    @Override
+    public OutputSocket<? extends Entry> output(BitField<FsAccessOption> options, FsNodeName name, @CheckForNull Entry template) {
+        return new AbstractOutputSocket<Entry>() {
+
+            @Override
+            public Entry target() throws IOException {
+                throw new FsReadOnlyFileSystemException(getMountPoint());
+            }
+
+            @Override
+            public OutputStream stream(InputSocket<? extends Entry> peer) throws IOException {
+                throw new FsReadOnlyFileSystemException(getMountPoint());
+            }
+
+            @Override
+            public SeekableByteChannel channel(InputSocket<? extends Entry> peer) throws IOException {
+                throw new FsReadOnlyFileSystemException(getMountPoint());
+            }
+        };
+    }
+
+    @Override
+    public void make(BitField<FsAccessOption> options, FsNodeName name, Entry.Type type, @CheckForNull Entry template) throws IOException {
+        fs.make(options, name, type, Optional.ofNullable(template));
+    }
+
+    @Override
+    public void unlink(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        fs.unlink(options, name);
+    }
+
+    /**
+     * Closes the input service and releases the buffer, if any.
+     * Subsequent calls have no effect.
+     */
+    @Override
+    public void sync(final BitField<FsSyncOption> options) throws FsSyncException {
+        if (!open.compareAndSet(true, false)) {
+            return;
+        }
+        val builder = new FsSyncExceptionBuilder();
+        try {
+            input.close();
+        } catch (IOException e) {
+            builder.warn(new FsSyncWarningException(getMountPoint(), e));
+        }
+        if (buffer.isPresent()) {
+            try {
+                buffer.get().release();
+            } catch (IOException e) {
+                builder.warn(new FsSyncWarningException(getMountPoint(), e));
+            }
+        }
+        release.accept(this);
+        builder.check();
+    }
+}
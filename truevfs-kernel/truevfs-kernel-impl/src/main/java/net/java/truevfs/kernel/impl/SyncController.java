@@ -53,6 +53,17 @@ abstract class SyncController<E extends FsArchiveEntry> implements DelegatingArc
         });
     }
 
+    @Override
+    public Optional<Map<String, FsNode>> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return apply(new Op<Optional<Map<String, FsNode>>, IOException>() {
+
+            @Override
+            public Optional<Map<String, FsNode>> call() throws IOException {
+                return getController().nodes(options, name);
+            }
+        });
+    }
+
     @Override
     public void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Entry.Access> types) throws IOException {
         apply(new Op<Void, IOException>() {
@@ -210,6 +221,17 @@ abstract class SyncController<E extends FsArchiveEntry> implements DelegatingArc
         });
     }
 
+    @Override
+    public FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return apply(new Op<FsController, IOException>() {
+
+            @Override
+            public FsController call() throws IOException {
+                return getController().snapshot(options);
+            }
+        });
+    }
+
     /**
      * Syncs the super class controller if needed and applies the given file system operation.
      *
@@ -13,6 +13,7 @@ import net.java.truecommons.io.ClosedOutputException;
 import net.java.truecommons.shed.BitField;
 import net.java.truecommons.shed.ControlFlowException;
 import net.java.truevfs.kernel.spec.*;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -20,10 +21,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
 import java.nio.file.NoSuchFileException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static bali.CachingStrategy.NOT_THREAD_SAFE;
@@ -35,7 +40,9 @@ import static net.java.truecommons.cio.Entry.Type.DIRECTORY;
 import static net.java.truecommons.cio.Entry.Type.SPECIAL;
 import static net.java.truecommons.cio.Entry.UNKNOWN;
 import static net.java.truevfs.kernel.spec.FsAccessOption.CACHE;
+import static net.java.truevfs.kernel.spec.FsAccessOption.DEFER;
 import static net.java.truevfs.kernel.spec.FsAccessOption.GROW;
+import static net.java.truevfs.kernel.spec.FsAccessOption.SUPERSEDE;
 import static net.java.truevfs.kernel.spec.FsAccessOptions.ACCESS_PREFERENCES_MASK;
 import static net.java.truevfs.kernel.spec.FsSyncOption.ABORT_CHANGES;
 
@@ -56,6 +63,15 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
     private static final BitField<FsAccessOption> MOUNT_OPTIONS = BitField.of(CACHE);
     private static final BitField<Entry.Access> WRITE_ACCESS = BitField.of(WRITE);
 
+    /**
+     * Whether or not the platform file system keeps the contents of an open file when it gets replaced by moving
+     * another file over it.
+     * This is the case for POSIX file systems.
+     * Otherwise, e.g. on Windows, moving the file may fail, in which case the file system driver falls back to
+     * overwriting the file in place.
+     */
+    private static final boolean REPLACES_OPEN_FILES = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
     /**
      * The (possibly cached) {@link InputArchive} which is used to mount the (virtual) archive file system and read the
      * entries from the target archive file.
@@ -67,12 +83,30 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
      */
     private Optional<OutputArchive<E>> _outputArchive = Optional.empty();
 
+    /**
+     * The options for creating the {@link OutputArchive} when the archive file system has been touched with the
+     * {@link FsAccessOption#DEFER} option, but the output archive has not yet been created.
+     */
+    private Optional<BitField<FsAccessOption>> _deferredOutputOptions = Optional.empty();
+
+    /**
+     * The open snapshots which read the target archive file in place.
+     * While this is not empty, the target archive file must not {@linkplain FsAccessOption#GROW grow} in place
+     * because the snapshots would see the changes.
+     * It gets replaced by a new file instead.
+     * The snapshots are weakly referenced, so that a snapshot which has been discarded without getting synced does
+     * not disable growing forever.
+     */
+    private final Set<SnapshotController<?>> _snapshots = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
     private boolean invariants() {
         assert getModel().getParent() == getParent().getModel();
         val fs = getFileSystem();
         assert !_inputArchive.isPresent() || fs.isPresent();
         assert !_outputArchive.isPresent() || fs.isPresent();
-        assert !fs.isPresent() || _inputArchive.isPresent() || _outputArchive.isPresent();
+        assert !_deferredOutputOptions.isPresent() || fs.isPresent() && !_outputArchive.isPresent();
+        assert !fs.isPresent() || _inputArchive.isPresent() || _outputArchive.isPresent()
+                || _deferredOutputOptions.isPresent();
         return true;
     }
 
@@ -99,6 +133,15 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         return path.getNodeName();
     }
 
+    /**
+     * The cache of the false positive archive files which have been detected by the controllers of the file system
+     * manager, if any.
+     */
+    @Cache(NOT_THREAD_SAFE)
+    Optional<FalsePositiveCache> getFalsePositiveCache() {
+        return FalsePositiveCache.of(getUnderlyingModel());
+    }
+
     private Optional<InputArchive<E>> getInputArchive() {
         if (_inputArchive.isPresent() && !_inputArchive.get().isOpen()) {
             throw NeedsSyncException.apply();
@@ -156,12 +199,19 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
             if (autoCreate) {
                 // This may fail e.g. if the container file is a RAES encrypted ZIP file and the user cancels password
                 // prompting:
-                outputArchive(options);
+                touchOutputArchive(options);
                 fs = ArchiveFileSystem.apply(getModel());
             } else {
                 throw new FalsePositiveArchiveException(new NoSuchFileException(getName().toString()));
             }
         } else {
+            // Don't try to mount a known false positive archive file again, e.g. after its previous controller has
+            // been garbage collected:
+            val cause = getFalsePositiveCache().flatMap(c -> c.get(getMountPoint(), pn));
+            if (cause.isPresent()) {
+                throw new PersistentFalsePositiveArchiveException(cause.get());
+            }
+
             // ro must be init first because the parent filesystem controller could be a
             // net.java.truevfs.driver.file.FileController and then on Windoze this property changes to `TRUE` once the
             // file is opened for reading!
@@ -177,6 +227,9 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
                 if (pn.isType(SPECIAL)) {
                     throw new FalsePositiveArchiveException(e);
                 } else {
+                    if (getDriver().isPersistentFalsePositive(e)) {
+                        getFalsePositiveCache().ifPresent(c -> c.put(getMountPoint(), pn, e));
+                    }
                     throw new PersistentFalsePositiveArchiveException(e);
                 }
             }
@@ -199,6 +252,21 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         }
     }
 
+    /**
+     * Ensures that `outputArchive` is not empty unless the {@link FsAccessOption#DEFER} option is set, in which case
+     * creating it is deferred until the output archive is required for writing entry data or syncing.
+     */
+    private void touchOutputArchive(final BitField<FsAccessOption> options) throws IOException {
+        if (options.get(DEFER) && !getOutputArchive().isPresent()) {
+            if (!_deferredOutputOptions.isPresent()) {
+                _deferredOutputOptions = Optional.of(options);
+                setMounted(true);
+            }
+        } else {
+            outputArchive(options);
+        }
+    }
+
     /**
      * Ensures that `outputArchive` is not empty.
      *
@@ -210,17 +278,19 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
             return getOutputArchive().get();
         }
         val is = getInputArchive().map(InputArchive::getDriverProduct).orElse(null);
+        val grow = options.get(GROW) && _snapshots.isEmpty();
         final OutputService<E> os;
         try {
-            os = getDriver().newOutput(getModel(), options.and(ACCESS_PREFERENCES_MASK).set(CACHE), getParent(), getName(), is);
+            os = getDriver().newOutput(getModel(), options.and(ACCESS_PREFERENCES_MASK).set(CACHE).set(GROW, grow), getParent(), getName(), is);
         } catch (FalsePositiveArchiveException e) {
             throw new AssertionError(e);
         } catch (final ControlFlowException e) {
             assert e instanceof NeedsLockRetryException : e;
             throw e;
         }
-        val oa = new OutputArchive<>(os);
+        val oa = new OutputArchive<>(os, grow);
         setOutputArchive(Optional.of(oa));
+        _deferredOutputOptions = Optional.empty();
         assert isMounted();
         return oa;
     }
@@ -319,9 +389,18 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
 
     @Override
     public void sync(final BitField<FsSyncOption> options) throws FsSyncException {
+        // Retry mounting a false positive archive file after this sync:
+        getFalsePositiveCache().ifPresent(c -> c.remove(getMountPoint()));
         try {
             val builder = new FsSyncExceptionBuilder();
             if (!options.get(ABORT_CHANGES)) {
+                if (_deferredOutputOptions.isPresent()) {
+                    try {
+                        outputArchive(_deferredOutputOptions.get());
+                    } catch (IOException e) {
+                        throw builder.fail(new FsSyncException(getMountPoint(), e));
+                    }
+                }
                 copy(builder);
             }
             close(options, builder);
@@ -376,7 +455,7 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
                                 }
                             }
                         } else if (null != is.entry(aen)) {
-                            IoSockets.copy(is.input(aen), os.output(ae));
+                            ChannelTransfers.copy(is.input(aen), os.output(ae));
                         } else {
                             // The file system entry is a newly created
                             // non-directory entry which hasn't received any
@@ -436,6 +515,7 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
             setOutputArchive(Optional.empty());
         }
 
+        _deferredOutputOptions = Optional.empty();
         setFileSystem(Optional.empty());
 
         if (options.get(ABORT_CHANGES)) {
@@ -443,6 +523,87 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         }
     }
 
+    @Override
+    public FsController snapshot(final BitField<FsAccessOption> options) throws IOException {
+        // HC SVNT DRACONES!
+
+        // Any changes need to get committed to the target archive file first.
+        if (getOutputArchive().isPresent() || _deferredOutputOptions.isPresent()) {
+            throw NeedsSyncException.apply();
+        }
+
+        // Check parent file system node.
+        final FsNode pn;
+        try {
+            pn = getParent().node(options, getName());
+        } catch (FalsePositiveArchiveException e) {
+            throw new AssertionError(e);
+        }
+        if (null == pn) {
+            throw new FalsePositiveArchiveException(new NoSuchFileException(getName().toString()));
+        }
+
+        // Read the target archive file from a private copy unless the parent file system is a platform file system
+        // which keeps the contents of an open file when it gets replaced.
+        // The file system driver replaces files by moving a temporary file over them, so an open file keeps its
+        // contents when the target archive file gets updated later.
+        // Otherwise, the file system driver may fall back to overwriting the target archive file in place.
+        // In contrast, an archive entry in a parent archive file can only get read until the parent archive file gets
+        // synced.
+        // While the snapshot reads the target archive file in place, it must not grow in place - see `grow`.
+        final Optional<IoBuffer> buffer;
+        final FsController controller;
+        final boolean inPlace = REPLACES_OPEN_FILES && isPlatformFile();
+        if (inPlace) {
+            buffer = Optional.empty();
+            controller = getParent();
+        } else {
+            val b = getDriver().getPool().allocate();
+            buffer = Optional.of(b);
+            controller = new FsDecoratingController(getParent()) {
+
+                @Override
+                public InputSocket<? extends Entry> input(BitField<FsAccessOption> options, FsNodeName name) {
+                    return b.input();
+                }
+            };
+        }
+        try {
+            if (buffer.isPresent()) {
+                IoSockets.copy(getParent().input(options, getName()), buffer.get().output());
+            }
+            final InputService<E> is;
+            try {
+                is = getDriver().newInput(getModel(), MOUNT_OPTIONS, controller, getName());
+            } catch (FalsePositiveArchiveException e) {
+                throw new AssertionError(e);
+            } catch (IOException e) {
+                throw new FalsePositiveArchiveException(e);
+            }
+            final Consumer<SnapshotController<?>> release = inPlace ? _snapshots::remove : snapshot -> { };
+            val snapshot = new SnapshotController<>(getDriver(), getUnderlyingModel(), getParent(), is, pn, buffer, release);
+            if (inPlace) {
+                _snapshots.add(snapshot);
+            }
+            return snapshot;
+        } catch (final Throwable t1) {
+            if (buffer.isPresent()) {
+                try {
+                    buffer.get().release();
+                } catch (final Throwable t2) {
+                    t1.addSuppressed(t2);
+                }
+            }
+            throw t1;
+        }
+    }
+
+    private boolean isPlatformFile() {
+        val parent = getMountPoint().getParent();
+        assert null != parent;
+        return null == parent.getParent() && "file".equalsIgnoreCase(parent.getScheme().toString());
+    }
+
     @Override
     void checkSync(final BitField<FsAccessOption> options, final FsNodeName name, final Entry.Access intention) throws NeedsSyncException {
         // HC SVNT DRACONES!
@@ -454,7 +615,7 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         val fs = getFileSystem().get();
 
         // If GROWing and the driver supports the respective access method, then pass the test.
-        if (options.get(GROW)) {
+        if (grow(options)) {
             switch (intention) {
                 case READ:
                     break;
@@ -490,6 +651,13 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         if (getOutputArchive().isPresent()) {
             val oa = getOutputArchive().get();
             if (null != oa.entry(aen)) {
+                // If our intention is writing the entry, superseding it has been requested and the driver supports
+                // it, then pass the test: The entry gets superseded by appending another version of it to the output
+                // archive and only the last version gets listed in the central directory.
+                // This leaves the previous version in the output archive, but avoids rewriting it all over again.
+                if (intention == WRITE && options.get(SUPERSEDE) && getDriver().getSupersedeSupport(aen)) {
+                    return;
+                }
                 throw NeedsSyncException.apply();
             }
         }
@@ -507,6 +675,18 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
         }
     }
 
+    /**
+     * Returns whether the target archive file may grow in place for the given options.
+     * This is not the case while any snapshot reads the target archive file in place.
+     */
+    private boolean grow(final BitField<FsAccessOption> options) {
+        if (!options.get(GROW)) {
+            return false;
+        }
+        val oa = getOutputArchive();
+        return oa.isPresent() ? oa.get().grow : _snapshots.isEmpty();
+    }
+
     private final class TargetArchiveModel extends ArchiveModel<E> {
 
         TargetArchiveModel(FsArchiveDriver<E> driver, FsModel model) {
@@ -515,7 +695,7 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
 
         @Override
         void touch(BitField<FsAccessOption> options) throws IOException {
-            outputArchive(options);
+            touchOutputArchive(options);
         }
     }
 
@@ -546,9 +726,13 @@ abstract class TargetArchiveController<E extends FsArchiveEntry> extends FileSys
 
         final OutputService<E> driverProduct;
 
-        OutputArchive(OutputService<E> driverProduct) {
+        /** Whether the target archive file grows in place. */
+        final boolean grow;
+
+        OutputArchive(OutputService<E> driverProduct, boolean grow) {
             super(new DisconnectingOutputService<>(driverProduct));
             this.driverProduct = driverProduct;
+            this.grow = grow;
         }
 
         OutputService<E> getDriverProduct() {
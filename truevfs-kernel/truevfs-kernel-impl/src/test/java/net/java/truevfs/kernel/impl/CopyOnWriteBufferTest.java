@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.impl;
+
+import net.java.truecommons.cio.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truevfs.kernel.impl.CopyOnWriteBuffer.PAGE_SIZE;
+import static org.junit.Assert.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class CopyOnWriteBufferTest {
+
+    private static final byte[] UPDATE = { 1, 2, 3 };
+    private static final int POSITION = 5 * PAGE_SIZE - 1;
+
+    private final byte[] data = new byte[10 * PAGE_SIZE + 123];
+    private final byte[] expected = new byte[data.length];
+    private MemoryBuffer original;
+    private boolean random = true;
+    private int allocations;
+
+    private final IoBufferPool pool = new IoBufferPool() {
+
+        @Override
+        public IoBuffer allocate() {
+            allocations++;
+            return new MemoryBuffer("copy", 16);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        new Random(0).nextBytes(data);
+        System.arraycopy(data, 0, expected, 0, data.length);
+        System.arraycopy(UPDATE, 0, expected, POSITION, UPDATE.length);
+        original = new MemoryBuffer("original", ByteBuffer.wrap(data.clone()));
+    }
+
+    private InputSocket<Entry> original() {
+        return new DecoratingInputSocket<Entry>(original.input()) {
+
+            @Override
+            public SeekableByteChannel channel(OutputSocket<? extends Entry> peer) throws IOException {
+                if (!random) {
+                    throw new UnsupportedOperationException();
+                }
+                return super.channel(peer);
+            }
+        };
+    }
+
+    private CopyOnWriteBuffer update() throws IOException {
+        final CopyOnWriteBuffer buffer = new CopyOnWriteBuffer("entry", original(), pool, true);
+        try (SeekableByteChannel channel = buffer.output().channel(null)) {
+            assertEquals(data.length, channel.size());
+            channel.position(POSITION).write(ByteBuffer.wrap(UPDATE));
+        }
+        assertEquals(data.length, buffer.getSize(DATA));
+        return buffer;
+    }
+
+    private static byte[] read(final IoBuffer buffer) throws IOException {
+        final ByteBuffer dst = ByteBuffer.allocate((int) buffer.getSize(DATA));
+        try (SeekableByteChannel channel = buffer.input().channel(null)) {
+            while (dst.hasRemaining() && 0 <= channel.read(dst)) {
+            }
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+        return dst.array();
+    }
+
+    private void assertUntouched(final byte[] actual) {
+        final int touched = POSITION / PAGE_SIZE * PAGE_SIZE;
+        final int untouched = touched + 2 * PAGE_SIZE;
+        assertArrayEquals(Arrays.copyOfRange(data, 0, touched), Arrays.copyOfRange(actual, 0, touched));
+        assertArrayEquals(Arrays.copyOfRange(data, untouched, data.length),
+                Arrays.copyOfRange(actual, untouched, actual.length));
+    }
+
+    @Test
+    public void testUpdate() throws IOException {
+        final CopyOnWriteBuffer buffer = update();
+        final byte[] actual = read(buffer);
+        assertArrayEquals(expected, actual);
+        assertUntouched(actual);
+        assertEquals(0, allocations);
+        assertArrayEquals(data, read(original));
+        buffer.release();
+    }
+
+    @Test
+    public void testStreamFallback() throws IOException {
+        final CopyOnWriteBuffer buffer = update();
+        random = false;
+        final byte[] actual = read(buffer);
+        assertArrayEquals(expected, actual);
+        assertUntouched(actual);
+        assertEquals(0, allocations);
+        buffer.release();
+    }
+
+    @Test
+    public void testCopyFallback() throws IOException {
+        random = false;
+        final CopyOnWriteBuffer buffer = update();
+        assertEquals(1, allocations);
+        assertArrayEquals(expected, read(buffer));
+        buffer.release();
+    }
+}
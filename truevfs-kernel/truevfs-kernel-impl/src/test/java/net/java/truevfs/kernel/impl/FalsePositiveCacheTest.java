@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.impl;
+
+import net.java.truevfs.kernel.spec.FsMountPoint;
+import net.java.truevfs.kernel.spec.FsNode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
+import java.util.zip.ZipException;
+
+import static net.java.truecommons.cio.Entry.Access.WRITE;
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truecommons.cio.Entry.UNKNOWN;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class FalsePositiveCacheTest {
+
+    private static final FsMountPoint MOUNT_POINT = FsMountPoint.create(URI.create("zip:file:/archive.zip!/"));
+
+    private final FalsePositiveCache cache = new FalsePositiveCache();
+    private final ZipException cause = new ZipException("Not a ZIP file!");
+
+    private static FsNode node(final long size, final long time) {
+        final FsNode node = mock(FsNode.class);
+        when(node.getSize(DATA)).thenReturn(size);
+        when(node.getTime(WRITE)).thenReturn(time);
+        return node;
+    }
+
+    @Test
+    public void testHit() {
+        cache.put(MOUNT_POINT, node(1, 2), cause);
+        final Optional<IOException> hit = cache.get(MOUNT_POINT, node(1, 2));
+        assertTrue(hit.isPresent());
+        assertSame(ZipException.class, hit.get().getClass());
+        assertEquals(cause.getMessage(), hit.get().getMessage());
+        assertSame(cause, hit.get().getCause());
+        assertNotSame(hit.get(), cache.get(MOUNT_POINT, node(1, 2)).get());
+    }
+
+    @Test
+    public void testInvalidationOnTimeChange() {
+        cache.put(MOUNT_POINT, node(1, 2), cause);
+        assertFalse(cache.get(MOUNT_POINT, node(1, 3)).isPresent());
+        assertFalse(cache.get(MOUNT_POINT, node(1, 2)).isPresent());
+    }
+
+    @Test
+    public void testInvalidationOnSizeChange() {
+        cache.put(MOUNT_POINT, node(1, 2), cause);
+        assertFalse(cache.get(MOUNT_POINT, node(3, 2)).isPresent());
+        assertFalse(cache.get(MOUNT_POINT, node(1, 2)).isPresent());
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put(MOUNT_POINT, node(1, 2), cause);
+        cache.remove(MOUNT_POINT);
+        assertFalse(cache.get(MOUNT_POINT, node(1, 2)).isPresent());
+    }
+
+    @Test
+    public void testUnknownProperties() {
+        cache.put(MOUNT_POINT, node(UNKNOWN, 2), cause);
+        assertFalse(cache.get(MOUNT_POINT, node(UNKNOWN, 2)).isPresent());
+        cache.put(MOUNT_POINT, node(1, UNKNOWN), cause);
+        assertFalse(cache.get(MOUNT_POINT, node(1, UNKNOWN)).isPresent());
+    }
+}
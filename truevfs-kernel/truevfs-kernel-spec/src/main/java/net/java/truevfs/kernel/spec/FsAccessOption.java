@@ -91,4 +91,60 @@ public enum FsAccessOption {
      * to the caller.
      */
     ENCRYPT,
+
+    /**
+     * Expresses a preference to defer writing an archive file until its file
+     * system gets {@linkplain FsController#sync synced}, so that all pending
+     * changes can get aborted by syncing it with
+     * {@link FsSyncOption#ABORT_CHANGES} without modifying the archive file.
+     * This only applies to changes which do not write entry data directly to
+     * the archive file, so it should get combined with {@link #CACHE}.
+     * <p>
+     * Note that this defers any failure to create the archive file, e.g. if
+     * the user cancels key prompting for an encrypted archive file, until the
+     * archive file system gets synced.
+     * Furthermore, this option may get ignored by archive file system
+     * controllers.
+     * If this happens, there may be no direct feedback available to the
+     * caller.
+     *
+     * @since TrueVFS 0.15
+     */
+    DEFER,
+
+    /**
+     * Whether or not the contents of an existing file system node shall get
+     * kept for updating them in place rather than replaced for overwriting.
+     * Unlike {@link #APPEND}, this allows to write at any position, e.g. by
+     * using a {@link java.nio.channels.SeekableByteChannel}.
+     * <p>
+     * For archive entries, this option should get combined with
+     * {@link #CACHE}.
+     * Then, only the pages which actually get written are buffered, so
+     * updating a small part of a large entry which supports random access,
+     * e.g. a {@code STORED} ZIP entry, doesn't require a copy of the entire
+     * entry.
+     *
+     * @since TrueVFS 0.15
+     */
+    UPDATE,
+
+    /**
+     * Expresses a preference to supersede an archive entry which has already
+     * been written to an archive file by appending another version of it
+     * rather than syncing the archive file first.
+     * This avoids rewriting the archive file, but leaves the contents of the
+     * previous version in the archive file, where they can get recovered even
+     * after the archive entry has been deleted.
+     * <p>
+     * Note that this option may get ignored by archive file system drivers,
+     * e.g. if the archive file format has no central directory or an archive
+     * entry must be the first entry in the archive file.
+     * Furthermore, if this happens, there may be no direct feedback available
+     * to the caller.
+     *
+     * @see   FsArchiveDriver#getSupersedeSupport(String)
+     * @since TrueVFS 0.15
+     */
+    SUPERSEDE,
 }
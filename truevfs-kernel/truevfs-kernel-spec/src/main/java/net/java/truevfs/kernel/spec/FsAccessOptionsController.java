@@ -78,6 +78,11 @@ public abstract class FsAccessOptionsController extends FsDecoratingController {
         return controller.node(map(options), name);
     }
 
+    @Override
+    public final Map<String, FsNode> nodes(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
+        return controller.nodes(map(options), name);
+    }
+
     @Override
     public final void checkAccess(BitField<FsAccessOption> options, FsNodeName name, BitField<Access> types) throws IOException {
         controller.checkAccess(map(options), name, types);
@@ -118,4 +123,9 @@ public abstract class FsAccessOptionsController extends FsDecoratingController {
     public final void unlink(BitField<FsAccessOption> options, FsNodeName name) throws IOException {
         controller.unlink(map(options), name);
     }
+
+    @Override
+    public final FsController snapshot(BitField<FsAccessOption> options) throws IOException {
+        return controller.snapshot(map(options));
+    }
 }
@@ -7,6 +7,7 @@ package net.java.truevfs.kernel.spec;
 import edu.umd.cs.findbugs.annotations.CreatesObligation;
 import java.io.*;
 import java.nio.charset.*;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.*;
 import javax.annotation.concurrent.Immutable;
 import net.java.truecommons.cio.*;
@@ -89,17 +90,23 @@ extends FsDriver {
      */
     public final void checkEncodable(final String name)
     throws CharConversionException {
-        CharsetEncoder enc = encoder.get();
-        if (null == enc) {
-            enc = getCharset().newEncoder();
-            encoder.set(enc);
-        }
-        if (!enc.canEncode(name))
+        CharsetEncoder enc = encoder.getAndSet(null);
+        if (null == enc) enc = getCharset().newEncoder();
+        final boolean encodable = enc.canEncode(name);
+        encoder.set(enc);
+        if (!encodable)
             throw new CharConversionException(name +
                     " (entry name is not encodable with " + getCharset() + ")");
     }
 
-    private final ThreadLocal<CharsetEncoder> encoder = new ThreadLocal<>();
+    /**
+     * A cached encoder which gets borrowed by the current thread for the
+     * duration of {@link #checkEncodable}.
+     * Unlike a thread local, this doesn't retain an encoder for each thread
+     * which ever used this driver, e.g. a large number of virtual threads.
+     * On contention, the borrowing thread simply creates another encoder.
+     */
+    private final AtomicReference<CharsetEncoder> encoder = new AtomicReference<>();
 
     /**
      * Returns {@code true} if and only if the archive files produced by this
@@ -139,6 +146,58 @@ extends FsDriver {
      */
     public boolean getRedundantMetaDataSupport() { return false; }
 
+    /**
+     * Returns {@code true} if and only if an archive entry with the given name
+     * which has already been written to an output service may get superseded
+     * by writing another version of it to the same output service.
+     * This requires redundant archive entry contents and meta data, but some
+     * archive file formats have additional constraints, e.g. on the order of
+     * the entries, which a subclass may enforce by overriding this method.
+     * If the return value is {@code false} or the
+     * {@link FsAccessOption#SUPERSEDE} option is not set, then the archive
+     * file gets synced before the entry gets written again.
+     * <p>
+     * This is an immutable property - multiple calls with the same name must
+     * return the same value.
+     * <p>
+     * The implementation in the class {@link FsArchiveDriver} returns
+     * {@code getRedundantContentSupport() && getRedundantMetaDataSupport()}.
+     *
+     * @param  name the name of the archive entry.
+     * @return {@code true} if and only if the archive entry with the given
+     *         name may get superseded.
+     * @since  TrueVFS 0.15
+     */
+    public boolean getSupersedeSupport(String name) {
+        return getRedundantContentSupport() && getRedundantMetaDataSupport();
+    }
+
+    /**
+     * Returns {@code true} if and only if the given exception, which has been
+     * thrown by {@link #newInput} when mounting an archive file, indicates
+     * that the archive file is persistently unreadable because of its format,
+     * e.g. because it's not an archive file of the type supported by this
+     * archive driver at all.
+     * If the return value is {@code true}, then the archive file may get
+     * remembered as a false positive archive file until its size or last
+     * modification time changes or its file system controller gets synced.
+     * The return value must be {@code false} for any transient failure, e.g.
+     * a plain I/O error or a cancelled prompt for the key of an encrypted
+     * archive file.
+     * <p>
+     * The implementation in the class {@link FsArchiveDriver} returns
+     * {@code false}.
+     *
+     * @param  ex the exception thrown when mounting an archive file.
+     * @return {@code true} if and only if the given exception indicates that
+     *         the archive file is persistently unreadable because of its
+     *         format.
+     * @since  TrueVFS 0.15
+     */
+    public boolean isPersistentFalsePositive(IOException ex) {
+        return false;
+    }
+
     /**
      * Returns the pool for allocating temporary I/O buffers.
      * <p>
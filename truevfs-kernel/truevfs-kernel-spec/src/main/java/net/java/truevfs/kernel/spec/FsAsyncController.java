@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.shed.BitField;
+import net.java.truevfs.kernel.spec.cio.ChannelTransfers;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truecommons.cio.Entry.UNKNOWN;
+
+/**
+ * An asynchronous facade for a file system controller.
+ * Each operation of this class gets executed by an executor and returns a
+ * {@link CompletableFuture} for its result, so that the calling thread, e.g.
+ * an event loop thread, never blocks on I/O.
+ * If an operation fails with an exception, then the returned future gets
+ * completed exceptionally with this exception.
+ * <p>
+ * By default, the operations get executed by a
+ * {@linkplain #getDefaultExecutor() shared executor} with a bounded number of
+ * daemon threads which is dedicated to I/O.
+ * Note that the operations of the file system controller still block the
+ * threads of the executor, so the executor must not be an event loop.
+ *
+ * @since  TrueVFS 0.15
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+public final class FsAsyncController {
+
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final FsController controller;
+    private final Executor executor;
+
+    /**
+     * Constructs a new asynchronous facade for the given file system
+     * controller which uses the {@linkplain #getDefaultExecutor() default
+     * executor}.
+     *
+     * @param controller the file system controller.
+     */
+    public FsAsyncController(FsController controller) {
+        this(controller, getDefaultExecutor());
+    }
+
+    /**
+     * Constructs a new asynchronous facade for the given file system
+     * controller which uses the given executor.
+     *
+     * @param controller the file system controller.
+     * @param executor the executor for running the operations.
+     */
+    public FsAsyncController(
+            final FsController controller,
+            final Executor executor) {
+        this.controller = Objects.requireNonNull(controller);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Returns the shared executor for I/O operations.
+     * The executor uses at most twice the number of available processors as
+     * threads, but no less than four.
+     * The threads are daemon threads and get terminated when idle for a
+     * minute.
+     * The executor cannot get shut down because it's shared by all callers.
+     *
+     * @return The shared executor for I/O operations.
+     */
+    public static Executor getDefaultExecutor() {
+        return Lazy.EXECUTOR;
+    }
+
+    /** Returns the file system controller. */
+    public FsController getController() { return controller; }
+
+    /** Returns the executor for running the operations. */
+    public Executor getExecutor() { return executor; }
+
+    /**
+     * Reads the entire contents of the given entry.
+     *
+     * @param  options the options for accessing the file system entry.
+     * @param  name the name of the file system entry.
+     * @return A future for a buffer with the contents of the entry, which is
+     *         positioned at zero.
+     */
+    public CompletableFuture<ByteBuffer> readAsync(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name) {
+        return supplyAsync(() -> {
+            final InputSocket<?> input = controller.input(options, name);
+            try (InputStream in = input.stream(null)) {
+                final long size = input.target().getSize(DATA);
+                if (MAX_ARRAY_LENGTH <= size)
+                    throw new IOException(name + " (entry too large)");
+                byte[] array = new byte[UNKNOWN == size ? 8 * 1024 : (int) size + 1];
+                int length = 0;
+                for (int read; 0 <= (read = in.read(array, length, array.length - length)); ) {
+                    length += read;
+                    if (length == array.length) {
+                        if (MAX_ARRAY_LENGTH <= length)
+                            throw new IOException(name + " (entry too large)");
+                        array = Arrays.copyOf(array,
+                                (int) Math.min(MAX_ARRAY_LENGTH, 2L * length));
+                    }
+                }
+                return ByteBuffer.wrap(array, 0, length);
+            }
+        });
+    }
+
+    /**
+     * Writes the remaining contents of the given buffer to the given entry,
+     * replacing any previous contents.
+     *
+     * @param  options the options for accessing the file system entry.
+     * @param  name the name of the file system entry.
+     * @param  src the buffer with the contents to write.
+     *         The buffer must not get accessed until the returned future
+     *         completes.
+     * @return A future for the number of bytes written.
+     */
+    public CompletableFuture<Integer> writeAsync(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name,
+            final ByteBuffer src) {
+        return supplyAsync(() -> {
+            try (WritableByteChannel channel = Channels.newChannel(
+                    controller.output(options, name, null).stream(null))) {
+                int total = 0;
+                while (src.hasRemaining()) total += channel.write(src);
+                return total;
+            }
+        });
+    }
+
+    /**
+     * Copies the given source entry to the given target entry in the file
+     * system of this controller.
+     *
+     * @param  options the options for accessing the file system entries.
+     * @param  source the name of the source file system entry.
+     * @param  target the name of the target file system entry.
+     * @return A future which completes when the copy is done.
+     */
+    public CompletableFuture<Void> copyAsync(
+            final BitField<FsAccessOption> options,
+            final FsNodeName source,
+            final FsNodeName target) {
+        return supplyAsync(() -> {
+            final InputSocket<?> input = controller.input(options, source);
+            ChannelTransfers.copy(input,
+                    controller.output(options, target, input.target()));
+            return null;
+        });
+    }
+
+    /**
+     * Copies the data from the given input socket to the given output
+     * socket, which may belong to any file system.
+     *
+     * @param  input the input socket.
+     * @param  output the output socket.
+     * @return A future which completes when the copy is done.
+     * @see    ChannelTransfers#copy(InputSocket, OutputSocket)
+     */
+    public CompletableFuture<Void> copyAsync(
+            final InputSocket<?> input,
+            final OutputSocket<?> output) {
+        return supplyAsync(() -> {
+            ChannelTransfers.copy(input, output);
+            return null;
+        });
+    }
+
+    /**
+     * Commits all unsynchronized changes to the contents of the file system
+     * of this controller to its parent file system and optionally releases
+     * its resources, e.g. when closing the file system.
+     *
+     * @param  options the options for synchronizing the file system.
+     * @return A future which completes when the sync is done.
+     * @see    FsController#sync(BitField)
+     */
+    public CompletableFuture<Void> syncAsync(
+            final BitField<FsSyncOption> options) {
+        return supplyAsync(() -> {
+            controller.sync(options);
+            return null;
+        });
+    }
+
+    private <V> CompletableFuture<V> supplyAsync(final Operation<V> operation) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(operation.call());
+                } catch (final Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (final RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface Operation<V> {
+        V call() throws IOException;
+    }
+
+    private static final class Lazy {
+        /** Hides the thread pool so that it cannot get shut down. */
+        static final Executor EXECUTOR = newExecutor()::execute;
+
+        private static ThreadPoolExecutor newExecutor() {
+            final int threads = Math.max(4,
+                    2 * Runtime.getRuntime().availableProcessors());
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new IoThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    } // Lazy
+
+    private static final class IoThreadFactory implements ThreadFactory {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r,
+                    "TrueVFS I/O Thread #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    } // IoThreadFactory
+}
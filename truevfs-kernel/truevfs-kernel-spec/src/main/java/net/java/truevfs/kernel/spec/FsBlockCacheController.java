@@ -0,0 +1,556 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import net.java.truecommons.cio.DecoratingInputSocket;
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.Entry.Access;
+import net.java.truecommons.cio.Entry.Type;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.AbstractSeekableChannel;
+import net.java.truecommons.io.ChannelInputStream;
+import net.java.truecommons.shed.BitField;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.java.truecommons.cio.Entry.Access.WRITE;
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truecommons.cio.Entry.Type.FILE;
+import static net.java.truecommons.cio.Entry.UNKNOWN;
+
+/**
+ * Caches fixed-size blocks of the file entries read from the decorated
+ * controller in direct byte buffers, i.e. off the heap.
+ * The intended use case of this class is to decorate the controllers of file
+ * system drivers for slow or remote backing stores, e.g. HTTP(S) or network
+ * mounts, so that re-mounting an archive file and reading its entries in
+ * random order hits local memory instead of the backing store.
+ * <p>
+ * The cached blocks of a file entry get validated by its size, last
+ * modification time and {@linkplain #getValidator strong validator} whenever
+ * an input stream or channel gets opened: If any of these properties has
+ * changed, then all cached blocks of the file entry get discarded.
+ * File entries with an unknown size or with neither a last modification
+ * time nor a strong validator do not get cached at all.
+ * Writing, creating or deleting a file entry via this controller also
+ * discards all cached blocks of the file entry.
+ * <p>
+ * The cached blocks are held in a {@link Pool} which is typically shared by
+ * all block cache controllers, so that the total size of the cached blocks is
+ * bounded no matter how many file systems are mounted.
+ * <p>
+ * Note that syncing this controller does not clear the cache because the
+ * cached blocks get validated anyway.
+ * This enables re-mounting an archive file after a call to
+ * {@code TVFS.umount()} without reading it from the backing store again.
+ *
+ * @since  TrueVFS 0.15
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+public class FsBlockCacheController extends FsDecoratingController {
+
+    /** The default size of a block, which is {@value}. */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /** The default capacity of the cache, which is {@value}. */
+    public static final long DEFAULT_CAPACITY = 32L * 1024 * 1024;
+
+    private final Pool pool;
+
+    private final ConcurrentMap<FsNodeName, Resource>
+            resources = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new block cache controller which uses the
+     * {@linkplain Pool#SHARED shared pool}.
+     *
+     * @param controller the decorated file system controller.
+     */
+    public FsBlockCacheController(FsController controller) {
+        this(controller, Pool.SHARED);
+    }
+
+    /**
+     * Constructs a new block cache controller.
+     *
+     * @param controller the decorated file system controller.
+     * @param pool the pool for the cached blocks.
+     */
+    public FsBlockCacheController(
+            final FsController controller,
+            final Pool pool) {
+        super(controller);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    @Override
+    public InputSocket<? extends Entry> input(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name) {
+        Objects.requireNonNull(options);
+        Objects.requireNonNull(name);
+        final class Input extends DecoratingInputSocket<Entry> {
+            Input() { super(controller.input(options, name)); }
+
+            @Override
+            public InputStream stream(OutputSocket<? extends Entry> peer)
+            throws IOException {
+                final Resource resource = resource(options, name);
+                return null == resource
+                        ? socket().stream(peer)
+                        : new ChannelInputStream(
+                                new BlockCacheChannel(resource, socket(), peer));
+            }
+
+            @Override
+            public SeekableByteChannel channel(OutputSocket<? extends Entry> peer)
+            throws IOException {
+                final Resource resource = resource(options, name);
+                return null == resource
+                        ? socket().channel(peer)
+                        : new BlockCacheChannel(resource, socket(), peer);
+            }
+        }
+        return new Input();
+    }
+
+    @Override
+    public OutputSocket<? extends Entry> output(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            @CheckForNull Entry template) {
+        discard(name);
+        return controller.output(options, name, template);
+    }
+
+    @Override
+    public void make(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            Type type,
+            @CheckForNull Entry template)
+    throws IOException {
+        discard(name);
+        controller.make(options, name, type, template);
+    }
+
+    @Override
+    public void unlink(BitField<FsAccessOption> options, FsNodeName name)
+    throws IOException {
+        discard(name);
+        controller.unlink(options, name);
+    }
+
+    @Override
+    public boolean setTime(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            Map<Access, Long> times)
+    throws IOException {
+        discard(name);
+        return controller.setTime(options, name, times);
+    }
+
+    @Override
+    public boolean setTime(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            BitField<Access> types,
+            long value)
+    throws IOException {
+        discard(name);
+        return controller.setTime(options, name, types, value);
+    }
+
+    /**
+     * Returns a strong validator for the contents of the given file node,
+     * e.g. the entity tag of an HTTP(S) resource, or {@code null} if there is
+     * none.
+     * The cached blocks of a file entry get discarded if its validator is not
+     * {@linkplain Object#equals equal} to the validator when the blocks were
+     * cached.
+     * <p>
+     * The implementation in the class {@link FsBlockCacheController} returns
+     * {@code null}.
+     *
+     * @param  node the file node.
+     * @return A strong validator for the contents of the given file node or
+     *         {@code null} if there is none.
+     */
+    protected @CheckForNull Object getValidator(FsNode node) {
+        return null;
+    }
+
+    /**
+     * Returns the validated resource for caching the blocks of the given file
+     * entry or {@code null} if the file entry cannot get cached.
+     */
+    private @CheckForNull Resource resource(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name)
+    throws IOException {
+        final FsNode node = controller.node(options, name);
+        if (null == node || !node.isType(FILE)) return null;
+        final long size = node.getSize(DATA);
+        final long time = node.getTime(WRITE);
+        final Object validator = getValidator(node);
+        if (UNKNOWN == size || UNKNOWN == time && null == validator)
+            return null;
+        return resources.compute(name, (n, resource) -> {
+            if (null != resource) {
+                if (resource.matches(size, time, validator)) return resource;
+                pool.discard(resource);
+            }
+            return new Resource(size, time, validator);
+        });
+    }
+
+    private void discard(final FsNodeName name) {
+        final Resource resource = resources.remove(name);
+        if (null != resource) pool.discard(resource);
+    }
+
+    /**
+     * A pool of direct byte buffers which holds the cached blocks of any
+     * number of block cache controllers.
+     * When the total size of the cached blocks would exceed the capacity of
+     * this pool, then the buffer of the least recently used block gets
+     * reused.
+     * Buffers never get released, so the capacity should be chosen with the
+     * maximum direct memory size of the JVM in mind.
+     *
+     * @since TrueVFS 0.15
+     */
+    @ThreadSafe
+    public static final class Pool {
+
+        /**
+         * The pool with the {@linkplain #DEFAULT_BLOCK_SIZE default block
+         * size} and the {@linkplain #DEFAULT_CAPACITY default capacity} which
+         * is shared by all block cache controllers created without an
+         * explicit pool.
+         */
+        public static final Pool SHARED
+                = new Pool(DEFAULT_BLOCK_SIZE, DEFAULT_CAPACITY);
+
+        private final int blockSize;
+        private final long maxBlocks;
+        private final Lock lock = new ReentrantLock();
+
+        @GuardedBy("lock")
+        private final LinkedHashMap<Block, ByteBuffer> blocks
+                = new LinkedHashMap<>(16, 0.75f, true);
+
+        @GuardedBy("lock")
+        private final Deque<ByteBuffer> free = new ArrayDeque<>();
+
+        @GuardedBy("lock")
+        private long allocated;
+
+        /**
+         * Constructs a new pool.
+         *
+         * @param blockSize the size of a block in bytes.
+         * @param capacity the maximum total size of all blocks in bytes.
+         */
+        public Pool(final int blockSize, final long capacity) {
+            if (0 >= blockSize || capacity < blockSize)
+                throw new IllegalArgumentException();
+            this.blockSize = blockSize;
+            this.maxBlocks = capacity / blockSize;
+        }
+
+        /**
+         * Copies the cached data of the given block from the given offset to
+         * the given buffer.
+         * Returns the number of bytes copied or {@code -1} if the block is
+         * not cached.
+         */
+        int read(final Block block, final int offset, final ByteBuffer dst) {
+            lock.lock();
+            try {
+                final ByteBuffer buffer = blocks.get(block);
+                return null == buffer ? -1 : copy(buffer, offset, dst);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns a buffer for reading a new block.
+         * The buffer must get passed to {@link #put} or {@link #release}
+         * eventually.
+         */
+        ByteBuffer allocate() {
+            lock.lock();
+            try {
+                ByteBuffer buffer = free.poll();
+                if (null == buffer) {
+                    if (allocated < maxBlocks) {
+                        buffer = ByteBuffer.allocateDirect(blockSize);
+                        allocated++;
+                    } else if (!blocks.isEmpty()) {
+                        final Iterator<ByteBuffer> i = blocks.values().iterator();
+                        buffer = i.next();
+                        i.remove();
+                    } else {
+                        // All buffers are busy reading blocks, so use a
+                        // transient buffer which won't get cached.
+                        buffer = ByteBuffer.allocate(blockSize);
+                    }
+                }
+                buffer.clear();
+                return buffer;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Caches the given buffer as the data of the given block. */
+        void put(final Block block, final ByteBuffer buffer) {
+            if (!buffer.isDirect()) return;
+            lock.lock();
+            try {
+                if (block.resource.discarded) {
+                    free.push(buffer);
+                } else {
+                    final ByteBuffer old = blocks.put(block, buffer);
+                    if (null != old) free.push(old);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Returns the given buffer to this pool without caching it. */
+        void release(final ByteBuffer buffer) {
+            if (!buffer.isDirect()) return;
+            lock.lock();
+            try {
+                free.push(buffer);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Discards all cached blocks of the given resource. */
+        void discard(final Resource resource) {
+            lock.lock();
+            try {
+                resource.discarded = true;
+                for (final Iterator<Map.Entry<Block, ByteBuffer>> i = blocks.entrySet().iterator(); i.hasNext(); ) {
+                    final Map.Entry<Block, ByteBuffer> entry = i.next();
+                    if (entry.getKey().resource == resource) {
+                        free.push(entry.getValue());
+                        i.remove();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static int copy(
+            final ByteBuffer buffer,
+            final int offset,
+            final ByteBuffer dst) {
+        final ByteBuffer src = buffer.duplicate();
+        src.position(offset);
+        final int len = Math.min(dst.remaining(), src.remaining());
+        src.limit(offset + len);
+        dst.put(src);
+        return len;
+    }
+
+    /** A file entry with its properties for validating the cached blocks. */
+    private static final class Resource {
+        final long size, time;
+        final @CheckForNull Object validator;
+
+        @GuardedBy("Pool.lock")
+        boolean discarded;
+
+        Resource(
+                final long size,
+                final long time,
+                final @CheckForNull Object validator) {
+            this.size = size;
+            this.time = time;
+            this.validator = validator;
+        }
+
+        boolean matches(
+                final long size,
+                final long time,
+                final @CheckForNull Object validator) {
+            return this.size == size
+                    && this.time == time
+                    && Objects.equals(this.validator, validator);
+        }
+    }
+
+    /** The key of a cached block. */
+    private static final class Block {
+        final Resource resource;
+        final long index;
+
+        Block(final Resource resource, final long index) {
+            this.resource = resource;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Block)) return false;
+            final Block that = (Block) obj;
+            return this.resource == that.resource && this.index == that.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(resource) + Long.hashCode(index);
+        }
+    }
+
+    /**
+     * A read-only channel which reads the blocks of a file entry from the
+     * cache and opens a channel for the decorated input socket only on a
+     * cache miss.
+     */
+    @NotThreadSafe
+    private final class BlockCacheChannel extends AbstractSeekableChannel {
+        final Resource resource;
+        final InputSocket<? extends Entry> socket;
+        final @CheckForNull OutputSocket<? extends Entry> peer;
+        @CheckForNull SeekableByteChannel channel;
+        long pos;
+        boolean closed;
+
+        BlockCacheChannel(
+                final Resource resource,
+                final InputSocket<? extends Entry> socket,
+                final @CheckForNull OutputSocket<? extends Entry> peer) {
+            this.resource = resource;
+            this.socket = socket;
+            this.peer = peer;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            checkOpen();
+            final long size = resource.size;
+            if (0 >= dst.remaining()) return 0;
+            if (pos >= size) return -1;
+            final int blockSize = pool.blockSize;
+            int total = 0;
+            while (dst.hasRemaining() && pos < size) {
+                final long index = pos / blockSize;
+                final int offset = (int) (pos - index * blockSize);
+                final Block block = new Block(resource, index);
+                int len = pool.read(block, offset, dst);
+                if (0 > len) len = fill(block, offset, dst);
+                pos += len;
+                total += len;
+            }
+            return total;
+        }
+
+        /**
+         * Reads the given block from the decorated input socket, copies its
+         * data from the given offset to the given buffer and caches it.
+         */
+        int fill(final Block block, final int offset, final ByteBuffer dst)
+        throws IOException {
+            final long position = block.index * pool.blockSize;
+            final ByteBuffer buffer = pool.allocate();
+            final int len;
+            try {
+                buffer.limit((int) Math.min(pool.blockSize, resource.size - position));
+                SeekableByteChannel channel = this.channel;
+                if (null == channel)
+                    channel = this.channel = socket.channel(peer);
+                channel.position(position);
+                while (buffer.hasRemaining())
+                    if (0 > channel.read(buffer))
+                        throw new EOFException();
+                buffer.flip();
+                len = copy(buffer, offset, dst);
+            } catch (final Throwable ex) {
+                pool.release(buffer);
+                throw ex;
+            }
+            pool.put(block, buffer);
+            return len;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            checkOpen();
+            return pos;
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition)
+        throws IOException {
+            checkOpen();
+            if (0 > newPosition) throw new IllegalArgumentException();
+            pos = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            checkOpen();
+            return resource.size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                final SeekableByteChannel channel = this.channel;
+                if (null != channel) channel.close();
+            }
+        }
+    }
+}
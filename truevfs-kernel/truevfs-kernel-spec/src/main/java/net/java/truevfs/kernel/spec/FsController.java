@@ -6,7 +6,9 @@ package net.java.truevfs.kernel.spec;
 
 import java.io.IOException;
 import java.lang.annotation.Inherited;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import net.java.truecommons.cio.Entry;
@@ -16,6 +18,7 @@ import net.java.truecommons.cio.InputSocket;
 import net.java.truecommons.cio.OutputSocket;
 import net.java.truecommons.shed.BitField;
 import net.java.truecommons.shed.ImplementationsShouldExtend;
+import net.java.truecommons.shed.UriBuilder;
 import static net.java.truevfs.kernel.spec.FsAssertion.Level.*;
 
 /**
@@ -107,6 +110,47 @@ public interface FsController {
             FsNodeName name)
     throws IOException;
 
+    /**
+     * Returns the file system nodes for the members of the directory with the
+     * given {@code name} or {@code null} if it doesn't exist or isn't a
+     * directory.
+     * The returned map is keyed by the member names in the iteration order of
+     * {@link FsNode#getMembers()}.
+     * Members which cease to exist while this method is running are omitted.
+     * <p>
+     * This is equivalent to calling {@link #node} for the directory and each
+     * of its members, which is what the default implementation does.
+     * However, implementations should override this method in order to
+     * look up all nodes in a single pass, e.g. while holding a lock only
+     * once rather than once per member.
+     * This helps to list large directories, e.g. when walking the directory
+     * tree of an archive file with many entries.
+     *
+     * @param  options the options for accessing the file system nodes.
+     * @param  name the name of the directory.
+     * @return The file system nodes for the members of the directory or
+     *         {@code null} if no directory exists for the given name.
+     * @throws IOException on any I/O error.
+     * @since  TrueVFS 0.15
+     */
+    @FsAssertion(atomic=NO, consistent=YES, isolated=NO, durable=NOT_APPLICABLE)
+    default @CheckForNull Map<String, FsNode> nodes(
+            final BitField<FsAccessOption> options,
+            final FsNodeName name)
+    throws IOException {
+        final FsNode dir = node(options, name);
+        final Set<String> members;
+        if (null == dir || null == (members = dir.getMembers())) return null;
+        final Map<String, FsNode> nodes = new LinkedHashMap<>(
+                members.size() * 4 / 3 + 1);
+        for (final String member : members) {
+            final FsNode node = node(options, new FsNodeName(name,
+                    FsNodeName.create(new UriBuilder().path(member).toUri())));
+            if (null != node) nodes.put(member, node);
+        }
+        return nodes;
+    }
+
     /**
      * Checks if the file system node for the given {@code name} exists when
      * constrained by the given access {@code options} and permits the given
@@ -294,6 +338,44 @@ public interface FsController {
     @FsAssertion(atomic=NO, consistent=YES, isolated=YES)
     void sync(BitField<FsSyncOption> options) throws FsSyncException;
 
+    /**
+     * Returns a read-only snapshot of this file system.
+     * The snapshot reflects the directory tree and the entry data of this
+     * file system at the time of the call: Any unsynchronized changes get
+     * committed first.
+     * Subsequent changes to this file system are not visible in the snapshot
+     * and vice versa, reading the snapshot never acquires the locks of this
+     * file system, so long-running scans neither block nor get blocked by
+     * concurrent updates.
+     * <p>
+     * All modifying operations of the snapshot fail with an
+     * {@link FsReadOnlyFileSystemException}.
+     * Calling {@link #sync} on the snapshot releases its resources, e.g. the
+     * open target archive file or a temporary copy of it.
+     * Thereafter, the snapshot must not get used anymore.
+     * <p>
+     * Decorating controllers should forward this call to the decorated
+     * controller, like {@link FsDelegatingController} does.
+     * The default implementation is a fallback for controllers which cannot
+     * take a snapshot: It {@linkplain FsSyncOptions#SYNC syncs} this file
+     * system and returns a read-only view of this controller.
+     * This view is <em>not</em> isolated: Subsequent changes to this file
+     * system are visible in it, and reading it acquires the locks of this
+     * file system.
+     * Calling {@link #sync} on the view does nothing.
+     *
+     * @param  options the options for accessing the file system.
+     * @return A read-only snapshot of this file system.
+     * @throws IOException on any I/O error.
+     * @since  TrueVFS 0.15
+     */
+    @FsAssertion(atomic=NO, consistent=YES, isolated=NO, durable=NOT_APPLICABLE)
+    default FsController snapshot(BitField<FsAccessOption> options)
+    throws IOException {
+        sync(FsSyncOptions.SYNC);
+        return new FsReadOnlyController(this);
+    }
+
     /**
      * A factory for {@linkplain FsController file system controllers}.
      * <p>
@@ -50,6 +50,15 @@ public interface FsDelegatingController extends FsController {
         return getController().node(options, name);
     }
 
+    @Override
+    default @CheckForNull
+    Map<String, FsNode> nodes(
+            BitField<FsAccessOption> options,
+            FsNodeName name)
+            throws IOException {
+        return getController().nodes(options, name);
+    }
+
     @Override
     default void checkAccess(
             BitField<FsAccessOption> options,
@@ -121,4 +130,10 @@ public interface FsDelegatingController extends FsController {
     default void sync(BitField<FsSyncOption> options) throws FsSyncException {
         getController().sync(options);
     }
+
+    @Override
+    default FsController snapshot(BitField<FsAccessOption> options)
+            throws IOException {
+        return getController().snapshot(options);
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded cache for interning immutable values by some key.
+ * When the cache exceeds its capacity, it simply gets cleared:
+ * This is good enough for interning the mount points and node names of the
+ * working set of an application without the overhead of maintaining an access
+ * order for each lookup.
+ *
+ * @param  <K> the type of the keys.
+ * @param  <V> the type of the values.
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class FsInterner<K, V> {
+
+    private final ConcurrentMap<K, V> map = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    FsInterner(final int capacity) {
+        if (0 >= capacity) throw new IllegalArgumentException();
+        this.capacity = capacity;
+    }
+
+    /** Returns the value for the given key or {@code null} if unknown. */
+    @CheckForNull V get(K key) { return map.get(key); }
+
+    /**
+     * Caches the given value for the given key unless there is already a
+     * cached value for it.
+     *
+     * @return The cached value for the given key.
+     */
+    V intern(final K key, final V value) {
+        if (capacity <= map.size()) map.clear();
+        final V old = map.putIfAbsent(key, value);
+        return null != old ? old : value;
+    }
+}
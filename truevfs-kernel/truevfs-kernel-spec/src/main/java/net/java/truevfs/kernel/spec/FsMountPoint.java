@@ -145,6 +145,12 @@ implements Serializable, Comparable<FsMountPoint> {
      */
     public static final String SEPARATOR = "!" + FsNodeName.SEPARATOR;
 
+    /** The maximum number of mount points cached by {@link #create(FsScheme, FsNodePath)}. */
+    private static final int MAX_INTERNED = 1024;
+
+    private static final FsInterner<String, FsMountPoint>
+            interned = new FsInterner<>(MAX_INTERNED);
+
     @SuppressFBWarnings("JCIP_FIELD_ISNT_FINAL_IN_IMMUTABLE_CLASS")
     private URI uri; // not final for serialization only!
 
@@ -191,20 +197,28 @@ implements Serializable, Comparable<FsMountPoint> {
      * {@link #FsMountPoint(FsScheme, FsNodePath) new FsMountPoint(scheme, path)}
      * and wraps any thrown {@link URISyntaxException} in an
      * {@link IllegalArgumentException}.
+     * The returned mount points get cached, so repeatedly calling this method
+     * with the same scheme and path should be just a hash lookup.
      *
      * @param  scheme the {@link #getScheme() scheme}.
      * @param  path the {@link #getPath() path}.
      * @throws IllegalArgumentException if the composed mount point URI would
      *         not conform to the syntax constraints for mount points.
-     * @return A new mount point.
+     * @return A mount point.
      */
     public static FsMountPoint
     create(FsScheme scheme, FsNodePath path) {
-        try {
-            return new FsMountPoint(scheme, path);
-        } catch (URISyntaxException ex) {
-            throw new IllegalArgumentException(ex);
+        final String key = scheme.toString() + ':' + path;
+        FsMountPoint mountPoint = interned.get(key);
+        if (null == mountPoint) {
+            try {
+                mountPoint = new FsMountPoint(scheme, path);
+            } catch (URISyntaxException ex) {
+                throw new IllegalArgumentException(ex);
+            }
+            mountPoint = interned.intern(key, mountPoint);
         }
+        return mountPoint;
     }
 
     /**
@@ -243,7 +257,7 @@ implements Serializable, Comparable<FsMountPoint> {
         final URI pu = path.getUri();
         if (!pu.isAbsolute())
             throw new QuotedUriSyntaxException(pu, "Path not absolute");
-        final String penup = path.getNodeName().getUri().getPath();
+        final String penup = path.getNodeName().getPath();
         if (0 == penup.length())
             throw new QuotedUriSyntaxException(pu, "Empty node name");
         this.uri = new UriBuilder(true)
@@ -322,7 +336,7 @@ implements Serializable, Comparable<FsMountPoint> {
             assert null != path;
             assert path.getUri().isAbsolute();
             assert null == path.getUri().getRawFragment();
-            assert 0 != path.getNodeName().getUri().getRawPath().length();
+            assert 0 != path.getNodeName().getPath().length();
         } else {
             assert getUri().normalize() == getUri();
             assert getUri().getRawPath().endsWith(FsNodeName.SEPARATOR);
@@ -14,6 +14,7 @@ import javax.annotation.concurrent.Immutable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import net.java.truecommons.shed.QuotedUriSyntaxException;
 import net.java.truecommons.shed.UriBuilder;
+import static net.java.truevfs.kernel.spec.FsUriModifier.CANONICALIZE;
 import static net.java.truevfs.kernel.spec.FsUriModifier.NULL;
 import static net.java.truevfs.kernel.spec.FsUriModifier.PostFix.NODE_NAME;
 
@@ -123,6 +124,15 @@ import static net.java.truevfs.kernel.spec.FsUriModifier.PostFix.NODE_NAME;
  * For any node name {@code e}, it's generally true that
  * {@code new FsNodeName(e.getUri()).equals(e)}.
  * 
+ * <h3><a name="performance">Performance</a></h3>
+ * <p>
+ * A node name keeps its URI in string form and parses it into a {@link URI}
+ * object only when {@link #getUri()} gets called, so that the other methods
+ * of this class don't need to allocate a URI object.
+ * The static factory method {@link #forPath(String)} recognizes paths which
+ * are already in canonical form and don't need quoting with a single scan
+ * and interns the resulting node names.
+ *
  * <h3><a name="serialization">Serialization</a></h3>
  * <p>
  * This class supports serialization with both
@@ -171,8 +181,100 @@ implements Serializable, Comparable<FsNodeName> {
         }
     }
 
+    /** The maximum number of node names cached by {@link #forPath}. */
+    private static final int MAX_INTERNED = 4 * 1024;
+
+    private static final FsInterner<String, FsNodeName>
+            interned = new FsInterner<>(MAX_INTERNED);
+
     @SuppressFBWarnings("JCIP_FIELD_ISNT_FINAL_IN_IMMUTABLE_CLASS")
-    private URI uri; // not final for serialization only!
+    private transient String string; // not final for serialization only!
+
+    private transient volatile @CheckForNull URI uri;
+
+    private transient int hash;
+
+    /**
+     * Returns a file system node name for the given path, using
+     * {@link #SEPARATOR} as the separator for file names.
+     * The path is taken as is, that is it gets quoted where required.
+     * This static factory method is equivalent to
+     * {@link #create(URI, FsUriModifier) create(new UriBuilder().path(path).toUri(), FsUriModifier.CANONICALIZE)}
+     * but is much faster for the common case of a path which is already in
+     * canonical form and consists of letters, digits and the punctuation
+     * characters which do not need quoting in a URI path only.
+     * The returned node names get cached, so repeatedly calling this method
+     * with the same path should be just a hash lookup.
+     *
+     * @param  path the path of the node name.
+     * @throws NullPointerException if {@code path} is {@code null}.
+     * @throws IllegalArgumentException if {@code path} does not conform to
+     *         the syntax constraints for file system node names after its
+     *         canonicalization.
+     * @return A file system node name.
+     * @since  TrueVFS 0.15
+     */
+    public static FsNodeName forPath(final String path) {
+        if (path.isEmpty()) return ROOT;
+        FsNodeName name = interned.get(path);
+        if (null == name) {
+            name = canonical(path);
+            if (null == name)
+                name = create(new UriBuilder().path(path).toUri(), CANONICALIZE);
+            name = interned.intern(path, name);
+        }
+        return name;
+    }
+
+    /**
+     * Returns a file system node name for the given path if it's already in
+     * canonical form and consists of characters which do not need quoting
+     * in a URI path only.
+     * Otherwise, {@code null} gets returned.
+     */
+    static @CheckForNull FsNodeName canonical(String path) {
+        return canonical(path, 0) ? new FsNodeName(path) : null;
+    }
+
+    /**
+     * Returns {@code true} if and only if the given path, starting at the
+     * given index, is not empty, is in canonical form and consists of
+     * characters which do not need quoting in a URI path only.
+     */
+    static boolean canonical(final String path, final int begin) {
+        final int l = path.length();
+        if (begin >= l) return false;
+        for (int i = begin, s = begin; i <= l; i++) {
+            final char c = i < l ? path.charAt(i) : SEPARATOR_CHAR;
+            if (SEPARATOR_CHAR == c) {
+                final int n = i - s;
+                if (0 == n
+                        || '.' == path.charAt(s)
+                            && (1 == n || 2 == n && '.' == path.charAt(s + 1)))
+                    return false;
+                s = i + 1;
+            } else if (!unquoted(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if and only if the given character does not need
+     * quoting in the path component of a URI.
+     * This is a subset of the characters which are legal in a URI path
+     * component.
+     * Note that the colon is excluded because it cannot appear unquoted in
+     * the first segment of a relative URI path.
+     */
+    private static boolean unquoted(final char c) {
+        return 'a' <= c && c <= 'z'
+                || 'A' <= c && c <= 'Z'
+                || '0' <= c && c <= '9'
+                || 0 <= "-_.!~*'()@&=+$,;".indexOf(c)
+                || 0x80 <= c && Character.isLetterOrDigit(c);
+    }
 
     /**
      * Constructs a new file system node name by parsing the given URI.
@@ -250,9 +352,15 @@ implements Serializable, Comparable<FsNodeName> {
         parse(modifier.modify(uri, NODE_NAME));
     }
 
+    private FsNodeName(final String string) {
+        this.string = string;
+
+        assert invariants();
+    }
+
     private void writeObject(ObjectOutputStream out)
     throws IOException {
-        out.writeObject(uri.toString());
+        out.writeObject(string);
     }
 
     private void readObject(ObjectInputStream in)
@@ -268,13 +376,16 @@ implements Serializable, Comparable<FsNodeName> {
     private void parse(final URI uri) throws URISyntaxException {
         if (uri.isAbsolute())
             throw new QuotedUriSyntaxException(uri, "Scheme component defined");
-        if (null != uri.getRawAuthority())
+        final String s = uri.toString();
+        // An empty authority component is undefined, but still present.
+        if (null != uri.getRawAuthority() || s.startsWith(SEPARATOR + SEPARATOR))
             throw new QuotedUriSyntaxException(uri, "Authority component defined");
         if (null == uri.getRawPath())
             throw new QuotedUriSyntaxException(uri, "Path component undefined");
         if (null != uri.getRawFragment())
             throw new QuotedUriSyntaxException(uri, "Fragment component defined");
         this.uri = uri;
+        this.string = s;
         final String p = uri.getRawPath();
         if (p.startsWith(SEPARATOR))
             throw new QuotedUriSyntaxException(uri,
@@ -304,24 +415,37 @@ implements Serializable, Comparable<FsNodeName> {
      */
     public FsNodeName( final FsNodeName parent,
                         final FsNodeName member) {
-        final URI pu = parent.uri;
-        final String pup = pu.getRawPath();
-        final URI mu = member.uri;
-        try {
-            uri = pup.isEmpty()
-                    ? mu
-                    : pup.endsWith(SEPARATOR)
-                        ? pu.resolve(mu)
-                        : mu.getPath().isEmpty()
-                            ? new UriBuilder(pu, true)
-                                .query(mu.getRawQuery())
-                                .getUri()
-                            : new UriBuilder(true)
-                                .path(pup + SEPARATOR_CHAR)
-                                .getUri()
-                                .resolve(mu);
-        } catch (URISyntaxException ex) {
-            throw new AssertionError(ex);
+        final String pp = parent.rawPath();
+        if (pp.isEmpty()) {
+            string = member.string;
+            uri = member.uri;
+        } else if (0 <= pp.indexOf(':')) {
+            // Let the URI builder quote any colons in the parent path.
+            final URI pu = parent.getUri();
+            final URI mu = member.getUri();
+            final URI u;
+            try {
+                u = mu.getPath().isEmpty()
+                        ? new UriBuilder(pu, true)
+                            .query(mu.getRawQuery())
+                            .getUri()
+                        : new UriBuilder(true)
+                            .path(pp + SEPARATOR_CHAR)
+                            .getUri()
+                            .resolve(mu);
+            } catch (URISyntaxException ex) {
+                throw new AssertionError(ex);
+            }
+            uri = u;
+            string = u.toString();
+        } else {
+            final String ms = member.string;
+            // A relative URI path with a colon in its first segment has a
+            // leading "./" which becomes redundant here.
+            string = member.rawPath().isEmpty()
+                    ? pp + ms
+                    : pp + SEPARATOR_CHAR
+                        + (ms.startsWith("." + SEPARATOR) ? ms.substring(2) : ms);
         }
 
         assert invariants();
@@ -329,6 +453,7 @@ implements Serializable, Comparable<FsNodeName> {
 
     private boolean invariants() {
         assert null != getUri();
+        assert getUri().toString().equals(string);
         assert !getUri().isAbsolute();
         assert null == getUri().getRawAuthority();
         assert null != getUri().getRawPath();
@@ -350,22 +475,17 @@ implements Serializable, Comparable<FsNodeName> {
      * @return {@code true} if and only if the path component of this file
      *         system node name is empty and no query component is defined.
      */
-    public boolean isRoot() {
-        //return getUri().toString().isEmpty();
-        final URI uri = getUri();
-        final String path = uri.getRawPath();
-        if (null != path && !path.isEmpty())
-            return false;
-        final String query = uri.getRawQuery();
-        return null == query;
-    }
+    public boolean isRoot() { return string.isEmpty(); }
 
     /**
      * Returns the URI for this node name.
      *
      * @return The URI for this node name.
      */
-    public URI getUri() { return uri; }
+    public URI getUri() {
+        final URI uri = this.uri;
+        return null != uri ? uri : (this.uri = URI.create(string));
+    }
 
     /**
      * Returns the path component of this node name.
@@ -373,7 +493,10 @@ implements Serializable, Comparable<FsNodeName> {
      *
      * @return The path component of this node name.
      */
-    public String getPath() { return uri.getPath(); }
+    public String getPath() {
+        final String p = rawPath();
+        return 0 > p.indexOf('%') ? p : getUri().getPath();
+    }
 
     /**
      * Returns the query component of this node name.
@@ -381,7 +504,22 @@ implements Serializable, Comparable<FsNodeName> {
      *
      * @return The query component of this node name.
      */
-    public @CheckForNull String getQuery() { return uri.getQuery(); }
+    public @CheckForNull String getQuery() {
+        final String q = rawQuery();
+        return null == q || 0 > q.indexOf('%') ? q : getUri().getQuery();
+    }
+
+    private String rawPath() {
+        final String s = string;
+        final int i = s.indexOf('?');
+        return 0 > i ? s : s.substring(0, i);
+    }
+
+    private @CheckForNull String rawQuery() {
+        final String s = string;
+        final int i = s.indexOf('?');
+        return 0 > i ? null : s.substring(i + 1);
+    }
 
     /**
      * Implements a natural ordering which is consistent with
@@ -390,8 +528,14 @@ implements Serializable, Comparable<FsNodeName> {
      * @param that the node name to compare.
      */
     @Override
-    public int compareTo(FsNodeName that) {
-        return this.uri.compareTo(that.uri);
+    public int compareTo(final FsNodeName that) {
+        // Same as URI.compareTo(URI) for relative URIs without an authority.
+        final int c = this.rawPath().compareTo(that.rawPath());
+        if (0 != c) return c;
+        final String q1 = this.rawQuery(), q2 = that.rawQuery();
+        return null == q1
+                ? null == q2 ? 0 : -1
+                : null == q2 ? 1 : q1.compareTo(q2);
     }
 
     /**
@@ -401,21 +545,43 @@ implements Serializable, Comparable<FsNodeName> {
      * @param that the object to compare.
      */
     @Override
-    public boolean equals(@CheckForNull Object that) {
-        return this == that
-                || that instanceof FsNodeName
-                    && this.uri.equals(((FsNodeName) that).uri);
+    public boolean equals(final @CheckForNull Object that) {
+        if (this == that) return true;
+        if (!(that instanceof FsNodeName)) return false;
+        final FsNodeName other = (FsNodeName) that;
+        final String s1 = this.string, s2 = other.string;
+        // URIs compare the hex digits of escape sequences case insensitive.
+        return s1.equals(s2)
+                || 0 <= s1.indexOf('%') && 0 <= s2.indexOf('%')
+                    && this.getUri().equals(other.getUri());
     }
 
     /**
      * Returns a hash code which is consistent with {@link #equals(Object)}.
      */
     @Override
-    public int hashCode() { return uri.hashCode(); }
+    public int hashCode() {
+        int h = hash;
+        if (0 == h) {
+            final String s = string;
+            for (int i = 0, l = s.length(), e = 0; i < l; i++) {
+                char c = s.charAt(i);
+                if (0 < e) {
+                    c = Character.toUpperCase(c);
+                    e--;
+                } else if ('%' == c) {
+                    e = 2;
+                }
+                h = 31 * h + c;
+            }
+            hash = h;
+        }
+        return h;
+    }
 
     /**
      * Equivalent to calling {@link URI#toString()} on {@link #getUri()}.
      */
     @Override
-    public String toString() { return uri.toString(); }
-}
\ No newline at end of file
+    public String toString() { return string; }
+}
@@ -143,6 +143,8 @@ implements Serializable, Comparable<FsNodePath> {
 
     private static final URI DOT = URI.create(".");
 
+    private static final String FILE_SCHEME = "file:";
+
     @SuppressFBWarnings("JCIP_FIELD_ISNT_FINAL_IN_IMMUTABLE_CLASS")
     private URI uri; // not final for serialization only!
 
@@ -188,7 +190,8 @@ implements Serializable, Comparable<FsNodePath> {
      */
     public FsNodePath(File file) {
         try {
-            parse(file.toURI(), CANONICALIZE);
+            if (!parse(file))
+                parse(file.toURI(), CANONICALIZE);
         } catch (URISyntaxException ex) {
             throw new AssertionError(ex);
         }
@@ -234,23 +237,10 @@ implements Serializable, Comparable<FsNodePath> {
             try {
                 // Compute mountPoint + nodeName, but ensure that all URI
                 // components are properly quoted.
-                final String mpussp = mpu.getRawSchemeSpecificPart();
-                final int mpusspl = mpussp.length();
-                final URI enu = nodeName.getUri();
-                final String enup = enu.getRawPath();
-                final int enupl = enup.length();
-                final String enuq = enu.getRawQuery();
-                final int enuql = null == enuq ? 0 : enuq.length() + 1;
-                final StringBuilder ssp =
-                        new StringBuilder(mpusspl + enupl + enuql)
-                        .append(mpussp)
-                        .append(enup);
-                if (null != enuq)
-                    ssp.append('?').append(enuq);
+                // The string form of the node name is its raw path and query.
                 this.uri = new UriBuilder(true)
                         .scheme(mpu.getScheme())
-                        .path(ssp.toString())
-                        .fragment(enu.getRawFragment())
+                        .path(mpu.getRawSchemeSpecificPart() + nodeName)
                         .getUri();
             } catch (URISyntaxException ex) {
                 throw new AssertionError(ex);
@@ -279,6 +269,33 @@ implements Serializable, Comparable<FsNodePath> {
         }
     }
 
+    /**
+     * Parses the absolute path of the given file without calling
+     * {@link File#toURI()}, which would access the file system in order to
+     * check if the file is a directory and then get the resulting URI parsed
+     * and canonicalized once more.
+     * This works only if the file separator is {@code '/'} and the absolute
+     * path is in canonical form and does not need quoting, which is the
+     * common case.
+     *
+     * @return {@code true} if and only if the file has been parsed.
+     */
+    private boolean parse(final File file) throws URISyntaxException {
+        if (FsNodeName.SEPARATOR_CHAR != File.separatorChar) return false;
+        final String p = file.getAbsolutePath();
+        if (!p.startsWith(FsNodeName.SEPARATOR)
+                || !FsNodeName.canonical(p, 1))
+            return false;
+        final int i = p.lastIndexOf(FsNodeName.SEPARATOR_CHAR) + 1;
+        mountPoint = new FsMountPoint(
+                new URI(FILE_SCHEME + p.substring(0, i)), NULL);
+        nodeName = FsNodeName.canonical(p.substring(i));
+        uri = new URI(FILE_SCHEME + p);
+
+        assert invariants();
+        return true;
+    }
+
     private void parse(URI uri, final FsUriModifier modifier)
     throws URISyntaxException {
         uri = modifier.modify(uri, NODE_PATH);
@@ -304,7 +321,7 @@ implements Serializable, Comparable<FsNodePath> {
                     modifier);
             if (NULL != modifier) {
                 URI mpu = mountPoint.getUri();
-                URI nuri = new URI(mpu.getScheme() + ':' + mpu.getRawSchemeSpecificPart() + nodeName.getUri());
+                URI nuri = new URI(mpu.getScheme() + ':' + mpu.getRawSchemeSpecificPart() + nodeName);
                 if (!uri.equals(nuri))
                     uri = nuri;
             }
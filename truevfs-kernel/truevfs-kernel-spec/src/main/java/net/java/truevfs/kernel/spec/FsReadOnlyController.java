@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import net.java.truecommons.cio.AbstractOutputSocket;
+import net.java.truecommons.cio.Entry;
+import net.java.truecommons.cio.Entry.Access;
+import net.java.truecommons.cio.Entry.Type;
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.shed.BitField;
+
+/**
+ * A read-only view of a file system controller.
+ * All modifying operations fail with an
+ * {@link FsReadOnlyFileSystemException}.
+ * Calling {@link #sync} does nothing because the decorated controller is
+ * still in use by others.
+ * This is the fallback for {@link FsController#snapshot}.
+ *
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+final class FsReadOnlyController extends FsDecoratingController {
+
+    FsReadOnlyController(FsController controller) { super(controller); }
+
+    private FsReadOnlyFileSystemException readOnly() {
+        return new FsReadOnlyFileSystemException(getMountPoint());
+    }
+
+    @Override
+    public void setReadOnly(BitField<FsAccessOption> options, FsNodeName name)
+    throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean setTime(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            Map<Access, Long> times)
+    throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean setTime(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            BitField<Access> types,
+            long value)
+    throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public OutputSocket<? extends Entry> output(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            @CheckForNull Entry template) {
+        return new AbstractOutputSocket<Entry>() {
+            @Override
+            public Entry target() throws IOException { throw readOnly(); }
+
+            @Override
+            public OutputStream stream(InputSocket<? extends Entry> peer)
+            throws IOException {
+                throw readOnly();
+            }
+
+            @Override
+            public SeekableByteChannel channel(InputSocket<? extends Entry> peer)
+            throws IOException {
+                throw readOnly();
+            }
+        };
+    }
+
+    @Override
+    public void make(
+            BitField<FsAccessOption> options,
+            FsNodeName name,
+            Type type,
+            @CheckForNull Entry template)
+    throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public void unlink(BitField<FsAccessOption> options, FsNodeName name)
+    throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public void sync(BitField<FsSyncOption> options) { }
+
+    @Override
+    public FsController snapshot(BitField<FsAccessOption> options) {
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec.cio;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An input resource, typically an {@link java.io.InputStream}, which can
+ * transfer its remaining data to a writable byte channel without copying it
+ * through the Java heap, e.g. by using
+ * {@link java.nio.channels.FileChannel#transferTo}.
+ * Decorators which cannot forward the call to the decorated resource should
+ * fall back to {@link ChannelTransfers#transfer}.
+ *
+ * @see    ChannelOutput
+ * @see    ChannelTransfers
+ * @author Christian Schlichtherle
+ */
+public interface ChannelInput {
+
+    /**
+     * Transfers the remaining data of this input resource to the given
+     * channel.
+     * Upon return, this input resource is positioned at its end.
+     *
+     * @param  target the channel to write the data to.
+     * @return The number of bytes transferred.
+     * @throws IOException on any I/O error.
+     */
+    long transferTo(WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec.cio;
+
+import java.io.IOException;
+
+/**
+ * An output resource, typically an {@link java.io.OutputStream}, which may be
+ * able to receive the data of a {@link ChannelInput} by a channel-to-channel
+ * transfer.
+ * Decorators should implement this interface if and only if they can forward
+ * the call to the decorated resource without changing its data.
+ *
+ * @see    ChannelInput
+ * @see    ChannelTransfers
+ * @author Christian Schlichtherle
+ */
+public interface ChannelOutput {
+
+    /**
+     * Transfers the remaining data of the given input resource to this
+     * output resource.
+     * If this output resource is not backed by a writable byte channel, then
+     * this method returns {@code -1} without consuming any data.
+     *
+     * @param  input the input resource to transfer the data from.
+     * @return The number of bytes transferred or {@code -1} if this output
+     *         resource does not support channel transfers.
+     * @throws IOException on any I/O error.
+     */
+    long transferFrom(ChannelInput input) throws IOException;
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec.cio;
+
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.IoSockets;
+import net.java.truecommons.cio.OutputSocket;
+import net.java.truecommons.io.Streams;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Provides utility methods for copying data between I/O sockets using
+ * channel-to-channel transfers where possible.
+ *
+ * @see    ChannelInput
+ * @see    ChannelOutput
+ * @author Christian Schlichtherle
+ */
+@Immutable
+public final class ChannelTransfers {
+
+    /** The size of the buffer used by {@link #transfer}. */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private ChannelTransfers() { }
+
+    /**
+     * Copies an input stream {@link InputSocket#stream created} by the given
+     * {@code input} socket to an output stream
+     * {@link OutputSocket#stream created} by the given {@code output} socket,
+     * just like {@link IoSockets#copy(InputSocket, OutputSocket)}.
+     * However, if the input stream is a {@link ChannelInput} and the output
+     * stream is a {@link ChannelOutput}, then the data gets transferred
+     * between their channels, so that the operating system can copy the data
+     * without passing it through the Java heap, e.g. by using
+     * {@code sendfile} or {@code copy_file_range}.
+     * Otherwise, this method falls back to {@link Streams#copy}.
+     * In any case, both streams get closed.
+     *
+     * @param  input an input socket for the input target.
+     * @param  output an output socket for the output target.
+     * @throws IOException on any I/O error.
+     */
+    public static void copy(
+            final InputSocket<?> input,
+            final OutputSocket<?> output)
+    throws IOException {
+        final InputStream in = input.stream(output);
+        final OutputStream out;
+        try {
+            out = output.stream(input);
+        } catch (final Throwable ex) {
+            try {
+                in.close();
+            } catch (final Throwable ex2) {
+                ex.addSuppressed(ex2);
+            }
+            throw ex;
+        }
+        if (in instanceof ChannelInput && out instanceof ChannelOutput) {
+            try (InputStream i = in; OutputStream o = out) {
+                if (0 > ((ChannelOutput) o).transferFrom((ChannelInput) i))
+                    Streams.cat(i, o);
+            }
+        } else {
+            Streams.copy(in, out);
+        }
+    }
+
+    /**
+     * Transfers the remaining data of the given input stream to the given
+     * channel using a heap buffer.
+     * This is the fall back for {@link ChannelInput}s which cannot transfer
+     * their data by other means.
+     * Neither the stream nor the channel get closed.
+     *
+     * @param  in the input stream to read the data from.
+     * @param  target the channel to write the data to.
+     * @return The number of bytes transferred.
+     * @throws IOException on any I/O error.
+     */
+    public static long transfer(
+            final InputStream in,
+            final WritableByteChannel target)
+    throws IOException {
+        final byte[] array = new byte[BUFFER_SIZE];
+        long total = 0;
+        for (int read; 0 <= (read = in.read(array)); ) {
+            final ByteBuffer buffer = ByteBuffer.wrap(array, 0, read);
+            while (buffer.hasRemaining()) target.write(buffer);
+            total += read;
+        }
+        return total;
+    }
+}
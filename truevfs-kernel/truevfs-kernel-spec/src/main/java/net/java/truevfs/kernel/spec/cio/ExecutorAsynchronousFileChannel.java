@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec.cio;
+
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An asynchronous file channel which executes the blocking operations of a
+ * seekable byte channel on an executor.
+ * This is useful for channels which cannot get read or written
+ * asynchronously by the operating system, e.g. channels for entries in
+ * archive files.
+ * <p>
+ * The operations of the decorated channel get serialized by a
+ * {@link ReentrantLock}, unless it's a {@link FileChannel}, which supports
+ * concurrent positional access.
+ * Unlike a monitor, the lock does not pin a virtual thread to its carrier
+ * thread while it blocks on I/O.
+ * Completion handlers get invoked by the threads of the executor.
+ * <p>
+ * File locks get delegated to the decorated channel if it's a
+ * {@link FileChannel}.
+ * Otherwise, e.g. for entries in archive files, the lock methods throw an
+ * {@link UnsupportedOperationException} because there is no file to lock.
+ *
+ * @since  TrueVFS 0.15
+ * @author Christian Schlichtherle
+ */
+@ThreadSafe
+public final class ExecutorAsynchronousFileChannel
+extends AsynchronousFileChannel {
+
+    private final SeekableByteChannel channel;
+    private final Executor executor;
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Constructs a new asynchronous file channel.
+     *
+     * @param channel the seekable byte channel to decorate.
+     * @param executor the executor for running the operations.
+     */
+    public ExecutorAsynchronousFileChannel(
+            final @WillCloseWhenClosed SeekableByteChannel channel,
+            final Executor executor) {
+        this.channel = Objects.requireNonNull(channel);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public long size() throws IOException {
+        lock.lock();
+        try {
+            return channel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public AsynchronousFileChannel truncate(final long size)
+    throws IOException {
+        if (0 > size) throw new IllegalArgumentException();
+        lock.lock();
+        try {
+            channel.truncate(size);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public void force(final boolean metaData) throws IOException {
+        if (channel instanceof FileChannel)
+            ((FileChannel) channel).force(metaData);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the decorated channel is not
+     *         a {@link FileChannel}.
+     */
+    @Override
+    public <A> void lock(
+            final long position,
+            final long size,
+            final boolean shared,
+            final A attachment,
+            final CompletionHandler<FileLock, ? super A> handler) {
+        Objects.requireNonNull(handler);
+        execute(lock0(position, size, shared), attachment, handler);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the decorated channel is not
+     *         a {@link FileChannel}.
+     */
+    @Override
+    public Future<FileLock> lock(
+            final long position,
+            final long size,
+            final boolean shared) {
+        return submit(lock0(position, size, shared));
+    }
+
+    private Operation<FileLock> lock0(
+            final long position,
+            final long size,
+            final boolean shared) {
+        final FileChannel fc = fileChannel();
+        return () -> fc.lock(position, size, shared);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the decorated channel is not
+     *         a {@link FileChannel}.
+     */
+    @Override
+    public FileLock tryLock(
+            final long position,
+            final long size,
+            final boolean shared)
+    throws IOException {
+        return fileChannel().tryLock(position, size, shared);
+    }
+
+    private FileChannel fileChannel() {
+        if (!(channel instanceof FileChannel))
+            throw new UnsupportedOperationException(
+                    "File locks are not supported for " + channel);
+        return (FileChannel) channel;
+    }
+
+    @Override
+    public <A> void read(
+            final ByteBuffer dst,
+            final long position,
+            final A attachment,
+            final CompletionHandler<Integer, ? super A> handler) {
+        Objects.requireNonNull(handler);
+        execute(read0(dst, position), attachment, handler);
+    }
+
+    @Override
+    public Future<Integer> read(final ByteBuffer dst, final long position) {
+        return submit(read0(dst, position));
+    }
+
+    private Operation<Integer> read0(final ByteBuffer dst, final long position) {
+        if (0 > position) throw new IllegalArgumentException();
+        if (dst.isReadOnly()) throw new IllegalArgumentException();
+        return () -> {
+            if (channel instanceof FileChannel)
+                return ((FileChannel) channel).read(dst, position);
+            lock.lock();
+            try {
+                if (position >= channel.size()) return -1;
+                channel.position(position);
+                return channel.read(dst);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    @Override
+    public <A> void write(
+            final ByteBuffer src,
+            final long position,
+            final A attachment,
+            final CompletionHandler<Integer, ? super A> handler) {
+        Objects.requireNonNull(handler);
+        execute(write0(src, position), attachment, handler);
+    }
+
+    @Override
+    public Future<Integer> write(final ByteBuffer src, final long position) {
+        return submit(write0(src, position));
+    }
+
+    private Operation<Integer> write0(final ByteBuffer src, final long position) {
+        if (0 > position) throw new IllegalArgumentException();
+        return () -> {
+            if (channel instanceof FileChannel)
+                return ((FileChannel) channel).write(src, position);
+            lock.lock();
+            try {
+                channel.position(position);
+                return channel.write(src);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    private <V, A> void execute(
+            final Operation<V> operation,
+            final A attachment,
+            final CompletionHandler<V, ? super A> handler) {
+        try {
+            executor.execute(() -> {
+                final V result;
+                try {
+                    result = operation.call();
+                } catch (final Throwable ex) {
+                    handler.failed(ex, attachment);
+                    return;
+                }
+                handler.completed(result, attachment);
+            });
+        } catch (final RejectedExecutionException ex) {
+            handler.failed(ex, attachment);
+        }
+    }
+
+    private <V> Future<V> submit(final Operation<V> operation) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(operation.call());
+                } catch (final Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (final RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation<V> {
+        V call() throws IOException;
+    }
+}
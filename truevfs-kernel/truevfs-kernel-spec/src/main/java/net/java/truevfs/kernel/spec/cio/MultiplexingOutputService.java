@@ -9,6 +9,7 @@ import edu.umd.cs.findbugs.annotations.CreatesObligation;
 import edu.umd.cs.findbugs.annotations.DischargesObligation;
 import net.java.truecommons.cio.*;
 import net.java.truecommons.cio.Entry.Access;
+import net.java.truecommons.io.ClosedOutputException;
 import net.java.truecommons.io.DecoratingOutputStream;
 import net.java.truecommons.shed.CompoundIterator;
 import net.java.truecommons.shed.ExceptionBuilder;
@@ -175,7 +176,8 @@ public class MultiplexingOutputService<E extends MutableEntry> extends Decoratin
     /**
      * This entry output stream writes directly to this output service.
      */
-    private final class EntryOutputStream extends DecoratingOutputStream {
+    private final class EntryOutputStream extends DecoratingOutputStream
+    implements ChannelOutput {
 
         boolean closed;
 
@@ -184,6 +186,14 @@ public class MultiplexingOutputService<E extends MutableEntry> extends Decoratin
             busy = true;
         }
 
+        @Override
+        public long transferFrom(ChannelInput input) throws IOException {
+            if (closed) throw new ClosedOutputException();
+            return out instanceof ChannelOutput
+                    ? ((ChannelOutput) out).transferFrom(input)
+                    : -1;
+        }
+
         @Override
         @DischargesObligation
         public void close() throws IOException {
@@ -4,7 +4,8 @@
  */
 /**
  * Provides a
- * {@link net.java.truevfs.kernel.spec.cio.MultiplexingOutputService}.
+ * {@link net.java.truevfs.kernel.spec.cio.MultiplexingOutputService}
+ * and interfaces for channel-to-channel transfers between I/O sockets.
  *
  * @author Christian Schlichtherle
  */
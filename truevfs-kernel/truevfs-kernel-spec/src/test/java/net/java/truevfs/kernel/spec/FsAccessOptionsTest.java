@@ -23,7 +23,7 @@ public class FsAccessOptionsTest {
         for (final Object[] params : new Object[][] {
             // { $array, $bits }
             { new FsAccessOption[0], NONE },
-            { new FsAccessOption[] { CACHE, CREATE_PARENTS, STORE, COMPRESS, GROW, ENCRYPT }, ACCESS_PREFERENCES_MASK },
+            { new FsAccessOption[] { CACHE, CREATE_PARENTS, STORE, COMPRESS, GROW, ENCRYPT, DEFER, SUPERSEDE }, ACCESS_PREFERENCES_MASK },
         }) {
             final FsAccessOption[] array = (FsAccessOption[]) params[0];
             final BitField<?> bits = (BitField<?>) params[1];
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import net.java.truecommons.cio.InputSocket;
+import net.java.truecommons.cio.MemoryBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static net.java.truevfs.kernel.spec.FsSyncOptions.UMOUNT;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class FsAsyncControllerTest {
+
+    private static final byte[] DATA = "Hello world!".getBytes(US_ASCII);
+    private static final FsNodeName
+            SOURCE = FsNodeName.create(URI.create("source")),
+            TARGET = FsNodeName.create(URI.create("target")),
+            MISSING = FsNodeName.create(URI.create("missing"));
+
+    private final MemoryBuffer source = new MemoryBuffer(SOURCE.toString(), 16);
+    private final MemoryBuffer target = new MemoryBuffer(TARGET.toString(), 16);
+    private final FsController delegate = mock(FsController.class);
+    private ExecutorService executor;
+    private FsAsyncController controller;
+
+    @Before
+    public void setUp() throws IOException {
+        doReturn(source.input()).when(delegate).input(any(), eq(SOURCE));
+        doReturn(source.output()).when(delegate).output(any(), eq(SOURCE), any());
+        doReturn(target.input()).when(delegate).input(any(), eq(TARGET));
+        doReturn(target.output()).when(delegate).output(any(), eq(TARGET), any());
+        final InputSocket<?> missing = mock(InputSocket.class);
+        doThrow(new NoSuchFileException(MISSING.toString()))
+                .when(missing).stream(any());
+        doReturn(missing).when(delegate).input(any(), eq(MISSING));
+        executor = Executors.newSingleThreadExecutor();
+        controller = new FsAsyncController(delegate, executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testWriteReadAndSync() throws Exception {
+        assertEquals(DATA.length, (int) controller
+                .writeAsync(NONE, SOURCE, ByteBuffer.wrap(DATA)).get());
+        final ByteBuffer buffer = controller.readAsync(NONE, SOURCE).get();
+        assertEquals(0, buffer.position());
+        assertEquals(DATA.length, buffer.remaining());
+        final byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        assertArrayEquals(DATA, array);
+        assertNull(controller.syncAsync(UMOUNT).get());
+        verify(delegate).sync(UMOUNT);
+    }
+
+    @Test
+    public void testDefaultExecutorCannotGetShutDown() throws Exception {
+        assertFalse(FsAsyncController.getDefaultExecutor() instanceof ExecutorService);
+        final FsAsyncController controller = new FsAsyncController(delegate);
+        assertSame(FsAsyncController.getDefaultExecutor(), controller.getExecutor());
+        assertEquals(DATA.length, (int) controller
+                .writeAsync(NONE, SOURCE, ByteBuffer.wrap(DATA)).get());
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        controller.writeAsync(NONE, SOURCE, ByteBuffer.wrap(DATA))
+                .thenCompose(n -> controller.copyAsync(NONE, SOURCE, TARGET))
+                .get();
+        final ByteBuffer buffer = controller.readAsync(NONE, TARGET).get();
+        final byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        assertArrayEquals(DATA, array);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        try {
+            controller.readAsync(NONE, MISSING).get();
+            fail();
+        } catch (final ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof NoSuchFileException);
+        }
+        final FsSyncException ex = new FsSyncException(
+                FsMountPoint.create(URI.create("file:/")), new IOException());
+        doThrow(ex).when(delegate).sync(UMOUNT);
+        try {
+            controller.syncAsync(UMOUNT).get();
+            fail();
+        } catch (final ExecutionException expected) {
+            assertSame(ex, expected.getCause());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import net.java.truecommons.cio.MemoryBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Random;
+
+import static net.java.truecommons.cio.Entry.Access.READ;
+import static net.java.truecommons.cio.Entry.Access.WRITE;
+import static net.java.truecommons.cio.Entry.Size.DATA;
+import static net.java.truecommons.cio.Entry.Type.FILE;
+import static net.java.truecommons.cio.Entry.UNKNOWN;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class FsBlockCacheControllerTest {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final FsNodeName NAME = FsNodeName.create(URI.create("archive.zip"));
+
+    private final byte[] data = new byte[10 * BLOCK_SIZE + 123];
+    private final MemoryBuffer buffer = new MemoryBuffer(NAME.toString(), ByteBuffer.wrap(data));
+    private final FsNode node = mock(FsNode.class);
+    private final FsController delegate = mock(FsController.class);
+    private final FsBlockCacheController.Pool pool
+            = new FsBlockCacheController.Pool(BLOCK_SIZE, 4 * BLOCK_SIZE);
+    private volatile Object validator;
+    private FsController controller;
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(0).nextBytes(data);
+        when(node.isType(FILE)).thenReturn(true);
+        when(node.getSize(DATA)).thenReturn((long) data.length);
+        when(node.getTime(WRITE)).thenReturn(1L);
+        when(delegate.getModel()).thenReturn(mock(FsModel.class));
+        doReturn(node).when(delegate).node(any(), eq(NAME));
+        doReturn(buffer.input()).when(delegate).input(any(), eq(NAME));
+        controller = newController(delegate);
+    }
+
+    private FsController newController(FsController delegate) {
+        return new FsBlockCacheController(delegate, pool) {
+            @Override
+            protected Object getValidator(FsNode node) { return validator; }
+        };
+    }
+
+    private byte[] read(final long position, final int length) throws IOException {
+        final ByteBuffer dst = ByteBuffer.allocate(length);
+        try (SeekableByteChannel channel = controller.input(NONE, NAME).channel(null)) {
+            assertEquals(data.length, channel.size());
+            channel.position(position);
+            while (dst.hasRemaining() && 0 <= channel.read(dst)) {
+            }
+        }
+        return dst.array();
+    }
+
+    private void assertRead(final int position, final int length) throws IOException {
+        final byte[] expected = new byte[length];
+        System.arraycopy(data, position, expected, 0, length);
+        assertArrayEquals(expected, read(position, length));
+    }
+
+    @Test
+    public void testReadThrough() throws IOException {
+        assertRead(data.length - 200, 200);
+        assertEquals(1, buffer.getCount(READ));
+        assertRead(data.length - 100, 100);
+        assertEquals(1, buffer.getCount(READ));
+        assertRead(BLOCK_SIZE - 10, 20);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        assertRead(0, data.length);
+        assertEquals(1, buffer.getCount(READ));
+        assertRead(data.length - 100, 100);
+        assertEquals(1, buffer.getCount(READ));
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testValidation() throws IOException {
+        assertRead(0, 100);
+        when(node.getTime(WRITE)).thenReturn(2L);
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testDiscardOnWrite() throws IOException {
+        assertRead(0, 100);
+        controller.output(NONE, NAME, null);
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testValidator() throws IOException {
+        validator = "\"1\"";
+        assertRead(0, 100);
+        assertRead(0, 100);
+        assertEquals(1, buffer.getCount(READ));
+        validator = "\"2\"";
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testUnknownTime() throws IOException {
+        when(node.getTime(WRITE)).thenReturn((long) UNKNOWN);
+        assertRead(0, 100);
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testUnknownTimeWithValidator() throws IOException {
+        when(node.getTime(WRITE)).thenReturn((long) UNKNOWN);
+        validator = "\"1\"";
+        assertRead(0, 100);
+        assertRead(0, 100);
+        assertEquals(1, buffer.getCount(READ));
+    }
+
+    @Test
+    public void testSharedPool() throws IOException {
+        final FsNodeName name = FsNodeName.create(URI.create("other.zip"));
+        final byte[] other = new byte[4 * BLOCK_SIZE];
+        final MemoryBuffer otherBuffer = new MemoryBuffer(name.toString(), ByteBuffer.wrap(other));
+        final FsNode otherNode = mock(FsNode.class);
+        when(otherNode.isType(FILE)).thenReturn(true);
+        when(otherNode.getSize(DATA)).thenReturn((long) other.length);
+        when(otherNode.getTime(WRITE)).thenReturn(1L);
+        final FsController otherDelegate = mock(FsController.class);
+        when(otherDelegate.getModel()).thenReturn(mock(FsModel.class));
+        doReturn(otherNode).when(otherDelegate).node(any(), eq(name));
+        doReturn(otherBuffer.input()).when(otherDelegate).input(any(), eq(name));
+        final FsController otherController = newController(otherDelegate);
+
+        assertRead(0, 100);
+        assertEquals(1, buffer.getCount(READ));
+        final ByteBuffer dst = ByteBuffer.allocate(other.length);
+        try (SeekableByteChannel channel = otherController.input(NONE, name).channel(null)) {
+            while (dst.hasRemaining() && 0 <= channel.read(dst)) {
+            }
+        }
+        assertArrayEquals(other, dst.array());
+        assertRead(0, 100);
+        assertEquals(2, buffer.getCount(READ));
+    }
+}
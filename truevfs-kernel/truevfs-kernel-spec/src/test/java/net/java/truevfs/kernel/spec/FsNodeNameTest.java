@@ -16,6 +16,8 @@ import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import net.java.truecommons.shed.UriBuilder;
+
 import static net.java.truevfs.kernel.spec.FsUriModifier.CANONICALIZE;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -233,4 +235,45 @@ public class FsNodeNameTest {
             assertThat(FsNodeName.create(URI.create(params[0].toString())).isRoot(), is(params[1]));
         }
     }
+
+    @Test
+    public void testForPath() {
+        for (final String path : new String[] {
+            "",
+            "foo",
+            "foo/bar",
+            "föö/bär",
+            "foo-bar_baz.~!$&'()*+,;=@",
+            "/foo/",
+            "foo//bar",
+            "foo/./bar",
+            "foo/../bar",
+            "..foo/bar..",
+            "foo:bar",
+            "foo bar",
+            "foo%20bar",
+            "foo?bar",
+            "foo#bar",
+        }) {
+            final FsNodeName expected = FsNodeName.create(
+                    new UriBuilder().path(path).toUri(), CANONICALIZE);
+            final FsNodeName name = FsNodeName.forPath(path);
+            assertThat(name, equalTo(expected));
+            assertThat(name.hashCode(), equalTo(expected.hashCode()));
+            assertThat(name.toString(), equalTo(expected.toString()));
+            assertThat(name.getPath(), equalTo(expected.getPath()));
+            assertThat(name.getQuery(), equalTo(expected.getQuery()));
+            assertThat(name.getUri(), equalTo(expected.getUri()));
+            assertThat(name.compareTo(expected), is(0));
+            assertThat(FsNodeName.forPath(path), sameInstance(name));
+        }
+    }
+
+    @Test
+    public void testEscapeSequencesAreCaseInsensitive() {
+        final FsNodeName lower = FsNodeName.create(URI.create("foo%3abar?baz%2f"));
+        final FsNodeName upper = FsNodeName.create(URI.create("foo%3Abar?baz%2F"));
+        assertThat(lower, equalTo(upper));
+        assertThat(lower.hashCode(), equalTo(upper.hashCode()));
+    }
 }
@@ -365,4 +365,29 @@ public class FsNodePathTest {
             assertThat(hierarchical, equalTo(URI.create(params[1])));
         }
     }
+
+    @Test
+    public void testFile() {
+        for (final String param : new String[] {
+            "/",
+            "/foo",
+            "/foo/bar",
+            "/foo/bar/",
+            "/foo//bar",
+            "/foo/./bar",
+            "/foo/../bar",
+            "/föö/bär",
+            "/foo bar/baz",
+            "/foo:bar/baz:boom",
+            "foo/bar",
+        }) {
+            final File file = new File(param);
+            final FsNodePath expected = FsNodePath.create(file.toURI(), CANONICALIZE);
+            final FsNodePath path = new FsNodePath(file);
+            assertThat(path, equalTo(expected));
+            assertThat(path.toString(), equalTo(expected.toString()));
+            assertThat(path.getMountPoint(), equalTo(expected.getMountPoint()));
+            assertThat(path.getNodeName(), equalTo(expected.getNodeName()));
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static net.java.truecommons.cio.Entry.Type.FILE;
+import static net.java.truevfs.kernel.spec.FsAccessOptions.NONE;
+import static net.java.truevfs.kernel.spec.FsSyncOptions.SYNC;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the default implementation of {@link FsController#snapshot}.
+ *
+ * @author Christian Schlichtherle
+ */
+public final class FsReadOnlyControllerTest {
+
+    private static final FsNodeName NAME = FsNodeName.create(URI.create("file"));
+
+    private final FsController controller = mock(FsController.class);
+    private final FsNode node = mock(FsNode.class);
+    private FsController snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        final FsModel model = mock(FsModel.class);
+        when(model.getMountPoint()).thenReturn(FsMountPoint.create(URI.create("file:/")));
+        when(controller.getModel()).thenReturn(model);
+        when(controller.node(any(), any())).thenReturn(node);
+        when(controller.snapshot(any())).thenCallRealMethod();
+        snapshot = controller.snapshot(NONE);
+        verify(controller).sync(SYNC);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        assertSame(node, snapshot.node(NONE, NAME));
+        verify(controller).node(NONE, NAME);
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        try {
+            snapshot.unlink(NONE, NAME);
+            fail();
+        } catch (final FsReadOnlyFileSystemException expected) {
+        }
+        try {
+            snapshot.make(NONE, NAME, FILE, null);
+            fail();
+        } catch (final FsReadOnlyFileSystemException expected) {
+        }
+        try {
+            snapshot.output(NONE, NAME, null).stream(null);
+            fail();
+        } catch (final FsReadOnlyFileSystemException expected) {
+        }
+        verify(controller, never()).unlink(any(), any());
+        verify(controller, never()).make(any(), any(), any(), any());
+        verify(controller, never()).output(any(), any(), any());
+    }
+
+    @Test
+    public void testSync() throws IOException {
+        snapshot.sync(SYNC);
+        verify(controller, times(1)).sync(any());
+    }
+}
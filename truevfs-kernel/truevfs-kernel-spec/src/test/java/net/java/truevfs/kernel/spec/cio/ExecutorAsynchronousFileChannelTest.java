@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2005 - 2021 Schlichtherle IT Services.
+ * All rights reserved. Use is subject to license terms.
+ */
+package net.java.truevfs.kernel.spec.cio;
+
+import net.java.truecommons.cio.MemoryBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.*;
+
+/**
+ * @author Christian Schlichtherle
+ */
+public final class ExecutorAsynchronousFileChannelTest {
+
+    private static final byte[] DATA = "Hello world!".getBytes(US_ASCII);
+
+    private ExecutorService executor;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newSingleThreadExecutor();
+        file = Files.createTempFile("tvfs", null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testFileChannel() throws Exception {
+        try (AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                FileChannel.open(file, READ, WRITE), executor)) {
+            assertEquals(DATA.length, (int) channel.write(ByteBuffer.wrap(DATA), 0).get());
+            assertEquals(DATA.length, channel.size());
+            final ByteBuffer buffer = ByteBuffer.allocate(5);
+            assertEquals(5, (int) channel.read(buffer, 6).get());
+            assertEquals("world", new String(buffer.array(), US_ASCII));
+            assertEquals(-1, (int) channel.read(ByteBuffer.allocate(1), DATA.length).get());
+        }
+    }
+
+    @Test
+    public void testSeekableByteChannel() throws Exception {
+        final MemoryBuffer buffer = new MemoryBuffer("test", 16);
+        try (AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                buffer.output().channel(null), executor)) {
+            final CompletableFuture<Integer> future = new CompletableFuture<>();
+            channel.write(ByteBuffer.wrap(DATA), 0, future, new Handler());
+            assertEquals(DATA.length, (int) future.get());
+        }
+        try (AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                buffer.input().channel(null), executor)) {
+            final ByteBuffer dst = ByteBuffer.allocate(DATA.length);
+            final CompletableFuture<Integer> future = new CompletableFuture<>();
+            channel.read(dst, 0, future, new Handler());
+            assertEquals(DATA.length, (int) future.get());
+            assertArrayEquals(DATA, dst.array());
+            assertEquals(-1, (int) channel.read(ByteBuffer.allocate(1), DATA.length).get());
+        }
+    }
+
+    @Test
+    public void testLock() throws Exception {
+        try (AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                FileChannel.open(file, READ, WRITE), executor)) {
+            try (FileLock lock = channel.lock().get()) {
+                assertTrue(lock.isValid());
+                assertFalse(lock.isShared());
+            }
+            try (FileLock lock = channel.tryLock()) {
+                assertNotNull(lock);
+            }
+        }
+        try (AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                new MemoryBuffer("test", 16).output().channel(null), executor)) {
+            try {
+                channel.lock();
+                fail();
+            } catch (final UnsupportedOperationException expected) {
+            }
+            try {
+                channel.tryLock();
+                fail();
+            } catch (final UnsupportedOperationException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final AsynchronousFileChannel channel = new ExecutorAsynchronousFileChannel(
+                FileChannel.open(file, READ), executor);
+        channel.close();
+        assertFalse(channel.isOpen());
+        try {
+            channel.read(ByteBuffer.allocate(1), 0).get();
+            fail();
+        } catch (final ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+        try {
+            channel.read(ByteBuffer.allocate(1), -1);
+            fail();
+        } catch (final IllegalArgumentException expected) {
+        }
+    }
+
+    private static final class Handler
+    implements CompletionHandler<Integer, CompletableFuture<Integer>> {
+
+        @Override
+        public void completed(Integer result, CompletableFuture<Integer> future) {
+            future.complete(result);
+        }
+
+        @Override
+        public void failed(Throwable ex, CompletableFuture<Integer> future) {
+            future.completeExceptionally(ex);
+        }
+    }
+}